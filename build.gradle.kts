@@ -25,3 +25,13 @@ application {
     mainClass.set("edu.hsutx.CowboySeatsApplication")
 }
 
+
+// Runs one of the benchmark main classes from the test sources, e.g. gradle benchmark -Pbench=ParallelTreeBenchmark
+tasks.register<JavaExec>("benchmark") {
+    group = "verification"
+    description = "Runs a benchmark from src/test/java (select with -Pbench=ClassName, pass arguments with -Pargs)"
+    classpath = sourceSets["test"].runtimeClasspath
+    mainClass.set("edu.hsutx." + (project.findProperty("bench") ?: "ParallelTreeBenchmark"))
+    args = (project.findProperty("args") as String?)?.split(" ") ?: emptyList()
+    jvmArgs("-Xmx4g")
+}
@@ -0,0 +1,75 @@
+package edu.hsutx;
+
+/**
+ * The built-in allocation strategies. Each one finds its block in O(log n) using the size order of
+ * CowboySeatTree or its position index, so none of them scan the stadium. An EventSeatMap answers the same
+ * searches section by section and places parties exactly where a CowboySeatTree with the same blocks would.
+ */
+public enum AllocationPolicy implements AllocationStrategy {
+
+    /** The block closest to the desired seat, with the party centered on that seat. */
+    NEAREST {
+        @Override
+        public SeatAssignment chooseBlock(SeatMap tree, int seatsNeeded, int desiredSeat) {
+            return tree.getUnassignedBlockNear(desiredSeat, seatsNeeded);
+        }
+
+        @Override
+        public int chooseStart(SeatAssignment block, int seatsNeeded, int desiredSeat) {
+            return desiredSeat - seatsNeeded / 2;
+        }
+    },
+
+    /** The smallest block that fits, leaving the largest blocks intact for big parties. */
+    BEST_FIT {
+        @Override
+        public SeatAssignment chooseBlock(SeatMap tree, int seatsNeeded, int desiredSeat) {
+            return tree.getUnassignedBlockOverThreshold(seatsNeeded);
+        }
+    },
+
+    /** The largest block, so the piece left over stays as useful as possible. */
+    WORST_FIT {
+        @Override
+        public SeatAssignment chooseBlock(SeatMap tree, int seatsNeeded, int desiredSeat) {
+            SeatAssignment largest = tree.getLargestUnassignedBlock();
+            return largest != null && largest.getSeatQuantity() >= seatsNeeded ? largest : null;
+        }
+    },
+
+    /** The lowest-numbered block that fits, packing reservations towards seat 1. */
+    FIRST_FIT {
+        @Override
+        public SeatAssignment chooseBlock(SeatMap tree, int seatsNeeded, int desiredSeat) {
+            return tree.getFirstUnassignedBlockByPosition(seatsNeeded);
+        }
+    },
+
+    /**
+     * Buddy-style size classes: the request is rounded up to a power of two, the smallest block of that class
+     * is used, and the party starts on a seat aligned to that power of two, so released parties leave
+     * aligned holes that later requests of the same class fit exactly. Falls back to best fit for the exact size
+     * when no block of the rounded size is free. Parties still occupy only the seats they asked for.
+     */
+    BUDDY {
+        @Override
+        public SeatAssignment chooseBlock(SeatMap tree, int seatsNeeded, int desiredSeat) {
+            SeatAssignment block = tree.getUnassignedBlockOverThreshold(sizeClass(seatsNeeded));
+            return block != null ? block : tree.getUnassignedBlockOverThreshold(seatsNeeded);
+        }
+
+        @Override
+        public int chooseStart(SeatAssignment block, int seatsNeeded, int desiredSeat) {
+            int sizeClass = sizeClass(seatsNeeded);
+            int offset = block.getSeatStartIndex() - 1;
+            int aligned = (offset + sizeClass - 1) / sizeClass * sizeClass + 1;
+            boolean fits = aligned + seatsNeeded <= block.getSeatStartIndex() + block.getSeatQuantity();
+            return fits ? aligned : block.getSeatStartIndex();
+        }
+
+        private int sizeClass(int seatsNeeded) {
+            int rounded = Integer.highestOneBit(Math.max(1, seatsNeeded));
+            return rounded == seatsNeeded ? rounded : Math.min(rounded << 1, CowboySeatTree.MAX_BLOCK_SEATS);
+        }
+    }
+}
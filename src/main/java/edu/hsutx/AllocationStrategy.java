@@ -0,0 +1,32 @@
+package edu.hsutx;
+
+/**
+ * Decides which unassigned block a new reservation is carved from, and where inside that block it starts.
+ * ReservationController applies one strategy to every reservation; AllocationPolicy holds the built-in ones.
+ */
+public interface AllocationStrategy {
+
+    /**
+     * Chooses the unassigned block to take the party's seats from.
+     *
+     * @param tree The seat tree or event seat map to search
+     * @param seatsNeeded The number of adjacent seats needed
+     * @param desiredSeat The seat the party would like to sit near
+     * @return An unassigned block with at least seatsNeeded seats, or null if the party cannot be placed
+     */
+    SeatAssignment chooseBlock(SeatMap tree, int seatsNeeded, int desiredSeat);
+
+    /**
+     * Chooses the first seat of the party inside the chosen block.
+     * The result is clamped to the block by CowboySeatTree.allocate and EventSeatMap.allocate, so strategies need
+     * not check bounds.
+     *
+     * @param block The block returned by chooseBlock
+     * @param seatsNeeded The number of adjacent seats needed
+     * @param desiredSeat The seat the party would like to sit near
+     * @return The first seat of the party
+     */
+    default int chooseStart(SeatAssignment block, int seatsNeeded, int desiredSeat) {
+        return block.getSeatStartIndex();
+    }
+}
@@ -0,0 +1,477 @@
+package edu.hsutx;
+
+import java.util.Arrays;
+import java.util.Iterator;
+import java.util.NoSuchElementException;
+import java.util.concurrent.ForkJoinPool;
+import java.util.function.ToIntFunction;
+
+/**
+ * An OrderedIndex stored as a B+tree. Nodes hold up to ORDER keys in arrays, so a search compares keys that sit
+ * next to each other in memory instead of chasing one pointer per comparison as a binary tree does; sixteen
+ * compressed references fill one 64-byte cache line. Values live only in the leaves, which are linked in key
+ * order for range scans.
+ *
+ * Every node records the largest weight below it, so floorWithWeight and higherWithWeight skip whole subtrees
+ * as RedBlackTree does. Leaves also keep their values' weights in an int array, so a leaf is scanned without
+ * calling the weight function.
+ *
+ * A node that empties is removed, but nodes are not merged with their neighbours when they fall below half
+ * full, and the tree only loses a level when the root is left with a single child. Lookups stay O(log n) in the
+ * largest size the index has reached.
+ *
+ * @param <E> The type of the values
+ */
+public class BPlusTreeIndex<E> implements OrderedIndex<E> {
+    /** Largest number of entries in a leaf and of children of an inner node. */
+    public static final int ORDER = 16;
+
+    private final ToIntFunction<? super E> weigher;
+    private Node root = new Leaf();
+    private int size;
+    // Set by the recursive insert: whether a key was added, and the first key of the node split off, if any
+    private boolean inserted;
+    private String splitKey;
+
+    /**
+     * Creates an empty index.
+     *
+     * @param weigher Gives the weight of a value for the weighted searches
+     */
+    public BPlusTreeIndex(ToIntFunction<? super E> weigher) {
+        this.weigher = weigher;
+    }
+
+    @Override
+    public void insert(String key, E value) {
+        inserted = false;
+        Node sibling = insert(root, key, value, weigher.applyAsInt(value));
+        if (sibling != null) {
+            Inner grown = new Inner();
+            grown.children[0] = root;
+            grown.children[1] = sibling;
+            grown.keys[0] = splitKey;
+            grown.count = 2;
+            grown.maxWeight = Math.max(root.maxWeight, sibling.maxWeight);
+            root = grown;
+        }
+        if (inserted) size++;
+    }
+
+    private Node insert(Node node, String key, E value, int weight) {
+        if (node instanceof Leaf) {
+            Leaf leaf = (Leaf) node;
+            int pos = lowerBound(leaf.keys, leaf.count, key);
+            if (pos < leaf.count && leaf.keys[pos].equals(key)) {
+                return null; // Duplicate keys are ignored
+            }
+            leaf.insertAt(pos, key, value, weight);
+            inserted = true;
+            return leaf.count > ORDER ? leaf.split(this) : null;
+        }
+
+        Inner inner = (Inner) node;
+        int child = upperBound(inner.keys, inner.count - 1, key);
+        Node sibling = insert(inner.children[child], key, value, weight);
+        if (sibling != null) {
+            inner.insertChildAt(child + 1, splitKey, sibling);
+        }
+        if (inserted) inner.maxWeight = Math.max(inner.maxWeight, weight); // Not for a rejected duplicate
+        if (sibling != null) inner.maxWeight = inner.recomputeMaxWeight();
+        return inner.count > ORDER ? inner.split(this) : null;
+    }
+
+    @Override
+    public void delete(String key) {
+        if (delete(root, key)) {
+            size--;
+            if (root instanceof Inner && root.count == 1) {
+                root = ((Inner) root).children[0];
+            } else if (root.count == 0) {
+                root = new Leaf();
+            }
+        }
+    }
+
+    private boolean delete(Node node, String key) {
+        if (node instanceof Leaf) {
+            Leaf leaf = (Leaf) node;
+            int pos = lowerBound(leaf.keys, leaf.count, key);
+            if (pos == leaf.count || !leaf.keys[pos].equals(key)) {
+                return false;
+            }
+            leaf.removeAt(pos);
+            return true;
+        }
+
+        Inner inner = (Inner) node;
+        int child = upperBound(inner.keys, inner.count - 1, key);
+        Node target = inner.children[child];
+        if (!delete(target, key)) {
+            return false;
+        }
+        if (target.count == 0) {
+            if (target instanceof Leaf) ((Leaf) target).unlink();
+            inner.removeChildAt(child);
+        }
+        inner.maxWeight = inner.recomputeMaxWeight();
+        return true;
+    }
+
+    @Override
+    @SuppressWarnings("unchecked")
+    public E getValue(String key) {
+        Node node = root;
+        while (node instanceof Inner) {
+            Inner inner = (Inner) node;
+            node = inner.children[upperBound(inner.keys, inner.count - 1, key)];
+        }
+        Leaf leaf = (Leaf) node;
+        int pos = lowerBound(leaf.keys, leaf.count, key);
+        return pos < leaf.count && leaf.keys[pos].equals(key) ? (E) leaf.values[pos] : null;
+    }
+
+    @Override
+    public int getSize() {
+        return size;
+    }
+
+    /**
+     * Gets the number of levels from the root to the leaves.
+     *
+     * @return 1 for a tree that is a single leaf
+     */
+    public int getHeight() {
+        int height = 1;
+        for (Node node = root; node instanceof Inner; node = ((Inner) node).children[0]) {
+            height++;
+        }
+        return height;
+    }
+
+    @Override
+    public Iterable<E> range(String lo, boolean loInclusive, String hi, boolean hiInclusive) {
+        return () -> new RangeIterator(lo, loInclusive, hi, hiInclusive);
+    }
+
+    @Override
+    @SuppressWarnings("unchecked")
+    public E floorWithWeight(String key, int minWeight) {
+        return (E) floorWithWeight(root, key, minWeight);
+    }
+
+    private Object floorWithWeight(Node node, String key, int minWeight) {
+        if (node.maxWeight < minWeight) {
+            return null;
+        }
+        if (node instanceof Leaf) {
+            Leaf leaf = (Leaf) node;
+            int last = key == null ? leaf.count - 1 : upperBound(leaf.keys, leaf.count, key) - 1;
+            for (int i = last; i >= 0; i--) {
+                if (leaf.weights[i] >= minWeight) return leaf.values[i];
+            }
+            return null;
+        }
+        Inner inner = (Inner) node;
+        int child = key == null ? inner.count - 1 : upperBound(inner.keys, inner.count - 1, key);
+        Object found = floorWithWeight(inner.children[child], key, minWeight);
+        for (int i = child - 1; found == null && i >= 0; i--) {
+            found = floorWithWeight(inner.children[i], null, minWeight);
+        }
+        return found;
+    }
+
+    @Override
+    @SuppressWarnings("unchecked")
+    public E higherWithWeight(String key, int minWeight) {
+        return (E) higherWithWeight(root, key, minWeight);
+    }
+
+    private Object higherWithWeight(Node node, String key, int minWeight) {
+        if (node.maxWeight < minWeight) {
+            return null;
+        }
+        if (node instanceof Leaf) {
+            Leaf leaf = (Leaf) node;
+            int first = key == null ? 0 : upperBound(leaf.keys, leaf.count, key);
+            for (int i = first; i < leaf.count; i++) {
+                if (leaf.weights[i] >= minWeight) return leaf.values[i];
+            }
+            return null;
+        }
+        Inner inner = (Inner) node;
+        int child = key == null ? 0 : upperBound(inner.keys, inner.count - 1, key);
+        Object found = higherWithWeight(inner.children[child], key, minWeight);
+        for (int i = child + 1; found == null && i < inner.count; i++) {
+            found = higherWithWeight(inner.children[i], null, minWeight);
+        }
+        return found;
+    }
+
+    /**
+     * Builds full leaves from the sorted input and then each inner level above them. The pool is not used: the
+     * build is a single linear pass.
+     */
+    @Override
+    public void buildFromSorted(String[] keys, E[] values, ForkJoinPool pool) {
+        if (keys.length != values.length) {
+            throw new IllegalArgumentException("Expected one value per key");
+        }
+        for (int i = 1; i < keys.length; i++) {
+            if (keys[i - 1].compareTo(keys[i]) >= 0) {
+                throw new IllegalArgumentException("Keys must be strictly ascending, found " + keys[i] + " after " + keys[i - 1]);
+            }
+        }
+
+        Node[] level = new Node[Math.max(1, (keys.length + ORDER - 1) / ORDER)];
+        String[] firstKeys = new String[level.length];
+        Leaf previous = null;
+        for (int n = 0; n < level.length; n++) {
+            Leaf leaf = new Leaf();
+            for (int i = n * ORDER; i < Math.min(keys.length, (n + 1) * ORDER); i++) {
+                leaf.insertAt(leaf.count, keys[i], values[i], weigher.applyAsInt(values[i]));
+            }
+            if (previous != null) {
+                previous.next = leaf;
+                leaf.previous = previous;
+            }
+            previous = leaf;
+            level[n] = leaf;
+            firstKeys[n] = leaf.count > 0 ? leaf.keys[0] : null;
+        }
+
+        while (level.length > 1) {
+            Node[] parents = new Node[(level.length + ORDER - 1) / ORDER];
+            String[] parentKeys = new String[parents.length];
+            for (int n = 0; n < parents.length; n++) {
+                Inner inner = new Inner();
+                int from = n * ORDER;
+                int to = Math.min(level.length, from + ORDER);
+                for (int i = from; i < to; i++) {
+                    inner.children[i - from] = level[i];
+                    if (i > from) inner.keys[i - from - 1] = firstKeys[i];
+                }
+                inner.count = to - from;
+                inner.maxWeight = inner.recomputeMaxWeight();
+                parents[n] = inner;
+                parentKeys[n] = firstKeys[from];
+            }
+            level = parents;
+            firstKeys = parentKeys;
+        }
+        root = level[0];
+        size = keys.length;
+    }
+
+    /**
+     * Finds the first of the first count keys that is at least key.
+     */
+    private static int lowerBound(String[] keys, int count, String key) {
+        int lo = 0;
+        int hi = count;
+        while (lo < hi) {
+            int mid = (lo + hi) >>> 1;
+            if (keys[mid].compareTo(key) < 0) lo = mid + 1;
+            else hi = mid;
+        }
+        return lo;
+    }
+
+    /**
+     * Finds the first of the first count keys that is greater than key.
+     */
+    private static int upperBound(String[] keys, int count, String key) {
+        int lo = 0;
+        int hi = count;
+        while (lo < hi) {
+            int mid = (lo + hi) >>> 1;
+            if (keys[mid].compareTo(key) <= 0) lo = mid + 1;
+            else hi = mid;
+        }
+        return lo;
+    }
+
+    /**
+     * A leaf or inner node. count is the number of entries of a leaf or of children of an inner node.
+     */
+    private abstract static class Node {
+        int count;
+        int maxWeight;
+    }
+
+    /**
+     * Keys with their values and weights; one slot spare so a full leaf can take a key before it splits.
+     */
+    private static final class Leaf extends Node {
+        final String[] keys = new String[ORDER + 1];
+        final Object[] values = new Object[ORDER + 1];
+        final int[] weights = new int[ORDER + 1];
+        Leaf next;
+        Leaf previous;
+
+        void insertAt(int pos, String key, Object value, int weight) {
+            System.arraycopy(keys, pos, keys, pos + 1, count - pos);
+            System.arraycopy(values, pos, values, pos + 1, count - pos);
+            System.arraycopy(weights, pos, weights, pos + 1, count - pos);
+            keys[pos] = key;
+            values[pos] = value;
+            weights[pos] = weight;
+            count++;
+            maxWeight = Math.max(maxWeight, weight);
+        }
+
+        void removeAt(int pos) {
+            int removedWeight = weights[pos];
+            System.arraycopy(keys, pos + 1, keys, pos, count - pos - 1);
+            System.arraycopy(values, pos + 1, values, pos, count - pos - 1);
+            System.arraycopy(weights, pos + 1, weights, pos, count - pos - 1);
+            count--;
+            keys[count] = null;
+            values[count] = null;
+            if (removedWeight == maxWeight) maxWeight = recomputeMaxWeight();
+        }
+
+        int recomputeMaxWeight() {
+            int max = 0;
+            for (int i = 0; i < count; i++) {
+                max = Math.max(max, weights[i]);
+            }
+            return max;
+        }
+
+        /**
+         * Moves the upper half into a new leaf linked after this one.
+         */
+        Leaf split(BPlusTreeIndex<?> index) {
+            Leaf right = new Leaf();
+            int keep = count / 2;
+            right.count = count - keep;
+            System.arraycopy(keys, keep, right.keys, 0, right.count);
+            System.arraycopy(values, keep, right.values, 0, right.count);
+            System.arraycopy(weights, keep, right.weights, 0, right.count);
+            Arrays.fill(keys, keep, count, null);
+            Arrays.fill(values, keep, count, null);
+            count = keep;
+            maxWeight = recomputeMaxWeight();
+            right.maxWeight = right.recomputeMaxWeight();
+
+            right.next = next;
+            right.previous = this;
+            if (next != null) next.previous = right;
+            next = right;
+            index.splitKey = right.keys[0];
+            return right;
+        }
+
+        void unlink() {
+            if (previous != null) previous.next = next;
+            if (next != null) next.previous = previous;
+        }
+    }
+
+    /**
+     * Children with the separating keys between them: every key under children[i] is below keys[i], and every
+     * key under children[i + 1] is at or above it. One slot spare so a full node can take a child before it splits.
+     */
+    private static final class Inner extends Node {
+        final String[] keys = new String[ORDER];
+        final Node[] children = new Node[ORDER + 1];
+
+        void insertChildAt(int pos, String separator, Node child) {
+            System.arraycopy(keys, pos - 1, keys, pos, count - pos);
+            System.arraycopy(children, pos, children, pos + 1, count - pos);
+            keys[pos - 1] = separator;
+            children[pos] = child;
+            count++;
+        }
+
+        void removeChildAt(int pos) {
+            // Drop the separator before the child, or after it for the first child
+            int separator = pos > 0 ? pos - 1 : 0;
+            System.arraycopy(keys, separator + 1, keys, separator, count - separator - 2 > 0 ? count - separator - 2 : 0);
+            System.arraycopy(children, pos + 1, children, pos, count - pos - 1);
+            count--;
+            children[count] = null;
+            if (count > 0) keys[count - 1] = null;
+        }
+
+        int recomputeMaxWeight() {
+            int max = 0;
+            for (int i = 0; i < count; i++) {
+                max = Math.max(max, children[i].maxWeight);
+            }
+            return max;
+        }
+
+        /**
+         * Moves the upper half of the children into a new node; the key between the halves moves up.
+         */
+        Inner split(BPlusTreeIndex<?> index) {
+            Inner right = new Inner();
+            int keep = count / 2;
+            right.count = count - keep;
+            System.arraycopy(children, keep, right.children, 0, right.count);
+            System.arraycopy(keys, keep, right.keys, 0, right.count - 1);
+            index.splitKey = keys[keep - 1];
+            Arrays.fill(children, keep, count, null);
+            Arrays.fill(keys, keep - 1, count - 1, null);
+            count = keep;
+            maxWeight = recomputeMaxWeight();
+            right.maxWeight = right.recomputeMaxWeight();
+            return right;
+        }
+    }
+
+    /**
+     * Walks the leaf chain from the first key in range to the upper bound.
+     */
+    private class RangeIterator implements Iterator<E> {
+        private Leaf leaf;
+        private int pos;
+        private final String hi;
+        private final boolean hiInclusive;
+
+        RangeIterator(String lo, boolean loInclusive, String hi, boolean hiInclusive) {
+            this.hi = hi;
+            this.hiInclusive = hiInclusive;
+            Node node = root;
+            while (node instanceof Inner) {
+                Inner inner = (Inner) node;
+                node = lo == null ? inner.children[0] : inner.children[upperBound(inner.keys, inner.count - 1, lo)];
+            }
+            leaf = (Leaf) node;
+            if (lo != null) {
+                pos = loInclusive ? lowerBound(leaf.keys, leaf.count, lo) : upperBound(leaf.keys, leaf.count, lo);
+            }
+            settle();
+        }
+
+        /**
+         * Moves past the end of a leaf to the next one, and stops at the upper bound.
+         */
+        private void settle() {
+            while (leaf != null && pos >= leaf.count) {
+                leaf = leaf.next;
+                pos = 0;
+            }
+            if (leaf != null && hi != null) {
+                int comp = leaf.keys[pos].compareTo(hi);
+                if (comp > 0 || (comp == 0 && !hiInclusive)) leaf = null;
+            }
+        }
+
+        @Override
+        public boolean hasNext() {
+            return leaf != null;
+        }
+
+        @Override
+        @SuppressWarnings("unchecked")
+        public E next() {
+            if (leaf == null) throw new NoSuchElementException();
+            E value = (E) leaf.values[pos++];
+            settle();
+            return value;
+        }
+    }
+}
@@ -0,0 +1,17 @@
+package edu.hsutx;
+
+/**
+ * How a RedBlackTree restores balance after a delete.
+ */
+public enum BalanceMode {
+    /** Every delete runs the red-black fix-up, so the tree is a valid red-black tree after each operation; the default. */
+    STRICT,
+    /**
+     * Deletes unlink the node and recolor at most its replacement, with no fix-up loop and no rotations, which
+     * leaves some paths short of black nodes. Inserts still rebalance. Once the deletes left unbalanced
+     * outnumber a quarter of the nodes in the tree, the whole tree is relinked perfectly balanced in O(n), so
+     * rebalancing costs amortized O(1) per delete; in between, searches may run a few levels deeper. Splits,
+     * joins and range deletes rebuild first if needed.
+     */
+    RELAXED_DELETES
+}
@@ -1,12 +1,93 @@
 package edu.hsutx;
 
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.ForkJoinPool;
+
 /**
  * CowboySeatTree is a Red-Black Tree that stores SeatAssignment objects as the values for the tree nodes.
  * It extends the generic RedBlackTree class and specializes it for the SeatAssignment value type.
  *
  * This class will also include additional methods to search for specific seat assignment blocks.
  */
-public class CowboySeatTree extends RedBlackTree<SeatAssignment> {
+public class CowboySeatTree extends RedBlackTree<SeatAssignment> implements SeatMap {
+    /** Largest block that fits the 5-digit size field of a SeatAssignment key. */
+    public static final int MAX_BLOCK_SEATS = 99999;
+    /** Number of reservations the owner lookup cache keeps unless a capacity is given. */
+    public static final int DEFAULT_CACHE_CAPACITY = 4096;
+    /** Number of recent mutation events the change stream holds for slow readers. */
+    public static final int EVENT_STREAM_CAPACITY = 1 << 16;
+    /** Resolution of hold expiry; a hold is released at most this long after it lapses. */
+    public static final long HOLD_TICK_MILLIS = 100;
+    /** Operations this close to the previous one search from its fingers; farther ones start at the root. */
+    public static final int LOCALITY_SEATS = 1024;
+    /** Most parts allocateGroup splits a party into unless told otherwise. */
+    public static final int MAX_GROUP_PARTS = 16;
+    /** A group's parts start within this many times its size of the desired seat, on either side. */
+    public static final int GROUP_SPREAD_FACTOR = 4;
+
+    // Secondary indexes, kept in step with this tree by insert and delete: unassigned blocks ordered by
+    // starting seat, and reservations by owner code (every reservation of each owner). Bulk operations
+    // (split, join, deleteRange, buildFromSorted) mark them stale and they are rebuilt on next use.
+    private final IndexEngine indexEngine;
+    private OrderedIndex<SeatAssignment> freeBlocks;
+    private OwnerIndex reservationsByOwner = new OwnerIndex();
+    private boolean indexesStale = false;
+    // Recently looked-up reservations by owner code, in front of the owner index. Every insert or delete of a
+    // reservation invalidates its owner; bulk operations clear the whole cache.
+    private final ReservationCache reservationCache;
+    // The owner names of the reservations booked here, shared with the trees split from this one
+    private final OwnerDictionary owners;
+    // Allocations and releases, published for the view, metrics and replicas to read at their own pace
+    private final SeatEventStream events = new SeatEventStream(EVENT_STREAM_CAPACITY);
+    // Expiry times of the holds placed on this tree; created by the first hold, whose time starts its clock
+    private HoldTimingWheel holdExpiries;
+    // Fingers left by the previous operation: one on its reservation and one on its unassigned block in this
+    // tree, whose keys lie in different parts of the size order, and one in the free block index if that is a
+    // RedBlackTree. A run of bookings on adjacent seats then searches only the few nodes between them.
+    private final Finger reservationFinger = newFinger();
+    private final Finger unassignedFinger = newFinger();
+    private RedBlackTree<SeatAssignment> freeBlockTree; // freeBlocks, if it is a RedBlackTree
+    private RedBlackTree<SeatAssignment>.Finger freeBlockFinger;
+    // The free block index's own counters, kept apart so its rebalancing is not counted as this tree's
+    private EngineMetrics freeBlockMetrics = new EngineMetrics();
+    private int fingerSeat = Integer.MIN_VALUE / 2; // The seat of the previous operation
+    private int localitySeats = LOCALITY_SEATS;
+    private int lastGroup = SeatAssignment.NO_GROUP; // The group number given to the latest group reservation
+
+    /**
+     * Creates an empty tree with an owner lookup cache of DEFAULT_CACHE_CAPACITY reservations.
+     */
+    public CowboySeatTree() {
+        this(DEFAULT_CACHE_CAPACITY);
+    }
+
+    /**
+     * Creates an empty tree with an owner lookup cache of the given size.
+     *
+     * @param cacheCapacity The number of reservations to cache, 0 to look every owner up in the index
+     */
+    public CowboySeatTree(int cacheCapacity) {
+        this(cacheCapacity, IndexEngine.RED_BLACK);
+    }
+
+    /**
+     * Creates an empty tree that keeps its free block index in the given kind of OrderedIndex. The blocks
+     * themselves are always kept in this red-black tree.
+     *
+     * @param cacheCapacity The number of reservations to cache, 0 to look every owner up in the index
+     * @param indexEngine The structure behind the free block index
+     */
+    public CowboySeatTree(int cacheCapacity, IndexEngine indexEngine) {
+        this(cacheCapacity, indexEngine, new OwnerDictionary());
+    }
+
+    private CowboySeatTree(int cacheCapacity, IndexEngine indexEngine, OwnerDictionary owners) {
+        reservationCache = new ReservationCache(cacheCapacity);
+        this.indexEngine = indexEngine;
+        this.owners = owners;
+        resetFreeBlockIndex();
+    }
 
     /**
      * Inserts a new SeatAssignment into the tree using the SeatAssignment's key as the search key.
@@ -15,7 +96,33 @@ public class CowboySeatTree extends RedBlackTree<SeatAssignment> {
      */
     public void insert(SeatAssignment seatAssignment) {
         String key = seatAssignment.getKey();  // Get the key from SeatAssignment (for tree ordering)
-        super.insert(key, seatAssignment);     // Use the RedBlackTree's insert method
+        insert(key, seatAssignment);           // Use the index-maintaining insert below
+    }
+
+    /**
+     * Inserts a SeatAssignment under the given key, also recording it in the position or owner index.
+     * insert(key, seatAssignment) comes here with no finger.
+     *
+     * @param key The tree key, normally seatAssignment.getKey()
+     * @param seatAssignment The SeatAssignment object to insert into the tree.
+     * @param finger Where to start the search in this tree, or null to start at the root
+     */
+    @Override
+    public void insert(String key, SeatAssignment seatAssignment, Finger finger) {
+        int sizeBefore = getSize();
+        super.insert(key, seatAssignment, finger);
+        if (getSize() > sizeBefore) {
+            int code = seatAssignment.getOwnerCode(owners);
+            if (code != OwnerDictionary.NO_OWNER) reservationCache.invalidate(code);
+            if (indexesStale) return;
+            if (code == OwnerDictionary.NO_OWNER) {
+                String position = positionKey(seatAssignment.getSeatStartIndex());
+                if (freeBlockTree != null) freeBlockTree.insert(position, seatAssignment, freeBlockFinger(seatAssignment.getSeatStartIndex()));
+                else freeBlocks.insert(position, seatAssignment);
+            } else {
+                reservationsByOwner.add(code, seatAssignment);
+            }
+        }
     }
 
     /**
@@ -25,7 +132,46 @@ public class CowboySeatTree extends RedBlackTree<SeatAssignment> {
      */
     public void delete(SeatAssignment seatAssignment) {
         String key = seatAssignment.getKey();  // Get the key from SeatAssignment
-        super.delete(key);                     // Use the RedBlackTree's delete method
+        delete(key);                           // Use the index-maintaining delete below
+    }
+
+    /**
+     * Deletes the SeatAssignment with the given key, also removing it from the position or owner index.
+     * delete(key) comes here with no finger.
+     *
+     * @param key The key of the SeatAssignment to remove
+     * @param finger Where to start the search in this tree, or null to start at the root
+     */
+    @Override
+    public void delete(String key, Finger finger) {
+        SeatAssignment removed = super.getValue(key, finger);
+        if (removed == null) {
+            return;
+        }
+        super.delete(key, finger); // Found straight away, as the finger rests on the node
+        int code = removed.getOwnerCode(owners);
+        if (code != OwnerDictionary.NO_OWNER) reservationCache.invalidate(code);
+        if (indexesStale) return;
+        if (code == OwnerDictionary.NO_OWNER) {
+            String position = positionKey(removed.getSeatStartIndex());
+            if (freeBlockTree != null) freeBlockTree.delete(position, freeBlockFinger(removed.getSeatStartIndex()));
+            else freeBlocks.delete(position);
+        } else {
+            reservationsByOwner.remove(code, removed);
+        }
+    }
+
+    /**
+     * Adds the seats from firstSeat to lastSeat as unassigned blocks, cut into pieces of at most
+     * MAX_BLOCK_SEATS so every block fits the key format. Used to open up the stadium before sales.
+     *
+     * @param firstSeat The first seat to add
+     * @param lastSeat The last seat to add, inclusive
+     */
+    public void addUnassignedSeats(int firstSeat, int lastSeat) {
+        for (int start = firstSeat; start <= lastSeat; start += MAX_BLOCK_SEATS) {
+            insert(new SeatAssignment(Math.min(MAX_BLOCK_SEATS, lastSeat - start + 1), start));
+        }
     }
 
     /**
@@ -39,38 +185,858 @@ public class CowboySeatTree extends RedBlackTree<SeatAssignment> {
     }
 
     /**
-     * Finds the first unassigned block of seats with size >= threshold
+     * Builds a CowboySeatTree directly from blocks that are already sorted by key, using a fork-join pool.
+     * This avoids one rebalancing insert per block when loading a whole stadium layout.
+     *
+     * @param blocks The seat blocks in strictly ascending key order
+     * @param pool The pool to run the build in
+     * @return A new tree holding the blocks
+     * @throws IllegalArgumentException If the blocks are not in strictly ascending key order
      */
+    public static CowboySeatTree fromSorted(SeatAssignment[] blocks, ForkJoinPool pool) {
+        return fromSorted(blocks, new OwnerDictionary(), pool);
+    }
 
-    private Node traverseTreeForUnassigned(Node n, String key) {
-        if (n.key == null) return null;
-        if (key.compareTo(n.key)<0) {
-            Node bestLeftOption = null;
-            if (n.left != null) bestLeftOption = traverseTreeForUnassigned(n.left, key);
-            if (bestLeftOption != null) return bestLeftOption;
+    /**
+     * Builds a CowboySeatTree from sorted blocks whose owners were interned in the given dictionary, which the
+     * tree then books into as well.
+     *
+     * @param blocks The seat blocks in strictly ascending key order
+     * @param owners The dictionary the blocks were made with
+     * @param pool The pool to run the build in
+     * @return A new tree holding the blocks
+     * @throws IllegalArgumentException If the blocks are not in strictly ascending key order
+     */
+    static CowboySeatTree fromSorted(SeatAssignment[] blocks, OwnerDictionary owners, ForkJoinPool pool) {
+        String[] keys = new String[blocks.length];
+        for (int i = 0; i < blocks.length; i++) {
+            keys[i] = blocks[i].getKey();
+        }
+        CowboySeatTree tree = new CowboySeatTree(DEFAULT_CACHE_CAPACITY, IndexEngine.RED_BLACK, owners);
+        tree.buildFromSorted(keys, blocks, pool);
+        return tree;
+    }
+
+    /**
+     * Creates an empty CowboySeatTree so that split returns the same type. It shares this tree's owner
+     * dictionary, so the blocks moved into it keep their codes.
+     *
+     * @return A new empty CowboySeatTree
+     */
+    @Override
+    protected CowboySeatTree createEmpty() {
+        return new CowboySeatTree(reservationCache.getCapacity(), indexEngine, owners);
+    }
 
-            // We didn't find a good node to the left, check this node
-            if (n.value.getOwner() == null) return n;
+    /**
+     * Moves every block whose key is at or above the given key into a new CowboySeatTree in O(log n).
+     * The secondary indexes of both trees are rebuilt on their next use.
+     *
+     * @param key The first key that belongs to the returned tree
+     * @return A new CowboySeatTree holding the blocks at or above key
+     */
+    @Override
+    public CowboySeatTree split(String key) {
+        CowboySeatTree upper = (CowboySeatTree) super.split(key);
+        indexesStale = true;
+        upper.indexesStale = true;
+        reservationCache.invalidateAll();
+        return upper;
+    }
+
+    /**
+     * Moves every block of another tree into this one in O(log n).
+     * The secondary indexes are rebuilt on their next use.
+     *
+     * @param other The tree to merge into this one
+     */
+    @Override
+    public void join(RedBlackTree<SeatAssignment> other) {
+        super.join(other);
+        indexesStale = true;
+        reservationCache.invalidateAll();
+        if (other instanceof CowboySeatTree) {
+            ((CowboySeatTree) other).indexesStale = true;
+            ((CowboySeatTree) other).reservationCache.invalidateAll();
         }
+    }
 
-        return traverseTreeForUnassigned(n.right, key);
+    /**
+     * Deletes every block whose key lies between lo and hi.
+     * The secondary indexes are rebuilt on their next use.
+     */
+    @Override
+    public int deleteRange(String lo, boolean loInclusive, String hi, boolean hiInclusive) {
+        int removed = super.deleteRange(lo, loInclusive, hi, hiInclusive);
+        if (removed > 0) {
+            indexesStale = true;
+            reservationCache.invalidateAll();
+        }
+        return removed;
+    }
+
+    /**
+     * Replaces the contents of the tree with sorted blocks.
+     * The secondary indexes are rebuilt on their next use.
+     */
+    @Override
+    public void buildFromSorted(String[] keys, SeatAssignment[] values, ForkJoinPool pool) {
+        super.buildFromSorted(keys, values, pool);
+        indexesStale = true;
+        reservationCache.invalidateAll();
     }
 
+    /**
+     * Finds the unassigned block that can hold seatsNeeded seats and lies closest to the given seat.
+     * A block containing the seat has distance 0; otherwise the distance is to the block's nearest end.
+     * Uses the position index, so with the red-black or B+tree engine this costs O(log n) however fragmented
+     * the stadium is. With the red-black engine a search within LOCALITY_SEATS of the previous operation starts
+     * from where that one ended.
+     *
+     * @param seat The seat the party would like to sit near
+     * @param seatsNeeded The number of seats needed
+     * @return The closest block that fits, or null if no unassigned block is large enough
+     */
+    @Override
+    public SeatAssignment getUnassignedBlockNear(int seat, int seatsNeeded) {
+        ensureIndexes();
+        String key = positionKey(seat);
+        SeatAssignment before;
+        SeatAssignment after;
+        if (freeBlockTree != null) {
+            RedBlackTree<SeatAssignment>.Finger finger = freeBlockFinger(seat);
+            before = freeBlockTree.floorWithWeight(key, seatsNeeded, finger);
+            after = freeBlockTree.higherWithWeight(key, seatsNeeded, finger);
+        } else {
+            before = freeBlocks.floorWithWeight(key, seatsNeeded);
+            after = freeBlocks.higherWithWeight(key, seatsNeeded);
+        }
+        if (before == null) return after;
+        if (after == null) return before;
+
+        int beforeEnd = before.getSeatStartIndex() + before.getSeatQuantity() - 1;
+        int beforeDistance = Math.max(0, seat - beforeEnd);
+        int afterDistance = after.getSeatStartIndex() - seat;
+        return afterDistance < beforeDistance ? after : before;
+    }
+
+    /**
+     * Rebuilds the position and owner indexes from the tree if a bulk operation left them stale.
+     */
+    private void ensureIndexes() {
+        if (!indexesStale) return;
+
+        List<SeatAssignment> blocks = new ArrayList<>();
+        List<SeatAssignment> reservations = new ArrayList<>();
+        for (SeatAssignment block : range(null, true, null, true)) {
+            if (block.isUnassigned()) blocks.add(block);
+            else reservations.add(block);
+        }
+
+        blocks.sort((a, b) -> Integer.compare(a.getSeatStartIndex(), b.getSeatStartIndex()));
+        SeatAssignment[] sorted = blocks.toArray(new SeatAssignment[0]);
+        String[] keys = new String[sorted.length];
+        for (int i = 0; i < sorted.length; i++) {
+            keys[i] = positionKey(sorted[i].getSeatStartIndex());
+        }
+        resetFreeBlockIndex();
+        freeBlocks.buildFromSorted(keys, sorted, ForkJoinPool.commonPool());
+
+        reservationsByOwner = new OwnerIndex();
+        for (SeatAssignment reservation : reservations) {
+            reservationsByOwner.add(reservation.getOwnerCode(owners), reservation);
+        }
+        indexesStale = false;
+    }
+
+    /**
+     * Builds a position index key for a starting seat.
+     */
+    private static String positionKey(int seatStartIndex) {
+        return SeatAssignment.paddedSeat(seatStartIndex);
+    }
+
+    /**
+     * Replaces the free block index with an empty index of unassigned blocks keyed by starting seat. Each block
+     * weighs its seat count, so searches for "the nearest block of at least n seats" can skip parts of the index
+     * with no block that large.
+     */
+    private void resetFreeBlockIndex() {
+        freeBlocks = indexEngine.create(SeatAssignment::getSeatQuantity);
+        freeBlockTree = freeBlocks instanceof RedBlackTree ? (RedBlackTree<SeatAssignment>) freeBlocks : null;
+        freeBlockFinger = freeBlockTree == null ? null : freeBlockTree.newFinger();
+        if (freeBlockTree != null) {
+            freeBlockTree.setBalanceMode(getBalanceMode());
+            freeBlockTree.setMetrics(freeBlockMetrics);
+        }
+    }
+
+    /**
+     * Gets the metrics that the free block index records its rebalancing and lookup work into, if it is a
+     * RedBlackTree. Unless setFreeBlockMetrics chose others, they are separate from getMetrics() and, like any
+     * new EngineMetrics, off until enabled.
+     *
+     * @return The free block index's metrics
+     */
+    public EngineMetrics getFreeBlockMetrics() {
+        return freeBlockMetrics;
+    }
+
+    /**
+     * Sets the metrics that the free block index records into, e.g. getMetrics() to count both trees together.
+     *
+     * @param metrics The metrics to record into
+     */
+    public void setFreeBlockMetrics(EngineMetrics metrics) {
+        freeBlockMetrics = metrics;
+        if (freeBlockTree != null) freeBlockTree.setMetrics(metrics);
+    }
+
+    /**
+     * Sets how this tree, and the free block index if it is a RedBlackTree, restore balance after a delete.
+     *
+     * @param balanceMode The balance mode
+     */
+    @Override
+    public void setBalanceMode(BalanceMode balanceMode) {
+        super.setBalanceMode(balanceMode);
+        if (freeBlockTree != null) freeBlockTree.setBalanceMode(balanceMode);
+    }
+
+    /**
+     * Prepares the fingers for an operation at the given seat: if it lies more than LOCALITY_SEATS from the
+     * previous operation, the fingers are reset so its searches start at the root, which is then cheaper.
+     */
+    private void approach(int seat) {
+        if (Math.abs(seat - fingerSeat) > localitySeats) {
+            reservationFinger.reset();
+            unassignedFinger.reset();
+            if (freeBlockFinger != null) freeBlockFinger.reset();
+        }
+        fingerSeat = seat;
+    }
+
+    /**
+     * Sets how close to the previous operation an operation must be to search from the fingers, for comparing
+     * finger searches with searches from the root.
+     *
+     * @param seats The distance in seats, or -1 to start every search at the root
+     */
+    void setLocalitySeats(int seats) {
+        localitySeats = seats;
+    }
+
+    private RedBlackTree<SeatAssignment>.Finger freeBlockFinger(int seat) {
+        approach(seat);
+        return freeBlockFinger;
+    }
+
+    /**
+     * Gets the finger of this tree for blocks of the given kind near the given seat.
+     */
+    private Finger fingerFor(SeatAssignment block) {
+        approach(block.getSeatStartIndex());
+        return block.isUnassigned() ? unassignedFinger : reservationFinger;
+    }
+
+    /**
+     * Gets the structure behind the free block index.
+     *
+     * @return The index engine this tree was created with
+     */
+    public IndexEngine getIndexEngine() {
+        return indexEngine;
+    }
+
+    /**
+     * Finds the first unassigned block of seats with size >= threshold, i.e. the best fit.
+     * Unassigned blocks weigh their seat count and reserved blocks weigh nothing, so the search skips
+     * subtrees holding only reservations and runs in O(log n).
+     *
+     * @param threshold The number of seats needed
+     * @return The smallest unassigned block with at least threshold seats, or null if there is none
+     */
+    @Override
     public SeatAssignment getUnassignedBlockOverThreshold(int threshold) {
+        // No block starts at seat 0, so every key of the requested size is above searchKey
+        String searchKey = sizeKey(threshold, 0);
+        return higherWithWeight(searchKey, 1);
+    }
+
+    /**
+     * Finds the largest unassigned block in O(log n).
+     *
+     * @return The unassigned block with the most seats, or null if every seat is reserved
+     */
+    @Override
+    public SeatAssignment getLargestUnassignedBlock() {
+        return floorWithWeight(null, 1);
+    }
+
+    /**
+     * Finds the lowest-numbered unassigned block with at least seatsNeeded seats in O(log n).
+     *
+     * @param seatsNeeded The number of seats needed
+     * @return The unassigned block with the smallest starting seat that fits, or null if there is none
+     */
+    @Override
+    public SeatAssignment getFirstUnassignedBlockByPosition(int seatsNeeded) {
+        ensureIndexes();
+        return freeBlocks.higherWithWeight(null, seatsNeeded);
+    }
+
+    /**
+     * Counts the unassigned blocks, a simple measure of how fragmented the free seats are.
+     *
+     * @return The number of unassigned blocks
+     */
+    public int getUnassignedBlockCount() {
+        ensureIndexes();
+        return freeBlocks.getSize();
+    }
+
+    /**
+     * Finds the unassigned block that contains the given seat, using the position index in O(log n).
+     *
+     * @param seat The seat to look up
+     * @return The unassigned block holding the seat, or null if the seat is reserved or outside every block
+     */
+    public SeatAssignment getUnassignedBlockAt(int seat) {
+        ensureIndexes();
+        SeatAssignment block = freeBlocks.floorWithWeight(positionKey(seat), 1);
+        if (block == null || block.getSeatStartIndex() + block.getSeatQuantity() <= seat) {
+            return null;
+        }
+        return block;
+    }
+
+    /**
+     * Lists the unassigned blocks in seat order, e.g. to take a snapshot of the free space.
+     *
+     * @return Every unassigned block, by starting seat
+     */
+    public List<SeatAssignment> getUnassignedBlocksByPosition() {
+        ensureIndexes();
+        List<SeatAssignment> blocks = new ArrayList<>(freeBlocks.getSize());
+        for (SeatAssignment block : freeBlocks.range(null, true, null, true)) {
+            blocks.add(block);
+        }
+        return blocks;
+    }
+
+    /**
+     * Reserves seatsNeeded adjacent seats for a party. The strategy picks the unassigned block and the first
+     * seat; the block is replaced by the reservation plus whatever is left of it on either side.
+     *
+     * @param name The owner of the new reservation
+     * @param seatsNeeded The number of adjacent seats needed
+     * @param desiredSeat The seat the party would like to sit near
+     * @param strategy Chooses the block and the position inside it
+     * @return The new reservation, or null if the strategy found no block that fits
+     * @throws IllegalArgumentException If seatsNeeded is not positive
+     */
+    public SeatAssignment allocate(String name, int seatsNeeded, int desiredSeat, AllocationStrategy strategy) {
+        return place(name, seatsNeeded, desiredSeat, strategy, SeatAssignment.NOT_HELD);
+    }
+
+    /**
+     * Holds seatsNeeded adjacent seats for a party for a limited time, e.g. while they pay. The seats are placed
+     * as allocate would place them and count as taken, but unless confirm is called first, expireHolds releases
+     * them once holdMillis have passed and merges them back into the free space around them.
+     *
+     * Holds expire only on the tree that placed them; a tree built from a snapshot of this one, such as a
+     * replica, sees them as ordinary reservations.
+     *
+     * @param name The owner of the new hold
+     * @param seatsNeeded The number of adjacent seats needed
+     * @param desiredSeat The seat the party would like to sit near
+     * @param strategy Chooses the block and the position inside it
+     * @param now The current time in milliseconds
+     * @param holdMillis How long the hold lasts
+     * @return The new hold, or null if the strategy found no block that fits
+     * @throws IllegalArgumentException If seatsNeeded or holdMillis is not positive
+     */
+    public SeatAssignment hold(String name, int seatsNeeded, int desiredSeat, AllocationStrategy strategy, long now, long holdMillis) {
+        if (holdMillis <= 0) {
+            throw new IllegalArgumentException("Hold time must be positive: " + holdMillis);
+        }
+        SeatAssignment hold = place(name, seatsNeeded, desiredSeat, strategy, now + holdMillis);
+        if (hold != null) {
+            if (holdExpiries == null) holdExpiries = new HoldTimingWheel(HOLD_TICK_MILLIS, now);
+            holdExpiries.schedule(name, hold.getHoldExpiry());
+        }
+        return hold;
+    }
+
+    /**
+     * Turns an owner's hold into a permanent reservation of the same seats. A hold that lapsed by now cannot be
+     * confirmed, even if expireHolds has not released it yet. An owner with several live holds has the one
+     * starting at the lowest seat confirmed; call again for the others.
+     *
+     * @param name The owner of the hold
+     * @param now The current time in milliseconds
+     * @return The confirmed reservation, or null if the owner holds no live hold
+     */
+    public SeatAssignment confirm(String name, long now) {
+        SeatAssignment hold = null;
+        for (SeatAssignment reservation : findReservations(name)) {
+            if (reservation.isHeld() && reservation.getHoldExpiry() > now) {
+                hold = reservation;
+                break;
+            }
+        }
+        if (hold == null) {
+            return null;
+        }
+        SeatAssignment reservation = new SeatAssignment(owners, name, hold.getSeatQuantity(), hold.getSeatStartIndex());
+        deleteNear(hold);
+        insertNear(reservation);
+        return reservation; // The seats stay taken, so nothing is published
+    }
+
+    /**
+     * Releases every hold that lapsed by now and was not confirmed, merging its seats with the free blocks next
+     * to it as release(name, true) does. The holds come off a timing wheel, so the cost depends on the number of
+     * holds expiring rather than on the size of the tree.
+     *
+     * @param now The current time in milliseconds
+     * @return The number of holds released
+     */
+    public int expireHolds(long now) {
+        if (holdExpiries == null) {
+            return 0;
+        }
+        int[] released = {0};
+        holdExpiries.advance(now, (owner, expiresAt) -> {
+            // Skip holds that were confirmed or cancelled; the owner's other reservations are left alone
+            for (SeatAssignment hold : findReservations(owner)) {
+                if (hold.isHeld() && hold.getHoldExpiry() == expiresAt) {
+                    release(hold, true);
+                    released[0]++;
+                    return;
+                }
+            }
+        });
+        return released[0];
+    }
 
-        String searchKey = String.format("%05d", threshold) + "0000000";
-        // Traverse the tree to find the first unassigned node with key > searchkey
-        // a node is unassigned if node.value.getOwner() is null
-        Node unassignedNode = traverseTreeForUnassigned(this.root, searchKey);
+    /**
+     * Counts the holds waiting to expire, including confirmed or cancelled ones not yet reached by expireHolds.
+     *
+     * @return The number of scheduled hold expiries
+     */
+    public int getScheduledHoldCount() {
+        return holdExpiries == null ? 0 : holdExpiries.size();
+    }
 
-        if (unassignedNode == null) return null;
-        else return unassignedNode.value;
+    /**
+     * Places a reservation, or a hold when holdExpiry is not SeatAssignment.NOT_HELD.
+     */
+    private SeatAssignment place(String name, int seatsNeeded, int desiredSeat, AllocationStrategy strategy, long holdExpiry) {
+        if (seatsNeeded <= 0) {
+            throw new IllegalArgumentException("A party needs at least one seat: " + seatsNeeded);
+        }
+        SeatAssignment emptyBlock = strategy.chooseBlock(this, seatsNeeded, desiredSeat);
+        if (emptyBlock == null || !emptyBlock.isUnassigned() || emptyBlock.getSeatQuantity() < seatsNeeded) {
+            return null;
+        }
 
+        int openSeats = emptyBlock.getSeatQuantity();
+        int openSeatStart = emptyBlock.getSeatStartIndex();
+        int startSeat = strategy.chooseStart(emptyBlock, seatsNeeded, desiredSeat);
+        startSeat = Math.max(openSeatStart, Math.min(openSeatStart + openSeats - seatsNeeded, startSeat));
+        return carve(emptyBlock, name, seatsNeeded, startSeat, holdExpiry, SeatAssignment.NO_GROUP);
     }
 
+    /**
+     * Replaces an unassigned block by a reservation of seatsNeeded seats from startSeat, which must lie inside
+     * it, plus whatever is left of the block on either side, and publishes the change. The reservation is a
+     * hold if holdExpiry is given, or else a group part if group is given.
+     */
+    private SeatAssignment carve(SeatAssignment emptyBlock, String name, int seatsNeeded, int startSeat, long holdExpiry, int group) {
+        int openSeats = emptyBlock.getSeatQuantity();
+        int openSeatStart = emptyBlock.getSeatStartIndex();
+        SeatAssignment reservation = holdExpiry != SeatAssignment.NOT_HELD
+                ? SeatAssignment.held(owners, name, seatsNeeded, startSeat, holdExpiry)
+                : SeatAssignment.groupPart(owners, name, seatsNeeded, startSeat, group);
+        deleteNear(emptyBlock);
+        insertNear(reservation);
+
+        // If needed, add a new unassigned block left of the new SeatAssignment
+        int leftSeats = startSeat - openSeatStart;
+        if (leftSeats > 0) insertNear(new SeatAssignment(leftSeats, openSeatStart));
+
+        // If needed, add a new unassigned block right of the new SeatAssignment
+        if (leftSeats + seatsNeeded < openSeats)
+            insertNear(new SeatAssignment(openSeats - leftSeats - seatsNeeded, startSeat + seatsNeeded));
+
+        if (seatsNeeded > 0) { // An empty reservation changes no seats, so it is not published
+            if (seatsNeeded < openSeats) events.publish(SeatEvent.Type.SPLIT, null, openSeatStart, openSeats);
+            events.publish(SeatEvent.Type.ALLOCATED, name, startSeat, seatsNeeded);
+        }
+        return reservation;
+    }
+
+    /**
+     * Reserves seatsNeeded seats for a party that no single unassigned block may hold, with the defaults
+     * MAX_GROUP_PARTS and GROUP_SPREAD_FACTOR.
+     *
+     * @param name The owner of the group
+     * @param seatsNeeded The number of seats needed in all
+     * @param desiredSeat The seat the party would like to sit near
+     * @return The parts of the group in seat order, or null if no run of blocks near the desired seat fits
+     * @see #allocateGroup(String, int, int, int, int)
+     */
+    public List<SeatAssignment> allocateGroup(String name, int seatsNeeded, int desiredSeat) {
+        return allocateGroup(name, seatsNeeded, desiredSeat, MAX_GROUP_PARTS, seatsNeeded * GROUP_SPREAD_FACTOR);
+    }
+
+    /**
+     * Reserves seatsNeeded seats for a party split across a run of unassigned blocks that follow each other in
+     * seat order, with only other parties' seats between them. Of the runs starting within maxSpread seats of
+     * the desired seat, the one with the fewest blocks is taken, the one closest to the desired seat among
+     * equals. Every block of the run is filled but one end block, which gives up the seats farthest from the
+     * desired seat that the party does not need.
+     *
+     * The run is found with one range query on the position index and a single pass over the blocks it
+     * returns, and chosen before anything changes, so the group is either placed in full or not at all.
+     * Every part is owned by name and carries a group number of its own, by which releaseGroup tells the
+     * parts from other reservations of the same owner. A party that fits one block gets a single ordinary
+     * reservation, placed near the desired seat as allocate would place it.
+     *
+     * Group numbers are kept only by this tree; a replica sees the parts as separate reservations of the owner.
+     *
+     * @param name The owner of the group
+     * @param seatsNeeded The number of seats needed in all
+     * @param desiredSeat The seat the party would like to sit near
+     * @param maxParts The most blocks the party may be split across
+     * @param maxSpread How far from the desired seat, in seats, a part may start
+     * @return The parts of the group in seat order, or null if no run of at most maxParts blocks fits
+     * @throws IllegalArgumentException If seatsNeeded or maxParts is not positive
+     */
+    public List<SeatAssignment> allocateGroup(String name, int seatsNeeded, int desiredSeat, int maxParts, int maxSpread) {
+        if (seatsNeeded <= 0 || maxParts <= 0) {
+            throw new IllegalArgumentException("Group of " + seatsNeeded + " seats in at most " + maxParts + " parts");
+        }
+        ensureIndexes();
+        List<SeatAssignment> blocks = new ArrayList<>();
+        int lo = (int) Math.max(1, (long) desiredSeat - maxSpread);
+        int hi = (int) Math.min(9999999, (long) desiredSeat + maxSpread);
+        for (SeatAssignment block : freeBlocks.range(positionKey(lo), true, positionKey(hi), true)) {
+            blocks.add(block);
+        }
+
+        // Shortest windows summing to seatsNeeded, by two pointers: each block enters and leaves at most once
+        int bestFirst = -1;
+        int bestLast = -1;
+        long bestDistance = Long.MAX_VALUE;
+        int seats = 0;
+        for (int first = 0, last = 0; last < blocks.size(); last++) {
+            seats += blocks.get(last).getSeatQuantity();
+            while (seats - blocks.get(first).getSeatQuantity() >= seatsNeeded) {
+                seats -= blocks.get(first++).getSeatQuantity();
+            }
+            if (seats < seatsNeeded || last - first + 1 > maxParts) continue;
+            long distance = distance(blocks.get(first), blocks.get(last), desiredSeat);
+            int parts = last - first + 1;
+            if (bestFirst < 0 || parts < bestLast - bestFirst + 1 || (parts == bestLast - bestFirst + 1 && distance < bestDistance)) {
+                bestFirst = first;
+                bestLast = last;
+                bestDistance = distance;
+            }
+        }
+        if (bestFirst < 0) {
+            return null;
+        }
+
+        List<SeatAssignment> run = blocks.subList(bestFirst, bestLast + 1);
+        if (run.size() == 1) {
+            SeatAssignment block = run.get(0);
+            int start = Math.max(block.getSeatStartIndex(), Math.min(block.getSeatStartIndex() + block.getSeatQuantity() - seatsNeeded, desiredSeat));
+            List<SeatAssignment> parts = new ArrayList<>(1);
+            parts.add(carve(block, name, seatsNeeded, start, SeatAssignment.NOT_HELD, SeatAssignment.NO_GROUP));
+            return parts;
+        }
+
+        // The window is shortest, so the spare seats are fewer than either end block holds
+        int spare = 0;
+        for (SeatAssignment block : run) spare += block.getSeatQuantity();
+        spare -= seatsNeeded;
+        SeatAssignment head = run.get(0);
+        SeatAssignment tail = run.get(run.size() - 1);
+        boolean trimHead = desiredSeat - (head.getSeatStartIndex() + head.getSeatQuantity() - 1)
+                > tail.getSeatStartIndex() - desiredSeat;
+        int group = ++lastGroup;
+        List<SeatAssignment> parts = new ArrayList<>(run.size());
+        for (int i = 0; i < run.size(); i++) {
+            SeatAssignment block = run.get(i);
+            int start = block.getSeatStartIndex();
+            int quantity = block.getSeatQuantity();
+            if (i == 0 && trimHead) {
+                start += spare;
+                quantity -= spare;
+            } else if (i == run.size() - 1 && !trimHead) {
+                quantity -= spare;
+            }
+            parts.add(carve(block, name, quantity, start, SeatAssignment.NOT_HELD, group));
+        }
+        return parts;
+    }
+
+    /**
+     * Gets the distance from a seat to the run of seats from the start of first to the end of last, 0 if the
+     * seat lies inside it.
+     */
+    private static long distance(SeatAssignment first, SeatAssignment last, int seat) {
+        int from = first.getSeatStartIndex();
+        int to = last.getSeatStartIndex() + last.getSeatQuantity() - 1;
+        return seat < from ? from - seat : seat > to ? seat - to : 0;
+    }
+
+    /**
+     * Cancels the owner's reservation starting at the lowest seat, as release does, and if it is part of a group
+     * reservation made by allocateGroup, every other part of that group too. The owner's other reservations
+     * are left alone.
+     *
+     * @param name The owner of the group
+     * @param mergeNeighbours Whether to join each part's seats with adjacent unassigned blocks
+     * @return The cancelled parts in seat order, empty if the owner holds no reservation
+     */
+    public List<SeatAssignment> releaseGroup(String name, boolean mergeNeighbours) {
+        List<SeatAssignment> parts = new ArrayList<>();
+        SeatAssignment first = findReservation(name);
+        if (first == null) {
+            return parts;
+        }
+        if (first.getGroup() == SeatAssignment.NO_GROUP) {
+            parts.add(release(first, mergeNeighbours));
+            return parts;
+        }
+        for (SeatAssignment reservation : findReservations(name)) {
+            if (reservation.getGroup() == first.getGroup()) parts.add(release(reservation, mergeNeighbours));
+        }
+        return parts;
+    }
+
+    /**
+     * Cancels the reservation held by the given owner and returns its seats to the tree as an unassigned block.
+     * Of an owner's several reservations, the one starting at the lowest seat is cancelled.
+     *
+     * @param name The owner whose reservation is cancelled
+     * @return The cancelled reservation, or null if the owner holds none
+     */
+    public SeatAssignment release(String name) {
+        return release(name, false);
+    }
+
+    /**
+     * Cancels the reservation held by the given owner and returns its seats to the tree, optionally merging
+     * them with the unassigned blocks directly before and after so free space does not fragment.
+     * A neighbour is left alone if merging it would make a block larger than MAX_BLOCK_SEATS. Of an owner's
+     * several reservations, the one starting at the lowest seat is cancelled.
+     *
+     * @param name The owner whose reservation is cancelled
+     * @param mergeNeighbours Whether to join the freed seats with adjacent unassigned blocks
+     * @return The cancelled reservation, or null if the owner holds none
+     */
+    public SeatAssignment release(String name, boolean mergeNeighbours) {
+        SeatAssignment reservation = findReservation(name);
+        return reservation == null ? null : release(reservation, mergeNeighbours);
+    }
+
+    /**
+     * Cancels the owner's reservation that starts at the given seat, as release(name, mergeNeighbours) would.
+     * Used to replay a RELEASED event on a replica, which names the seats as well as the owner.
+     *
+     * @param name The owner whose reservation is cancelled
+     * @param seat The first seat of the reservation
+     * @param mergeNeighbours Whether to join the freed seats with adjacent unassigned blocks
+     * @return The cancelled reservation, or null if the owner holds none starting there
+     */
+    SeatAssignment releaseAt(String name, int seat, boolean mergeNeighbours) {
+        for (SeatAssignment reservation : findReservations(name)) {
+            if (reservation.getSeatStartIndex() == seat) return release(reservation, mergeNeighbours);
+        }
+        return null;
+    }
+
+    /**
+     * Cancels a reservation held in this tree and publishes the change.
+     */
+    private SeatAssignment release(SeatAssignment reservation, boolean mergeNeighbours) {
+        String name = reservation.getOwner();
+        deleteNear(reservation);
+
+        int start = reservation.getSeatStartIndex();
+        int quantity = reservation.getSeatQuantity();
+        boolean merged = false;
+        if (mergeNeighbours) {
+            ensureIndexes();
+            String position = positionKey(start);
+            SeatAssignment before = freeBlockTree != null ? freeBlockTree.floorWithWeight(position, 1, freeBlockFinger(start))
+                    : freeBlocks.floorWithWeight(position, 1);
+            if (before != null && before.getSeatStartIndex() + before.getSeatQuantity() == start
+                    && before.getSeatQuantity() + quantity <= MAX_BLOCK_SEATS) {
+                deleteNear(before);
+                start = before.getSeatStartIndex();
+                quantity += before.getSeatQuantity();
+                merged = true;
+            }
+            position = positionKey(start + quantity);
+            SeatAssignment after = freeBlockTree != null ? freeBlockTree.getValue(position, freeBlockFinger(start + quantity))
+                    : freeBlocks.getValue(position);
+            if (after != null && after.getSeatQuantity() + quantity <= MAX_BLOCK_SEATS) {
+                deleteNear(after);
+                quantity += after.getSeatQuantity();
+                merged = true;
+            }
+        }
+        insertNear(new SeatAssignment(quantity, start));
+
+        if (reservation.getSeatQuantity() > 0) { // An empty block inserted directly frees no seats
+            events.publish(SeatEvent.Type.RELEASED, name, reservation.getSeatStartIndex(), reservation.getSeatQuantity());
+        }
+        if (merged) events.publish(SeatEvent.Type.MERGED, null, start, quantity);
+        return reservation;
+    }
+
+    /**
+     * Inserts a block, searching from the finger for its kind, as allocation and release do.
+     */
+    private void insertNear(SeatAssignment block) {
+        insert(block.getKey(), block, fingerFor(block));
+    }
+
+    /**
+     * Deletes a block, searching from the finger for its kind, as allocation and release do.
+     */
+    private void deleteNear(SeatAssignment block) {
+        delete(block.getKey(), fingerFor(block));
+    }
+
+    /**
+     * Replaces the unassigned blocks lying inside the given run of seats with one block covering the whole run,
+     * as release(name, true) does. Used to replay a MERGED event on a replica.
+     *
+     * @param start The first seat of the merged block
+     * @param quantity The number of seats in the merged block
+     */
+    void mergeFreeBlocks(int start, int quantity) {
+        ensureIndexes();
+        List<SeatAssignment> parts = new ArrayList<>();
+        for (SeatAssignment block : freeBlocks.range(positionKey(start), true, positionKey(start + quantity), false)) {
+            parts.add(block);
+        }
+        for (SeatAssignment block : parts) {
+            delete(block);
+        }
+        insert(new SeatAssignment(quantity, start));
+        events.publish(SeatEvent.Type.MERGED, null, start, quantity);
+    }
+
+    /**
+     * Gets the stream on which allocate and release publish their changes. Direct inserts, deletes and bulk
+     * operations are not published; readers that need the full contents start from a snapshot.
+     *
+     * @return The change stream of this tree
+     */
+    public SeatEventStream getEvents() {
+        return events;
+    }
+
+    /**
+     * Weighs unassigned blocks by their seat count and reserved blocks as 0, so size searches in this tree
+     * can skip subtrees that contain no free block large enough.
+     *
+     * @param block The block to weigh
+     * @return The seat count of an unassigned block, 0 for a reservation
+     */
+    @Override
+    protected int weight(SeatAssignment block) {
+        return block.isUnassigned() ? block.getSeatQuantity() : 0;
+    }
+
+    /**
+     * Lists the unassigned blocks holding between minSeats and maxSeats seats (inclusive), smallest first.
+     * Only the keys in the size range are visited, so the cost is O(log n + k) rather than a full walk.
+     *
+     * @param minSeats The smallest block size to include
+     * @param maxSeats The largest block size to include
+     * @return The matching unassigned blocks in key order
+     */
+    public List<SeatAssignment> getUnassignedBlocksBetween(int minSeats, int maxSeats) {
+        List<SeatAssignment> blocks = new ArrayList<>();
+        for (SeatAssignment block : range(sizeKey(minSeats, 0), true, sizeKey(maxSeats, 9999999), true)) {
+            if (block.isUnassigned()) blocks.add(block);
+        }
+        return blocks;
+    }
+
+    /**
+     * Builds a tree key for the given block size and starting seat, matching SeatAssignment.getKey().
+     */
+    private static String sizeKey(int seatQuantity, int seatStartIndex) {
+        return SeatAssignment.key(seatQuantity, seatStartIndex);
+    }
+
+    /**
+     * Finds the reservation held by the given owner, the one starting at the lowest seat if the owner booked
+     * more than once. Recently looked-up owners are answered from the reservation cache; everyone else is
+     * looked up by owner code in the owner index, an open-addressing hash table, in expected O(1), and is then
+     * cached.
+     *
+     * @param name The owner to look for
+     * @return The owner's SeatAssignment, or null if they hold no reservation
+     */
     public SeatAssignment findReservation(String name) {
-        // TODO Auto-generated method stub
-        throw new UnsupportedOperationException("Unimplemented method 'findReservation'");
+        int code = owners.find(name);
+        if (code != OwnerDictionary.NO_OWNER) {
+            SeatAssignment cached = reservationCache.get(code);
+            if (cached != null) {
+                return cached;
+            }
+        }
+        ensureIndexes(); // Interns the owners of blocks joined from other trees
+        if (code == OwnerDictionary.NO_OWNER) {
+            code = owners.find(name);
+            if (code == OwnerDictionary.NO_OWNER) return null;
+        }
+        SeatAssignment reservation = reservationsByOwner.get(code);
+        if (reservation != null) {
+            reservationCache.put(code, reservation);
+        }
+        return reservation;
+    }
+
+    /**
+     * Lists every reservation the given owner holds, e.g. parties booked separately under one name.
+     *
+     * @param name The owner to look for
+     * @return The owner's reservations by starting seat, empty if they hold none
+     */
+    public List<SeatAssignment> findReservations(String name) {
+        ensureIndexes();
+        int code = owners.find(name);
+        return code == OwnerDictionary.NO_OWNER ? new ArrayList<>() : reservationsByOwner.getAll(code);
+    }
+
+    /**
+     * Gets the dictionary the owners of this tree's reservations are interned in, shared with the trees split
+     * from it and the layouts taken from it.
+     *
+     * @return The owner dictionary
+     */
+    OwnerDictionary getOwners() {
+        return owners;
+    }
+
+    /**
+     * Gets the cache in front of findReservation, for its hit rate.
+     *
+     * @return The reservation cache
+     */
+    public ReservationCache getReservationCache() {
+        return reservationCache;
     }
 
 }
\ No newline at end of file
@@ -0,0 +1,160 @@
+package edu.hsutx;
+
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.nio.file.DirectoryStream;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.List;
+import java.util.PriorityQueue;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+
+/**
+ * Reads a directory of reservation CSV files, one per outlet, and merges their rows into a single order.
+ *
+ * Files are parsed in parallel, then merged by (time, file name, row number). A row's time is its timestamp
+ * field when it has one, and otherwise its row number within the file, so outlets without timestamps interleave
+ * row by row. Ties between files go to the file whose name sorts first. The merged order depends only on the
+ * files, never on how many threads parsed them or which finished first.
+ */
+public class CsvReplay {
+
+    private CsvReplay() {
+    }
+
+    /**
+     * Parses every *.csv file in the directory with the given number of threads and merges the rows.
+     *
+     * @param directory The directory holding the outlet files
+     * @param threads The number of files to parse at once
+     * @return The requests of every file in merged order
+     * @throws IOException If the directory or a file cannot be read
+     * @throws IllegalArgumentException If a row is malformed; the message names the file and row
+     */
+    public static List<ReservationRequest> readMerged(Path directory, int threads) throws IOException {
+        List<Path> files = new ArrayList<>();
+        try (DirectoryStream<Path> listing = Files.newDirectoryStream(directory, "*.csv")) {
+            for (Path file : listing) {
+                files.add(file);
+            }
+        }
+        files.sort(Comparator.comparing(file -> file.getFileName().toString()));
+
+        List<List<Row>> parsed = new ArrayList<>(files.size());
+        ExecutorService pool = Executors.newFixedThreadPool(Math.max(1, threads));
+        try {
+            List<Future<List<Row>>> futures = new ArrayList<>(files.size());
+            for (int i = 0; i < files.size(); i++) {
+                Path file = files.get(i);
+                int fileIndex = i;
+                futures.add(pool.submit(() -> parseFile(file, fileIndex)));
+            }
+            for (Future<List<Row>> future : futures) {
+                parsed.add(future.get());
+            }
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            throw new IOException("Interrupted while reading " + directory, e);
+        } catch (ExecutionException e) {
+            Throwable cause = e.getCause();
+            if (cause instanceof UncheckedIOException) throw ((UncheckedIOException) cause).getCause();
+            if (cause instanceof RuntimeException) throw (RuntimeException) cause;
+            throw new IOException(cause);
+        } finally {
+            pool.shutdownNow();
+        }
+
+        return merge(parsed);
+    }
+
+    /**
+     * Parses one file into rows sorted by time and row number.
+     */
+    private static List<Row> parseFile(Path file, int fileIndex) {
+        List<String> lines;
+        try {
+            lines = Files.readAllLines(file);
+        } catch (IOException e) {
+            throw new UncheckedIOException(e);
+        }
+
+        List<Row> rows = new ArrayList<>(lines.size());
+        for (int i = 0; i < lines.size(); i++) {
+            String line = lines.get(i);
+            if (line.isBlank()) continue;
+            ReservationRequest request;
+            try {
+                request = ReservationRequest.parse(line);
+            } catch (IllegalArgumentException e) {
+                throw new IllegalArgumentException(file.getFileName() + " row " + (i + 1) + ": " + e.getMessage(), e);
+            }
+            long time = request.getTimestamp() >= 0 ? request.getTimestamp() : i + 1;
+            rows.add(new Row(request, time, fileIndex, i));
+        }
+        rows.sort(Row.ORDER); // Outlet files are usually in time order already, which makes this a single pass
+        return rows;
+    }
+
+    /**
+     * Merges per-file row lists, each already in order, with a heap over the head of each list.
+     */
+    private static List<ReservationRequest> merge(List<List<Row>> parsed) {
+        int total = 0;
+        PriorityQueue<Cursor> heads = new PriorityQueue<>(Math.max(1, parsed.size()), (a, b) -> Row.ORDER.compare(a.head(), b.head()));
+        for (List<Row> rows : parsed) {
+            total += rows.size();
+            if (!rows.isEmpty()) heads.add(new Cursor(rows));
+        }
+
+        List<ReservationRequest> merged = new ArrayList<>(total);
+        while (!heads.isEmpty()) {
+            Cursor cursor = heads.poll();
+            merged.add(cursor.head().request);
+            cursor.position++;
+            if (cursor.position < cursor.rows.size()) heads.add(cursor);
+        }
+        return merged;
+    }
+
+    /**
+     * A parsed row with the fields it is merged by.
+     */
+    private static class Row {
+        static final Comparator<Row> ORDER = Comparator.<Row>comparingLong(row -> row.time)
+                .thenComparingInt(row -> row.fileIndex)
+                .thenComparingInt(row -> row.line);
+
+        final ReservationRequest request;
+        final long time;
+        final int fileIndex;
+        final int line;
+
+        Row(ReservationRequest request, long time, int fileIndex, int line) {
+            this.request = request;
+            this.time = time;
+            this.fileIndex = fileIndex;
+            this.line = line;
+        }
+    }
+
+    /**
+     * The next unmerged row of one file.
+     */
+    private static class Cursor {
+        final List<Row> rows;
+        int position = 0;
+
+        Cursor(List<Row> rows) {
+            this.rows = rows;
+        }
+
+        Row head() {
+            return rows.get(position);
+        }
+    }
+}
@@ -0,0 +1,357 @@
+package edu.hsutx;
+
+import java.io.PrintStream;
+import java.lang.management.ManagementFactory;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.LongAccumulator;
+import java.util.concurrent.atomic.LongAdder;
+
+import javax.management.JMException;
+import javax.management.ObjectName;
+
+/**
+ * Counters and latency histograms for the reservation engine: red-black tree rebalancing work, lookup path
+ * lengths, and the time taken by each reservation and CSV row.
+ *
+ * Collection is off by default and can be switched on or off at runtime, including over JMX. While off, every
+ * recording method returns after a single volatile read. Counters are LongAdders so concurrent writers do not
+ * contend on one cache line.
+ */
+public class EngineMetrics implements EngineMetricsMBean {
+    private static final EngineMetrics SHARED = new EngineMetrics();
+
+    private volatile boolean enabled = false;
+
+    private final LongAdder rotations = new LongAdder();
+    private final LongAdder recolorings = new LongAdder();
+    private final LongAdder insertFixups = new LongAdder();
+    private final LongAdder deleteFixups = new LongAdder();
+    private final LongAdder relaxedDeletes = new LongAdder();
+    private final LongAdder rebuiltNodes = new LongAdder();
+    private final LongAdder lookups = new LongAdder();
+    private final LongAdder lookupSteps = new LongAdder();
+    private final LongAccumulator maxLookupDepth = new LongAccumulator(Math::max, 0);
+    private final LongAdder reservationsAdded = new LongAdder();
+    private final LongAdder reservationsRejected = new LongAdder();
+    private final LongAdder reservationsDeleted = new LongAdder();
+    private final LatencyHistogram addLatency = new LatencyHistogram();
+    private final LatencyHistogram deleteLatency = new LatencyHistogram();
+    private final LatencyHistogram rowLatency = new LatencyHistogram();
+
+    private volatile RedBlackTree<?> watchedTree;
+    private volatile ReservationCache watchedCache;
+    private ScheduledExecutorService dumper;
+
+    /**
+     * Gets the metrics instance that trees and controllers record into unless given another one.
+     *
+     * @return The shared instance
+     */
+    public static EngineMetrics shared() {
+        return SHARED;
+    }
+
+    @Override
+    public boolean isEnabled() {
+        return enabled;
+    }
+
+    @Override
+    public void setEnabled(boolean enabled) {
+        this.enabled = enabled;
+    }
+
+    /**
+     * Returns the current time for starting a latency measurement, or 0 when collection is off
+     * so that disabled call sites skip the clock read.
+     *
+     * @return System.nanoTime() if enabled, otherwise 0
+     */
+    public long startTimer() {
+        return enabled ? System.nanoTime() : 0;
+    }
+
+    /* ------------------ Recording ------------------ */
+
+    void rotation() {
+        if (enabled) rotations.increment();
+    }
+
+    void recolor(int nodes) {
+        if (enabled) recolorings.add(nodes);
+    }
+
+    void insertFixup() {
+        if (enabled) insertFixups.increment();
+    }
+
+    void deleteFixup() {
+        if (enabled) deleteFixups.increment();
+    }
+
+    void relaxedDelete() {
+        if (enabled) relaxedDeletes.increment();
+    }
+
+    void rebuild(int nodes) {
+        if (enabled) rebuiltNodes.add(nodes);
+    }
+
+    void lookup(int depth) {
+        if (enabled) {
+            lookups.increment();
+            lookupSteps.add(depth);
+            maxLookupDepth.accumulate(depth);
+        }
+    }
+
+    void reservationAdded(long startNanos, boolean placed) {
+        if (enabled && startNanos != 0) {
+            addLatency.record(System.nanoTime() - startNanos);
+            if (placed) reservationsAdded.increment();
+            else reservationsRejected.increment();
+        }
+    }
+
+    void reservationDeleted(long startNanos) {
+        if (enabled && startNanos != 0) {
+            deleteLatency.record(System.nanoTime() - startNanos);
+            reservationsDeleted.increment();
+        }
+    }
+
+    void rowProcessed(long startNanos) {
+        if (enabled && startNanos != 0) {
+            rowLatency.record(System.nanoTime() - startNanos);
+        }
+    }
+
+    /**
+     * Sets the tree whose shape is reported by the tree getters and dump(). Shape is read from the tree's
+     * constant-time accessors, so sampling it does not walk or lock the tree.
+     *
+     * @param tree The tree to report on, or null for none
+     */
+    public void watchTree(RedBlackTree<?> tree) {
+        this.watchedTree = tree;
+    }
+
+    /**
+     * Sets the reservation cache whose hit rate is reported by the cache getters and dump().
+     *
+     * @param cache The cache to report on, or null for none
+     */
+    public void watchCache(ReservationCache cache) {
+        this.watchedCache = cache;
+    }
+
+    /* ------------------ Reporting ------------------ */
+
+    @Override
+    public void reset() {
+        rotations.reset();
+        recolorings.reset();
+        insertFixups.reset();
+        deleteFixups.reset();
+        relaxedDeletes.reset();
+        rebuiltNodes.reset();
+        lookups.reset();
+        lookupSteps.reset();
+        maxLookupDepth.reset();
+        reservationsAdded.reset();
+        reservationsRejected.reset();
+        reservationsDeleted.reset();
+        addLatency.reset();
+        deleteLatency.reset();
+        rowLatency.reset();
+    }
+
+    @Override
+    public long getRotations() {
+        return rotations.sum();
+    }
+
+    @Override
+    public long getRecolorings() {
+        return recolorings.sum();
+    }
+
+    @Override
+    public long getInsertFixups() {
+        return insertFixups.sum();
+    }
+
+    @Override
+    public long getDeleteFixups() {
+        return deleteFixups.sum();
+    }
+
+    @Override
+    public long getRelaxedDeletes() {
+        return relaxedDeletes.sum();
+    }
+
+    @Override
+    public long getRebuiltNodes() {
+        return rebuiltNodes.sum();
+    }
+
+    @Override
+    public long getLookups() {
+        return lookups.sum();
+    }
+
+    @Override
+    public double getAverageLookupDepth() {
+        long count = lookups.sum();
+        return count == 0 ? 0 : (double) lookupSteps.sum() / count;
+    }
+
+    @Override
+    public long getMaxLookupDepth() {
+        return maxLookupDepth.get();
+    }
+
+    @Override
+    public long getReservationsAdded() {
+        return reservationsAdded.sum();
+    }
+
+    @Override
+    public long getReservationsRejected() {
+        return reservationsRejected.sum();
+    }
+
+    @Override
+    public long getReservationsDeleted() {
+        return reservationsDeleted.sum();
+    }
+
+    @Override
+    public long getAddLatencyP50Micros() {
+        return addLatency.getPercentile(50) / 1000;
+    }
+
+    @Override
+    public long getAddLatencyP99Micros() {
+        return addLatency.getPercentile(99) / 1000;
+    }
+
+    @Override
+    public long getDeleteLatencyP50Micros() {
+        return deleteLatency.getPercentile(50) / 1000;
+    }
+
+    @Override
+    public long getDeleteLatencyP99Micros() {
+        return deleteLatency.getPercentile(99) / 1000;
+    }
+
+    @Override
+    public long getRowLatencyP50Micros() {
+        return rowLatency.getPercentile(50) / 1000;
+    }
+
+    @Override
+    public long getRowLatencyP99Micros() {
+        return rowLatency.getPercentile(99) / 1000;
+    }
+
+    @Override
+    public int getTreeSize() {
+        RedBlackTree<?> tree = watchedTree;
+        return tree == null ? 0 : tree.getSize();
+    }
+
+    @Override
+    public int getTreeBlackHeight() {
+        RedBlackTree<?> tree = watchedTree;
+        return tree == null ? 0 : tree.getBlackHeight();
+    }
+
+    @Override
+    public int getTreeMaxHeight() {
+        RedBlackTree<?> tree = watchedTree;
+        return tree == null ? 0 : tree.getMaxHeight();
+    }
+
+    @Override
+    public long getCacheHits() {
+        ReservationCache cache = watchedCache;
+        return cache == null ? 0 : cache.getHits();
+    }
+
+    @Override
+    public long getCacheMisses() {
+        ReservationCache cache = watchedCache;
+        return cache == null ? 0 : cache.getMisses();
+    }
+
+    @Override
+    public double getCacheHitRate() {
+        ReservationCache cache = watchedCache;
+        return cache == null ? 0 : cache.getHitRate();
+    }
+
+    /**
+     * Formats every metric as a few lines of text.
+     *
+     * @return The current values
+     */
+    @Override
+    public String dump() {
+        return String.format("shape: size=%d blackHeight=%d maxHeight=%d%n"
+                        + "tree: rotations=%d recolorings=%d insertFixups=%d deleteFixups=%d relaxedDeletes=%d rebuiltNodes=%d%n"
+                        + "lookups: count=%d avgDepth=%.2f maxDepth=%d%n"
+                        + "reservations: added=%d rejected=%d deleted=%d%n"
+                        + "owner cache: hits=%d misses=%d hitRate=%.3f%n"
+                        + "latency us: add p50=%d p99=%d | delete p50=%d p99=%d | row p50=%d p99=%d%n",
+                getTreeSize(), getTreeBlackHeight(), getTreeMaxHeight(),
+                getRotations(), getRecolorings(), getInsertFixups(), getDeleteFixups(), getRelaxedDeletes(), getRebuiltNodes(),
+                getLookups(), getAverageLookupDepth(), getMaxLookupDepth(),
+                getReservationsAdded(), getReservationsRejected(), getReservationsDeleted(),
+                getCacheHits(), getCacheMisses(), getCacheHitRate(),
+                getAddLatencyP50Micros(), getAddLatencyP99Micros(),
+                getDeleteLatencyP50Micros(), getDeleteLatencyP99Micros(),
+                getRowLatencyP50Micros(), getRowLatencyP99Micros());
+    }
+
+    /**
+     * Registers these metrics with the platform MBean server as edu.hsutx:type=EngineMetrics,
+     * so they can be read and switched on from JConsole or any JMX client.
+     *
+     * @throws JMException If registration fails, e.g. because the name is already taken
+     */
+    public void registerMBean() throws JMException {
+        ManagementFactory.getPlatformMBeanServer().registerMBean(this, new ObjectName("edu.hsutx:type=EngineMetrics"));
+    }
+
+    /**
+     * Starts printing dump() to the given stream at a fixed period on a background daemon thread,
+     * replacing any dump already running.
+     *
+     * @param periodSeconds The time between dumps
+     * @param out The stream to print to
+     */
+    public synchronized void startPeriodicDump(long periodSeconds, PrintStream out) {
+        stopPeriodicDump();
+        dumper = Executors.newSingleThreadScheduledExecutor(runnable -> {
+            Thread thread = new Thread(runnable, "engine-metrics-dump");
+            thread.setDaemon(true);
+            return thread;
+        });
+        dumper.scheduleAtFixedRate(() -> out.print(dump()), periodSeconds, periodSeconds, TimeUnit.SECONDS);
+    }
+
+    /**
+     * Stops the periodic dump, if one is running.
+     */
+    public synchronized void stopPeriodicDump() {
+        if (dumper != null) {
+            dumper.shutdownNow();
+            dumper = null;
+        }
+    }
+}
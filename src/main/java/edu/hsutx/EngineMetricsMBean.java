@@ -0,0 +1,62 @@
+package edu.hsutx;
+
+/**
+ * JMX view of EngineMetrics. Latencies are reported in microseconds.
+ */
+public interface EngineMetricsMBean {
+    boolean isEnabled();
+
+    void setEnabled(boolean enabled);
+
+    void reset();
+
+    String dump();
+
+    long getRotations();
+
+    long getRecolorings();
+
+    long getInsertFixups();
+
+    long getDeleteFixups();
+
+    long getRelaxedDeletes();
+
+    long getRebuiltNodes();
+
+    long getLookups();
+
+    double getAverageLookupDepth();
+
+    long getMaxLookupDepth();
+
+    long getReservationsAdded();
+
+    long getReservationsRejected();
+
+    long getReservationsDeleted();
+
+    long getAddLatencyP50Micros();
+
+    long getAddLatencyP99Micros();
+
+    long getDeleteLatencyP50Micros();
+
+    long getDeleteLatencyP99Micros();
+
+    long getRowLatencyP50Micros();
+
+    long getRowLatencyP99Micros();
+
+    int getTreeSize();
+
+    int getTreeBlackHeight();
+
+    int getTreeMaxHeight();
+
+    long getCacheHits();
+
+    long getCacheMisses();
+
+    double getCacheHitRate();
+}
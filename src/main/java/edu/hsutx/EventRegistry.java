@@ -0,0 +1,78 @@
+package edu.hsutx;
+
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+
+/**
+ * The events currently on sale, each an EventSeatMap created from the same SeatLayout. Creating an event copies
+ * only the layout's array of section references, and the events copy sections only as their bookings diverge
+ * from the layout, so hundreds of events on a 1,000,000 seat layout fit in the memory of a few full trees.
+ *
+ * Events may be created, looked up and removed from any thread.
+ */
+public class EventRegistry {
+    private final SeatLayout layout;
+    private final ConcurrentHashMap<String, EventSeatMap> events = new ConcurrentHashMap<>();
+
+    /**
+     * Creates an empty registry whose events start from the given layout.
+     *
+     * @param layout The base layout of every event
+     */
+    public EventRegistry(SeatLayout layout) {
+        this.layout = layout;
+    }
+
+    /**
+     * Opens a new event with the seats of the base layout.
+     *
+     * @param eventId The name of the event
+     * @return The new event
+     * @throws IllegalArgumentException If an event of that name already exists
+     */
+    public EventSeatMap createEvent(String eventId) {
+        EventSeatMap event = new EventSeatMap(eventId, layout);
+        if (events.putIfAbsent(eventId, event) != null) {
+            throw new IllegalArgumentException("Event already exists: " + eventId);
+        }
+        return event;
+    }
+
+    /**
+     * Looks up an event.
+     *
+     * @param eventId The name of the event
+     * @return The event, or null if there is none of that name
+     */
+    public EventSeatMap getEvent(String eventId) {
+        return events.get(eventId);
+    }
+
+    /**
+     * Removes an event, e.g. once it is over, freeing the sections it copied.
+     *
+     * @param eventId The name of the event
+     * @return The removed event, or null if there was none of that name
+     */
+    public EventSeatMap removeEvent(String eventId) {
+        return events.remove(eventId);
+    }
+
+    /**
+     * Gets the names of the events in the registry.
+     *
+     * @return A live view of the event names
+     */
+    public Set<String> getEventIds() {
+        return events.keySet();
+    }
+
+    /**
+     * Gets the layout new events are created from.
+     *
+     * @return The base layout
+     */
+    public SeatLayout getLayout() {
+        return layout;
+    }
+}
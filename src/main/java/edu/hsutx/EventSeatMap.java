@@ -0,0 +1,313 @@
+package edu.hsutx;
+
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * The seats of one event, created from a SeatLayout in the time it takes to copy the layout's array of section
+ * references. The event shares every section with the layout until it first changes a block starting there,
+ * then works on its own copy of that section; reservations made or released in the event are kept apart from
+ * the layout's. The layout itself is never changed, so any number of events can share it.
+ *
+ * Searches walk the sections in seat order, skipping those whose largest free block is too small, and scan the
+ * blocks of the sections they stop in. Allocation and release cost O(sections + blocks per section), which with
+ * SECTION_SEATS seats per section stays within a few microseconds.
+ *
+ * All methods are synchronized, so different threads may book the same event, and events never share a lock.
+ * Holds and the change stream of CowboySeatTree are not offered here.
+ */
+public class EventSeatMap implements SeatMap {
+    private final String eventId;
+    private final SeatLayout layout;
+    private final SeatLayout.Section[] sections;
+    private final OwnerDictionary owners; // The layout's, shared by all of its events
+    private final OwnerIndex madeReservations = new OwnerIndex(); // Reservations made here and not yet released
+    private final OwnerIndex releasedReservations = new OwnerIndex(); // The layout's reservations released here
+    private int copiedSections = 0;
+
+    /**
+     * Creates an event sharing all of its seats with a layout.
+     *
+     * @param eventId The name of the event
+     * @param layout The layout the event starts from
+     */
+    public EventSeatMap(String eventId, SeatLayout layout) {
+        this.eventId = eventId;
+        this.layout = layout;
+        this.sections = layout.shareSections();
+        this.owners = layout.getOwners();
+    }
+
+    /**
+     * Gets the name of the event.
+     *
+     * @return The event id
+     */
+    public String getEventId() {
+        return eventId;
+    }
+
+    /**
+     * Gets the layout this event was created from.
+     *
+     * @return The base layout
+     */
+    public SeatLayout getLayout() {
+        return layout;
+    }
+
+    /**
+     * Counts the sections this event has copied from its layout, a measure of how far it has diverged.
+     *
+     * @return The number of sections the event owns
+     */
+    public synchronized int getCopiedSectionCount() {
+        return copiedSections;
+    }
+
+    /**
+     * Reserves seatsNeeded adjacent seats for a party, as CowboySeatTree.allocate does.
+     *
+     * @param name The owner of the new reservation
+     * @param seatsNeeded The number of adjacent seats needed
+     * @param desiredSeat The seat the party would like to sit near
+     * @param strategy Chooses the block and the position inside it
+     * @return The new reservation, or null if the strategy found no block of this event that fits
+     * @throws IllegalArgumentException If seatsNeeded is not positive
+     */
+    public synchronized SeatAssignment allocate(String name, int seatsNeeded, int desiredSeat, AllocationStrategy strategy) {
+        if (seatsNeeded <= 0) {
+            throw new IllegalArgumentException("A party needs at least one seat: " + seatsNeeded);
+        }
+        SeatAssignment emptyBlock = strategy.chooseBlock(this, seatsNeeded, desiredSeat);
+        if (emptyBlock == null || !emptyBlock.isUnassigned() || emptyBlock.getSeatQuantity() < seatsNeeded || !remove(emptyBlock)) {
+            return null;
+        }
+
+        int openSeats = emptyBlock.getSeatQuantity();
+        int openSeatStart = emptyBlock.getSeatStartIndex();
+        int startSeat = strategy.chooseStart(emptyBlock, seatsNeeded, desiredSeat);
+        startSeat = Math.max(openSeatStart, Math.min(openSeatStart + openSeats - seatsNeeded, startSeat));
+
+        SeatAssignment reservation = new SeatAssignment(owners, name, seatsNeeded, startSeat);
+        add(reservation);
+        madeReservations.add(reservation.getOwnerCode(owners), reservation);
+
+        int leftSeats = startSeat - openSeatStart;
+        if (leftSeats > 0) add(new SeatAssignment(leftSeats, openSeatStart));
+        if (leftSeats + seatsNeeded < openSeats) {
+            add(new SeatAssignment(openSeats - leftSeats - seatsNeeded, startSeat + seatsNeeded));
+        }
+        return reservation;
+    }
+
+    /**
+     * Cancels the reservation held by the given owner without merging the freed seats with their neighbours.
+     *
+     * @param name The owner whose reservation is cancelled
+     * @return The cancelled reservation, or null if the owner holds none in this event
+     */
+    public SeatAssignment release(String name) {
+        return release(name, false);
+    }
+
+    /**
+     * Cancels the reservation held by the given owner, whether made in this event or taken over from the layout,
+     * and returns its seats as an unassigned block, optionally merged with the free blocks directly before and
+     * after as CowboySeatTree.release does. The layout keeps its reservation. Of an owner's several
+     * reservations, the one starting at the lowest seat is cancelled.
+     *
+     * @param name The owner whose reservation is cancelled
+     * @param mergeNeighbours Whether to join the freed seats with adjacent unassigned blocks
+     * @return The cancelled reservation, or null if the owner holds none in this event
+     */
+    public synchronized SeatAssignment release(String name, boolean mergeNeighbours) {
+        SeatAssignment reservation = findReservation(name);
+        if (reservation == null) {
+            return null;
+        }
+        remove(reservation);
+        int code = reservation.getOwnerCode(owners);
+        if (!madeReservations.remove(code, reservation)) releasedReservations.add(code, reservation);
+
+        int start = reservation.getSeatStartIndex();
+        int quantity = reservation.getSeatQuantity();
+        if (mergeNeighbours) {
+            SeatAssignment before = blockBefore(start);
+            if (before != null && before.isUnassigned() && before.getSeatStartIndex() + before.getSeatQuantity() == start
+                    && before.getSeatQuantity() + quantity <= CowboySeatTree.MAX_BLOCK_SEATS) {
+                remove(before);
+                start = before.getSeatStartIndex();
+                quantity += before.getSeatQuantity();
+            }
+            SeatAssignment after = sections[sectionOf(start + quantity)].blockAt(start + quantity);
+            if (after != null && after.isUnassigned() && after.getSeatQuantity() + quantity <= CowboySeatTree.MAX_BLOCK_SEATS) {
+                remove(after);
+                quantity += after.getSeatQuantity();
+            }
+        }
+        add(new SeatAssignment(quantity, start));
+        return reservation;
+    }
+
+    /**
+     * Finds the reservation the given owner holds in this event: one made here, or one of the layout's that was
+     * not released here. Of an owner's several reservations, the one starting at the lowest seat is returned.
+     *
+     * @param name The owner to look for
+     * @return The owner's SeatAssignment, or null if they hold no reservation in this event
+     */
+    public synchronized SeatAssignment findReservation(String name) {
+        int code = owners.find(name);
+        if (code == OwnerDictionary.NO_OWNER) {
+            return null;
+        }
+        SeatAssignment first = madeReservations.get(code);
+        List<SeatAssignment> released = releasedReservations.getAll(code);
+        for (SeatAssignment reservation : layout.getReservations(code)) {
+            if (released.contains(reservation)) continue; // By identity, as SeatAssignment keeps Object.equals
+            if (first == null || reservation.getSeatStartIndex() < first.getSeatStartIndex()) first = reservation;
+        }
+        return first;
+    }
+
+    @Override
+    public synchronized SeatAssignment getUnassignedBlockNear(int seat, int seatsNeeded) {
+        SeatAssignment before = null;
+        for (int s = sectionOf(seat); s >= 0 && before == null; s--) {
+            SeatLayout.Section section = sections[s];
+            if (section.maxFree < seatsNeeded) continue;
+            for (int i = section.floorIndex(seat); i >= 0; i--) {
+                if (fits(section.blocks[i], seatsNeeded)) {
+                    before = section.blocks[i];
+                    break;
+                }
+            }
+        }
+        SeatAssignment after = null;
+        for (int s = sectionOf(seat); s < sections.length && after == null; s++) {
+            SeatLayout.Section section = sections[s];
+            if (section.maxFree < seatsNeeded) continue;
+            for (int i = section.floorIndex(seat) + 1; i < section.size; i++) {
+                if (fits(section.blocks[i], seatsNeeded)) {
+                    after = section.blocks[i];
+                    break;
+                }
+            }
+        }
+        if (before == null) return after;
+        if (after == null) return before;
+
+        int beforeEnd = before.getSeatStartIndex() + before.getSeatQuantity() - 1;
+        int beforeDistance = Math.max(0, seat - beforeEnd);
+        int afterDistance = after.getSeatStartIndex() - seat;
+        return afterDistance < beforeDistance ? after : before;
+    }
+
+    @Override
+    public synchronized SeatAssignment getUnassignedBlockOverThreshold(int threshold) {
+        SeatAssignment best = null;
+        for (SeatLayout.Section section : sections) {
+            if (section.maxFree < threshold) continue;
+            for (int i = 0; i < section.size; i++) {
+                SeatAssignment block = section.blocks[i];
+                if (fits(block, threshold) && (best == null || block.getSeatQuantity() < best.getSeatQuantity())) {
+                    if (block.getSeatQuantity() == threshold) return block; // Nothing smaller fits or comes earlier
+                    best = block;
+                }
+            }
+        }
+        return best;
+    }
+
+    @Override
+    public synchronized SeatAssignment getLargestUnassignedBlock() {
+        SeatLayout.Section largest = null;
+        for (SeatLayout.Section section : sections) {
+            if (section.maxFree > 0 && (largest == null || section.maxFree >= largest.maxFree)) largest = section;
+        }
+        if (largest == null) {
+            return null;
+        }
+        for (int i = largest.size - 1; ; i--) {
+            if (largest.blocks[i].isUnassigned() && largest.blocks[i].getSeatQuantity() == largest.maxFree) return largest.blocks[i];
+        }
+    }
+
+    @Override
+    public synchronized SeatAssignment getFirstUnassignedBlockByPosition(int seatsNeeded) {
+        for (SeatLayout.Section section : sections) {
+            if (section.maxFree < seatsNeeded) continue;
+            for (int i = 0; i < section.size; i++) {
+                if (fits(section.blocks[i], seatsNeeded)) return section.blocks[i];
+            }
+        }
+        return null;
+    }
+
+    /**
+     * Lists the unassigned blocks in seat order.
+     *
+     * @return Every unassigned block of this event, by starting seat
+     */
+    public synchronized List<SeatAssignment> getUnassignedBlocksByPosition() {
+        List<SeatAssignment> blocks = new ArrayList<>();
+        for (SeatLayout.Section section : sections) {
+            for (int i = 0; i < section.size; i++) {
+                if (section.blocks[i].isUnassigned()) blocks.add(section.blocks[i]);
+            }
+        }
+        return blocks;
+    }
+
+    private static boolean fits(SeatAssignment block, int seatsNeeded) {
+        return block.isUnassigned() && block.getSeatQuantity() >= seatsNeeded;
+    }
+
+    private int sectionOf(int seat) {
+        return SeatLayout.sectionOf(seat, sections.length - 1);
+    }
+
+    /**
+     * Finds the block starting closest before the given seat, free or reserved.
+     */
+    private SeatAssignment blockBefore(int seat) {
+        for (int s = sectionOf(seat); s >= 0; s--) {
+            int i = sections[s].floorIndex(seat - 1);
+            if (i >= 0) return sections[s].blocks[i];
+        }
+        return null;
+    }
+
+    /**
+     * Gets a section this event may change, copying it from the layout first if it is still shared.
+     */
+    private SeatLayout.Section writable(int s) {
+        SeatLayout.Section section = sections[s];
+        if (section.owner != this) {
+            section = section.copyFor(this);
+            sections[s] = section;
+            copiedSections++;
+        }
+        return section;
+    }
+
+    private void add(SeatAssignment block) {
+        writable(sectionOf(block.getSeatStartIndex())).add(block);
+    }
+
+    /**
+     * Removes a block of this event.
+     *
+     * @return false if the block is not one of this event's, e.g. a stale result of a strategy
+     */
+    private boolean remove(SeatAssignment block) {
+        int s = sectionOf(block.getSeatStartIndex());
+        int i = sections[s].floorIndex(block.getSeatStartIndex());
+        if (i < 0 || sections[s].blocks[i] != block) {
+            return false;
+        }
+        writable(s).remove(i);
+        return true;
+    }
+}
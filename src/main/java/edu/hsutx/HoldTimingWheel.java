@@ -0,0 +1,201 @@
+package edu.hsutx;
+
+/**
+ * A hierarchical timing wheel holding the expiry times of seat holds.
+ *
+ * Time is cut into ticks of tickMillis. The wheel has LEVELS levels of SLOTS slots; a slot on level 0 covers one
+ * tick, a slot on level 1 covers SLOTS ticks, and so on. A hold is filed on the lowest level whose span still
+ * reaches its expiry, so scheduling is O(1). When the clock reaches the start of a higher-level slot, the holds
+ * in it are cascaded down to the levels below, and each hold is finally handed out from its level 0 slot on the
+ * tick it expires. Holds beyond the top level wait in an overflow list that is re-filed each time the top level
+ * wraps around.
+ *
+ * The wheel only stores (owner, expiresAt) pairs. Holds that were confirmed or cancelled are not removed; the
+ * caller checks each expired entry against its tree and skips the stale ones.
+ */
+public class HoldTimingWheel {
+    /** Slot index bits per level. */
+    private static final int SLOT_BITS = 6;
+    /** Slots per level. */
+    public static final int SLOTS = 1 << SLOT_BITS;
+    /** Levels below the overflow list; together they span SLOTS^LEVELS ticks. */
+    public static final int LEVELS = 4;
+
+    private final long tickMillis;
+    private final Entry[][] slots = new Entry[LEVELS][SLOTS];
+    private final int[] levelSizes = new int[LEVELS];
+    private Entry overflow;
+    private Entry due; // Holds that had already expired when they were scheduled
+    private long currentTick; // The last tick whose holds have been handed out
+    private int size;
+
+    /**
+     * Receives the holds handed out by advance.
+     */
+    public interface ExpiryListener {
+        /**
+         * Called once for each hold whose expiry time has passed.
+         *
+         * @param owner The owner of the hold
+         * @param expiresAt The expiry time the hold was scheduled with
+         */
+        void expired(String owner, long expiresAt);
+    }
+
+    /**
+     * Creates an empty wheel whose clock starts at the given time.
+     *
+     * @param tickMillis The resolution of the wheel; holds expire at most this late
+     * @param startMillis The current time in milliseconds
+     * @throws IllegalArgumentException If tickMillis is not positive
+     */
+    public HoldTimingWheel(long tickMillis, long startMillis) {
+        if (tickMillis <= 0) {
+            throw new IllegalArgumentException("Tick length must be positive: " + tickMillis);
+        }
+        this.tickMillis = tickMillis;
+        this.currentTick = Math.floorDiv(startMillis, tickMillis);
+    }
+
+    /**
+     * Files a hold under its expiry time. A hold whose expiry the clock has already passed is handed out by the
+     * next call to advance.
+     *
+     * @param owner The owner of the hold
+     * @param expiresAt The time, in milliseconds, at which the hold expires
+     */
+    public void schedule(String owner, long expiresAt) {
+        long tick = Math.floorDiv(expiresAt + tickMillis - 1, tickMillis); // Round up so no hold expires early
+        Entry entry = new Entry(owner, expiresAt, tick);
+        if (entry.tick <= currentTick) {
+            entry.next = due;
+            due = entry;
+        } else {
+            file(entry);
+        }
+        size++;
+    }
+
+    /**
+     * Moves the clock forward to the given time and hands every hold that expired by then to the listener, in
+     * order of expiry tick. Stretches of ticks with nothing on level 0 are skipped rather than stepped through.
+     *
+     * @param now The current time in milliseconds; a time earlier than the clock is ignored
+     * @param listener Receives the expired holds
+     * @return The number of holds handed out
+     */
+    public int advance(long now, ExpiryListener listener) {
+        long target = Math.floorDiv(now, tickMillis);
+        int expired = drain(due, listener);
+        due = null;
+
+        while (currentTick < target) {
+            if (size == 0) {
+                currentTick = target;
+                break;
+            }
+            if (levelSizes[0] == 0) {
+                // Nothing can fire before level 0 wraps, so jump to the tick just before the next cascade
+                long nextWrap = ((currentTick >> SLOT_BITS) + 1) << SLOT_BITS;
+                if (nextWrap > target) {
+                    currentTick = target;
+                    break;
+                }
+                currentTick = nextWrap - 1;
+            }
+
+            currentTick++;
+            for (int level = LEVELS; level >= 1; level--) {
+                if ((currentTick & ((1L << (SLOT_BITS * level)) - 1)) == 0) {
+                    cascade(level);
+                }
+            }
+            int slot = (int) (currentTick & (SLOTS - 1));
+            Entry fired = slots[0][slot];
+            slots[0][slot] = null;
+            int count = drain(fired, listener);
+            levelSizes[0] -= count;
+            expired += count;
+        }
+        return expired;
+    }
+
+    /**
+     * Counts the holds waiting in the wheel, including ones that have since been confirmed or cancelled.
+     *
+     * @return The number of scheduled holds not yet handed out
+     */
+    public int size() {
+        return size;
+    }
+
+    /**
+     * Re-files the holds of the slot the clock has just entered on the given level, or the overflow list when
+     * the top level wraps. Their expiry is now within reach of a lower level.
+     */
+    private void cascade(int level) {
+        Entry entries;
+        if (level == LEVELS) {
+            entries = overflow;
+            overflow = null;
+        } else {
+            int slot = (int) ((currentTick >> (SLOT_BITS * level)) & (SLOTS - 1));
+            entries = slots[level][slot];
+            slots[level][slot] = null;
+        }
+        while (entries != null) {
+            Entry next = entries.next;
+            if (level < LEVELS) levelSizes[level]--;
+            file(entries);
+            entries = next;
+        }
+    }
+
+    /**
+     * Puts an entry on the lowest level whose current span contains its tick: the level where the tick and the
+     * clock agree on every higher slot index. The tick must not be before the clock; one equal to it lands in the
+     * level 0 slot that advance is about to fire.
+     */
+    private void file(Entry entry) {
+        for (int level = 0; level < LEVELS; level++) {
+            int shift = SLOT_BITS * (level + 1);
+            if ((entry.tick >> shift) == (currentTick >> shift)) {
+                int slot = (int) ((entry.tick >> (SLOT_BITS * level)) & (SLOTS - 1));
+                entry.next = slots[level][slot];
+                slots[level][slot] = entry;
+                levelSizes[level]++;
+                return;
+            }
+        }
+        entry.next = overflow;
+        overflow = entry;
+    }
+
+    private int drain(Entry entries, ExpiryListener listener) {
+        int count = 0;
+        while (entries != null) {
+            Entry next = entries.next;
+            size--;
+            count++;
+            listener.expired(entries.owner, entries.expiresAt);
+            entries = next;
+        }
+        return count;
+    }
+
+    /**
+     * One scheduled hold, linked into its slot.
+     */
+    private static class Entry {
+        final String owner;
+        final long expiresAt;
+        final long tick;
+        Entry next;
+
+        Entry(String owner, long expiresAt, long tick) {
+            this.owner = owner;
+            this.expiresAt = expiresAt;
+            this.tick = tick;
+        }
+    }
+}
@@ -0,0 +1,44 @@
+package edu.hsutx;
+
+import java.util.function.ToIntFunction;
+
+/**
+ * The OrderedIndex implementations a CowboySeatTree can keep its free block index in. The seat blocks
+ * themselves stay in the CowboySeatTree, which is a RedBlackTree.
+ */
+public enum IndexEngine {
+    /** RedBlackTree with a weight summary on every node; the default. */
+    RED_BLACK {
+        @Override
+        public <E> OrderedIndex<E> create(ToIntFunction<? super E> weigher) {
+            return new RedBlackTree<E>() {
+                @Override
+                protected int weight(E value) {
+                    return weigher.applyAsInt(value);
+                }
+            };
+        }
+    },
+    /** BPlusTreeIndex, with cache-line sized nodes. */
+    B_PLUS_TREE {
+        @Override
+        public <E> OrderedIndex<E> create(ToIntFunction<? super E> weigher) {
+            return new BPlusTreeIndex<>(weigher);
+        }
+    },
+    /** SkipListIndex over ConcurrentSkipListMap; weighted searches are linear in the entries passed over. */
+    SKIP_LIST {
+        @Override
+        public <E> OrderedIndex<E> create(ToIntFunction<? super E> weigher) {
+            return new SkipListIndex<>(weigher);
+        }
+    };
+
+    /**
+     * Creates an empty index of this kind.
+     *
+     * @param weigher Gives the weight of a value for the weighted searches
+     * @return The new index
+     */
+    public abstract <E> OrderedIndex<E> create(ToIntFunction<? super E> weigher);
+}
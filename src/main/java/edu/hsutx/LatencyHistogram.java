@@ -0,0 +1,94 @@
+package edu.hsutx;
+
+import java.util.concurrent.atomic.AtomicLongArray;
+
+/**
+ * Lock-free latency histogram in the style of HdrHistogram: values are counted in buckets whose width grows
+ * with the value, so a fixed 512-slot array covers nanoseconds to hours with about 12% relative error.
+ * Each power of two is split into 8 sub-buckets. Recording is a single atomic increment.
+ */
+public class LatencyHistogram {
+    private static final int SUB_BITS = 3;
+    private static final int SUB_BUCKETS = 1 << SUB_BITS;
+
+    private final AtomicLongArray counts = new AtomicLongArray(64 * SUB_BUCKETS);
+
+    /**
+     * Records one measurement.
+     *
+     * @param nanos The measured latency in nanoseconds; negative values are recorded as 0
+     */
+    public void record(long nanos) {
+        counts.incrementAndGet(bucketOf(Math.max(0, nanos)));
+    }
+
+    /**
+     * Gets the number of recorded measurements.
+     *
+     * @return The total count
+     */
+    public long getCount() {
+        long total = 0;
+        for (int i = 0; i < counts.length(); i++) {
+            total += counts.get(i);
+        }
+        return total;
+    }
+
+    /**
+     * Estimates a percentile of the recorded values.
+     *
+     * @param percentile The percentile, from 0 to 100
+     * @return The upper edge of the bucket holding that percentile in nanoseconds, or 0 if nothing was recorded
+     */
+    public long getPercentile(double percentile) {
+        long total = getCount();
+        if (total == 0) {
+            return 0;
+        }
+        long rank = Math.max(1, (long) Math.ceil(total * percentile / 100.0));
+        long seen = 0;
+        for (int i = 0; i < counts.length(); i++) {
+            seen += counts.get(i);
+            if (seen >= rank) {
+                return upperEdge(i);
+            }
+        }
+        return upperEdge(counts.length() - 1);
+    }
+
+    /**
+     * Clears all recorded measurements.
+     */
+    public void reset() {
+        for (int i = 0; i < counts.length(); i++) {
+            counts.set(i, 0);
+        }
+    }
+
+    /**
+     * Maps a value to its bucket: values below 8 get their own bucket, larger values are bucketed by their
+     * highest set bit plus the next three bits.
+     */
+    private static int bucketOf(long value) {
+        if (value < SUB_BUCKETS) {
+            return (int) value;
+        }
+        int exponent = 63 - Long.numberOfLeadingZeros(value); // At least SUB_BITS
+        int sub = (int) (value >>> (exponent - SUB_BITS)) & (SUB_BUCKETS - 1);
+        return ((exponent - SUB_BITS + 1) << SUB_BITS) | sub;
+    }
+
+    /**
+     * Gives the largest value that maps to a bucket.
+     */
+    private static long upperEdge(int bucket) {
+        if (bucket < SUB_BUCKETS) {
+            return bucket;
+        }
+        int exponent = (bucket >>> SUB_BITS) + SUB_BITS - 1;
+        long sub = bucket & (SUB_BUCKETS - 1);
+        long lower = (1L << exponent) | (sub << (exponent - SUB_BITS));
+        return lower + (1L << (exponent - SUB_BITS)) - 1;
+    }
+}
@@ -5,6 +5,21 @@ public class MainApp {
     public static void main(String[] args) {
         // Initialize the model (CowboySeatTree)
         CowboySeatTree seatTree = new CowboySeatTree();
+        seatTree.addUnassignedSeats(1, SeatBitmap.STADIUM_SEATS); // Every seat starts out unassigned
+
+        // Expose engine metrics over JMX; -Dcowboyseats.metrics=true also turns them on with a text dump every 10s
+        EngineMetrics metrics = seatTree.getMetrics();
+        metrics.watchTree(seatTree);
+        metrics.watchCache(seatTree.getReservationCache());
+        try {
+            metrics.registerMBean();
+        } catch (javax.management.JMException e) {
+            e.printStackTrace();
+        }
+        if (Boolean.getBoolean("cowboyseats.metrics")) {
+            metrics.setEnabled(true);
+            metrics.startPeriodicDump(10, System.out);
+        }
 
         // Initialize the view (Swing-based GUI)
         SwingView view = new SwingView();
@@ -16,9 +31,36 @@ public class MainApp {
         // Display the view (start the GUI)
         javax.swing.SwingUtilities.invokeLater(() -> view.createAndShowGUI());
 
-        // Start processing CSV or handle user inputs via the controller
-        // TODO - Fix This
-        String csvFilePath = "path/to/your/csvfile.csv";
-        controller.processCSV("path/to/your/csvfile.csv");
+        // -Dcowboyseats.replicationPort=N lets standby replicas follow this process over a local socket
+        Integer replicationPort = Integer.getInteger("cowboyseats.replicationPort");
+        if (replicationPort != null) {
+            try {
+                controller.setReplication(new ReplicationPrimary(seatTree, replicationPort));
+            } catch (java.io.IOException e) {
+                e.printStackTrace();
+            }
+        }
+
+        // Start processing CSV or handle user inputs via the controller.
+        // The first argument is a CSV file, or a directory of outlet files replayed on the number of
+        // threads given by the second argument (all processors by default).
+        String csvPath = args.length > 0 ? args[0] : "path/to/your/csvfile.csv";
+        if (java.nio.file.Files.isDirectory(java.nio.file.Paths.get(csvPath))) {
+            int threads = args.length > 1 ? Integer.parseInt(args[1]) : Runtime.getRuntime().availableProcessors();
+            controller.processDirectory(csvPath, threads);
+        } else {
+            controller.processCSV(csvPath);
+        }
+
+        // -Dcowboyseats.export=FILE writes every block once the sale is processed, as CSV for *.csv, else binary
+        String exportPath = System.getProperty("cowboyseats.export");
+        if (exportPath != null) {
+            SeatExporter.Format format = exportPath.endsWith(".csv") ? SeatExporter.Format.CSV : SeatExporter.Format.BINARY;
+            try {
+                new SeatExporter().export(seatTree, java.nio.file.Paths.get(exportPath), format);
+            } catch (java.io.IOException e) {
+                e.printStackTrace();
+            }
+        }
     }
 }
@@ -0,0 +1,85 @@
+package edu.hsutx;
+
+import java.util.concurrent.ForkJoinPool;
+
+/**
+ * A map from String keys to values, kept in key order, with searches for the nearest value whose weight reaches
+ * a minimum. The weight of a value is fixed by the implementation, usually through a function given when the
+ * index is created; CowboySeatTree weighs free blocks by their seat count.
+ *
+ * RedBlackTree is the reference implementation. IndexEngine creates the others.
+ *
+ * @param <E> The type of the values
+ */
+public interface OrderedIndex<E> {
+
+    /**
+     * Adds a value under a key. Inserting a key that is already present leaves the index unchanged.
+     *
+     * @param key The key
+     * @param value The value
+     */
+    void insert(String key, E value);
+
+    /**
+     * Removes the value under a key, if any.
+     *
+     * @param key The key
+     */
+    void delete(String key);
+
+    /**
+     * Looks up the value under a key.
+     *
+     * @param key The key
+     * @return The value, or null if the key is not present
+     */
+    E getValue(String key);
+
+    /**
+     * Counts the keys in the index.
+     *
+     * @return The number of keys
+     */
+    int getSize();
+
+    /**
+     * Returns the values whose keys lie between lo and hi, in ascending key order. The index must not be
+     * modified while the result is being iterated.
+     *
+     * @param lo The lower bound, or null for no lower bound
+     * @param loInclusive Whether a key equal to lo is included
+     * @param hi The upper bound, or null for no upper bound
+     * @param hiInclusive Whether a key equal to hi is included
+     * @return The values in the range, smallest key first
+     */
+    Iterable<E> range(String lo, boolean loInclusive, String hi, boolean hiInclusive);
+
+    /**
+     * Finds the value with the largest key at or below the given key whose weight is at least minWeight.
+     *
+     * @param key The upper bound for the key, inclusive, or null for no bound
+     * @param minWeight The smallest acceptable weight
+     * @return The matching value, or null if there is none
+     */
+    E floorWithWeight(String key, int minWeight);
+
+    /**
+     * Finds the value with the smallest key strictly above the given key whose weight is at least minWeight.
+     *
+     * @param key The lower bound for the key, exclusive, or null for no bound
+     * @param minWeight The smallest acceptable weight
+     * @return The matching value, or null if there is none
+     */
+    E higherWithWeight(String key, int minWeight);
+
+    /**
+     * Replaces the contents of the index with the given sorted keys and values.
+     *
+     * @param keys The keys in strictly ascending order
+     * @param values The values, where values[i] belongs to keys[i]
+     * @param pool A pool the implementation may use to build in parallel
+     * @throws IllegalArgumentException If the arrays differ in length or the keys are not strictly ascending
+     */
+    void buildFromSorted(String[] keys, E[] values, ForkJoinPool pool);
+}
@@ -0,0 +1,188 @@
+package edu.hsutx;
+
+import java.util.Arrays;
+
+/**
+ * Interns owner names as dense int codes, so a seat block can refer to its owner with an int instead of a String.
+ *
+ * The characters of every name are packed end to end into one shared char array, with an offset and a hash per
+ * code and an open-addressing table from hash to code. A name costs about two bytes per character plus 20 bytes
+ * of arrays, against roughly 50 bytes of String object and backing array before its characters. Names are
+ * turned back into Strings only when asked for.
+ *
+ * Like String.intern, the dictionary only grows: a code stays valid, and keeps its name, for the life of the
+ * dictionary. There is no dictionary shared by everything, though: each CowboySeatTree keeps one for itself
+ * and the trees split from it, and every SeatAssignment refers to the dictionary its code belongs to, so the
+ * names go away with the last tree and block that use them. All methods are synchronized, so the events of a
+ * layout can intern into the dictionary of the tree it was taken from on different threads.
+ */
+public final class OwnerDictionary {
+    /** Code of a block that has no owner. */
+    public static final int NO_OWNER = -1;
+
+    private char[] chars;
+    private int charCount = 0;
+    private int[] offsets; // offsets[code] .. offsets[code + 1] holds the name of code
+    private int[] hashes;
+    private int[] table; // code + 1 per slot, 0 when empty; at most half full
+    private int size = 0;
+
+    /**
+     * Creates an empty dictionary sized for a tree's worth of owners.
+     */
+    public OwnerDictionary() {
+        this(64, 1024);
+    }
+
+    /**
+     * Creates an empty dictionary with room for the given number of names before it grows, e.g. one for the
+     * owner of a SeatAssignment built outside any tree.
+     *
+     * @param names The number of names to make room for, at least 1
+     * @param nameChars The number of chars to make room for
+     */
+    OwnerDictionary(int names, int nameChars) {
+        chars = new char[nameChars];
+        offsets = new int[names + 1];
+        hashes = new int[names];
+        table = new int[Integer.highestOneBit(2 * names - 1) * 2]; // The least power of two of at least 2 * names
+    }
+
+    /**
+     * Gets the code of a name, adding the name if it is new.
+     *
+     * @param name The owner name
+     * @return The code of the name
+     */
+    public synchronized int intern(String name) {
+        int hash = name.hashCode();
+        int mask = table.length - 1;
+        for (int slot = mix(hash) & mask; ; slot = (slot + 1) & mask) {
+            int entry = table[slot];
+            if (entry == 0) {
+                int code = add(name, hash);
+                table[slot] = code + 1;
+                if (2 * size > table.length) rehash(table.length * 2);
+                return code;
+            }
+            if (hashes[entry - 1] == hash && matches(entry - 1, name)) {
+                return entry - 1;
+            }
+        }
+    }
+
+    /**
+     * Gets the code of a name without adding it.
+     *
+     * @param name The owner name
+     * @return The code of the name, or NO_OWNER if it has never been interned
+     */
+    public synchronized int find(String name) {
+        int hash = name.hashCode();
+        int mask = table.length - 1;
+        for (int slot = mix(hash) & mask; ; slot = (slot + 1) & mask) {
+            int entry = table[slot];
+            if (entry == 0) return NO_OWNER;
+            if (hashes[entry - 1] == hash && matches(entry - 1, name)) return entry - 1;
+        }
+    }
+
+    /**
+     * Gets the name behind a code, as a new String.
+     *
+     * @param code A code returned by intern, or NO_OWNER
+     * @return The name, or null for NO_OWNER
+     */
+    public synchronized String name(int code) {
+        if (code == NO_OWNER) return null;
+        return new String(chars, offsets[code], offsets[code + 1] - offsets[code]);
+    }
+
+    /**
+     * Gets the length of the name behind a code without building a String.
+     *
+     * @param code A code returned by intern
+     * @return The number of chars in the name
+     */
+    public synchronized int nameLength(int code) {
+        return offsets[code + 1] - offsets[code];
+    }
+
+    /**
+     * Copies the name behind a code into a char array, e.g. a buffer reused across many names, without
+     * building a String.
+     *
+     * @param code A code returned by intern
+     * @param dst The array to copy into; must have room for nameLength(code) chars from dstBegin
+     * @param dstBegin The index in dst of the first char
+     * @return The number of chars copied
+     */
+    public synchronized int getChars(int code, char[] dst, int dstBegin) {
+        int length = offsets[code + 1] - offsets[code];
+        System.arraycopy(chars, offsets[code], dst, dstBegin, length);
+        return length;
+    }
+
+    /**
+     * Counts the names interned so far.
+     *
+     * @return The number of codes handed out
+     */
+    public synchronized int size() {
+        return size;
+    }
+
+    /**
+     * Estimates the bytes held by the dictionary's arrays.
+     *
+     * @return The combined length in bytes of the character, offset, hash and lookup arrays
+     */
+    public synchronized long getFootprintBytes() {
+        return 2L * chars.length + 4L * (offsets.length + hashes.length + table.length);
+    }
+
+    private int add(String name, int hash) {
+        int length = name.length();
+        if (charCount + length > chars.length) {
+            chars = Arrays.copyOf(chars, Math.max(chars.length * 2, charCount + length));
+        }
+        name.getChars(0, length, chars, charCount);
+        charCount += length;
+        if (size == hashes.length) {
+            hashes = Arrays.copyOf(hashes, size * 2);
+            offsets = Arrays.copyOf(offsets, size * 2 + 1);
+        }
+        hashes[size] = hash;
+        offsets[size + 1] = charCount;
+        return size++;
+    }
+
+    private boolean matches(int code, String name) {
+        int start = offsets[code];
+        int length = offsets[code + 1] - start;
+        if (length != name.length()) return false;
+        for (int i = 0; i < length; i++) {
+            if (chars[start + i] != name.charAt(i)) return false;
+        }
+        return true;
+    }
+
+    private void rehash(int capacity) {
+        int[] grown = new int[capacity];
+        int mask = capacity - 1;
+        for (int code = 0; code < size; code++) {
+            int slot = mix(hashes[code]) & mask;
+            while (grown[slot] != 0) slot = (slot + 1) & mask;
+            grown[slot] = code + 1;
+        }
+        table = grown;
+    }
+
+    /**
+     * Spreads the bits of a String hash, whose low bits are weak for names that differ only at the end.
+     */
+    private static int mix(int hash) {
+        hash *= 0x9E3779B9;
+        return hash ^ (hash >>> 16);
+    }
+}
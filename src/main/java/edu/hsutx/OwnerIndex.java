@@ -0,0 +1,157 @@
+package edu.hsutx;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+
+/**
+ * Reservations keyed by the OwnerDictionary code of their owner, in an open-addressing table with linear
+ * probing. Holding int codes instead of owner Strings, it costs about 16 bytes per owner where a tree keyed by
+ * name cost a node plus the name.
+ *
+ * Owners may hold several reservations. A slot holds the owner's only reservation directly, or an array of
+ * them once there are more, so the common case of one reservation per owner costs nothing extra. Where one
+ * reservation is asked for, the one starting at the lowest seat is returned, which does not depend on the
+ * order the reservations were added in.
+ *
+ * Not thread-safe, but a table nobody writes to any more may be read from any number of threads.
+ */
+class OwnerIndex {
+    private int[] codes = new int[16]; // code + 1 per slot, 0 when empty; at most half full
+    private Object[] reservations = new Object[16]; // A SeatAssignment, or a SeatAssignment[] of two or more
+    private int owners = 0; // Occupied slots
+    private int size = 0; // Reservations, over all owners
+
+    /**
+     * Counts the reservations held, over all owners.
+     */
+    int size() {
+        return size;
+    }
+
+    /**
+     * Gets the owner's reservation starting at the lowest seat, or null if the owner holds none.
+     */
+    SeatAssignment get(int code) {
+        Object held = find(code);
+        if (!(held instanceof SeatAssignment[])) return (SeatAssignment) held;
+        SeatAssignment first = null;
+        for (SeatAssignment reservation : (SeatAssignment[]) held) {
+            if (first == null || reservation.getSeatStartIndex() < first.getSeatStartIndex()) first = reservation;
+        }
+        return first;
+    }
+
+    /**
+     * Lists every reservation of the owner by starting seat, empty if the owner holds none.
+     */
+    List<SeatAssignment> getAll(int code) {
+        Object held = find(code);
+        List<SeatAssignment> all = new ArrayList<>();
+        if (held instanceof SeatAssignment[]) {
+            all.addAll(Arrays.asList((SeatAssignment[]) held));
+            all.sort((a, b) -> Integer.compare(a.getSeatStartIndex(), b.getSeatStartIndex()));
+        } else if (held != null) {
+            all.add((SeatAssignment) held);
+        }
+        return all;
+    }
+
+    /**
+     * Adds a reservation of the owner, next to any the owner already holds.
+     */
+    void add(int code, SeatAssignment reservation) {
+        int mask = codes.length - 1;
+        int slot = slotFor(code, mask);
+        while (codes[slot] != 0 && codes[slot] != code + 1) slot = (slot + 1) & mask;
+        size++;
+        if (codes[slot] != 0) {
+            Object held = reservations[slot];
+            SeatAssignment[] more;
+            if (held instanceof SeatAssignment[]) {
+                more = Arrays.copyOf((SeatAssignment[]) held, ((SeatAssignment[]) held).length + 1);
+            } else {
+                more = new SeatAssignment[] { (SeatAssignment) held, null };
+            }
+            more[more.length - 1] = reservation;
+            reservations[slot] = more;
+            return;
+        }
+        codes[slot] = code + 1;
+        reservations[slot] = reservation;
+        if (2 * ++owners > codes.length) resize(codes.length * 2);
+    }
+
+    /**
+     * Removes one reservation of the owner, matched by identity. The owner's other reservations stay.
+     *
+     * @return false if the owner does not hold that reservation
+     */
+    boolean remove(int code, SeatAssignment reservation) {
+        int mask = codes.length - 1;
+        int slot = slotFor(code, mask);
+        while (codes[slot] != code + 1) {
+            if (codes[slot] == 0) return false;
+            slot = (slot + 1) & mask;
+        }
+        Object held = reservations[slot];
+        if (held instanceof SeatAssignment[]) {
+            SeatAssignment[] all = (SeatAssignment[]) held;
+            int i = 0;
+            while (i < all.length && all[i] != reservation) i++;
+            if (i == all.length) return false;
+            size--;
+            if (all.length == 2) {
+                reservations[slot] = all[1 - i];
+            } else {
+                SeatAssignment[] fewer = Arrays.copyOf(all, all.length - 1);
+                if (i < fewer.length) fewer[i] = all[all.length - 1];
+                reservations[slot] = fewer;
+            }
+            return true;
+        }
+        if (held != reservation) return false;
+        size--;
+        owners--;
+        // Shift later entries of the probe run back so lookups never stop at the hole
+        for (int next = (slot + 1) & mask; codes[next] != 0; next = (next + 1) & mask) {
+            int home = slotFor(codes[next] - 1, mask);
+            if (((next - home) & mask) >= ((next - slot) & mask)) {
+                codes[slot] = codes[next];
+                reservations[slot] = reservations[next];
+                slot = next;
+            }
+        }
+        codes[slot] = 0;
+        reservations[slot] = null;
+        return true;
+    }
+
+    private Object find(int code) {
+        int mask = codes.length - 1;
+        for (int slot = slotFor(code, mask); codes[slot] != 0; slot = (slot + 1) & mask) {
+            if (codes[slot] == code + 1) return reservations[slot];
+        }
+        return null;
+    }
+
+    private void resize(int capacity) {
+        int[] oldCodes = codes;
+        Object[] oldReservations = reservations;
+        codes = new int[capacity];
+        reservations = new Object[capacity];
+        int mask = capacity - 1;
+        for (int i = 0; i < oldCodes.length; i++) {
+            if (oldCodes[i] == 0) continue;
+            int slot = slotFor(oldCodes[i] - 1, mask);
+            while (codes[slot] != 0) slot = (slot + 1) & mask;
+            codes[slot] = oldCodes[i];
+            reservations[slot] = oldReservations[i];
+        }
+    }
+
+    private static int slotFor(int code, int mask) {
+        int hash = code * 0x9E3779B9; // Codes are dense, so scatter them before taking the low bits
+        return (hash ^ (hash >>> 16)) & mask;
+    }
+}
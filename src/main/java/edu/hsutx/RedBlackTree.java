@@ -1,14 +1,33 @@
 package edu.hsutx;
 
+import java.util.ArrayList;
+import java.util.Iterator;
+import java.util.List;
+import java.util.NoSuchElementException;
+import java.util.concurrent.ForkJoinPool;
+import java.util.concurrent.RecursiveTask;
+
 /**
  * @author Jonathan Makenene
  * @version 1.0
  * Red-Black Tree implementation for CSCI-3323 assignment
  * This Red-Black Tree follows the properties of Red-Black Trees for balanced binary search trees.
  */
-public class RedBlackTree<E> {
+public class RedBlackTree<E> implements OrderedIndex<E> {
+    /** Subtrees at or below this many nodes are handled sequentially by the fork-join tasks. */
+    private static final int PARALLEL_THRESHOLD = 4096;
+
     Node root;
     int size;
+    private volatile int blackHeight; // black nodes on every root-to-leaf path, kept current by every mutation
+    private EngineMetrics metrics = EngineMetrics.shared();
+    private int relinks; // Bumped whenever nodes may have moved to another tree, which invalidates every Finger
+    private BalanceMode balanceMode = BalanceMode.STRICT;
+    // Deletes since the last rebuild that left a path one black node short. While this is not 0, blackHeight
+    // only bounds the black nodes on any path from above, and split and join, which need equal black heights,
+    // rebuild first. Inserts still raise blackHeight but deletes never lower it, so the tree is also rebuilt
+    // once it passes maxRelaxedBlackHeight().
+    private int relaxedDeletes;
 
     /**
      * Inner Node class representing each node in the Red-Black Tree.
@@ -22,6 +41,8 @@ public class RedBlackTree<E> {
         public Node right;
         public Node parent;
         public boolean color; // true = red, false = black
+        public int count; // number of nodes in the subtree rooted here
+        public int maxWeight; // largest weight() of any value in the subtree rooted here
 
         /**
          * Constructor to initialize a new node with key, value, parent, and color.
@@ -38,6 +59,8 @@ public class RedBlackTree<E> {
             this.left = null;
             this.right = null;
             this.color = color;
+            this.count = 1;
+            this.maxWeight = weight(value);
         }
 
         /**
@@ -75,6 +98,59 @@ public class RedBlackTree<E> {
         }
     }
 
+    /**
+     * A remembered position in this tree. A search given a finger starts at the node where the finger's previous
+     * search ended, climbs only until it reaches a subtree spanning the new key, and descends from there, so a
+     * run of searches for nearby keys costs O(log d) each, d being the number of keys between consecutive
+     * searches, instead of O(log n). A finger survives inserts and deletes, including of the node it rests on;
+     * after split, join, deleteRange or buildFromSorted its next search starts at the root.
+     *
+     * For keys far apart a finger search costs up to twice a search from the root. A finger is not thread-safe.
+     */
+    public class Finger {
+        private Node node;
+        private int relinks;
+        private int pathLength;
+
+        private Finger() {
+        }
+
+        /**
+         * Gets the number of nodes the last search climbed and descended through, comparable to the depth that
+         * a search from the root reaches.
+         *
+         * @return The path length of the last search
+         */
+        public int getPathLength() {
+            return pathLength;
+        }
+
+        /**
+         * Forgets the remembered position, so the next search starts at the root.
+         */
+        public void reset() {
+            node = null;
+        }
+
+        private void moveTo(Node node) {
+            this.node = node;
+            this.relinks = RedBlackTree.this.relinks;
+        }
+
+        private RedBlackTree<E> tree() {
+            return RedBlackTree.this;
+        }
+    }
+
+    /**
+     * Creates a finger for searches of this tree, starting out at the root.
+     *
+     * @return A new finger
+     */
+    public Finger newFinger() {
+        return new Finger();
+    }
+
     /**
      * Initializes the Red-Black Tree as empty with a size of zero.
      */
@@ -83,6 +159,44 @@ public class RedBlackTree<E> {
         size = 0;
     }
 
+    /**
+     * Gets the metrics that this tree records its rebalancing and lookup work into.
+     *
+     * @return The metrics, EngineMetrics.shared() unless replaced
+     */
+    public EngineMetrics getMetrics() {
+        return metrics;
+    }
+
+    /**
+     * Sets the metrics that this tree records its rebalancing and lookup work into.
+     *
+     * @param metrics The metrics to record into
+     */
+    public void setMetrics(EngineMetrics metrics) {
+        this.metrics = metrics;
+    }
+
+    /**
+     * Gets how this tree restores balance after a delete.
+     *
+     * @return The balance mode, STRICT unless set
+     */
+    public BalanceMode getBalanceMode() {
+        return balanceMode;
+    }
+
+    /**
+     * Sets how this tree restores balance after a delete. Switching to STRICT rebuilds the tree first if relaxed
+     * deletes left it unbalanced.
+     *
+     * @param balanceMode The balance mode
+     */
+    public void setBalanceMode(BalanceMode balanceMode) {
+        this.balanceMode = balanceMode;
+        if (balanceMode == BalanceMode.STRICT) restoreBalance();
+    }
+
     /**
      * Inserts a new node into the Red-Black Tree.
      * This method performs a standard Binary Search Tree (BST) insertion and then
@@ -92,16 +206,30 @@ public class RedBlackTree<E> {
      * @param value The value of the node to be inserted
      */
     public void insert(String key, E value) {
+        insert(key, value, null);
+    }
+
+    /**
+     * Inserts a new node, searching for its place from a finger rather than the root. The finger is left on the
+     * new node, or on the node already holding the key.
+     *
+     * @param key The key of the node to be inserted
+     * @param value The value of the node to be inserted
+     * @param finger Where to start the search, or null to start at the root
+     */
+    public void insert(String key, E value, Finger finger) {
         Node x = new Node(key, value, null, true); // New node is initially red
         if (root == null) {
             root = x;
             root.color = false; // Root is always black
             size++;
+            blackHeight = 1;
+            if (finger != null) finger.moveTo(x);
             return;
         }
 
         Node p = null;
-        Node current = root;
+        Node current = finger == null ? root : climb(finger, key);
 
         while (current != null) {
             p = current;
@@ -110,8 +238,10 @@ public class RedBlackTree<E> {
             } else if (key.compareTo(current.key) > 0) {
                 current = current.right;
             } else {
+                if (finger != null) finger.moveTo(current);
                 return; // No need to insert duplicate keys
             }
+            if (finger != null) finger.pathLength++;
         }
         
         x.parent = p;
@@ -120,9 +250,19 @@ public class RedBlackTree<E> {
         } else {
             p.right = x;
         }
+        for (Node n = p; n != null; n = n.parent) {
+            n.count++;
+            n.maxWeight = Math.max(n.maxWeight, x.maxWeight);
+        }
 
         size++;
-        fixInsertion(x); // Fix the Red-Black Tree properties after insertion
+        if (fixInsertion(x)) { // Fix the Red-Black Tree properties after insertion
+            blackHeight++;
+            if (relaxedDeletes > 0 && blackHeight > maxRelaxedBlackHeight()) {
+                restoreBalance(); // The bound has drifted too far from the real black height to be of use
+            }
+        }
+        if (finger != null) finger.moveTo(x);
     }
 
     /**
@@ -131,26 +271,79 @@ public class RedBlackTree<E> {
      * 1. Node has no children
      * 2. Node has one child
      * 3. Node has two children
-     * After deletion, the tree may become unbalanced, requiring rebalancing and recoloring.
+     * After deletion, the tree may become unbalanced, requiring rebalancing and recoloring, unless the tree is
+     * in BalanceMode.RELAXED_DELETES.
      * 
      * @param key The key of the node to be deleted
      */
     public void delete(String key) {
-        Node nodeToDelete = find(key);
+        delete(key, null);
+    }
+
+    /**
+     * Deletes a node, searching for it from a finger rather than the root. The finger is left on a node near the
+     * deleted one.
+     *
+     * @param key The key of the node to be deleted
+     * @param finger Where to start the search, or null to start at the root
+     */
+    public void delete(String key, Finger finger) {
+        Node nodeToDelete = finger == null ? find(key) : findFrom(finger, key);
         if (nodeToDelete == null) {
             return; // Node not found
         }
 
+        boolean relaxed = balanceMode == BalanceMode.RELAXED_DELETES;
+        if (unlink(nodeToDelete, !relaxed)) {
+            blackHeight--;
+        }
+        size--;
+        nodeToDelete.count = 0; // Every node in a tree counts itself, so this tells fingers the node is gone
+        if (root == null) {
+            blackHeight = 0;
+            relaxedDeletes = 0;
+        } else if (relaxed && relaxedDeletes > size / 4) {
+            restoreBalance(); // Costs O(size), paid for by the more than size / 4 deletes since the last rebuild
+        } else if (relaxedDeletes > 0 && blackHeight > maxRelaxedBlackHeight()) {
+            restoreBalance(); // The tree shrank under a black height that deletes do not lower
+        }
+        if (finger != null) finger.moveTo(nodeToDelete.parent != null ? nodeToDelete.parent : root); // Its old parent stays in the tree
+    }
+
+    /**
+     * Removes the given node from the tree rooted at root and rebalances.
+     * Does not adjust size or black height, so it can also be used on the detached pieces built by split and join.
+     *
+     * @param nodeToDelete The node to remove
+     * @return True if the black height of the tree dropped by one
+     */
+    private boolean unlink(Node nodeToDelete) {
+        return unlink(nodeToDelete, true);
+    }
+
+    /**
+     * Removes the given node, rebalancing only if asked to. Without rebalancing, a black node whose replacement
+     * is red is made up for by coloring the replacement black; otherwise the path through it is left one black
+     * node short and counted in relaxedDeletes.
+     *
+     * @param nodeToDelete The node to remove
+     * @param rebalance Whether to run the fix-up after removing a black node
+     * @return True if the black height of the tree dropped by one
+     */
+    private boolean unlink(Node nodeToDelete, boolean rebalance) {
         Node y = nodeToDelete;
         Node x;
+        Node xParent; // Tracked separately because x may be null
         boolean originalColor = y.color; // Store the original color of the node to be deleted
 
         // Case 1 & 2: Node has one or zero children
         if (nodeToDelete.left == null) {
             x = nodeToDelete.right;
+            xParent = nodeToDelete.parent;
             transplant(nodeToDelete, nodeToDelete.right);
         } else if (nodeToDelete.right == null) {
             x = nodeToDelete.left;
+            xParent = nodeToDelete.parent;
             transplant(nodeToDelete, nodeToDelete.left);
         } else {
             // Case 3: Node has two children
@@ -159,8 +352,10 @@ public class RedBlackTree<E> {
             x = y.right;
 
             if (y.parent == nodeToDelete) {
+                xParent = y;
                 if (x != null) x.parent = y;
             } else {
+                xParent = y.parent;
                 transplant(y, y.right);
                 y.right = nodeToDelete.right;
                 y.right.parent = y;
@@ -172,11 +367,73 @@ public class RedBlackTree<E> {
             y.color = nodeToDelete.color;
         }
 
-        size--;
+        updateNodesUpward(xParent);
 
+        if (root == null) {
+            return true; // Removed the last node
+        }
         if (originalColor == false) { // Rebalance if a black node was deleted
-            fixDeletion(x);
+            if (rebalance) return fixDeletion(x, xParent);
+            if (isRed(x)) {
+                x.color = false;
+                metrics.recolor(1);
+            } else {
+                relaxedDeletes++;
+                metrics.relaxedDelete();
+            }
         }
+        return false;
+    }
+
+    /**
+     * The most blackHeight may overstate the black nodes on any path while relaxed deletes are pending before
+     * the tree is rebuilt: twice the black height of a red-black tree of this size, which is at most
+     * log2(size + 1) rounded up. Keeps getMaxHeight() within twice the height a strict tree may have.
+     */
+    private int maxRelaxedBlackHeight() {
+        return 2 * (32 - Integer.numberOfLeadingZeros(size));
+    }
+
+    /**
+     * Rebuilds the tree perfectly balanced if relaxed deletes left some paths short of black nodes, so that it
+     * is a valid red-black tree again. The nodes are relinked in place in O(n), as buildFromSorted would build
+     * them; fingers into the tree go stale.
+     */
+    public void restoreBalance() {
+        if (relaxedDeletes == 0) {
+            return;
+        }
+        relaxedDeletes = 0;
+        relinks++;
+        List<Node> nodes = new ArrayList<>(size);
+        for (Node node = minimum(root); node != null; node = successor(node)) {
+            nodes.add(node);
+        }
+        int redDepth = 31 - Integer.numberOfLeadingZeros(size); // Depth of the deepest level
+        root = relink(nodes, 0, size, 0, redDepth);
+        root.parent = null;
+        root.color = false; // Root is always black
+        blackHeight = blackHeight(root);
+        metrics.rebuild(size);
+    }
+
+    /**
+     * Links a slice of in-order nodes into a balanced subtree around its middle node, coloring the nodes at
+     * redDepth red and all others black.
+     */
+    private Node relink(List<Node> nodes, int from, int to, int depth, int redDepth) {
+        if (from >= to) {
+            return null;
+        }
+        int mid = (from + to) >>> 1;
+        Node node = nodes.get(mid);
+        node.left = relink(nodes, from, mid, depth + 1, redDepth);
+        node.right = relink(nodes, mid + 1, to, depth + 1, redDepth);
+        if (node.left != null) node.left.parent = node;
+        if (node.right != null) node.right.parent = node;
+        node.color = depth == redDepth;
+        updateNode(node);
+        return node;
     }
 
     /**
@@ -217,8 +474,10 @@ public class RedBlackTree<E> {
      * Handles recoloring and rotations as needed.
      * 
      * @param node The node that was just inserted and may require rebalancing
+     * @return True if the root had to be recolored black, i.e. the black height of the tree grew by one
      */
-    private void fixInsertion(Node node) {
+    private boolean fixInsertion(Node node) {
+        metrics.insertFixup();
         while (node != root && node.parent.color == true) { // Parent is red
             if (node.parent == node.parent.parent.left) { // Parent is left child
                 Node x = node.parent.parent.right;
@@ -227,6 +486,7 @@ public class RedBlackTree<E> {
                     node.parent.color = false;
                     x.color = false;
                     node.parent.parent.color = true;
+                    metrics.recolor(3);
                     node = node.parent.parent;
                 } else {
                     if (node == node.parent.right) { // Case 2: Node is right child
@@ -236,6 +496,7 @@ public class RedBlackTree<E> {
                     // Case 3: Node is left child
                     node.parent.color = false;
                     node.parent.parent.color = true;
+                    metrics.recolor(2);
                     rotateRight(node.parent.parent);
                 }
             } else { // Mirror cases if parent is right child
@@ -245,6 +506,7 @@ public class RedBlackTree<E> {
                     node.parent.color = false;
                     y.color = false;
                     node.parent.parent.color = true;
+                    metrics.recolor(3);
                     node = node.parent.parent;
                 } else {
                     if (node == node.parent.left) { // Case 2: Node is left child
@@ -254,73 +516,94 @@ public class RedBlackTree<E> {
                     // Case 3: Node is right child
                     node.parent.color = false;
                     node.parent.parent.color = true;
+                    metrics.recolor(2);
                     rotateLeft(node.parent.parent);
                 }
             }
         }
+        boolean grew = root.color == true;
+        if (grew) metrics.recolor(1);
         root.color = false; // Ensure root is always black
+        return grew;
     }
 
     /**
      * Fixes the tree after deletion to restore Red-Black Tree properties.
      * Handles recoloring and rotations as needed.
+     * The parent is passed separately because the node carrying the extra black may be null.
      * 
      * @param node The node to be fixed
+     * @param parent The parent of the node to be fixed
+     * @return True if the extra black was pushed all the way up to the root, lowering the black height by one
      */
-    private void fixDeletion(Node node) {
-        while (node != null && node != root && isBlack(node)) {
-            if (node == node.parent.left) {
-                Node sibling = node.parent.right;
+    private boolean fixDeletion(Node node, Node parent) {
+        metrics.deleteFixup();
+        boolean shrank = false;
+        while (node != root && isBlack(node)) {
+            if (node == parent.left) {
+                Node sibling = parent.right;
     
                 if (isRed(sibling)) { // Case 1: Sibling is red
                     sibling.color = false;
-                    node.parent.color = true;
-                    rotateLeft(node.parent);
-                    sibling = node.parent.right;
+                    parent.color = true;
+                    metrics.recolor(2);
+                    rotateLeft(parent);
+                    sibling = parent.right;
                 }
     
                 if (isBlack(sibling.left) && isBlack(sibling.right)) { // Case 2: Sibling's children are black
                     sibling.color = true;
-                    node = node.parent;
+                    metrics.recolor(1);
+                    node = parent;
+                    parent = node.parent;
+                    shrank = node == root;
                 } else {
                     if (isBlack(sibling.right)) { // Case 3: Sibling's left child is red, right child is black
                         sibling.left.color = false;
                         sibling.color = true;
+                        metrics.recolor(2);
                         rotateRight(sibling);
-                        sibling = node.parent.right;
+                        sibling = parent.right;
                     }
     
-                    sibling.color = node.parent.color; // Case 4: Sibling's right child is red
-                    node.parent.color = false;
+                    sibling.color = parent.color; // Case 4: Sibling's right child is red
+                    parent.color = false;
                     sibling.right.color = false;
-                    rotateLeft(node.parent);
+                    metrics.recolor(3);
+                    rotateLeft(parent);
                     node = root;
                 }
             } else { // Mirror cases if node is a right child
-                Node sibling = node.parent.left;
+                Node sibling = parent.left;
     
                 if (isRed(sibling)) { // Case 1: Sibling is red
                     sibling.color = false;
-                    node.parent.color = true;
-                    rotateRight(node.parent);
-                    sibling = node.parent.left;
+                    parent.color = true;
+                    metrics.recolor(2);
+                    rotateRight(parent);
+                    sibling = parent.left;
                 }
     
                 if (isBlack(sibling.right) && isBlack(sibling.left)) { // Case 2: Sibling's children are black
                     sibling.color = true;
-                    node = node.parent;
+                    metrics.recolor(1);
+                    node = parent;
+                    parent = node.parent;
+                    shrank = node == root;
                 } else {
                     if (isBlack(sibling.left)) { // Case 3: Sibling's right child is red, left child is black
                         sibling.right.color = false;
                         sibling.color = true;
+                        metrics.recolor(2);
                         rotateLeft(sibling);
-                        sibling = node.parent.left;
+                        sibling = parent.left;
                     }
     
-                    sibling.color = node.parent.color; // Case 4: Sibling's left child is red
-                    node.parent.color = false;
+                    sibling.color = parent.color; // Case 4: Sibling's left child is red
+                    parent.color = false;
                     sibling.left.color = false;
-                    rotateRight(node.parent);
+                    metrics.recolor(3);
+                    rotateRight(parent);
                     node = root;
                 }
             }
@@ -328,6 +611,7 @@ public class RedBlackTree<E> {
         if (node != null) {
             node.color = false; // Ensure the node is black if not null
         }
+        return shrank;
     }
 
     /**
@@ -336,6 +620,7 @@ public class RedBlackTree<E> {
      * @param node The node to perform a left rotation on
      */
     private void rotateLeft(Node node) {
+        metrics.rotation();
         Node rightChild = node.right;
         node.right = rightChild.left;
         if (rightChild.left != null) {
@@ -351,6 +636,8 @@ public class RedBlackTree<E> {
         }
         rightChild.left = node;
         node.parent = rightChild;
+        updateNode(node);
+        updateNode(rightChild);
     }
 
     /**
@@ -359,6 +646,7 @@ public class RedBlackTree<E> {
      * @param node The node to perform a right rotation on
      */
     private void rotateRight(Node node) {
+        metrics.rotation();
         Node leftChild = node.left;
         node.left = leftChild.right;
         if (leftChild.right != null) {
@@ -374,6 +662,62 @@ public class RedBlackTree<E> {
         }
         leftChild.right = node;
         node.parent = leftChild;
+        updateNode(node);
+        updateNode(leftChild);
+    }
+
+    /**
+     * Returns the number of nodes in a subtree.
+     *
+     * @param node The root of the subtree, may be null
+     * @return The subtree size, 0 for an empty subtree
+     */
+    private int count(Node node) {
+        return node == null ? 0 : node.count;
+    }
+
+    /**
+     * Returns the largest weight in a subtree.
+     *
+     * @param node The root of the subtree, may be null
+     * @return The subtree's maximum weight, or Integer.MIN_VALUE for an empty subtree
+     */
+    private int maxWeight(Node node) {
+        return node == null ? Integer.MIN_VALUE : node.maxWeight;
+    }
+
+    /**
+     * Gives the weight of a value for the maxWeight summary kept on every node.
+     * Subclasses override this to search by a numeric property of their values in O(log n),
+     * e.g. the largest block in a key range. The default weight is 0.
+     *
+     * @param value The value to weigh
+     * @return The weight of the value
+     */
+    protected int weight(E value) {
+        return 0;
+    }
+
+    /**
+     * Recomputes a node's subtree size and maximum weight from its children.
+     *
+     * @param node The node to update
+     */
+    private void updateNode(Node node) {
+        node.count = 1 + count(node.left) + count(node.right);
+        node.maxWeight = Math.max(weight(node.value), Math.max(maxWeight(node.left), maxWeight(node.right)));
+    }
+
+    /**
+     * Recomputes subtree summaries from the given node up to the root after a structural change below it.
+     *
+     * @param node The lowest node whose subtree changed, may be null
+     */
+    private void updateNodesUpward(Node node) {
+        while (node != null) {
+            updateNode(node);
+            node = node.parent;
+        }
     }
 
     /**
@@ -384,6 +728,7 @@ public class RedBlackTree<E> {
      */
     Node find(String key) {
         Node current = root;
+        int depth = 0;
         while (current != null) {
             int comp = key.compareTo(current.key);
             if (comp < 0) {
@@ -391,12 +736,69 @@ public class RedBlackTree<E> {
             } else if (comp > 0) {
                 current = current.right;
             } else {
+                metrics.lookup(depth);
                 return current;
             }
+            depth++;
         }
+        metrics.lookup(depth);
         return null;
     }
 
+    /**
+     * Finds a node with the given key, starting from a finger, and leaves the finger on the node found or on the
+     * last node visited.
+     *
+     * @param finger Where to start the search
+     * @param key The key of the node to search for
+     * @return The node with the given key, or null if not found
+     */
+    private Node findFrom(Finger finger, String key) {
+        Node current = climb(finger, key);
+        Node last = current;
+        while (current != null) {
+            int comp = key.compareTo(current.key);
+            if (comp == 0) break;
+            last = current;
+            current = comp < 0 ? current.left : current.right;
+            finger.pathLength++;
+        }
+        finger.moveTo(current != null ? current : last);
+        metrics.lookup(finger.pathLength);
+        return current;
+    }
+
+    /**
+     * Finds where a finger search for the key starts: the lowest ancestor of the finger's node whose subtree holds
+     * every key between the finger and the target. Going right, that is the first ancestor entered from its left
+     * child with a key above the target; going left, the mirror image. Starts at the root if the finger is unset
+     * or stale. Resets the finger's path length to the number of nodes climbed.
+     *
+     * @param finger The finger to start from
+     * @param key The key being searched for
+     * @return The node to descend from, null only if the tree is empty
+     * @throws IllegalArgumentException If the finger belongs to another tree
+     */
+    private Node climb(Finger finger, String key) {
+        if (finger.tree() != this) {
+            throw new IllegalArgumentException("The finger belongs to another tree");
+        }
+        finger.pathLength = 0;
+        Node x = finger.node;
+        if (x == null || x.count == 0 || finger.relinks != relinks) {
+            return root;
+        }
+        int direction = key.compareTo(x.key);
+        while (direction != 0 && x.parent != null) {
+            Node p = x.parent;
+            boolean spans = direction > 0 ? x == p.left && key.compareTo(p.key) < 0 : x == p.right && key.compareTo(p.key) > 0;
+            if (spans) break;
+            x = p;
+            finger.pathLength++;
+        }
+        return x;
+    }
+
     /**
      * Returns the value associated with a given key.
      * 
@@ -404,18 +806,21 @@ public class RedBlackTree<E> {
      * @return The value associated with the given key, or null if the key does not exist
      */
     public E getValue(String key) {
-        Node current = root;
-        while (current != null) {
-            int comp = key.compareTo(current.key);
-            if (comp < 0) {
-                current = current.left;
-            } else if (comp > 0) {
-                current = current.right;
-            } else {
-                return current.value;
-            }
-        }
-        return null;
+        Node node = find(key);
+        return node == null ? null : node.value;
+    }
+
+    /**
+     * Returns the value associated with a given key, searching from a finger, which is left on the node found
+     * or, if the key is missing, on the last node visited.
+     *
+     * @param key The key of the node to retrieve the value for
+     * @param finger Where to start the search, or null to start at the root
+     * @return The value associated with the given key, or null if the key does not exist
+     */
+    public E getValue(String key, Finger finger) {
+        Node node = finger == null ? find(key) : findFrom(finger, key);
+        return node == null ? null : node.value;
     }
 
     /**
@@ -434,11 +839,51 @@ public class RedBlackTree<E> {
      * @return The depth of the node with the given key, or 0 if the key does not exist
      */
     public int getDepth(String key) {
-        Node node = find(key);
-        if (node != null) return node.getDepth();
+        Node current = root;
+        int depth = 0;
+        while (current != null) {
+            int comp = key.compareTo(current.key);
+            if (comp == 0) return depth;
+            current = comp < 0 ? current.left : current.right;
+            depth++;
+        }
         return 0;
     }
 
+    /**
+     * Returns the black height of the tree: the number of black nodes on any path from the root to a leaf.
+     * While relaxed deletes are pending it is only an upper bound, as deletes no longer lower it; the tree is
+     * rebuilt before it exceeds twice the black height a strict tree of this size may have. Maintained on every insert and delete, so this is O(1) and safe to sample from a monitoring thread.
+     *
+     * @return The black height, or 0 for an empty tree
+     */
+    public int getBlackHeight() {
+        return blackHeight;
+    }
+
+    /**
+     * Returns a lower bound on the height of the tree, counted in nodes on the longest root-to-leaf path.
+     * No binary tree of this size can be shallower, and no path can hold fewer black nodes than the black height.
+     * While relaxed deletes are pending, the black height is only an upper bound, so only the size counts.
+     *
+     * @return The lower bound, or 0 for an empty tree
+     */
+    public int getMinHeight() {
+        int sizeBound = 32 - Integer.numberOfLeadingZeros(size);
+        return relaxedDeletes == 0 ? Math.max(blackHeight, sizeBound) : sizeBound;
+    }
+
+    /**
+     * Returns an upper bound on the height of the tree, counted in nodes on the longest root-to-leaf path.
+     * Red nodes never have red children and the root is black, so no path is more than twice the black height.
+     * That holds while relaxed deletes are pending too, as no path then holds more black nodes than it.
+     *
+     * @return The upper bound, or 0 for an empty tree
+     */
+    public int getMaxHeight() {
+        return 2 * blackHeight;
+    }
+
     /**
      * Checks if a node is red.
      * 
@@ -468,47 +913,803 @@ public class RedBlackTree<E> {
         return size;
     }
 
+    /**
+     * Finds the node with the maximum key in the subtree rooted at the given node.
+     *
+     * @param node The root node of the subtree
+     * @return The node with the maximum key in the subtree
+     */
+    private Node maximum(Node node) {
+        while (node.right != null) {
+            node = node.right;
+        }
+        return node;
+    }
+
+    /**
+     * Returns the in-order successor of a node by following parent links, without restarting from the root.
+     *
+     * @param node The node to start from
+     * @return The node with the next larger key, or null if node holds the largest key
+     */
+    private Node successor(Node node) {
+        if (node.right != null) {
+            return minimum(node.right);
+        }
+        Node p = node.parent;
+        while (p != null && node == p.right) {
+            node = p;
+            p = p.parent;
+        }
+        return p;
+    }
+
+    /**
+     * Returns the in-order predecessor of a node by following parent links, without restarting from the root.
+     *
+     * @param node The node to start from
+     * @return The node with the next smaller key, or null if node holds the smallest key
+     */
+    private Node predecessor(Node node) {
+        if (node.left != null) {
+            return maximum(node.left);
+        }
+        Node p = node.parent;
+        while (p != null && node == p.left) {
+            node = p;
+            p = p.parent;
+        }
+        return p;
+    }
+
+    /**
+     * Finds the node with the smallest key above the given bound.
+     *
+     * @param key The lower bound, or null for no bound
+     * @param inclusive Whether a node equal to the bound qualifies
+     * @return The first node at or after the bound, or null if there is none
+     */
+    private Node ceilingNode(String key, boolean inclusive) {
+        if (key == null) {
+            return root == null ? null : minimum(root);
+        }
+        Node best = null;
+        Node current = root;
+        while (current != null) {
+            int comp = key.compareTo(current.key);
+            if (comp < 0 || (comp == 0 && inclusive)) {
+                best = current;
+                if (comp == 0) break;
+                current = current.left;
+            } else {
+                current = current.right;
+            }
+        }
+        return best;
+    }
+
+    /**
+     * Finds the node with the largest key below the given bound.
+     *
+     * @param key The upper bound, or null for no bound
+     * @param inclusive Whether a node equal to the bound qualifies
+     * @return The last node at or before the bound, or null if there is none
+     */
+    private Node floorNode(String key, boolean inclusive) {
+        if (key == null) {
+            return root == null ? null : maximum(root);
+        }
+        Node best = null;
+        Node current = root;
+        while (current != null) {
+            int comp = key.compareTo(current.key);
+            if (comp > 0 || (comp == 0 && inclusive)) {
+                best = current;
+                if (comp == 0) break;
+                current = current.right;
+            } else {
+                current = current.left;
+            }
+        }
+        return best;
+    }
+
+    /**
+     * Finds the value with the largest key at or below the given key whose weight is at least minWeight.
+     * Subtrees whose maxWeight is too small are skipped whole, so the search costs O(log n).
+     *
+     * @param key The upper bound for the key, inclusive, or null for no bound
+     * @param minWeight The smallest acceptable weight
+     * @return The matching value, or null if there is none
+     */
+    @Override
+    public E floorWithWeight(String key, int minWeight) {
+        Node node = floorWithWeight(root, key, minWeight, null);
+        return node == null ? null : node.value;
+    }
+
+    /**
+     * Like floorWithWeight(key, minWeight), but searching from a finger: first in the subtree the finger climbs
+     * to, then, if nothing there is heavy enough, in the ancestors below the key and their left subtrees, nearest
+     * first. The finger is left on the value found.
+     *
+     * @param key The upper bound for the key, inclusive, or null for no bound
+     * @param minWeight The smallest acceptable weight
+     * @param finger Where to start the search, or null to start at the root
+     * @return The matching value, or null if there is none
+     */
+    public E floorWithWeight(String key, int minWeight, Finger finger) {
+        if (finger == null || key == null) {
+            return floorWithWeight(key, minWeight);
+        }
+        Node start = climb(finger, key);
+        Node found = floorWithWeight(start, key, minWeight, finger);
+        for (Node child = start; found == null && child != null && child.parent != null; child = child.parent) {
+            Node p = child.parent;
+            finger.pathLength++;
+            if (child == p.right) { // p and its left subtree lie below the key, nearer than anything further up
+                found = weight(p.value) >= minWeight ? p : floorWithWeight(p.left, null, minWeight, finger);
+            }
+        }
+        finger.moveTo(found != null ? found : start);
+        return found == null ? null : found.value;
+    }
+
+    private Node floorWithWeight(Node node, String key, int minWeight, Finger counter) {
+        if (node == null || node.maxWeight < minWeight) {
+            return null;
+        }
+        if (counter != null) counter.pathLength++;
+        if (key != null && node.key.compareTo(key) > 0) {
+            return floorWithWeight(node.left, key, minWeight, counter);
+        }
+        Node found = floorWithWeight(node.right, key, minWeight, counter);
+        if (found != null) return found;
+        if (weight(node.value) >= minWeight) return node;
+        return floorWithWeight(node.left, key, minWeight, counter);
+    }
+
+    /**
+     * Finds the value with the smallest key strictly above the given key whose weight is at least minWeight.
+     * Subtrees whose maxWeight is too small are skipped whole, so the search costs O(log n).
+     *
+     * @param key The lower bound for the key, exclusive, or null for no bound
+     * @param minWeight The smallest acceptable weight
+     * @return The matching value, or null if there is none
+     */
+    @Override
+    public E higherWithWeight(String key, int minWeight) {
+        Node node = higherWithWeight(root, key, minWeight, null);
+        return node == null ? null : node.value;
+    }
+
+    /**
+     * Like higherWithWeight(key, minWeight), but searching from a finger, as floorWithWeight with a finger does.
+     * The finger is left on the value found.
+     *
+     * @param key The lower bound for the key, exclusive, or null for no bound
+     * @param minWeight The smallest acceptable weight
+     * @param finger Where to start the search, or null to start at the root
+     * @return The matching value, or null if there is none
+     */
+    public E higherWithWeight(String key, int minWeight, Finger finger) {
+        if (finger == null || key == null) {
+            return higherWithWeight(key, minWeight);
+        }
+        Node start = climb(finger, key);
+        Node found = higherWithWeight(start, key, minWeight, finger);
+        for (Node child = start; found == null && child != null && child.parent != null; child = child.parent) {
+            Node p = child.parent;
+            finger.pathLength++;
+            if (child == p.left) { // p and its right subtree lie above the key, nearer than anything further up
+                found = weight(p.value) >= minWeight ? p : higherWithWeight(p.right, null, minWeight, finger);
+            }
+        }
+        finger.moveTo(found != null ? found : start);
+        return found == null ? null : found.value;
+    }
+
+    private Node higherWithWeight(Node node, String key, int minWeight, Finger counter) {
+        if (node == null || node.maxWeight < minWeight) {
+            return null;
+        }
+        if (counter != null) counter.pathLength++;
+        if (key != null && node.key.compareTo(key) <= 0) {
+            return higherWithWeight(node.right, key, minWeight, counter);
+        }
+        Node found = higherWithWeight(node.left, key, minWeight, counter);
+        if (found != null) return found;
+        if (weight(node.value) >= minWeight) return node;
+        return higherWithWeight(node.right, key, minWeight, counter);
+    }
+
+    /**
+     * Checks whether a key lies on the allowed side of a bound.
+     *
+     * @param key The key to check
+     * @param bound The bound, or null for no bound
+     * @param inclusive Whether a key equal to the bound is allowed
+     * @param upper True if bound is an upper bound, false if it is a lower bound
+     * @return True if the key is within the bound
+     */
+    private static boolean withinBound(String key, String bound, boolean inclusive, boolean upper) {
+        if (bound == null) return true;
+        int comp = key.compareTo(bound);
+        if (upper) return comp < 0 || (comp == 0 && inclusive);
+        return comp > 0 || (comp == 0 && inclusive);
+    }
+
+    /**
+     * Returns the values whose keys lie between lo and hi, in ascending key order.
+     * The first value is located in O(log n) and each further value is reached through its in-order successor,
+     * so visiting k values costs O(log n + k). The tree must not be modified while the result is being iterated.
+     *
+     * @param lo The lower bound, or null for no lower bound
+     * @param loInclusive Whether a key equal to lo is included
+     * @param hi The upper bound, or null for no upper bound
+     * @param hiInclusive Whether a key equal to hi is included
+     * @return The values in the range, smallest key first
+     */
+    public Iterable<E> range(String lo, boolean loInclusive, String hi, boolean hiInclusive) {
+        return () -> new RangeIterator(ceilingNode(lo, loInclusive), hi, hiInclusive, true);
+    }
+
+    /**
+     * Returns the values whose keys lie between lo and hi, in descending key order.
+     * Costs O(log n + k) to visit k values. The tree must not be modified while the result is being iterated.
+     *
+     * @param lo The lower bound, or null for no lower bound
+     * @param loInclusive Whether a key equal to lo is included
+     * @param hi The upper bound, or null for no upper bound
+     * @param hiInclusive Whether a key equal to hi is included
+     * @return The values in the range, largest key first
+     */
+    public Iterable<E> descendingRange(String lo, boolean loInclusive, String hi, boolean hiInclusive) {
+        return () -> new RangeIterator(floorNode(hi, hiInclusive), lo, loInclusive, false);
+    }
+
+    /**
+     * Iterator that walks from a starting node towards an end bound using successor or predecessor links.
+     */
+    private class RangeIterator implements Iterator<E> {
+        private Node next;
+        private final String end;
+        private final boolean endInclusive;
+        private final boolean ascending;
+
+        /**
+         * @param start The first node to return, or null for an empty range
+         * @param end The bound at which iteration stops, or null for no bound
+         * @param endInclusive Whether a key equal to end is still returned
+         * @param ascending True to walk successors, false to walk predecessors
+         */
+        RangeIterator(Node start, String end, boolean endInclusive, boolean ascending) {
+            this.end = end;
+            this.endInclusive = endInclusive;
+            this.ascending = ascending;
+            this.next = (start != null && withinBound(start.key, end, endInclusive, ascending)) ? start : null;
+        }
+
+        @Override
+        public boolean hasNext() {
+            return next != null;
+        }
+
+        @Override
+        public E next() {
+            if (next == null) {
+                throw new NoSuchElementException();
+            }
+            Node current = next;
+            next = ascending ? successor(current) : predecessor(current);
+            if (next != null && !withinBound(next.key, end, endInclusive, ascending)) {
+                next = null;
+            }
+            return current.value;
+        }
+    }
+
+    /**
+     * Creates an empty tree of the same kind as this one. Subclasses override this so that split returns
+     * a tree of their own type.
+     *
+     * @return A new empty tree
+     */
+    protected RedBlackTree<E> createEmpty() {
+        return new RedBlackTree<>();
+    }
+
+    /**
+     * Splits this tree in two. Every node with a key greater than or equal to the given key is moved into a new
+     * tree, and the nodes with smaller keys stay in this one. Runs in O(log n); no nodes are copied.
+     *
+     * @param key The first key that belongs to the returned tree
+     * @return A new tree holding the keys at or above key
+     */
+    public RedBlackTree<E> split(String key) {
+        RedBlackTree<E> upper = createEmpty();
+        if (root == null) {
+            return upper;
+        }
+        restoreBalance();
+        relinks++;
+
+        Split parts = split(new Piece(root, blackHeight), key, false);
+        root = parts.left.root;
+        size = count(root);
+        blackHeight = parts.left.blackHeight;
+        upper.root = parts.right.root;
+        upper.size = count(upper.root);
+        upper.blackHeight = parts.right.blackHeight;
+        return upper;
+    }
+
+    /**
+     * Moves every node of another tree into this one. The key ranges must not overlap: all keys of other
+     * must be greater than all keys of this tree, or all smaller. Runs in O(log n); the other tree is left empty.
+     *
+     * @param other The tree to merge into this one
+     * @throws IllegalArgumentException If the key ranges of the two trees overlap
+     */
+    public void join(RedBlackTree<E> other) {
+        if (other == this || other.root == null) {
+            return;
+        }
+        restoreBalance();
+        other.restoreBalance();
+        relinks++;
+        other.relinks++;
+        if (root == null) {
+            root = other.root;
+            blackHeight = other.blackHeight;
+        } else {
+            Piece mine = new Piece(root, blackHeight);
+            Piece theirs = new Piece(other.root, other.blackHeight);
+            Piece joined;
+            if (maximum(root).key.compareTo(minimum(other.root).key) < 0) {
+                joined = join(mine, theirs);
+            } else if (maximum(other.root).key.compareTo(minimum(root).key) < 0) {
+                joined = join(theirs, mine);
+            } else {
+                throw new IllegalArgumentException("Cannot join trees whose key ranges overlap");
+            }
+            root = joined.root;
+            blackHeight = joined.blackHeight;
+        }
+        size = count(root);
+        other.root = null;
+        other.size = 0;
+        other.blackHeight = 0;
+    }
+
+    /**
+     * Deletes every node whose key lies between lo and hi.
+     * Rather than deleting the k nodes one at a time, the tree is split at both bounds and the outer pieces are
+     * joined back together, which costs O(log n) regardless of how many nodes are removed.
+     *
+     * @param lo The lower bound, or null for no lower bound
+     * @param loInclusive Whether a key equal to lo is deleted
+     * @param hi The upper bound, or null for no upper bound
+     * @param hiInclusive Whether a key equal to hi is deleted
+     * @return The number of nodes deleted
+     */
+    public int deleteRange(String lo, boolean loInclusive, String hi, boolean hiInclusive) {
+        if (root == null) {
+            return 0;
+        }
+        if (lo != null && hi != null && lo.compareTo(hi) > 0) {
+            return 0; // Empty range
+        }
+        restoreBalance();
+        relinks++;
+
+        Piece whole = new Piece(root, blackHeight);
+        Piece before = new Piece(null, 0);
+        Piece rest = whole;
+        if (lo != null) {
+            Split parts = split(whole, lo, !loInclusive);
+            before = parts.left;
+            rest = parts.right;
+        }
+
+        Piece middle = rest;
+        Piece after = new Piece(null, 0);
+        if (hi != null) {
+            Split parts = split(rest, hi, hiInclusive);
+            middle = parts.left;
+            after = parts.right;
+        }
+
+        int removed = count(middle.root);
+        Piece joined = join(before, after);
+        root = joined.root;
+        blackHeight = joined.blackHeight;
+        size -= removed;
+        return removed;
+    }
+
+    /**
+     * A detached subtree together with its black height, used while splitting and joining.
+     * The root of a piece is always black (or null for an empty piece).
+     */
+    private class Piece {
+        Node root;
+        int blackHeight;
+
+        Piece(Node root, int blackHeight) {
+            this.root = root;
+            this.blackHeight = blackHeight;
+        }
+    }
+
+    /**
+     * The two pieces produced by splitting a piece at a key.
+     */
+    private class Split {
+        Piece left;
+        Piece right;
+
+        Split(Piece left, Piece right) {
+            this.left = left;
+            this.right = right;
+        }
+    }
+
+    /**
+     * Computes the black height of a subtree by walking its left spine.
+     * The black height counts black nodes from the given node down to a null leaf, including the node itself.
+     *
+     * @param node The root of the subtree
+     * @return The black height of the subtree, 0 for an empty subtree
+     */
+    private int blackHeight(Node node) {
+        int height = 0;
+        while (node != null) {
+            if (isBlack(node)) height++;
+            node = node.left;
+        }
+        return height;
+    }
+
+    /**
+     * Detaches a child subtree from its parent and turns it into a piece with a black root.
+     *
+     * @param child The child subtree root, may be null
+     * @param blackHeight The black height of the child subtree
+     * @return The child as a standalone piece
+     */
+    private Piece detach(Node child, int blackHeight) {
+        if (child == null) return new Piece(null, 0);
+        child.parent = null;
+        if (isRed(child)) {
+            child.color = false;
+            blackHeight++;
+        }
+        return new Piece(child, blackHeight);
+    }
+
+    /**
+     * Splits a piece into the keys that go left of the given key and those that go right.
+     * Walks a single root-to-leaf path and joins the subtrees hanging off it, so the total cost is O(log n).
+     *
+     * @param piece The piece to split, which is consumed
+     * @param key The key to split at
+     * @param equalGoesLeft Whether a node equal to key belongs to the left result
+     * @return The left and right pieces
+     */
+    private Split split(Piece piece, String key, boolean equalGoesLeft) {
+        Node t = piece.root;
+        if (t == null) {
+            return new Split(new Piece(null, 0), new Piece(null, 0));
+        }
+
+        int childHeight = piece.blackHeight - (isBlack(t) ? 1 : 0);
+        Piece left = detach(t.left, childHeight);
+        Piece right = detach(t.right, childHeight);
+
+        int comp = key.compareTo(t.key);
+        if (comp > 0 || (comp == 0 && equalGoesLeft)) {
+            Split parts = split(right, key, equalGoesLeft);
+            return new Split(join(left, t, parts.left), parts.right);
+        } else {
+            Split parts = split(left, key, equalGoesLeft);
+            return new Split(parts.left, join(parts.right, t, right));
+        }
+    }
+
+    /**
+     * Joins two pieces with no middle node. Every key in left must be smaller than every key in right.
+     * The largest node of left is unlinked and reused as the middle node.
+     *
+     * @param left The piece with the smaller keys
+     * @param right The piece with the larger keys
+     * @return The joined piece
+     */
+    private Piece join(Piece left, Piece right) {
+        if (left.root == null) return right;
+        if (right.root == null) return left;
+
+        root = left.root;
+        Node middle = maximum(root);
+        boolean shrank = unlink(middle);
+        Piece rest = new Piece(root, left.blackHeight - (shrank ? 1 : 0));
+        return join(rest, middle, right);
+    }
+
+    /**
+     * Joins two pieces around a middle node whose key lies between them.
+     * The shorter piece is hung off the spine of the taller one at matching black height, so the cost is
+     * proportional to the difference in black heights.
+     *
+     * @param left The piece with the smaller keys
+     * @param middle The node whose key is between left and right
+     * @param right The piece with the larger keys
+     * @return The joined piece
+     */
+    private Piece join(Piece left, Node middle, Piece right) {
+        middle.parent = null;
+        if (left.blackHeight == right.blackHeight) {
+            middle.left = left.root;
+            middle.right = right.root;
+            if (left.root != null) left.root.parent = middle;
+            if (right.root != null) right.root.parent = middle;
+            middle.color = false;
+            updateNode(middle);
+            return new Piece(middle, left.blackHeight + 1);
+        }
+
+        boolean leftTaller = left.blackHeight > right.blackHeight;
+        Piece tall = leftTaller ? left : right;
+        Piece shortPiece = leftTaller ? right : left;
+
+        // Walk down the inner spine of the taller piece to a black node with the same black height
+        Node parent = null;
+        Node current = tall.root;
+        int height = tall.blackHeight;
+        while (!(isBlack(current) && height == shortPiece.blackHeight)) {
+            if (isBlack(current)) height--;
+            parent = current;
+            current = leftTaller ? current.right : current.left;
+        }
+
+        middle.color = true;
+        middle.parent = parent;
+        if (leftTaller) {
+            middle.left = current;
+            middle.right = shortPiece.root;
+            parent.right = middle;
+        } else {
+            middle.left = shortPiece.root;
+            middle.right = current;
+            parent.left = middle;
+        }
+        if (current != null) current.parent = middle;
+        if (shortPiece.root != null) shortPiece.root.parent = middle;
+        updateNodesUpward(middle);
+
+        root = tall.root;
+        boolean grew = fixInsertion(middle);
+        return new Piece(root, tall.blackHeight + (grew ? 1 : 0));
+    }
+
     /**
      * Validates whether the tree satisfies the Red-Black Tree properties.
+     * Checks that the root is black, that no red node has a red child, that every path has the same number of
+     * black nodes, that keys are in binary search tree order, and that parent links and subtree sizes agree.
+     * While relaxed deletes are pending, paths may hold fewer black nodes than the black height, but none more.
      * 
      * @return True if the tree is a valid Red-Black Tree, false otherwise
      */
     public boolean validateRedBlackTree() {
         if (root == null) {
-            return true; // An empty tree is trivially a valid Red-Black Tree
+            return size == 0 && blackHeight == 0; // An empty tree is trivially a valid Red-Black Tree
         }
-        if (isRed(root)) {
+        if (isRed(root) || root.parent != null || root.count != size) {
             return false; // Root must be black
         }
 
-        return validateNode(root, 0, -1);
+        return blackHeightValid(validateNode(root, null, null));
+    }
+
+    /**
+     * Validates the tree using a fork-join pool. Subtrees larger than a threshold are checked as separate tasks,
+     * so a million-node tree is validated on all of the pool's threads. Performs the same checks as
+     * validateRedBlackTree().
+     *
+     * @param pool The pool to run the validation in
+     * @return True if the tree is a valid Red-Black Tree, false otherwise
+     */
+    public boolean validateRedBlackTree(ForkJoinPool pool) {
+        if (root == null) {
+            return size == 0 && blackHeight == 0;
+        }
+        if (isRed(root) || root.parent != null || root.count != size) {
+            return false;
+        }
+
+        return blackHeightValid(pool.invoke(new ValidateTask(root, null, null)));
+    }
+
+    /**
+     * Checks the most black nodes found on a path against the black height.
+     */
+    private boolean blackHeightValid(int height) {
+        return relaxedDeletes == 0 ? height == blackHeight : height != -1 && height <= blackHeight;
     }
 
     /**
      * Recursively validates whether the current node and its descendants satisfy Red-Black Tree properties.
      * 
      * @param node The current node to check
-     * @param blackCount The current count of black nodes on the path
-     * @param expectedBlackCount The expected black count for all paths
-     * @return True if the tree satisfies the Red-Black Tree properties, false otherwise
+     * @param lo Every key in the subtree must be greater than this, or null for no bound
+     * @param hi Every key in the subtree must be less than this, or null for no bound
+     * @return The black height of the subtree (the most black nodes on any path while relaxed deletes are
+     *         pending), or -1 if the subtree is invalid
      */
-    private boolean validateNode(Node node, int blackCount, int expectedBlackCount) {
+    private int validateNode(Node node, String lo, String hi) {
         if (node == null) {
-            if (expectedBlackCount == -1) {
-                expectedBlackCount = blackCount;
+            return 0;
+        }
+        if (!validateLocal(node, lo, hi)) {
+            return -1;
+        }
+
+        int leftHeight = validateNode(node.left, lo, node.key);
+        if (leftHeight == -1) return -1;
+        int rightHeight = validateNode(node.right, node.key, hi);
+        if (rightHeight == -1 || (leftHeight != rightHeight && relaxedDeletes == 0)) return -1;
+
+        return Math.max(leftHeight, rightHeight) + (isBlack(node) ? 1 : 0);
+    }
+
+    /**
+     * Checks the properties of a single node that do not depend on its descendants' black heights.
+     *
+     * @param node The node to check
+     * @param lo The exclusive lower bound for the node's key, or null
+     * @param hi The exclusive upper bound for the node's key, or null
+     * @return True if the node is ordered, has no red-red violation, and its links and size are consistent
+     */
+    private boolean validateLocal(Node node, String lo, String hi) {
+        if ((lo != null && node.key.compareTo(lo) <= 0) || (hi != null && node.key.compareTo(hi) >= 0)) {
+            return false; // Out of search tree order
+        }
+        if (isRed(node) && (isRed(node.left) || isRed(node.right))) {
+            return false; // Red node with a red child
+        }
+        if ((node.left != null && node.left.parent != node) || (node.right != null && node.right.parent != node)) {
+            return false;
+        }
+        return node.count == 1 + count(node.left) + count(node.right)
+                && node.maxWeight == Math.max(weight(node.value), Math.max(maxWeight(node.left), maxWeight(node.right)));
+    }
+
+    /**
+     * Fork-join task that validates a subtree, forking the left child when the subtree is large.
+     * Produces the black height of the subtree, or -1 if it is invalid.
+     */
+    private class ValidateTask extends RecursiveTask<Integer> {
+        private final Node node;
+        private final String lo;
+        private final String hi;
+
+        ValidateTask(Node node, String lo, String hi) {
+            this.node = node;
+            this.lo = lo;
+            this.hi = hi;
+        }
+
+        @Override
+        protected Integer compute() {
+            if (count(node) <= PARALLEL_THRESHOLD) {
+                return validateNode(node, lo, hi);
+            }
+            if (!validateLocal(node, lo, hi)) {
+                return -1;
+            }
+
+            ValidateTask leftTask = new ValidateTask(node.left, lo, node.key);
+            leftTask.fork();
+            int rightHeight = new ValidateTask(node.right, node.key, hi).compute();
+            int leftHeight = leftTask.join();
+            if (leftHeight == -1 || rightHeight == -1 || (leftHeight != rightHeight && relaxedDeletes == 0)) return -1;
+
+            return Math.max(leftHeight, rightHeight) + (isBlack(node) ? 1 : 0);
+        }
+    }
+
+    /**
+     * Replaces the contents of the tree with the given sorted keys and values, building a balanced tree directly
+     * instead of inserting one key at a time. Each subtree is built from the middle element of its slice, the
+     * nodes on the deepest level are colored red and all others black. Large slices are built as separate
+     * fork-join tasks, so the build runs on all of the pool's threads.
+     *
+     * @param keys The keys in strictly ascending order
+     * @param values The values, where values[i] belongs to keys[i]
+     * @param pool The pool to run the build in
+     * @throws IllegalArgumentException If the arrays differ in length or the keys are not strictly ascending
+     */
+    public void buildFromSorted(String[] keys, E[] values, ForkJoinPool pool) {
+        if (keys.length != values.length) {
+            throw new IllegalArgumentException("Expected one value per key");
+        }
+        for (int i = 1; i < keys.length; i++) {
+            if (keys[i - 1].compareTo(keys[i]) >= 0) {
+                throw new IllegalArgumentException("Keys must be strictly ascending, found " + keys[i] + " after " + keys[i - 1]);
             }
-            return blackCount == expectedBlackCount;
         }
 
-        if (isRed(node)) {
-            if (isRed(node.left) || isRed(node.right)) {
-                return false;
+        relinks++;
+        relaxedDeletes = 0;
+        size = keys.length;
+        if (size == 0) {
+            root = null;
+            blackHeight = 0;
+            return;
+        }
+        int redDepth = 31 - Integer.numberOfLeadingZeros(size); // Depth of the deepest level
+        root = pool.invoke(new BuildTask(keys, values, 0, size, 0, redDepth));
+        root.color = false; // Root is always black
+        blackHeight = blackHeight(root);
+    }
+
+    /**
+     * Fork-join task that builds a balanced subtree from a slice of sorted keys and values.
+     */
+    private class BuildTask extends RecursiveTask<Node> {
+        private final String[] keys;
+        private final E[] values;
+        private final int from;
+        private final int to;
+        private final int depth;
+        private final int redDepth;
+
+        /**
+         * @param keys The sorted keys
+         * @param values The values matching the keys
+         * @param from The first index of the slice, inclusive
+         * @param to The last index of the slice, exclusive
+         * @param depth The depth of the subtree root
+         * @param redDepth The depth at which nodes are colored red
+         */
+        BuildTask(String[] keys, E[] values, int from, int to, int depth, int redDepth) {
+            this.keys = keys;
+            this.values = values;
+            this.from = from;
+            this.to = to;
+            this.depth = depth;
+            this.redDepth = redDepth;
+        }
+
+        @Override
+        protected Node compute() {
+            if (to - from <= PARALLEL_THRESHOLD) {
+                return build(from, to, depth);
             }
-        } else {
-            blackCount++;
+
+            int mid = (from + to) >>> 1;
+            BuildTask leftTask = new BuildTask(keys, values, from, mid, depth + 1, redDepth);
+            leftTask.fork();
+            Node right = new BuildTask(keys, values, mid + 1, to, depth + 1, redDepth).compute();
+            return link(mid, depth, leftTask.join(), right);
+        }
+
+        private Node build(int from, int to, int depth) {
+            if (from >= to) {
+                return null;
+            }
+            int mid = (from + to) >>> 1;
+            return link(mid, depth, build(from, mid, depth + 1), build(mid + 1, to, depth + 1));
         }
 
-        return validateNode(node.left, blackCount, expectedBlackCount) &&
-                validateNode(node.right, blackCount, expectedBlackCount);
+        private Node link(int mid, int depth, Node left, Node right) {
+            Node node = new Node(keys[mid], values[mid], null, depth == redDepth);
+            node.left = left;
+            node.right = right;
+            if (left != null) left.parent = node;
+            if (right != null) right.parent = node;
+            updateNode(node);
+            return node;
+        }
     }
 }
@@ -0,0 +1,191 @@
+package edu.hsutx;
+
+import java.io.BufferedOutputStream;
+import java.io.Closeable;
+import java.io.DataOutputStream;
+import java.io.IOException;
+import java.net.InetAddress;
+import java.net.ServerSocket;
+import java.net.Socket;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Queue;
+import java.util.concurrent.ConcurrentLinkedQueue;
+import java.util.concurrent.CopyOnWriteArrayList;
+import java.util.concurrent.locks.LockSupport;
+
+/**
+ * Ships the changes of a CowboySeatTree to SeatReplica processes over local TCP sockets.
+ *
+ * A replica that connects is first sent a snapshot of every block together with the event sequence it was
+ * taken at, then every SeatEvent published from that sequence on. Each replica has its own sender thread and
+ * its own subscription to the tree's event stream, so a slow replica never holds up bookings; one that falls
+ * a whole ring behind is disconnected and has to reconnect for a fresh snapshot.
+ *
+ * The tree is not thread-safe, so snapshots are taken by poll(), which the thread that owns the tree calls
+ * between mutations. Only allocate and release are published as events: other changes to the tree after a
+ * replica has connected are not replicated.
+ *
+ * Wire format, all big-endian via DataOutputStream. Snapshot: sequence (long), block count (int), then per
+ * block an owner and its quantity and start (ints). Event: type ordinal (byte), sequence (long), owner,
+ * start and quantity (ints). An owner is a boolean presence flag followed by a UTF string when present.
+ */
+public class ReplicationPrimary implements Closeable {
+    private static final long IDLE_PARK_NANOS = 200_000;
+
+    private final CowboySeatTree tree;
+    private final ServerSocket server;
+    private final Queue<Socket> pending = new ConcurrentLinkedQueue<>();
+    private final List<Sender> senders = new CopyOnWriteArrayList<>();
+    private volatile boolean running = true;
+
+    /**
+     * Starts listening for replicas on the loopback interface.
+     *
+     * @param tree The tree to replicate
+     * @param port The port to listen on, or 0 for any free port
+     * @throws IOException If the port cannot be opened
+     */
+    public ReplicationPrimary(CowboySeatTree tree, int port) throws IOException {
+        this.tree = tree;
+        this.server = new ServerSocket(port, 50, InetAddress.getLoopbackAddress());
+        Thread acceptor = new Thread(this::acceptReplicas, "replication-accept");
+        acceptor.setDaemon(true);
+        acceptor.start();
+    }
+
+    /**
+     * Gets the port replicas connect to.
+     *
+     * @return The listening port
+     */
+    public int getPort() {
+        return server.getLocalPort();
+    }
+
+    /**
+     * Starts shipping to replicas that have connected since the last call, snapshotting the tree for each.
+     * Must be called from the thread that mutates the tree; costs nothing when no replica is waiting.
+     */
+    public void poll() {
+        Socket socket;
+        while ((socket = pending.poll()) != null) {
+            List<SeatAssignment> blocks = new ArrayList<>(tree.getSize());
+            for (SeatAssignment block : tree.range(null, true, null, true)) {
+                blocks.add(block);
+            }
+            SeatEventStream events = tree.getEvents();
+            long sequence = events.getPublishedCount();
+            Sender sender = new Sender(socket, blocks, sequence, events.subscribeFrom(sequence));
+            senders.add(sender);
+            sender.start();
+        }
+    }
+
+    /**
+     * Counts the replicas currently being shipped to.
+     *
+     * @return The number of connected replicas
+     */
+    public int getReplicaCount() {
+        return senders.size();
+    }
+
+    /**
+     * Stops listening and disconnects every replica, as a crash of the primary would.
+     */
+    @Override
+    public void close() {
+        running = false;
+        closeQuietly(server);
+        for (Sender sender : senders) {
+            closeQuietly(sender.socket);
+        }
+        Socket socket;
+        while ((socket = pending.poll()) != null) {
+            closeQuietly(socket);
+        }
+    }
+
+    private void acceptReplicas() {
+        while (running) {
+            try {
+                Socket socket = server.accept();
+                socket.setTcpNoDelay(true);
+                pending.add(socket);
+            } catch (IOException e) {
+                if (running) e.printStackTrace();
+                return;
+            }
+        }
+    }
+
+    private static void closeQuietly(Closeable closeable) {
+        try {
+            closeable.close();
+        } catch (IOException ignored) {
+            // Already broken; nothing more to do
+        }
+    }
+
+    /**
+     * Writes one replica's snapshot and then its events until the connection or the primary closes.
+     */
+    private class Sender extends Thread {
+        private final Socket socket;
+        private final List<SeatAssignment> snapshot;
+        private final long sequence;
+        private final SeatEventStream.Subscription changes;
+
+        Sender(Socket socket, List<SeatAssignment> snapshot, long sequence, SeatEventStream.Subscription changes) {
+            super("replication-send-" + socket.getPort());
+            setDaemon(true);
+            this.socket = socket;
+            this.snapshot = snapshot;
+            this.sequence = sequence;
+            this.changes = changes;
+        }
+
+        @Override
+        public void run() {
+            try (DataOutputStream out = new DataOutputStream(new BufferedOutputStream(socket.getOutputStream()))) {
+                out.writeLong(sequence);
+                out.writeInt(snapshot.size());
+                for (SeatAssignment block : snapshot) {
+                    writeOwner(out, block.getOwner());
+                    out.writeInt(block.getSeatQuantity());
+                    out.writeInt(block.getSeatStartIndex());
+                }
+                out.flush();
+
+                while (running) {
+                    SeatEvent event = changes.poll();
+                    if (changes.getMissed() > 0) {
+                        System.out.println("Replica on port " + socket.getPort() + " fell behind; disconnecting it.");
+                        return;
+                    }
+                    if (event == null) {
+                        out.flush();
+                        LockSupport.parkNanos(IDLE_PARK_NANOS);
+                        continue;
+                    }
+                    out.writeByte(event.getType().ordinal());
+                    out.writeLong(event.getSequence());
+                    writeOwner(out, event.getOwner());
+                    out.writeInt(event.getSeatStart());
+                    out.writeInt(event.getSeatQuantity());
+                }
+            } catch (IOException e) {
+                // The replica went away; drop it
+            } finally {
+                senders.remove(this);
+                closeQuietly(socket);
+            }
+        }
+
+        private void writeOwner(DataOutputStream out, String owner) throws IOException {
+            out.writeBoolean(owner != null);
+            if (owner != null) out.writeUTF(owner);
+        }
+    }
+}
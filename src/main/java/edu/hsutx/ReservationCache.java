@@ -0,0 +1,251 @@
+package edu.hsutx;
+
+import java.util.Arrays;
+import java.util.concurrent.atomic.LongAdder;
+
+/**
+ * A bounded least-recently-used cache of reservations keyed by the owner code of their owner in the dictionary
+ * of the tree the cache belongs to.
+ *
+ * Entries are spread over a fixed number of segments by their code. Each segment is a small chained hash table
+ * of int keys threaded on an access-ordered list, guarded by its own lock, so lookups for different owners
+ * rarely contend, and each evicts its own least recently used entry once it holds its share of the capacity.
+ * Lookups and invalidations allocate nothing, not even a boxed key, so the tree can invalidate an owner on
+ * every insert and delete of a reservation. Hits and misses are counted so the hit rate can be reported.
+ */
+public class ReservationCache {
+    private static final int SEGMENT_BITS = 4;
+    private static final int SEGMENTS = 1 << SEGMENT_BITS;
+
+    private final Segment[] segments;
+    private final int capacity;
+    private final LongAdder hits = new LongAdder();
+    private final LongAdder misses = new LongAdder();
+
+    /**
+     * Creates a cache holding at most roughly capacity reservations.
+     *
+     * @param capacity The number of reservations to keep, 0 to cache nothing
+     * @throws IllegalArgumentException If capacity is negative
+     */
+    public ReservationCache(int capacity) {
+        if (capacity < 0) {
+            throw new IllegalArgumentException("Cache capacity must not be negative: " + capacity);
+        }
+        this.capacity = capacity;
+        int perSegment = (capacity + SEGMENTS - 1) / SEGMENTS;
+        segments = new Segment[SEGMENTS];
+        for (int i = 0; i < SEGMENTS; i++) {
+            segments[i] = new Segment(perSegment);
+        }
+    }
+
+    /**
+     * Looks up the cached reservation of an owner, marking it as recently used and counting a hit or miss.
+     *
+     * @param ownerCode The code of the owner to look for
+     * @return The cached reservation, or null if the owner is not cached
+     */
+    public SeatAssignment get(int ownerCode) {
+        if (capacity == 0) {
+            misses.increment();
+            return null;
+        }
+        Segment segment = segmentFor(ownerCode);
+        SeatAssignment reservation;
+        synchronized (segment) {
+            reservation = segment.get(ownerCode);
+        }
+        if (reservation == null) misses.increment();
+        else hits.increment();
+        return reservation;
+    }
+
+    /**
+     * Caches the reservation of an owner, evicting the least recently used entry of the segment if it is full.
+     *
+     * @param ownerCode The code of the reservation's owner
+     * @param reservation The reservation to cache
+     */
+    public void put(int ownerCode, SeatAssignment reservation) {
+        if (capacity == 0) return;
+        Segment segment = segmentFor(ownerCode);
+        synchronized (segment) {
+            segment.put(ownerCode, reservation);
+        }
+    }
+
+    /**
+     * Drops the cached reservation of an owner, if any. Called whenever the owner's reservation changes.
+     *
+     * @param ownerCode The code of the owner whose entry is removed
+     */
+    public void invalidate(int ownerCode) {
+        if (capacity == 0) return;
+        Segment segment = segmentFor(ownerCode);
+        synchronized (segment) {
+            segment.remove(ownerCode);
+        }
+    }
+
+    /**
+     * Drops every cached reservation. Hit and miss counts are kept.
+     */
+    public void invalidateAll() {
+        for (Segment segment : segments) {
+            synchronized (segment) {
+                segment.clear();
+            }
+        }
+    }
+
+    /**
+     * Counts the reservations currently cached.
+     *
+     * @return The number of cached reservations
+     */
+    public int size() {
+        int size = 0;
+        for (Segment segment : segments) {
+            synchronized (segment) {
+                size += segment.size;
+            }
+        }
+        return size;
+    }
+
+    public int getCapacity() {
+        return capacity;
+    }
+
+    public long getHits() {
+        return hits.sum();
+    }
+
+    public long getMisses() {
+        return misses.sum();
+    }
+
+    /**
+     * Computes the fraction of lookups answered from the cache.
+     *
+     * @return hits / (hits + misses), or 0 if there have been no lookups
+     */
+    public double getHitRate() {
+        long h = hits.sum();
+        long total = h + misses.sum();
+        return total == 0 ? 0 : (double) h / total;
+    }
+
+    /**
+     * Resets the hit and miss counts.
+     */
+    public void resetStats() {
+        hits.reset();
+        misses.reset();
+    }
+
+    private Segment segmentFor(int ownerCode) {
+        return segments[ownerCode & (SEGMENTS - 1)]; // Codes are handed out densely, so the low bits spread well
+    }
+
+    /**
+     * One lock stripe of the cache: a hash table of at most limit entries whose entries also sit on a list from
+     * least to most recently used, so the eldest is dropped when the table is over its limit.
+     */
+    private static final class Segment {
+        private final int limit;
+        private final Entry[] buckets;
+        private final Entry eldest = new Entry(OwnerDictionary.NO_OWNER, null); // Sentinel of the circular list
+        private int size = 0;
+
+        Segment(int limit) {
+            this.limit = limit;
+            // The least power of two of at least limit buckets, so chains stay about one entry long
+            buckets = new Entry[Integer.highestOneBit(Math.max(1, 2 * limit - 1))];
+            eldest.before = eldest.after = eldest;
+        }
+
+        SeatAssignment get(int code) {
+            Entry entry = find(code);
+            if (entry == null) return null;
+            unlink(entry);
+            append(entry);
+            return entry.reservation;
+        }
+
+        void put(int code, SeatAssignment reservation) {
+            Entry entry = find(code);
+            if (entry != null) {
+                entry.reservation = reservation;
+                unlink(entry);
+                append(entry);
+                return;
+            }
+            entry = new Entry(code, reservation);
+            int bucket = bucketOf(code);
+            entry.next = buckets[bucket];
+            buckets[bucket] = entry;
+            append(entry);
+            if (++size > limit) remove(eldest.after.code);
+        }
+
+        void remove(int code) {
+            int bucket = bucketOf(code);
+            for (Entry entry = buckets[bucket], previous = null; entry != null; previous = entry, entry = entry.next) {
+                if (entry.code == code) {
+                    if (previous == null) buckets[bucket] = entry.next;
+                    else previous.next = entry.next;
+                    unlink(entry);
+                    size--;
+                    return;
+                }
+            }
+        }
+
+        void clear() {
+            Arrays.fill(buckets, null);
+            eldest.before = eldest.after = eldest;
+            size = 0;
+        }
+
+        private Entry find(int code) {
+            for (Entry entry = buckets[bucketOf(code)]; entry != null; entry = entry.next) {
+                if (entry.code == code) return entry;
+            }
+            return null;
+        }
+
+        private int bucketOf(int code) {
+            return (code >>> SEGMENT_BITS) & (buckets.length - 1); // The low bits chose the segment
+        }
+
+        private void unlink(Entry entry) {
+            entry.before.after = entry.after;
+            entry.after.before = entry.before;
+        }
+
+        private void append(Entry entry) {
+            entry.before = eldest.before;
+            entry.after = eldest;
+            eldest.before.after = entry;
+            eldest.before = entry;
+        }
+    }
+
+    /**
+     * A cached reservation, chained in its bucket and linked into the segment's recency list.
+     */
+    private static final class Entry {
+        final int code;
+        SeatAssignment reservation;
+        Entry next;
+        Entry before;
+        Entry after;
+
+        Entry(int code, SeatAssignment reservation) {
+            this.code = code;
+            this.reservation = reservation;
+        }
+    }
+}
@@ -3,16 +3,63 @@ package edu.hsutx;
 import java.io.BufferedReader;
 import java.io.FileReader;
 import java.io.IOException;
+import java.nio.file.Paths;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.BlockingQueue;
+import java.util.concurrent.atomic.AtomicReference;
+
+import javax.swing.SwingUtilities;
 
 public class ReservationController {
     private static final double DELAY_SECONDS = 10.0 ;  // Set this to the number of seconds to pause after updating each entry in the csv file
+    private static final int PIPELINE_BATCH_ROWS = 256;  // Rows handed from one pipeline stage to the next at a time
+    private static final int PIPELINE_QUEUE_BATCHES = 16; // Batches a stage may get ahead of the next before it waits
     private CowboySeatTree seatTree;
     private SwingView view;
+    private final SeatBitmap seatMap; // Seat-level occupancy, kept in step with seatTree
+    private AllocationStrategy allocationStrategy = AllocationPolicy.NEAREST;
+    private final EngineMetrics metrics;
+    private final SeatEventStream.Subscription changes; // The seat tree's changes, applied to seatMap and view
+    private ReplicationPrimary replication; // Ships seatTree to standby replicas, if set
 
-    // Constructor to link model and view
+    // Constructor to link model and view; the view may be null to run without a GUI
     public ReservationController(CowboySeatTree seatTree, SwingView view) {
         this.seatTree = seatTree;
         this.view = view;
+        this.seatMap = new SeatBitmap();
+        this.metrics = seatTree.getMetrics();
+        this.changes = seatTree.getEvents().subscribe();
+        if (view != null) view.setSeatMap(seatMap);
+    }
+
+    /**
+     * Gets the seat-level occupancy index maintained alongside the seat tree.
+     *
+     * @return The occupancy bitmap
+     */
+    public SeatBitmap getSeatMap() {
+        return seatMap;
+    }
+
+    /**
+     * Sets the strategy used to choose seats for new reservations.
+     *
+     * @param allocationStrategy The strategy, e.g. one of the AllocationPolicy constants
+     */
+    public void setAllocationStrategy(AllocationStrategy allocationStrategy) {
+        this.allocationStrategy = allocationStrategy;
+    }
+
+    /**
+     * Sets the replication primary to service between rows, so replicas that connect during processing get
+     * their snapshot from this thread, which owns the seat tree.
+     *
+     * @param replication The primary shipping seatTree, or null for none
+     */
+    public void setReplication(ReplicationPrimary replication) {
+        this.replication = replication;
     }
 
     // Method to process the CSV file
@@ -26,85 +73,336 @@ public class ReservationController {
         try (BufferedReader br = new BufferedReader(new FileReader(filePath))) {
             // Read the file line by line
             while ((line = br.readLine()) != null) {
-                // Split the line by commas
-                String[] values = line.split(",");
-
-                // Extract the four fields
-                char command = values[0].charAt(0);  // The first field is a single character
-                String name = values[1];             // The second field is a string (name)
-                String seatStr = values[2];          // The third field is a string (seatStr)
-                int preference = Integer.parseInt(values[3]);  // The fourth field is an integer (preference)
-
-                // The first field is either 'a' for add a reservation or 'd' for delete
-                if (command=='a') {
-                    // add a reservation
-                    int seatsNeeded = Integer.parseInt(seatStr);
-                    SeatAssignment emptyBlock = seatTree.getUnassignedBlockOverThreshold(seatsNeeded);
-                    if ( emptyBlock == null) {
-                        System.out.println("Error adding "+seatsNeeded+" seats for "+ name + " -- no sufficient free block found.");
-                        continue;
-                    }
+                long rowStart = metrics.startTimer();
+                processRow(ReservationRequest.parse(line));
+                metrics.rowProcessed(rowStart);
 
-                    int openSeats = emptyBlock.getSeatQuantity();
-                    int openSeatStart = emptyBlock.getSeatStartIndex();
+            }
+        } catch (IOException e) {
+            e.printStackTrace();
+        }
+    }
 
-                    if (openSeats == seatsNeeded) {
-                        // Case where the seats needed exactly equal the block size
-                        seatTree.delete(emptyBlock);
-                        seatTree.insert(new SeatAssignment(name, seatsNeeded, openSeatStart));
-                        view.updateStadiumVisualization(openSeatStart, seatsNeeded, true);
-                        view.updateTreeVisualization(seatTree);
-                        continue;
-                    }
+    /**
+     * Replays every *.csv file in a directory, as received from several outlets. The files are parsed on the
+     * given number of threads and merged into one deterministic order by CsvReplay, then applied to the seat
+     * tree on this thread. The result does not depend on the thread count.
+     *
+     * @param directory The directory holding the outlet files
+     * @param threads The number of files to parse at once
+     * @throws IllegalArgumentException If a row is malformed, before any row is applied
+     */
+    public void processDirectory(String directory, int threads) {
+        List<ReservationRequest> requests;
+        try {
+            requests = CsvReplay.readMerged(Paths.get(directory), threads);
+        } catch (IOException e) {
+            e.printStackTrace();
+            return;
+        }
 
-                    int startSeat = (int) ((openSeats-seatsNeeded) * (preference / 100)) + openSeatStart;
-                    seatTree.delete(emptyBlock);
-                    seatTree.insert(new SeatAssignment(name, seatsNeeded, startSeat));
-                    view.updateStadiumVisualization(startSeat, seatsNeeded, true);
+        for (ReservationRequest request : requests) {
+            long rowStart = metrics.startTimer();
+            processRow(request);
+            metrics.rowProcessed(rowStart);
+        }
+    }
 
-                    // If needed, add a new unassigned block left of the new SeatAssignment
-                    int leftSeats = startSeat - openSeatStart;
-                    if (leftSeats > 0) seatTree.insert(new SeatAssignment(leftSeats, openSeatStart));
+    /**
+     * Applies one row and reports its outcome straight away: prints its error, if any, then applies its
+     * seat changes to the occupancy bitmap and the view.
+     *
+     * @param request The parsed row
+     */
+    private void processRow(ReservationRequest request) {
+        String error = processRequest(request);
+        if (error != null) {
+            System.out.println(error);
+        }
+        applyChanges();
+        if (replication != null) replication.poll();
+    }
 
-                    // If needed, add a new unassigned block right of the new SeatAssignment
-                    if (leftSeats+seatsNeeded < openSeats)
-                        seatTree.insert(new SeatAssignment(openSeats - leftSeats - seatsNeeded, startSeat+seatsNeeded));
+    /**
+     * Processes a CSV file like processCSV, but as a three-stage pipeline so that reading and parsing, tree
+     * work, and output all run at once. A reader thread parses rows, the calling thread applies them to the seat
+     * tree (it stays the only thread touching the tree), and an output thread prints errors and applies the
+     * resulting seat changes to the occupancy bitmap and the view. Stages pass batches of rows through bounded
+     * queues, so a stage that gets too far ahead waits for the next one to catch up.
+     *
+     * Rows are processed and reported in file order, as with processCSV. The tree visualization is redrawn once
+     * per batch instead of once per row, on the Swing event thread.
+     *
+     * If any stage fails, the others are stopped and the first failure is rethrown here.
+     *
+     * @param filePath The CSV file to process
+     * @throws IllegalArgumentException If a row is malformed, after every row before it has been processed
+     */
+    public void processCSVPipelined(String filePath) {
+        BlockingQueue<RowBatch> parsed = new ArrayBlockingQueue<>(PIPELINE_QUEUE_BATCHES);
+        BlockingQueue<RowBatch> processed = new ArrayBlockingQueue<>(PIPELINE_QUEUE_BATCHES);
+        AtomicReference<Throwable> failure = new AtomicReference<>(); // The first stage to fail, if any
+        // A failed reader poisons the queue the calling thread takes from; a failed output stage empties the one
+        // it puts to. Either way the calling thread wakes up, sees the failure and stops
+        Thread reader = pipelineThread("csv-read", () -> readStage(filePath, parsed), failure, parsed);
+        Thread output = pipelineThread("csv-output", () -> outputStage(processed), failure, processed);
+        reader.start();
+        output.start();
 
-                    view.updateTreeVisualization(seatTree);
+        RuntimeException parseFailure = null;
+        try {
+            parseFailure = allocationStage(parsed, processed, failure);
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            reader.interrupt();
+            output.interrupt();
+            return;
+        } catch (Throwable e) {
+            failure.compareAndSet(null, e);
+        } finally {
+            if (failure.get() != null) {
+                reader.interrupt();
+                output.interrupt();
+            }
+        }
+
+        try {
+            output.join();
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            output.interrupt();
+            return;
+        }
+        Throwable stageFailure = failure.get();
+        if (stageFailure instanceof RuntimeException) throw (RuntimeException) stageFailure;
+        if (stageFailure instanceof Error) throw (Error) stageFailure;
+        if (stageFailure != null) throw new IllegalStateException("Pipeline stage failed", stageFailure);
+        if (parseFailure != null) {
+            throw parseFailure;
+        }
+    }
 
-                } else if (command=='d') {
-                    // delete a reservation
-                    deleteReservation(name);  // Call the delete method with the reservation name
+    /**
+     * Creates a daemon thread for a pipeline stage. Whatever the stage throws is recorded as the pipeline's
+     * failure, unless another stage failed first, and the queue it shares with the calling thread is emptied
+     * and poisoned so that thread does not wait for it forever.
+     */
+    private static Thread pipelineThread(String name, Runnable stage, AtomicReference<Throwable> failure,
+            BlockingQueue<RowBatch> shared) {
+        Thread thread = new Thread(() -> {
+            try {
+                stage.run();
+            } catch (Throwable e) {
+                failure.compareAndSet(null, e);
+                shared.clear();
+                shared.offer(RowBatch.POISON);
+            }
+        }, name);
+        thread.setDaemon(true);
+        return thread;
+    }
 
+    /**
+     * Pipeline stage 1: reads and parses the file into batches. The last batch is flagged, and carries the
+     * parse error if a malformed row cut the file short.
+     */
+    private void readStage(String filePath, BlockingQueue<RowBatch> parsed) {
+        RowBatch batch = new RowBatch();
+        try (BufferedReader br = new BufferedReader(new FileReader(filePath))) {
+            String line;
+            while ((line = br.readLine()) != null) {
+                batch.requests.add(ReservationRequest.parse(line));
+                if (batch.requests.size() == PIPELINE_BATCH_ROWS) {
+                    parsed.put(batch);
+                    batch = new RowBatch();
                 }
-
             }
         } catch (IOException e) {
             e.printStackTrace();
+        } catch (IllegalArgumentException e) {
+            batch.failure = e;
+        } catch (InterruptedException e) {
+            return; // The pipeline was abandoned
         }
+
+        batch.last = true;
+        try {
+            parsed.put(batch);
+        } catch (InterruptedException e) {
+            // The pipeline was abandoned
+        }
+    }
+
+    /**
+     * Pipeline stage 2, run on the calling thread: applies each row to the seat tree and records its error
+     * message and seat changes for the output stage. Stops early once another stage has failed.
+     *
+     * @return The parse error that ended the file early, or null
+     */
+    private RuntimeException allocationStage(BlockingQueue<RowBatch> parsed, BlockingQueue<RowBatch> processed,
+            AtomicReference<Throwable> failure) throws InterruptedException {
+        while (failure.get() == null) {
+            RowBatch batch = parsed.take();
+            if (batch == RowBatch.POISON) {
+                return null;
+            }
+            for (ReservationRequest request : batch.requests) {
+                long rowStart = metrics.startTimer();
+                String error = processRequest(request);
+                if (error != null) {
+                    batch.output.add(error);
+                }
+                changes.drain(batch.output::add);
+                if (replication != null) replication.poll();
+                metrics.rowProcessed(rowStart);
+            }
+            processed.put(batch);
+            if (batch.last) {
+                return batch.failure;
+            }
+        }
+        return null;
+    }
+
+    /**
+     * Pipeline stage 3: prints error messages and applies seat changes in the order they happened. The tree
+     * redraw is handed to the Swing event thread; the stadium view may be updated from any thread.
+     */
+    private void outputStage(BlockingQueue<RowBatch> processed) {
+        try {
+            while (true) {
+                RowBatch batch = processed.take();
+                boolean changed = false;
+                for (Object item : batch.output) {
+                    if (item instanceof SeatEvent) {
+                        applyChange((SeatEvent) item);
+                        changed = true;
+                    } else {
+                        System.out.println(item);
+                    }
+                }
+                // The view only labels the tree by identity, so this does not read the tree being modified
+                if (changed && view != null) {
+                    SwingUtilities.invokeLater(() -> view.updateTreeVisualization(seatTree));
+                }
+                if (batch.last) {
+                    return;
+                }
+            }
+        } catch (InterruptedException e) {
+            // The pipeline was abandoned
+        }
+    }
+
+    /**
+     * Rows passed between pipeline stages, together with what processing them produced.
+     */
+    private static class RowBatch {
+        static final RowBatch POISON = new RowBatch(); // Put by a failed stage to wake the calling thread
+
+        final List<ReservationRequest> requests = new ArrayList<>(PIPELINE_BATCH_ROWS);
+        final List<Object> output = new ArrayList<>(); // Error messages and SeatEvents, in the order they happened
+        boolean last = false;
+        RuntimeException failure = null;
+    }
+
+    /**
+     * Applies one row to the seat tree.
+     *
+     * @param request The parsed row
+     * @return The error message to report, or null if the row succeeded
+     */
+    private String processRequest(ReservationRequest request) {
+        // The first field is either 'a' for add a reservation or 'd' for delete
+        if (request.getCommand()=='a') {
+            // add a reservation; a blank seat count parses as 0, which would carve an empty block
+            if (request.getSeats() <= 0) {
+                return "Error adding "+request.getSeats()+" seats for "+ request.getName() + " -- the number of seats must be positive.";
+            }
+            return addReservation(request.getName(), request.getSeats(), request.getDesiredSeat(seatMap.getCapacity()));
+
+        } else if (request.getCommand()=='d') {
+            // delete a reservation
+            return deleteReservation(request.getName());  // Call the delete method with the reservation name
+
+        }
+        return null;
+    }
+
+    /**
+     * Adds a reservation for the given name.
+     * The allocation strategy decides how much weight the desired seat gets; the default NEAREST policy
+     * seats the party as close to it as possible. A party no single free block can hold is split across a few
+     * nearby blocks by CowboySeatTree.allocateGroup, all or nothing.
+     *
+     * @param name The person making the reservation
+     * @param seatsNeeded The number of seats needed; at least one
+     * @param desiredSeat The seat the party would like to sit near
+     * @return The error message to report, or null if the reservation was made
+     */
+    private String addReservation(String name, int seatsNeeded, int desiredSeat) {
+        long start = metrics.startTimer();
+        boolean placed = seatTree.allocate(name, seatsNeeded, desiredSeat, allocationStrategy) != null
+                || seatTree.allocateGroup(name, seatsNeeded, desiredSeat) != null;
+        metrics.reservationAdded(start, placed);
+        if (!placed) {
+            return "Error adding "+seatsNeeded+" seats for "+ name + " -- no sufficient free block found.";
+        }
+        return null;
     }
 
      /**
      * Deletes a reservation for the given name.
-     * The method finds the seat block associated with the reservation and removes it.
-     * After deletion, the seat block is marked as unassigned, and the view is updated accordingly.
+     * The method finds the seat blocks associated with the reservation, one or the parts of a group, and
+     * removes them. After deletion, the seat blocks are returned to the tree as unassigned.
      * 
      * @param name The name of the person whose reservation is to be deleted
+     * @return The error message to report, or null if the reservation was deleted
      */
-    private void deleteReservation(String name) {
-        // Find the SeatAssignment object based on the reservation name
-        SeatAssignment reservationToDelete = seatTree.findReservation(name);
+    private String deleteReservation(String name) {
+        // Find the reservation, delete it and put its seats back as an unassigned block
+        long start = metrics.startTimer();
+        boolean deleted = !seatTree.releaseGroup(name, false).isEmpty();
+        if (deleted) metrics.reservationDeleted(start);
 
-        // If no reservation is found for the given name, print an error and return
-        if (reservationToDelete == null) {
-            System.out.println("Error deleting reservation for " + name + " -- reservation not found.");
-            return;
+        // If no reservation is found for the given name, report an error
+        if (!deleted) {
+            return "Error deleting reservation for " + name + " -- reservation not found.";
         }
+        return null;
+    }
 
-        // Delete the reservation and update the seatTree
-        seatTree.delete(reservationToDelete);
-        view.updateStadiumVisualization(reservationToDelete.getSeatStartIndex(), reservationToDelete.getSeatQuantity(), false); // Mark seats as unassigned
-        view.updateTreeVisualization(seatTree); // Update the tree visualization after delete
+    /**
+     * Reads the seat tree's changes since the last call and applies them to the occupancy bitmap and the view.
+     * The tree visualization is redrawn once per batch rather than once per event.
+     */
+    private void applyChanges() {
+        int applied = changes.drain(this::applyChange);
+        if (applied > 0 && view != null) {
+            view.updateTreeVisualization(seatTree);
+        }
     }
-}
 
+    /**
+     * Applies one seat change to the occupancy bitmap and the stadium view. Events covering no seats are skipped.
+     *
+     * @param event The change
+     */
+    private void applyChange(SeatEvent event) {
+        if (event.getSeatQuantity() <= 0) {
+            return; // An empty block changes no seats, and the bitmap rejects empty ranges
+        }
+        switch (event.getType()) {
+            case ALLOCATED:
+                seatMap.markTaken(event.getSeatStart(), event.getSeatQuantity());
+                if (view != null) view.updateStadiumVisualization(event.getSeatStart(), event.getSeatQuantity(), true);
+                break;
+            case RELEASED:
+                seatMap.markFree(event.getSeatStart(), event.getSeatQuantity());
+                if (view != null) view.updateStadiumVisualization(event.getSeatStart(), event.getSeatQuantity(), false); // Mark seats as unassigned
+                break;
+            default:
+                break; // Splits and merges only reshape free blocks, which the tree redraw shows
+        }
+    }
+}
@@ -0,0 +1,130 @@
+package edu.hsutx;
+
+/**
+ * One row of a reservation CSV file: a command ('a' to add, 'd' to delete), the owner's name,
+ * the number of seats and the seating preference, optionally followed by a timestamp used to
+ * order rows from several files.
+ */
+public class ReservationRequest {
+    private final char command;
+    private final String name;
+    private final int seats;
+    private final int preference;
+    private final long timestamp;
+
+    /**
+     * Creates a request from its already-parsed fields.
+     *
+     * @param command 'a' to add a reservation or 'd' to delete one
+     * @param name The owner of the reservation
+     * @param seats The number of seats requested
+     * @param preference The preferred position in the stadium, as a percentage
+     */
+    public ReservationRequest(char command, String name, int seats, int preference) {
+        this(command, name, seats, preference, -1);
+    }
+
+    /**
+     * Creates a timestamped request from its already-parsed fields.
+     *
+     * @param command 'a' to add a reservation or 'd' to delete one
+     * @param name The owner of the reservation
+     * @param seats The number of seats requested
+     * @param preference The preferred position in the stadium, as a percentage
+     * @param timestamp When the request was made, in any consistent unit, or -1 if unknown
+     */
+    public ReservationRequest(char command, String name, int seats, int preference, long timestamp) {
+        this.command = command;
+        this.name = name;
+        this.seats = seats;
+        this.preference = preference;
+        this.timestamp = timestamp;
+    }
+
+    /**
+     * Parses one CSV line of the form command,name,seats,preference[,timestamp].
+     *
+     * @param line The line to parse
+     * @return The parsed request
+     * @throws IllegalArgumentException If the line does not have four fields or a number is malformed
+     *         (NumberFormatException is an IllegalArgumentException)
+     */
+    public static ReservationRequest parse(String line) {
+        // Split the line by commas
+        String[] values = line.split(",", -1); // Keep trailing empty fields, e.g. "d,name,,"
+        if (values.length < 4 || values[0].isEmpty()) {
+            throw new IllegalArgumentException("Expected command,name,seats,preference but got: " + line);
+        }
+
+        // Extract the four fields
+        char command = values[0].charAt(0);  // The first field is a single character
+        String name = values[1];             // The second field is a string (name)
+        int seats = parseField(values[2]);       // The third field is the number of seats
+        int preference = parseField(values[3]);  // The fourth field is an integer (preference)
+        long timestamp = values.length > 4 && !values[4].isBlank() ? Long.parseLong(values[4].trim()) : -1;
+        return new ReservationRequest(command, name, seats, preference, timestamp);
+    }
+
+    /**
+     * Parses a numeric field. Delete rows do not need a seat count, so a blank field reads as 0.
+     */
+    private static int parseField(String field) {
+        String trimmed = field.trim();
+        return trimmed.isEmpty() ? 0 : Integer.parseInt(trimmed);
+    }
+
+    /**
+     * Gets the command.
+     *
+     * @return 'a' to add a reservation or 'd' to delete one
+     */
+    public char getCommand() {
+        return command;
+    }
+
+    /**
+     * Gets the owner of the reservation.
+     *
+     * @return The owner's name
+     */
+    public String getName() {
+        return name;
+    }
+
+    /**
+     * Gets the number of seats requested.
+     *
+     * @return The number of seats
+     */
+    public int getSeats() {
+        return seats;
+    }
+
+    /**
+     * Gets the seating preference.
+     *
+     * @return The preferred position in the stadium, from 0 (first seat) to 100 (last seat)
+     */
+    public int getPreference() {
+        return preference;
+    }
+
+    /**
+     * Gets the timestamp.
+     *
+     * @return When the request was made, or -1 if the row had no timestamp
+     */
+    public long getTimestamp() {
+        return timestamp;
+    }
+
+    /**
+     * Converts the preference percentage into a seat number.
+     *
+     * @param capacity The number of seats in the stadium
+     * @return The desired seat, from 1 to capacity
+     */
+    public int getDesiredSeat(int capacity) {
+        return 1 + (int) Math.round((capacity - 1) * (Math.max(0, Math.min(100, preference)) / 100.0));
+    }
+}
@@ -6,14 +6,25 @@ package edu.hsutx;
  *
  * The key is a concatenation of the seat quantity and starting index, each formatted to be a fixed-length string.
  * The owner field is optional and can be null if no owner is assigned.
+ * An owned assignment may be a hold, which lapses at its hold expiry unless it is confirmed first, or one part
+ * of a group reservation split across several blocks, which shares a group number with the other parts.
+ *
+ * To keep a sold-out stadium small, an assignment stores only ints and the dictionary its owner was interned
+ * in: the owner is kept as a code in the OwnerDictionary of the tree that booked it, and the key is built from
+ * the quantity and start when asked for.
  *
  * @author Todd Dole
  * @version 1.0
  */
 
 public class SeatAssignment {
-    private final String key;
-    private final String owner;
+    /** Hold expiry of an assignment that is not a hold. */
+    public static final long NOT_HELD = -1;
+    /** Group number of an assignment that is not part of a group reservation. */
+    public static final int NO_GROUP = 0;
+
+    private final OwnerDictionary owners; // Holds the name behind ownerCode; null when unassigned
+    private final int ownerCode;
     private final int seatQuantity;
     private final int seatStartIndex;
 
@@ -21,43 +32,87 @@ public class SeatAssignment {
     /**
      * Constructor to create a SeatAssignment without an owner.
      * This represents unassigned seats.
-     * Generates a unique key based on the seat quantity and start index.
      *
      * @param seatQuantity   The number of seats being assigned.
      * @param seatStartIndex The starting index of the seat assignment.
      */
     public SeatAssignment(int seatQuantity, int seatStartIndex) {
-        this.key = String.format("%05d", seatQuantity) + String.format("%07d",seatStartIndex);
-        this.owner = null;
+        this.owners = null;
+        this.ownerCode = OwnerDictionary.NO_OWNER;
         this.seatQuantity = seatQuantity;
         this.seatStartIndex = seatStartIndex;
-
     }
 
     /**
      * Constructor to create a SeatAssignment with an owner.
-     * Generates a unique key based on the seat quantity and start index.
+     * The owner name is kept in a small OwnerDictionary of its own, as the assignment belongs to no tree yet.
      *
      * @param owner          The owner of the seat assignment.
      * @param seatQuantity   The number of seats being assigned.
      * @param seatStartIndex The starting index of the seat assignment.
      */
     public SeatAssignment(String owner, int seatQuantity, int seatStartIndex) {
-        this.key = String.format("%05d", seatQuantity) + String.format("%07d",seatStartIndex);
-        this.owner = owner;
+        this(owner == null ? null : new OwnerDictionary(1, owner.length()), owner, seatQuantity, seatStartIndex);
+    }
+
+    /**
+     * Constructor to create a SeatAssignment whose owner is interned in the given dictionary.
+     *
+     * @param owners         The dictionary of the tree the assignment is made for.
+     * @param owner          The owner of the seat assignment.
+     * @param seatQuantity   The number of seats being assigned.
+     * @param seatStartIndex The starting index of the seat assignment.
+     */
+    SeatAssignment(OwnerDictionary owners, String owner, int seatQuantity, int seatStartIndex) {
+        this.owners = owner == null ? null : owners;
+        this.ownerCode = owner == null ? OwnerDictionary.NO_OWNER : owners.intern(owner);
         this.seatQuantity = seatQuantity;
         this.seatStartIndex = seatStartIndex;
     }
 
+    /**
+     * Creates a SeatAssignment with an owner that is held until the given time.
+     *
+     * @param owners         The dictionary to intern the owner in.
+     * @param owner          The owner of the seat assignment.
+     * @param seatQuantity   The number of seats being assigned.
+     * @param seatStartIndex The starting index of the seat assignment.
+     * @param holdExpiry     The time in milliseconds at which the hold lapses, or NOT_HELD for a confirmed assignment.
+     * @return The new seat assignment.
+     */
+    static SeatAssignment held(OwnerDictionary owners, String owner, int seatQuantity, int seatStartIndex, long holdExpiry) {
+        if (holdExpiry == NOT_HELD) {
+            return new SeatAssignment(owners, owner, seatQuantity, seatStartIndex);
+        }
+        return new Held(owners, owner, seatQuantity, seatStartIndex, holdExpiry);
+    }
+
+    /**
+     * Creates a SeatAssignment that is one part of a group reservation.
+     *
+     * @param owners         The dictionary to intern the owner in.
+     * @param owner          The owner of the group.
+     * @param seatQuantity   The number of seats in this part.
+     * @param seatStartIndex The starting index of this part.
+     * @param group          The number shared by every part of the group, or NO_GROUP for an ordinary reservation.
+     * @return The new seat assignment.
+     */
+    static SeatAssignment groupPart(OwnerDictionary owners, String owner, int seatQuantity, int seatStartIndex, int group) {
+        if (group == NO_GROUP) {
+            return new SeatAssignment(owners, owner, seatQuantity, seatStartIndex);
+        }
+        return new GroupPart(owners, owner, seatQuantity, seatStartIndex, group);
+    }
+
     /**
      * Gets the unique key representing this seat assignment.
      * The key is a concatenation of the seat quantity and seat start index,
-     * formatted as 5 digits and 7 digits respectively.
+     * formatted as 5 digits and 7 digits respectively. It is built on each call.
      *
      * @return The unique key for the seat assignment.
      */
     public String getKey() {
-        return key;
+        return key(seatQuantity, seatStartIndex);
     }
 
     /**
@@ -79,11 +134,157 @@ public class SeatAssignment {
     }
 
     /**
-     * Gets the owner of the seat assignment.
+     * Gets the owner of the seat assignment, looked up in the OwnerDictionary.
      *
      * @return The owner of the seat assignment, or null if no owner is assigned.
      */
     public String getOwner() {
-        return owner;
+        return owners == null ? null : owners.name(ownerCode);
+    }
+
+    /**
+     * Checks whether the seats are unassigned, without looking up the owner name.
+     *
+     * @return True if no owner is assigned.
+     */
+    public boolean isUnassigned() {
+        return ownerCode == OwnerDictionary.NO_OWNER;
+    }
+
+    /**
+     * Gets the code of the owner in the dictionary returned by getOwners().
+     *
+     * @return The owner code, or OwnerDictionary.NO_OWNER if no owner is assigned.
+     */
+    int getOwnerCode() {
+        return ownerCode;
+    }
+
+    /**
+     * Gets the code of the owner in the given dictionary. That is the stored code if the assignment was made
+     * for the dictionary's tree; otherwise the name is looked up and interned there.
+     *
+     * @param dictionary The dictionary of the tree or layout asking
+     * @return The owner code, or OwnerDictionary.NO_OWNER if no owner is assigned.
+     */
+    int getOwnerCode(OwnerDictionary dictionary) {
+        if (owners == dictionary || owners == null) {
+            return ownerCode;
+        }
+        return dictionary.intern(getOwner());
+    }
+
+    /**
+     * Gets the dictionary the owner code belongs to.
+     *
+     * @return The owner dictionary, or null if no owner is assigned.
+     */
+    OwnerDictionary getOwners() {
+        return owners;
+    }
+
+    /**
+     * Checks whether this assignment is a hold rather than a confirmed reservation.
+     *
+     * @return True if the assignment lapses at its hold expiry.
+     */
+    public boolean isHeld() {
+        return false;
+    }
+
+    /**
+     * Gets the time at which this hold lapses.
+     *
+     * @return The hold expiry in milliseconds, or NOT_HELD if the assignment is not a hold.
+     */
+    public long getHoldExpiry() {
+        return NOT_HELD;
+    }
+
+    /**
+     * Gets the number shared by the parts of the group reservation this assignment belongs to.
+     *
+     * @return The group number, or NO_GROUP if the assignment is not part of a group.
+     */
+    public int getGroup() {
+        return NO_GROUP;
+    }
+
+    /**
+     * Builds the key of a block, as getKey() would, without String.format.
+     *
+     * @param seatQuantity   The number of seats in the block.
+     * @param seatStartIndex The first seat of the block.
+     * @return The 5-digit quantity followed by the 7-digit start.
+     */
+    static String key(int seatQuantity, int seatStartIndex) {
+        if (seatQuantity < 0 || seatQuantity > 99999 || seatStartIndex < 0 || seatStartIndex > 9999999) {
+            return String.format("%05d", seatQuantity) + String.format("%07d", seatStartIndex);
+        }
+        char[] digits = new char[12];
+        fill(digits, 0, 5, seatQuantity);
+        fill(digits, 5, 7, seatStartIndex);
+        return new String(digits);
+    }
+
+    /**
+     * Formats a seat number as 7 digits, as String.format("%07d") would.
+     *
+     * @param seat The seat number.
+     * @return The zero-padded seat number.
+     */
+    static String paddedSeat(int seat) {
+        if (seat < 0 || seat > 9999999) {
+            return String.format("%07d", seat);
+        }
+        char[] digits = new char[7];
+        fill(digits, 0, 7, seat);
+        return new String(digits);
+    }
+
+    private static void fill(char[] digits, int offset, int width, int value) {
+        for (int i = offset + width - 1; i >= offset; i--) {
+            digits[i] = (char) ('0' + value % 10);
+            value /= 10;
+        }
+    }
+
+    /**
+     * An assignment that lapses at a given time. Only holds carry the expiry field.
+     */
+    private static final class Held extends SeatAssignment {
+        private final long holdExpiry;
+
+        Held(OwnerDictionary owners, String owner, int seatQuantity, int seatStartIndex, long holdExpiry) {
+            super(owners, owner, seatQuantity, seatStartIndex);
+            this.holdExpiry = holdExpiry;
+        }
+
+        @Override
+        public boolean isHeld() {
+            return true;
+        }
+
+        @Override
+        public long getHoldExpiry() {
+            return holdExpiry;
+        }
+    }
+
+    /**
+     * A part of a group reservation. Only group parts carry the group field.
+     */
+    private static final class GroupPart extends SeatAssignment {
+        private final int group;
+
+        GroupPart(OwnerDictionary owners, String owner, int seatQuantity, int seatStartIndex, int group) {
+            super(owners, owner, seatQuantity, seatStartIndex);
+            this.group = group;
+        }
+
+        @Override
+        public int getGroup() {
+            return group;
+        }
     }
 }
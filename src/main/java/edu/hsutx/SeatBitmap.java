@@ -0,0 +1,223 @@
+package edu.hsutx;
+
+/**
+ * Occupancy index with one bit per seat, kept alongside the CowboySeatTree.
+ * The tree orders blocks by size, which suits "find a block of n seats" but not "is seat s taken?";
+ * this bitmap answers seat-number questions directly. A 1,000,000-seat stadium fits in under 125 KB.
+ *
+ * Seats are numbered from 1, matching SeatAssignment start indexes. Bits are packed 64 to a long so ranges
+ * are marked and scanned a whole word at a time.
+ */
+public class SeatBitmap {
+    /** Number of seats in the stadium. */
+    public static final int STADIUM_SEATS = 1_000_000;
+
+    private final long[] words;
+    private final int capacity;
+    private int taken;
+
+    /**
+     * Creates an index for the full stadium with every seat free.
+     */
+    public SeatBitmap() {
+        this(STADIUM_SEATS);
+    }
+
+    /**
+     * Creates an index for the given number of seats with every seat free.
+     *
+     * @param capacity The number of seats
+     */
+    public SeatBitmap(int capacity) {
+        this.capacity = capacity;
+        this.words = new long[(capacity + 63) >>> 6];
+        this.taken = 0;
+
+        // Mark the unused bits of the last word as taken so that scans stop at the end of the stadium
+        int used = capacity & 63;
+        if (used != 0) {
+            words[words.length - 1] = -1L << used;
+        }
+    }
+
+    /**
+     * Gets the number of seats covered by the index.
+     *
+     * @return The number of seats
+     */
+    public int getCapacity() {
+        return capacity;
+    }
+
+    /**
+     * Gets the number of seats currently marked as taken.
+     *
+     * @return The number of taken seats
+     */
+    public int getTakenCount() {
+        return taken;
+    }
+
+    /**
+     * Checks whether a seat is taken.
+     *
+     * @param seat The seat number, from 1 to the capacity
+     * @return True if the seat is taken
+     */
+    public boolean isTaken(int seat) {
+        checkRange(seat, 1);
+        int bit = seat - 1;
+        return (words[bit >>> 6] & (1L << bit)) != 0;
+    }
+
+    /**
+     * Counts the taken seats in a block, a whole word at a time.
+     *
+     * @param start The first seat of the block
+     * @param length The number of seats in the block
+     * @return The number of taken seats in the block
+     */
+    public int countTaken(int start, int length) {
+        checkRange(start, length);
+        int from = start - 1;
+        int to = from + length; // Exclusive
+        int firstWord = from >>> 6;
+        int lastWord = (to - 1) >>> 6;
+
+        int count = 0;
+        for (int w = firstWord; w <= lastWord; w++) {
+            long mask = -1L;
+            if (w == firstWord) mask &= -1L << (from & 63);
+            if (w == lastWord) mask &= -1L >>> (63 - ((to - 1) & 63));
+            count += Long.bitCount(words[w] & mask);
+        }
+        return count;
+    }
+
+    /**
+     * Marks a block of seats as taken.
+     *
+     * @param start The first seat of the block
+     * @param length The number of seats in the block
+     */
+    public void markTaken(int start, int length) {
+        checkRange(start, length);
+        setRange(start - 1, length, true);
+    }
+
+    /**
+     * Marks a block of seats as free.
+     *
+     * @param start The first seat of the block
+     * @param length The number of seats in the block
+     */
+    public void markFree(int start, int length) {
+        checkRange(start, length);
+        setRange(start - 1, length, false);
+    }
+
+    /**
+     * Finds the first run of free seats of at least the given length.
+     *
+     * @param length The number of adjacent free seats needed
+     * @return The first seat of the lowest-numbered such run, or -1 if there is none
+     */
+    public int findFreeRun(int length) {
+        return findFreeRun(length, 1);
+    }
+
+    /**
+     * Finds the first run of free seats of at least the given length that starts at or after a seat.
+     * Words that are entirely free or entirely taken are handled in one step; mixed words are walked
+     * a stretch at a time using trailing-zero counts rather than bit by bit.
+     *
+     * @param length The number of adjacent free seats needed
+     * @param fromSeat The seat to start searching at
+     * @return The first seat of the run, or -1 if there is none
+     */
+    public int findFreeRun(int length, int fromSeat) {
+        if (length <= 0 || fromSeat < 1 || fromSeat > capacity) {
+            return -1;
+        }
+
+        int firstBit = fromSeat - 1;
+        int runStart = 0;
+        int runLength = 0;
+        for (int w = firstBit >>> 6; w < words.length; w++) {
+            long word = words[w];
+            int base = w << 6;
+            if (base < firstBit) {
+                // Treat the bits before the starting seat as taken
+                word |= -1L >>> (64 - (firstBit - base));
+            }
+
+            if (word == 0) {
+                if (runLength == 0) runStart = base;
+                runLength += 64;
+            } else if (word == -1L) {
+                runLength = 0;
+                continue;
+            } else {
+                int pos = 0;
+                while (pos < 64) {
+                    long rest = word >>> pos;
+                    if (rest == 0) {
+                        // Everything from pos to the end of the word is free
+                        if (runLength == 0) runStart = base + pos;
+                        runLength += 64 - pos;
+                        break;
+                    }
+                    int free = Long.numberOfTrailingZeros(rest);
+                    if (free > 0) {
+                        if (runLength == 0) runStart = base + pos;
+                        runLength += free;
+                        if (runLength >= length) return runStart + 1;
+                        pos += free;
+                    }
+                    runLength = 0;
+                    pos += Long.numberOfTrailingZeros(~rest >>> free);
+                }
+            }
+            if (runLength >= length) return runStart + 1;
+        }
+        return -1;
+    }
+
+    /**
+     * Sets or clears a range of bits, filling whole words directly and masking the partial words at either end.
+     * Keeps the taken count up to date from the bits that actually change.
+     *
+     * @param from The first bit index
+     * @param length The number of bits
+     * @param value True to set the bits, false to clear them
+     */
+    private void setRange(int from, int length, boolean value) {
+        int to = from + length; // Exclusive
+        int firstWord = from >>> 6;
+        int lastWord = (to - 1) >>> 6;
+
+        for (int w = firstWord; w <= lastWord; w++) {
+            long mask = -1L;
+            if (w == firstWord) mask &= -1L << (from & 63);
+            if (w == lastWord) mask &= -1L >>> (63 - ((to - 1) & 63));
+
+            long before = words[w];
+            long after = value ? before | mask : before & ~mask;
+            taken += Long.bitCount(after) - Long.bitCount(before);
+            words[w] = after;
+        }
+    }
+
+    /**
+     * Rejects seat ranges that fall outside the stadium.
+     *
+     * @param start The first seat
+     * @param length The number of seats
+     */
+    private void checkRange(int start, int length) {
+        if (start < 1 || length < 1 || start + (long) length - 1 > capacity) {
+            throw new IndexOutOfBoundsException("Seats " + start + " to " + (start + (long) length - 1)
+                    + " are outside 1 to " + capacity);
+        }
+    }
+}
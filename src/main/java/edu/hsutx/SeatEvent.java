@@ -0,0 +1,69 @@
+package edu.hsutx;
+
+/**
+ * An immutable record of one change to the seat tree, as published on its SeatEventStream.
+ * Every event covers a run of seatQuantity seats starting at seatStart.
+ */
+public final class SeatEvent {
+    /**
+     * The kinds of change a CowboySeatTree publishes.
+     */
+    public enum Type {
+        /** A reservation was created for owner; published after the SPLIT of its block, if any. */
+        ALLOCATED,
+        /** The reservation of owner was cancelled and its seats are free again. */
+        RELEASED,
+        /** An unassigned block was cut up to make room for the ALLOCATED event that follows. */
+        SPLIT,
+        /** Adjacent unassigned blocks, including the seats just RELEASED, were joined into this one block. */
+        MERGED
+    }
+
+    private final long sequence;
+    private final Type type;
+    private final String owner;
+    private final int seatStart;
+    private final int seatQuantity;
+
+    /**
+     * Creates an event. Events are normally created by SeatEventStream.publish, which assigns the sequence.
+     *
+     * @param sequence The position of the event in its stream, starting at 0
+     * @param type The kind of change
+     * @param owner The owner of the reservation, or null for SPLIT and MERGED
+     * @param seatStart The first seat affected
+     * @param seatQuantity The number of seats affected
+     */
+    public SeatEvent(long sequence, Type type, String owner, int seatStart, int seatQuantity) {
+        this.sequence = sequence;
+        this.type = type;
+        this.owner = owner;
+        this.seatStart = seatStart;
+        this.seatQuantity = seatQuantity;
+    }
+
+    public long getSequence() {
+        return sequence;
+    }
+
+    public Type getType() {
+        return type;
+    }
+
+    public String getOwner() {
+        return owner;
+    }
+
+    public int getSeatStart() {
+        return seatStart;
+    }
+
+    public int getSeatQuantity() {
+        return seatQuantity;
+    }
+
+    @Override
+    public String toString() {
+        return "#" + sequence + " " + type + (owner == null ? "" : " " + owner) + " seats " + seatStart + "+" + seatQuantity;
+    }
+}
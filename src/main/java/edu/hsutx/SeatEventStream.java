@@ -0,0 +1,166 @@
+package edu.hsutx;
+
+import java.util.concurrent.atomic.AtomicReferenceArray;
+import java.util.function.Consumer;
+
+/**
+ * A bounded ring buffer of SeatEvents with one writer and any number of independent readers.
+ *
+ * The writer (the thread that owns the seat tree) never waits: publishing stores the event in the next slot and
+ * advances a volatile cursor, overwriting the oldest event once the ring is full. Each Subscription keeps its own
+ * position, so a slow reader only holds itself back. A reader that falls more than a ring's length behind skips
+ * ahead to the oldest event still held and counts what it missed; consumers that need every event (a replica,
+ * say) must then resynchronize from a snapshot.
+ *
+ * No locks are taken on either side. Events are immutable, and each slot is written before the cursor that
+ * makes it visible, so a reader that sees the cursor also sees the event.
+ */
+public class SeatEventStream {
+    private final AtomicReferenceArray<SeatEvent> slots;
+    private final int mask;
+    private volatile long published = 0; // Sequence of the next event; only the writer updates it
+
+    /**
+     * Creates a stream that holds the latest capacity events.
+     *
+     * @param capacity The ring size; must be a power of two
+     * @throws IllegalArgumentException If capacity is not a positive power of two
+     */
+    public SeatEventStream(int capacity) {
+        if (capacity <= 0 || Integer.bitCount(capacity) != 1) {
+            throw new IllegalArgumentException("Capacity must be a power of two: " + capacity);
+        }
+        slots = new AtomicReferenceArray<>(capacity);
+        mask = capacity - 1;
+    }
+
+    /**
+     * Appends an event. Must only be called from the single writer thread; never blocks.
+     *
+     * @param type The kind of change
+     * @param owner The owner of the reservation, or null
+     * @param seatStart The first seat affected
+     * @param seatQuantity The number of seats affected
+     * @return The published event
+     */
+    public SeatEvent publish(SeatEvent.Type type, String owner, int seatStart, int seatQuantity) {
+        long sequence = published;
+        SeatEvent event = new SeatEvent(sequence, type, owner, seatStart, seatQuantity);
+        slots.lazySet((int) sequence & mask, event);
+        published = sequence + 1;
+        return event;
+    }
+
+    /**
+     * Gets the number of events published so far, which is also the sequence the next event will get.
+     *
+     * @return The number of events published
+     */
+    public long getPublishedCount() {
+        return published;
+    }
+
+    public int getCapacity() {
+        return mask + 1;
+    }
+
+    /**
+     * Starts reading the stream from the next event to be published.
+     *
+     * @return A new subscription
+     */
+    public Subscription subscribe() {
+        return new Subscription(published);
+    }
+
+    /**
+     * Starts reading the stream from the given sequence, e.g. the one recorded with a snapshot.
+     * Events older than the ring holds are counted as missed on the first read.
+     *
+     * @param sequence The sequence of the first event to read
+     * @return A new subscription
+     */
+    public Subscription subscribeFrom(long sequence) {
+        return new Subscription(sequence);
+    }
+
+    /**
+     * One reader's position in the stream. A subscription is meant to be used by one thread at a time.
+     */
+    public class Subscription {
+        private long next;
+        private long missed = 0;
+
+        private Subscription(long next) {
+            this.next = next;
+        }
+
+        /**
+         * Takes the next event, if one has been published.
+         *
+         * @return The next event, or null if the reader has caught up
+         */
+        public SeatEvent poll() {
+            while (true) {
+                long available = published;
+                if (next >= available) {
+                    return null;
+                }
+                long oldest = available - slots.length();
+                if (next < oldest) { // Lapped by the writer before reading
+                    missed += oldest - next;
+                    next = oldest;
+                }
+                SeatEvent event = slots.get((int) next & mask);
+                if (event.getSequence() == next) {
+                    next++;
+                    return event;
+                }
+                // The slot was overwritten after the cursor was read; re-read the cursor and skip ahead
+            }
+        }
+
+        /**
+         * Hands every event published so far to the consumer, in order.
+         *
+         * @param consumer Receives each event
+         * @return The number of events consumed
+         */
+        public int drain(Consumer<SeatEvent> consumer) {
+            int consumed = 0;
+            SeatEvent event;
+            while ((event = poll()) != null) {
+                consumer.accept(event);
+                consumed++;
+            }
+            return consumed;
+        }
+
+        /**
+         * Gets the sequence of the next event this subscription will read.
+         *
+         * @return The next sequence
+         */
+        public long getNextSequence() {
+            return next;
+        }
+
+        /**
+         * Counts the events that were overwritten before this subscription read them.
+         *
+         * @return The number of missed events
+         */
+        public long getMissed() {
+            return missed;
+        }
+
+        /**
+         * Counts the published events this subscription has not read yet.
+         *
+         * @return The backlog, which may exceed the capacity if events have already been lost
+         */
+        public long getLag() {
+            return published - next;
+        }
+    }
+}
@@ -0,0 +1,272 @@
+package edu.hsutx;
+
+import java.io.IOException;
+import java.io.UTFDataFormatException;
+import java.nio.ByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.channels.WritableByteChannel;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+
+/**
+ * Streams every block of a CowboySeatTree to a file as CSV or as a packed binary format, e.g. for finance and
+ * ops after a sale.
+ *
+ * The tree is walked in key order (block size, then starting seat), and each block is encoded straight from its
+ * ints and its owner's chars in its OwnerDictionary into one direct ByteBuffer, which is written to the channel
+ * whenever it fills. No list of blocks, owner String or formatted line is built along the way, and a FileChannel
+ * writes a direct buffer without first copying it into a temporary one of its own. The buffer is kept and
+ * reused by the next export.
+ *
+ * CSV, in UTF-8: the CSV_HEADER line, then one "start,quantity,owner,hold_expiry" line per block. The owner is
+ * empty for unassigned seats, and quoted as RFC 4180 asks when it holds a comma, quote or line break. The hold
+ * expiry is empty unless the block is a hold.
+ *
+ * Binary, big-endian so that DataInputStream reads it: BINARY_MAGIC (int), BINARY_VERSION (short) and the block
+ * count (int), then per block its flags (byte, OWNED and HELD), quantity and start (ints), the hold expiry
+ * (long) if held, and the owner as DataOutput.writeUTF writes it if owned.
+ *
+ * The tree is not thread-safe, so export from the thread that owns it, between mutations. An exporter owns one
+ * buffer and must not be used by two threads at once.
+ */
+public class SeatExporter {
+    /** Size of the buffer unless one is given. */
+    public static final int DEFAULT_BUFFER_BYTES = 1 << 16;
+    /** Smallest buffer an exporter accepts; any record without its owner fits in it. */
+    public static final int MIN_BUFFER_BYTES = 64;
+    /** First line of a CSV export. */
+    public static final String CSV_HEADER = "start,quantity,owner,hold_expiry\n";
+    /** First int of a binary export, "SEAT" in ASCII. */
+    public static final int BINARY_MAGIC = 0x53454154;
+    /** Version of the binary format written. */
+    public static final short BINARY_VERSION = 1;
+    /** Flag of a binary record that has an owner. */
+    public static final int OWNED = 1;
+    /** Flag of a binary record that is a hold. */
+    public static final int HELD = 2;
+
+    private static final int MAX_FIXED_BYTES = 48; // A record without its owner: two ints and a long, as text or not
+    private static final int MAX_UTF_BYTES = 65535; // Longest string writeUTF can write
+
+    /**
+     * The file formats an exporter writes.
+     */
+    public enum Format {
+        CSV,
+        BINARY
+    }
+
+    private final ByteBuffer buffer;
+    private char[] name = new char[64]; // The owner being encoded, reused for every block
+    private WritableByteChannel channel; // The channel of the export in progress
+    private long written; // Bytes written to it so far
+
+    /**
+     * Creates an exporter with a buffer of DEFAULT_BUFFER_BYTES.
+     */
+    public SeatExporter() {
+        this(DEFAULT_BUFFER_BYTES);
+    }
+
+    /**
+     * Creates an exporter with a direct buffer of the given size.
+     *
+     * @param bufferBytes The buffer size; larger buffers mean fewer writes
+     * @throws IllegalArgumentException If bufferBytes is less than MIN_BUFFER_BYTES
+     */
+    public SeatExporter(int bufferBytes) {
+        if (bufferBytes < MIN_BUFFER_BYTES) {
+            throw new IllegalArgumentException("Buffer must hold at least " + MIN_BUFFER_BYTES + " bytes: " + bufferBytes);
+        }
+        buffer = ByteBuffer.allocateDirect(bufferBytes);
+    }
+
+    /**
+     * Writes every block of the tree to a file, replacing anything already in it.
+     *
+     * @param tree The tree to export
+     * @param file The file to write
+     * @param format The format to write in
+     * @return The number of bytes written
+     * @throws IOException If the file cannot be written, or an owner name is too long for the binary format
+     */
+    public long export(CowboySeatTree tree, Path file, Format format) throws IOException {
+        try (FileChannel out = FileChannel.open(file, StandardOpenOption.CREATE, StandardOpenOption.WRITE,
+                StandardOpenOption.TRUNCATE_EXISTING)) {
+            return export(tree, out, format);
+        }
+    }
+
+    /**
+     * Writes every block of the tree to a channel, which is left open.
+     *
+     * @param tree The tree to export
+     * @param out The channel to write to
+     * @param format The format to write in
+     * @return The number of bytes written
+     * @throws IOException If the channel cannot be written, or an owner name is too long for the binary format
+     */
+    public long export(CowboySeatTree tree, WritableByteChannel out, Format format) throws IOException {
+        buffer.clear();
+        channel = out;
+        written = 0;
+        try {
+            if (format == Format.CSV) {
+                for (int i = 0; i < CSV_HEADER.length(); i++) {
+                    buffer.put((byte) CSV_HEADER.charAt(i));
+                }
+                for (SeatAssignment block : tree.range(null, true, null, true)) {
+                    putCsv(block);
+                }
+            } else {
+                buffer.putInt(BINARY_MAGIC).putShort(BINARY_VERSION).putInt(tree.getSize());
+                for (SeatAssignment block : tree.range(null, true, null, true)) {
+                    putBinary(block);
+                }
+            }
+            drain();
+            return written;
+        } finally {
+            channel = null;
+        }
+    }
+
+    /**
+     * Encodes one block as a CSV line.
+     */
+    private void putCsv(SeatAssignment block) throws IOException {
+        ensure(MAX_FIXED_BYTES);
+        putDecimal(block.getSeatStartIndex());
+        buffer.put((byte) ',');
+        putDecimal(block.getSeatQuantity());
+        buffer.put((byte) ',');
+        if (!block.isUnassigned()) {
+            int length = loadName(block);
+            boolean quoted = needsQuotes(length);
+            if (quoted) buffer.put((byte) '"');
+            putUtf8(length, quoted);
+            ensure(MAX_FIXED_BYTES);
+            if (quoted) buffer.put((byte) '"');
+        }
+        buffer.put((byte) ',');
+        if (block.isHeld()) putDecimal(block.getHoldExpiry());
+        buffer.put((byte) '\n');
+    }
+
+    /**
+     * Encodes one block as a binary record.
+     */
+    private void putBinary(SeatAssignment block) throws IOException {
+        int length = block.isUnassigned() ? 0 : loadName(block);
+        int utfBytes = 0;
+        for (int i = 0; i < length; i++) {
+            char c = name[i];
+            utfBytes += c != 0 && c < 0x80 ? 1 : c < 0x800 ? 2 : 3;
+        }
+        if (utfBytes > MAX_UTF_BYTES) {
+            throw new UTFDataFormatException("Owner name too long: " + utfBytes + " bytes");
+        }
+
+        ensure(MAX_FIXED_BYTES);
+        buffer.put((byte) ((block.isUnassigned() ? 0 : OWNED) | (block.isHeld() ? HELD : 0)));
+        buffer.putInt(block.getSeatQuantity());
+        buffer.putInt(block.getSeatStartIndex());
+        if (block.isHeld()) buffer.putLong(block.getHoldExpiry());
+        if (block.isUnassigned()) return;
+
+        // Modified UTF-8 as writeUTF writes it: NUL takes two bytes and each half of a surrogate pair three
+        buffer.putShort((short) utfBytes);
+        for (int i = 0; i < length; i++) {
+            char c = name[i];
+            ensure(3);
+            if (c != 0 && c < 0x80) {
+                buffer.put((byte) c);
+            } else if (c < 0x800) {
+                buffer.put((byte) (0xC0 | c >> 6)).put((byte) (0x80 | c & 0x3F));
+            } else {
+                buffer.put((byte) (0xE0 | c >> 12)).put((byte) (0x80 | c >> 6 & 0x3F)).put((byte) (0x80 | c & 0x3F));
+            }
+        }
+    }
+
+    /**
+     * Copies the name of a block's owner from its dictionary into the reusable name array.
+     *
+     * @return The length of the name
+     */
+    private int loadName(SeatAssignment block) {
+        OwnerDictionary owners = block.getOwners();
+        int length = owners.nameLength(block.getOwnerCode());
+        if (length > name.length) {
+            name = new char[Math.max(length, name.length * 2)];
+        }
+        return owners.getChars(block.getOwnerCode(), name, 0);
+    }
+
+    private boolean needsQuotes(int length) {
+        for (int i = 0; i < length; i++) {
+            char c = name[i];
+            if (c == ',' || c == '"' || c == '\n' || c == '\r') return true;
+        }
+        return false;
+    }
+
+    /**
+     * Encodes the loaded name as standard UTF-8, doubling quotes if the field is quoted. An unpaired surrogate
+     * becomes '?', as String.getBytes would write it.
+     */
+    private void putUtf8(int length, boolean quoted) throws IOException {
+        for (int i = 0; i < length; i++) {
+            char c = name[i];
+            ensure(4);
+            if (c < 0x80) {
+                if (quoted && c == '"') buffer.put((byte) '"');
+                buffer.put((byte) c);
+            } else if (c < 0x800) {
+                buffer.put((byte) (0xC0 | c >> 6)).put((byte) (0x80 | c & 0x3F));
+            } else if (Character.isHighSurrogate(c) && i + 1 < length && Character.isLowSurrogate(name[i + 1])) {
+                int codePoint = Character.toCodePoint(c, name[++i]);
+                buffer.put((byte) (0xF0 | codePoint >> 18)).put((byte) (0x80 | codePoint >> 12 & 0x3F))
+                        .put((byte) (0x80 | codePoint >> 6 & 0x3F)).put((byte) (0x80 | codePoint & 0x3F));
+            } else if (Character.isSurrogate(c)) {
+                buffer.put((byte) '?');
+            } else {
+                buffer.put((byte) (0xE0 | c >> 12)).put((byte) (0x80 | c >> 6 & 0x3F)).put((byte) (0x80 | c & 0x3F));
+            }
+        }
+    }
+
+    /**
+     * Writes a number in decimal ASCII without building a String.
+     */
+    private void putDecimal(long value) {
+        if (value < 0) {
+            String text = Long.toString(value); // Never happens for seats; a hold could expire before the epoch
+            for (int i = 0; i < text.length(); i++) buffer.put((byte) text.charAt(i));
+            return;
+        }
+        int digits = 1;
+        for (long rest = value; rest >= 10; rest /= 10) digits++;
+        int end = buffer.position() + digits;
+        for (int i = end - 1; i >= end - digits; i--) {
+            buffer.put(i, (byte) ('0' + value % 10));
+            value /= 10;
+        }
+        buffer.position(end);
+    }
+
+    /**
+     * Writes out the buffer if it has less than the given room left.
+     */
+    private void ensure(int bytes) throws IOException {
+        if (buffer.remaining() < bytes) drain();
+    }
+
+    private void drain() throws IOException {
+        buffer.flip();
+        while (buffer.hasRemaining()) {
+            written += channel.write(buffer);
+        }
+        buffer.clear();
+    }
+}
@@ -0,0 +1,178 @@
+package edu.hsutx;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+
+/**
+ * An immutable base layout that events are created from, e.g. the stadium with its season-ticket holders
+ * already seated. The blocks are kept in position order and cut into sections of SECTION_SEATS seats by their
+ * starting seat. An EventSeatMap starts out sharing every section with the layout and copies a section only
+ * when it first changes it, so a new event costs one array of section references and an event that sold a
+ * few thousand tickets holds copies of just the sections those tickets fell in.
+ *
+ * SeatAssignments are immutable, so copied sections still share the blocks they did not change.
+ */
+public final class SeatLayout {
+    /** Seats per section, the unit an event copies when it first changes a block starting there. */
+    public static final int SECTION_SEATS = 4096;
+
+    private final Section[] sections;
+    private final OwnerIndex reservations = new OwnerIndex(); // Only read once the constructor returns
+    private final OwnerDictionary owners; // That of the tree the layout was taken from
+    private final int blockCount;
+
+    private SeatLayout(List<SeatAssignment> blocks, OwnerDictionary owners) {
+        this.owners = owners;
+        blocks.sort((a, b) -> Integer.compare(a.getSeatStartIndex(), b.getSeatStartIndex()));
+        int lastSeat = 1;
+        for (SeatAssignment block : blocks) {
+            lastSeat = Math.max(lastSeat, block.getSeatStartIndex() + block.getSeatQuantity() - 1);
+            if (!block.isUnassigned()) reservations.add(block.getOwnerCode(owners), block);
+        }
+        // Enough sections for every seat of every block, since allocations can start a block anywhere inside one
+        sections = new Section[sectionOf(lastSeat, Integer.MAX_VALUE) + 1];
+        int from = 0;
+        for (int s = 0; s < sections.length; s++) {
+            int to = from;
+            while (to < blocks.size() && sectionOf(blocks.get(to).getSeatStartIndex(), sections.length - 1) == s) to++;
+            sections[s] = new Section(null, blocks.subList(from, to).toArray(new SeatAssignment[0]), to - from);
+            from = to;
+        }
+        blockCount = blocks.size();
+    }
+
+    /**
+     * Takes a snapshot of a seat tree as a layout. Later changes to the tree do not affect the layout. Holds in
+     * the tree become ordinary reservations of the layout. The layout and its events intern their owners in the
+     * tree's dictionary, so the blocks they share keep their codes.
+     *
+     * @param base The tree holding the base layout
+     * @return The new layout
+     */
+    public static SeatLayout of(CowboySeatTree base) {
+        List<SeatAssignment> blocks = new ArrayList<>(base.getSize());
+        for (SeatAssignment block : base.range(null, true, null, true)) {
+            blocks.add(block);
+        }
+        return new SeatLayout(blocks, base.getOwners());
+    }
+
+    /**
+     * Gets the number of sections, the most an event can end up copying.
+     *
+     * @return The number of sections
+     */
+    public int getSectionCount() {
+        return sections.length;
+    }
+
+    /**
+     * Gets the number of blocks, free and reserved, in the layout.
+     *
+     * @return The number of blocks
+     */
+    public int getBlockCount() {
+        return blockCount;
+    }
+
+    /**
+     * Copies the section references for a new event.
+     */
+    Section[] shareSections() {
+        return sections.clone();
+    }
+
+    /**
+     * Lists every reservation of the layout for an owner code, by starting seat.
+     */
+    List<SeatAssignment> getReservations(int ownerCode) {
+        return reservations.getAll(ownerCode);
+    }
+
+    /**
+     * Gets the dictionary the layout's owner codes belong to, which its events intern their owners in too.
+     */
+    OwnerDictionary getOwners() {
+        return owners;
+    }
+
+    /**
+     * Gets the section holding blocks that start at the given seat, clamped to the sections that exist.
+     */
+    static int sectionOf(int seat, int lastSection) {
+        return Math.max(0, Math.min(lastSection, (seat - 1) / SECTION_SEATS));
+    }
+
+    /**
+     * The blocks starting in one section's seats, sorted by starting seat. A section belongs to the layout or to
+     * the one EventSeatMap that copied it, and only that owner may change it.
+     */
+    static final class Section {
+        final Object owner; // null for the layout's sections, which never change
+        SeatAssignment[] blocks;
+        int size;
+        int maxFree; // Seats in the largest unassigned block, so searches can skip the section
+
+        Section(Object owner, SeatAssignment[] blocks, int size) {
+            this.owner = owner;
+            this.blocks = blocks;
+            this.size = size;
+            updateMaxFree();
+        }
+
+        /**
+         * Copies this section for an event to change.
+         */
+        Section copyFor(Object newOwner) {
+            return new Section(newOwner, Arrays.copyOf(blocks, Math.max(8, size + size / 2)), size);
+        }
+
+        /**
+         * Finds the last block starting at or before the given seat.
+         *
+         * @return Its index, or -1 if every block starts after the seat
+         */
+        int floorIndex(int seat) {
+            int lo = 0;
+            int hi = size - 1;
+            while (lo <= hi) {
+                int mid = (lo + hi) >>> 1;
+                if (blocks[mid].getSeatStartIndex() <= seat) lo = mid + 1;
+                else hi = mid - 1;
+            }
+            return hi;
+        }
+
+        /**
+         * Finds the block starting at the given seat, or null if none does.
+         */
+        SeatAssignment blockAt(int seat) {
+            int i = floorIndex(seat);
+            return i >= 0 && blocks[i].getSeatStartIndex() == seat ? blocks[i] : null;
+        }
+
+        void add(SeatAssignment block) {
+            int i = floorIndex(block.getSeatStartIndex()) + 1;
+            if (size == blocks.length) blocks = Arrays.copyOf(blocks, Math.max(8, size * 2));
+            System.arraycopy(blocks, i, blocks, i + 1, size - i);
+            blocks[i] = block;
+            size++;
+            if (block.isUnassigned()) maxFree = Math.max(maxFree, block.getSeatQuantity());
+        }
+
+        void remove(int i) {
+            SeatAssignment block = blocks[i];
+            System.arraycopy(blocks, i + 1, blocks, i, size - i - 1);
+            blocks[--size] = null;
+            if (block.isUnassigned() && block.getSeatQuantity() == maxFree) updateMaxFree();
+        }
+
+        private void updateMaxFree() {
+            maxFree = 0;
+            for (int i = 0; i < size; i++) {
+                if (blocks[i].isUnassigned()) maxFree = Math.max(maxFree, blocks[i].getSeatQuantity());
+            }
+        }
+    }
+}
@@ -0,0 +1,41 @@
+package edu.hsutx;
+
+/**
+ * The searches an AllocationStrategy may use to choose an unassigned block. Implemented by CowboySeatTree and by
+ * EventSeatMap, so the same strategies place parties in either.
+ */
+public interface SeatMap {
+
+    /**
+     * Finds the unassigned block that can hold seatsNeeded seats and lies closest to the given seat.
+     * A block containing the seat has distance 0; otherwise the distance is to the block's nearest end.
+     *
+     * @param seat The seat the party would like to sit near
+     * @param seatsNeeded The number of seats needed
+     * @return The closest block that fits, or null if no unassigned block is large enough
+     */
+    SeatAssignment getUnassignedBlockNear(int seat, int seatsNeeded);
+
+    /**
+     * Finds the smallest unassigned block with at least threshold seats, the lowest-numbered one among equals.
+     *
+     * @param threshold The number of seats needed
+     * @return The smallest unassigned block with at least threshold seats, or null if there is none
+     */
+    SeatAssignment getUnassignedBlockOverThreshold(int threshold);
+
+    /**
+     * Finds the largest unassigned block, the highest-numbered one among equals.
+     *
+     * @return The unassigned block with the most seats, or null if every seat is reserved
+     */
+    SeatAssignment getLargestUnassignedBlock();
+
+    /**
+     * Finds the lowest-numbered unassigned block with at least seatsNeeded seats.
+     *
+     * @param seatsNeeded The number of seats needed
+     * @return The unassigned block with the smallest starting seat that fits, or null if there is none
+     */
+    SeatAssignment getFirstUnassignedBlockByPosition(int seatsNeeded);
+}
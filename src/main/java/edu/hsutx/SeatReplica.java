@@ -0,0 +1,217 @@
+package edu.hsutx;
+
+import java.io.BufferedInputStream;
+import java.io.Closeable;
+import java.io.DataInputStream;
+import java.io.IOException;
+import java.net.Socket;
+import java.util.concurrent.ForkJoinPool;
+import java.util.function.Function;
+
+/**
+ * A hot standby copy of a CowboySeatTree, fed by a ReplicationPrimary over a local socket.
+ *
+ * The replica loads the primary's snapshot and then replays each event with the same tree operations the primary
+ * used, so its tree, indexes and own event stream match the primary's. When the primary goes away the replica
+ * stops receiving; promote() then hands over its tree so bookings can carry on against it.
+ */
+public class SeatReplica implements Closeable {
+    /** Places an allocation exactly where the primary did: in the free block containing its first seat. */
+    private static final AllocationStrategy REPLAY = new AllocationStrategy() {
+        @Override
+        public SeatAssignment chooseBlock(SeatMap tree, int seatsNeeded, int desiredSeat) {
+            return tree.getUnassignedBlockNear(desiredSeat, seatsNeeded);
+        }
+
+        @Override
+        public int chooseStart(SeatAssignment block, int seatsNeeded, int desiredSeat) {
+            return desiredSeat;
+        }
+    };
+
+    private final Socket socket;
+    private final Thread receiver;
+    private CowboySeatTree tree; // Guarded by this
+    private long nextSequence = -1; // Guarded by this; -1 until the snapshot is loaded
+    private boolean connected = true; // Guarded by this
+    private IllegalStateException failure; // Guarded by this; set if an event could not be replayed
+
+    private SeatReplica(Socket socket) {
+        this.socket = socket;
+        this.receiver = new Thread(this::receive, "replica-receive");
+        receiver.setDaemon(true);
+    }
+
+    /**
+     * Connects to a primary and starts replicating in the background.
+     *
+     * @param host The primary's host, normally "localhost"
+     * @param port The primary's replication port
+     * @return The replica
+     * @throws IOException If the connection fails
+     */
+    public static SeatReplica connect(String host, int port) throws IOException {
+        Socket socket = new Socket(host, port);
+        socket.setTcpNoDelay(true);
+        SeatReplica replica = new SeatReplica(socket);
+        replica.receiver.start();
+        return replica;
+    }
+
+    /**
+     * Waits until every event before the given sequence has been applied, or the connection is lost.
+     *
+     * @param sequence The sequence to wait for, e.g. the primary's published count
+     * @param timeoutMillis The longest time to wait
+     * @return True if the replica reached the sequence
+     * @throws InterruptedException If interrupted while waiting
+     */
+    public synchronized boolean awaitSequence(long sequence, long timeoutMillis) throws InterruptedException {
+        long deadline = System.currentTimeMillis() + timeoutMillis;
+        while (nextSequence < sequence && connected) {
+            long remaining = deadline - System.currentTimeMillis();
+            if (remaining <= 0) return false;
+            wait(remaining);
+        }
+        return nextSequence >= sequence;
+    }
+
+    /**
+     * Gets the sequence of the next event the replica expects, i.e. how far it has caught up.
+     *
+     * @return The next sequence, or -1 before the snapshot has arrived
+     */
+    public synchronized long getNextSequence() {
+        return nextSequence;
+    }
+
+    /**
+     * Checks whether the replica is still receiving from its primary.
+     *
+     * @return False once the primary has disconnected or the replica was promoted or closed
+     */
+    public synchronized boolean isConnected() {
+        return connected;
+    }
+
+    /**
+     * Runs a read-only function against the replica tree while no event is being applied.
+     *
+     * @param reader The function to run
+     * @return What the function returned
+     */
+    public synchronized <T> T read(Function<CowboySeatTree, T> reader) {
+        return reader.apply(tree);
+    }
+
+    /**
+     * Stops replicating and hands over the tree, which the caller then owns and may mutate and replicate in turn.
+     *
+     * @return The replica's tree as of the last applied event
+     * @throws IllegalStateException If the snapshot never arrived or the event stream could not be replayed
+     */
+    public CowboySeatTree promote() {
+        close();
+        try {
+            receiver.join();
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        }
+        synchronized (this) {
+            if (tree == null) {
+                throw new IllegalStateException("Cannot promote a replica that never received a snapshot");
+            }
+            if (failure != null) {
+                throw new IllegalStateException("Replica diverged from its primary: " + failure.getMessage(), failure);
+            }
+            return tree;
+        }
+    }
+
+    /**
+     * Disconnects from the primary.
+     */
+    @Override
+    public void close() {
+        try {
+            socket.close();
+        } catch (IOException ignored) {
+            // Closing anyway
+        }
+    }
+
+    private void receive() {
+        try (DataInputStream in = new DataInputStream(new BufferedInputStream(socket.getInputStream()))) {
+            long sequence = in.readLong();
+            SeatAssignment[] blocks = new SeatAssignment[in.readInt()];
+            OwnerDictionary owners = new OwnerDictionary(); // The replica's own, not shared with its primary
+            for (int i = 0; i < blocks.length; i++) {
+                String owner = readOwner(in);
+                int quantity = in.readInt();
+                int start = in.readInt();
+                blocks[i] = owner == null ? new SeatAssignment(quantity, start) : new SeatAssignment(owners, owner, quantity, start);
+            }
+            CowboySeatTree snapshot = CowboySeatTree.fromSorted(blocks, owners, ForkJoinPool.commonPool());
+            synchronized (this) {
+                tree = snapshot;
+                nextSequence = sequence;
+                notifyAll();
+            }
+
+            while (true) {
+                SeatEvent.Type type = SeatEvent.Type.values()[in.readByte()];
+                long eventSequence = in.readLong();
+                String owner = readOwner(in);
+                int start = in.readInt();
+                int quantity = in.readInt();
+                synchronized (this) {
+                    if (eventSequence != nextSequence) {
+                        throw new IllegalStateException("Expected event " + nextSequence + " but got " + eventSequence);
+                    }
+                    apply(type, owner, start, quantity);
+                    nextSequence++;
+                    notifyAll();
+                }
+            }
+        } catch (IOException e) {
+            // The primary closed or dropped the connection, or promote() closed it
+        } catch (IllegalStateException e) {
+            synchronized (this) {
+                failure = e;
+            }
+        } finally {
+            synchronized (this) {
+                connected = false;
+                notifyAll();
+            }
+            close();
+        }
+    }
+
+    /**
+     * Applies one event to the tree with the operation that produced it on the primary.
+     */
+    private void apply(SeatEvent.Type type, String owner, int start, int quantity) {
+        switch (type) {
+            case ALLOCATED:
+                if (tree.allocate(owner, quantity, start, REPLAY) == null) {
+                    throw new IllegalStateException("No free block holds seats " + start + "+" + quantity + " for " + owner);
+                }
+                break;
+            case RELEASED:
+                if (tree.releaseAt(owner, start, false) == null) {
+                    throw new IllegalStateException("No reservation to release for " + owner + " at seat " + start);
+                }
+                break;
+            case MERGED:
+                tree.mergeFreeBlocks(start, quantity);
+                break;
+            default:
+                break; // A SPLIT is replayed by the ALLOCATED event that follows it
+        }
+    }
+
+    private static String readOwner(DataInputStream in) throws IOException {
+        return in.readBoolean() ? in.readUTF() : null;
+    }
+}
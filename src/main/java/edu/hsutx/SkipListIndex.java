@@ -0,0 +1,101 @@
+package edu.hsutx;
+
+import java.util.Map;
+import java.util.NavigableMap;
+import java.util.concurrent.ConcurrentSkipListMap;
+import java.util.concurrent.ForkJoinPool;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.function.ToIntFunction;
+
+/**
+ * An OrderedIndex backed by the JDK's lock-free ConcurrentSkipListMap. Lookups, inserts and deletes cost
+ * O(log n) expected and may run on any number of threads at once, and iterating a range never fails because
+ * of concurrent changes.
+ *
+ * The skip list keeps no summary of the weights below a node, so floorWithWeight and higherWithWeight walk
+ * entries one by one from the key until one is heavy enough. They cost O(log n + k), where k is the number of
+ * lighter entries passed over: cheap while free space is in large blocks, slow once it is fragmented.
+ *
+ * @param <E> The type of the values
+ */
+public class SkipListIndex<E> implements OrderedIndex<E> {
+    private final ToIntFunction<? super E> weigher;
+    private final ConcurrentSkipListMap<String, E> map = new ConcurrentSkipListMap<>();
+    private final AtomicInteger size = new AtomicInteger(); // ConcurrentSkipListMap.size() walks every entry
+
+    /**
+     * Creates an empty index.
+     *
+     * @param weigher Gives the weight of a value for the weighted searches
+     */
+    public SkipListIndex(ToIntFunction<? super E> weigher) {
+        this.weigher = weigher;
+    }
+
+    @Override
+    public void insert(String key, E value) {
+        if (map.putIfAbsent(key, value) == null) size.incrementAndGet();
+    }
+
+    @Override
+    public void delete(String key) {
+        if (map.remove(key) != null) size.decrementAndGet();
+    }
+
+    @Override
+    public E getValue(String key) {
+        return map.get(key);
+    }
+
+    @Override
+    public int getSize() {
+        return size.get();
+    }
+
+    @Override
+    public Iterable<E> range(String lo, boolean loInclusive, String hi, boolean hiInclusive) {
+        NavigableMap<String, E> view = map;
+        if (lo != null) view = view.tailMap(lo, loInclusive);
+        if (hi != null) view = view.headMap(hi, hiInclusive);
+        return view.values();
+    }
+
+    @Override
+    public E floorWithWeight(String key, int minWeight) {
+        NavigableMap<String, E> before = key == null ? map.descendingMap() : map.headMap(key, true).descendingMap();
+        return firstWithWeight(before, minWeight);
+    }
+
+    @Override
+    public E higherWithWeight(String key, int minWeight) {
+        NavigableMap<String, E> after = key == null ? map : map.tailMap(key, false);
+        return firstWithWeight(after, minWeight);
+    }
+
+    private E firstWithWeight(NavigableMap<String, E> entries, int minWeight) {
+        for (Map.Entry<String, E> entry : entries.entrySet()) {
+            if (weigher.applyAsInt(entry.getValue()) >= minWeight) return entry.getValue();
+        }
+        return null;
+    }
+
+    /**
+     * Clears the map and inserts the sorted input in order. The pool is not used.
+     */
+    @Override
+    public void buildFromSorted(String[] keys, E[] values, ForkJoinPool pool) {
+        if (keys.length != values.length) {
+            throw new IllegalArgumentException("Expected one value per key");
+        }
+        for (int i = 1; i < keys.length; i++) {
+            if (keys[i - 1].compareTo(keys[i]) >= 0) {
+                throw new IllegalArgumentException("Keys must be strictly ascending, found " + keys[i] + " after " + keys[i - 1]);
+            }
+        }
+        map.clear();
+        for (int i = 0; i < keys.length; i++) {
+            map.put(keys[i], values[i]);
+        }
+        size.set(keys.length);
+    }
+}
@@ -0,0 +1,352 @@
+package edu.hsutx;
+
+import java.util.List;
+import java.util.Queue;
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.BlockingQueue;
+import java.util.concurrent.ConcurrentLinkedQueue;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.locks.LockSupport;
+
+/**
+ * Places a batch of reservations optimistically. Worker threads search an immutable snapshot of the free blocks
+ * for the block nearest each party's desired seat, in parallel, and propose seats in it. The calling thread is the
+ * single writer: it checks that the proposed seats are still free in the live tree and commits them, or sends the
+ * proposal back to be searched again on a newer snapshot. Only the seats are validated, not the block they came
+ * from, so two parties carved from the same large block at different places both commit. A proposal that keeps conflicting, or that found nothing in its
+ * snapshot, is placed directly by the writer with AllocationPolicy.NEAREST.
+ *
+ * The writer publishes a new snapshot every snapshotInterval commits or conflicts. Shorter intervals mean fewer conflicts but
+ * more time spent copying the free block list.
+ *
+ * Parties are placed in the order their proposals reach the writer, not in request order, so results can differ
+ * from run to run; use ReservationController when the order matters.
+ */
+public class SpeculativeAllocator {
+    private static final int MAX_RETRIES = 3;
+    private static final int PROPOSAL_QUEUE = 1024;
+    private static final long IDLE_PARK_NANOS = 50_000;
+
+    private final CowboySeatTree tree;
+    private final int workers;
+    private final int snapshotInterval;
+
+    private long commits;
+    private long conflicts;
+    private long fallbacks;
+    private long snapshots;
+
+    /**
+     * Creates an allocator for the given tree.
+     *
+     * @param tree The seat tree; only the calling thread of allocateAll touches it
+     * @param workers The number of worker threads searching snapshots
+     * @param snapshotInterval The number of commits and conflicts between snapshots
+     */
+    public SpeculativeAllocator(CowboySeatTree tree, int workers, int snapshotInterval) {
+        this.tree = tree;
+        this.workers = Math.max(1, workers);
+        this.snapshotInterval = Math.max(1, snapshotInterval);
+    }
+
+    /**
+     * Places every request.
+     *
+     * @param requests Add requests ('a') only
+     * @param capacity The number of seats in the stadium, for turning preferences into seats
+     * @return The reservation made for each request, in request order, with null where no block was large enough
+     * @throws IllegalArgumentException If a request is not an add, or asks for fewer than one seat
+     * @throws InterruptedException If interrupted while waiting for proposals
+     * @throws RuntimeException Whatever a worker thread threw, after the other workers have been stopped
+     */
+    public SeatAssignment[] allocateAll(List<ReservationRequest> requests, int capacity) throws InterruptedException {
+        for (ReservationRequest request : requests) {
+            if (request.getCommand() != 'a') {
+                throw new IllegalArgumentException("Only add requests can be allocated speculatively: " + request.getName());
+            }
+            if (request.getSeats() <= 0) {
+                throw new IllegalArgumentException("A party needs at least one seat: " + request.getName());
+            }
+        }
+
+        Batch batch = new Batch(requests, capacity);
+        batch.snapshot = new FreeSpaceSnapshot(tree.getUnassignedBlocksByPosition());
+        snapshots++;
+        Thread[] threads = new Thread[workers];
+        for (int i = 0; i < workers; i++) {
+            threads[i] = new Thread(batch::work, "speculate-" + i);
+            threads[i].setDaemon(true);
+            threads[i].start();
+        }
+
+        SeatAssignment[] results = new SeatAssignment[requests.size()];
+        try {
+            int sinceSnapshot = 0;
+            for (int completed = 0; completed < requests.size(); ) {
+                Proposal proposal = batch.proposals.take();
+                if (proposal.failure != null) {
+                    Throwable failure = proposal.failure;
+                    if (failure instanceof RuntimeException) throw (RuntimeException) failure;
+                    if (failure instanceof Error) throw (Error) failure;
+                    throw new IllegalStateException("Worker failed", failure);
+                }
+                SeatAssignment block = proposal.block == null ? null : liveBlockHolding(proposal);
+                if (block != null) {
+                    results[proposal.index] = commit(proposal, block);
+                    commits++;
+                    completed++;
+                    sinceSnapshot++;
+                } else if (proposal.block != null && proposal.attempts < MAX_RETRIES) {
+                    proposal.attempts++;
+                    conflicts++;
+                    sinceSnapshot++; // A conflict means the snapshot is stale, so it counts towards the next one
+                    batch.retries.add(proposal);
+                } else {
+                    results[proposal.index] = tree.allocate(proposal.request.getName(), proposal.request.getSeats(),
+                            proposal.desiredSeat, AllocationPolicy.NEAREST);
+                    fallbacks++;
+                    completed++;
+                    sinceSnapshot++;
+                }
+
+                if (sinceSnapshot >= snapshotInterval) {
+                    batch.snapshot = new FreeSpaceSnapshot(tree.getUnassignedBlocksByPosition());
+                    snapshots++;
+                    sinceSnapshot = 0;
+                }
+            }
+        } finally {
+            batch.done = true;
+            for (Thread thread : threads) {
+                thread.interrupt();
+            }
+        }
+        return results;
+    }
+
+    /**
+     * Finds the live unassigned block that still holds every seat of a proposal.
+     *
+     * @return The block, or null if any proposed seat has been taken since the snapshot
+     */
+    private SeatAssignment liveBlockHolding(Proposal proposal) {
+        SeatAssignment block = tree.getUnassignedBlockAt(proposal.start);
+        if (block == null || block.getSeatStartIndex() + block.getSeatQuantity() < proposal.start + proposal.request.getSeats()) {
+            return null;
+        }
+        return block;
+    }
+
+    /**
+     * Commits a validated proposal: the party takes the proposed seats out of the live block holding them.
+     */
+    private SeatAssignment commit(Proposal proposal, SeatAssignment block) {
+        return tree.allocate(proposal.request.getName(), proposal.request.getSeats(), proposal.start, new AllocationStrategy() {
+            @Override
+            public SeatAssignment chooseBlock(SeatMap tree, int seatsNeeded, int desiredSeat) {
+                return block;
+            }
+
+            @Override
+            public int chooseStart(SeatAssignment block, int seatsNeeded, int desiredSeat) {
+                return proposal.start;
+            }
+        });
+    }
+
+    /** Proposals committed on their first validation or after a retry. */
+    public long getCommits() {
+        return commits;
+    }
+
+    /** Proposals whose seats had been taken by the time they were validated, each sent back for a retry. */
+    public long getConflicts() {
+        return conflicts;
+    }
+
+    /** Requests placed directly by the writer after too many conflicts or an empty snapshot search. */
+    public long getFallbacks() {
+        return fallbacks;
+    }
+
+    /** Snapshots of the free space taken so far. */
+    public long getSnapshots() {
+        return snapshots;
+    }
+
+    /**
+     * The shared state of one allocateAll call.
+     */
+    private static class Batch {
+        final List<ReservationRequest> requests;
+        final int capacity;
+        final AtomicInteger next = new AtomicInteger();
+        final Queue<Proposal> retries = new ConcurrentLinkedQueue<>();
+        final BlockingQueue<Proposal> proposals = new ArrayBlockingQueue<>(PROPOSAL_QUEUE);
+        volatile FreeSpaceSnapshot snapshot;
+        volatile boolean done = false;
+
+        Batch(List<ReservationRequest> requests, int capacity) {
+            this.requests = requests;
+            this.capacity = capacity;
+        }
+
+        /**
+         * Worker loop: takes a retry or the next request, searches the latest snapshot and proposes the result.
+         * If the worker fails, it proposes the failure instead, so the writer stops waiting for the request it held.
+         */
+        void work() {
+            try {
+                while (!done) {
+                    Proposal proposal = retries.poll();
+                    if (proposal == null) {
+                        int index = next.getAndIncrement();
+                        if (index >= requests.size()) {
+                            next.set(requests.size()); // Keep the counter from wrapping while waiting for retries
+                            LockSupport.parkNanos(IDLE_PARK_NANOS);
+                            continue;
+                        }
+                        ReservationRequest request = requests.get(index);
+                        proposal = new Proposal(index, request, request.getDesiredSeat(capacity));
+                    }
+
+                    int seats = proposal.request.getSeats();
+                    proposal.block = snapshot.nearest(proposal.desiredSeat, seats);
+                    if (proposal.block != null) {
+                        int start = AllocationPolicy.NEAREST.chooseStart(proposal.block, seats, proposal.desiredSeat);
+                        int blockStart = proposal.block.getSeatStartIndex();
+                        proposal.start = Math.max(blockStart, Math.min(blockStart + proposal.block.getSeatQuantity() - seats, start));
+                    }
+                    proposals.put(proposal);
+                }
+            } catch (InterruptedException e) {
+                // The batch is finished
+            } catch (Throwable e) {
+                Proposal failed = new Proposal(-1, null, 0);
+                failed.failure = e;
+                try {
+                    proposals.put(failed);
+                } catch (InterruptedException finished) {
+                    // The batch is finished
+                }
+            }
+        }
+    }
+
+    /**
+     * One party's candidate placement, passed from a worker to the writer.
+     */
+    private static class Proposal {
+        final int index;
+        final ReservationRequest request;
+        final int desiredSeat;
+        int attempts = 0;
+        SeatAssignment block; // Null if the snapshot had no block large enough
+        int start;
+        Throwable failure; // Set instead of a placement if the worker failed
+
+        Proposal(int index, ReservationRequest request, int desiredSeat) {
+            this.index = index;
+            this.request = request;
+            this.desiredSeat = desiredSeat;
+        }
+    }
+
+    /**
+     * An immutable copy of the free blocks in seat order, with a max-tree over their sizes so that the nearest
+     * block of at least n seats on either side of a seat is found in O(log n).
+     */
+    static class FreeSpaceSnapshot {
+        private final SeatAssignment[] blocks;
+        private final int[] starts;
+        private final int[] maxSize; // Heap-ordered max-tree over block sizes; leaves start at index leaves
+        private final int leaves;
+
+        FreeSpaceSnapshot(List<SeatAssignment> freeBlocks) {
+            blocks = freeBlocks.toArray(new SeatAssignment[0]);
+            starts = new int[blocks.length];
+            int size = 1;
+            while (size < blocks.length) size <<= 1;
+            leaves = size;
+            maxSize = new int[2 * size];
+            for (int i = 0; i < blocks.length; i++) {
+                starts[i] = blocks[i].getSeatStartIndex();
+                maxSize[size + i] = blocks[i].getSeatQuantity();
+            }
+            for (int i = size - 1; i >= 1; i--) {
+                maxSize[i] = Math.max(maxSize[2 * i], maxSize[2 * i + 1]);
+            }
+        }
+
+        /**
+         * Finds the block of at least seatsNeeded seats closest to the seat, measured as in
+         * CowboySeatTree.getUnassignedBlockNear.
+         *
+         * @return The closest block, or null if none is large enough
+         */
+        SeatAssignment nearest(int seat, int seatsNeeded) {
+            int split = upperBound(seat); // Blocks before split start at or before the seat
+            int before = lastFit(split - 1, seatsNeeded);
+            int after = firstFit(split, seatsNeeded);
+            if (before < 0) return after < 0 ? null : blocks[after];
+            if (after < 0) return blocks[before];
+
+            int beforeEnd = starts[before] + blocks[before].getSeatQuantity() - 1;
+            int beforeDistance = Math.max(0, seat - beforeEnd);
+            int afterDistance = starts[after] - seat;
+            return afterDistance < beforeDistance ? blocks[after] : blocks[before];
+        }
+
+        private int upperBound(int seat) {
+            int lo = 0;
+            int hi = starts.length;
+            while (lo < hi) {
+                int mid = (lo + hi) >>> 1;
+                if (starts[mid] <= seat) lo = mid + 1;
+                else hi = mid;
+            }
+            return lo;
+        }
+
+        /**
+         * Finds the last block at or before index whose size is at least seatsNeeded, or -1.
+         */
+        private int lastFit(int index, int seatsNeeded) {
+            if (index < 0) return -1;
+            int node = leaves + index;
+            if (maxSize[node] >= seatsNeeded) return index;
+            // Climb until a left sibling subtree holds a large enough block, then descend its right edge
+            while (node > 1) {
+                if ((node & 1) == 1 && maxSize[node - 1] >= seatsNeeded) {
+                    node--;
+                    while (node < leaves) {
+                        node = maxSize[2 * node + 1] >= seatsNeeded ? 2 * node + 1 : 2 * node;
+                    }
+                    return node - leaves;
+                }
+                node >>= 1;
+            }
+            return -1;
+        }
+
+        /**
+         * Finds the first block at or after index whose size is at least seatsNeeded, or -1.
+         */
+        private int firstFit(int index, int seatsNeeded) {
+            if (index >= blocks.length) return -1;
+            int node = leaves + index;
+            if (maxSize[node] >= seatsNeeded) return index;
+            while (node > 1) {
+                if ((node & 1) == 0 && maxSize[node + 1] >= seatsNeeded) {
+                    node++;
+                    while (node < leaves) {
+                        node = maxSize[2 * node] >= seatsNeeded ? 2 * node : 2 * node + 1;
+                    }
+                    return node - leaves < blocks.length ? node - leaves : -1;
+                }
+                node >>= 1;
+            }
+            return -1;
+        }
+    }
+}
@@ -0,0 +1,229 @@
+package edu.hsutx;
+
+import java.awt.image.BufferedImage;
+import java.util.HashMap;
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.concurrent.Executor;
+
+/**
+ * Renders a SeatBitmap as a seating chart cut into square image tiles at several zoom levels, and keeps the
+ * tiles it has rendered so that panning and zooming only draw images. Seats are laid out rowSeats to a row,
+ * seat 1 at the top left. At level 0 a pixel shows one seat; at level z it shows a square of 2^z by 2^z seats,
+ * shaded from green to red by the share of them taken.
+ *
+ * Tiles are rendered on one executor and announced on another, e.g. a background thread and the Swing event
+ * dispatch thread. When seats change, invalidate marks only the tiles covering them, at every level, as stale.
+ * A stale tile is still returned until its replacement is ready, so the view does not flicker.
+ *
+ * The render thread reads the bitmap while another thread may be changing it. A tile that missed a change is
+ * thrown away, or marked stale, by the invalidate call that follows the change.
+ */
+public class StadiumTileCache {
+    /** Width and height of a tile in pixels. */
+    public static final int TILE_SIZE = 256;
+    /** Number of zoom levels; a pixel of the last one shows 2^(LEVELS-1) seats a side. */
+    public static final int LEVELS = 4;
+    /** Seats per row of the chart unless given. */
+    public static final int DEFAULT_ROW_SEATS = 1000;
+    /** Number of tiles kept unless a capacity is given. */
+    public static final int DEFAULT_CAPACITY = 64;
+
+    static final int FREE_RGB = 0x2E7D32;
+    static final int TAKEN_RGB = 0xC62828;
+    static final int OUTSIDE_RGB = 0xDDDDDD; // Pixels past the last seat of a row or the last row
+
+    private final SeatBitmap seats;
+    private final int rowSeats;
+    private final int rows;
+    private final Executor renderer;
+    private final Executor handoff;
+    // Rendered tiles by key, least recently used first; all fields below are guarded by this
+    private final LinkedHashMap<Long, Tile> tiles;
+    // Tiles being rendered, each with the token its result must still carry to be kept
+    private final Map<Long, Object> rendering = new HashMap<>();
+    private long renderCount = 0;
+
+    /**
+     * Creates an empty cache of tiles for a seat bitmap.
+     *
+     * @param seats The seats to draw
+     * @param rowSeats The number of seats per row of the chart
+     * @param capacity The most tiles to keep; the least recently used are dropped first
+     * @param renderer Runs the rendering, normally a background thread
+     * @param handoff Runs the callbacks announcing finished tiles, normally SwingUtilities::invokeLater
+     */
+    public StadiumTileCache(SeatBitmap seats, int rowSeats, int capacity, Executor renderer, Executor handoff) {
+        this.seats = seats;
+        this.rowSeats = rowSeats;
+        this.rows = (seats.getCapacity() + rowSeats - 1) / rowSeats;
+        this.renderer = renderer;
+        this.handoff = handoff;
+        this.tiles = new LinkedHashMap<Long, Tile>(16, 0.75f, true) {
+            @Override
+            protected boolean removeEldestEntry(Map.Entry<Long, Tile> eldest) {
+                return size() > capacity;
+            }
+        };
+    }
+
+    /**
+     * Gets the width of the whole chart at a zoom level.
+     *
+     * @param level The zoom level
+     * @return The width in pixels
+     */
+    public int getWidth(int level) {
+        return ((rowSeats - 1) >> level) + 1;
+    }
+
+    /**
+     * Gets the height of the whole chart at a zoom level.
+     *
+     * @param level The zoom level
+     * @return The height in pixels
+     */
+    public int getHeight(int level) {
+        return ((rows - 1) >> level) + 1;
+    }
+
+    /**
+     * Gets a tile of the chart. A tile that is missing or stale is queued for rendering, unless it already is,
+     * and onReady is run on the handoff executor once the new tile can be fetched.
+     *
+     * @param level The zoom level
+     * @param tileX The column of the tile, from 0 at the left
+     * @param tileY The row of the tile, from 0 at the top
+     * @param onReady Run when a queued tile is ready, e.g. to repaint
+     * @return The tile, possibly stale, or null if it has not been rendered yet
+     */
+    public BufferedImage getTile(int level, int tileX, int tileY, Runnable onReady) {
+        long key = key(level, tileX, tileY);
+        Object token = new Object();
+        BufferedImage current;
+        synchronized (this) {
+            Tile tile = tiles.get(key);
+            current = tile == null ? null : tile.image;
+            if ((tile != null && !tile.stale) || rendering.containsKey(key)) {
+                return current;
+            }
+            rendering.put(key, token);
+        }
+
+        renderer.execute(() -> {
+            BufferedImage image = render(level, tileX, tileY);
+            synchronized (this) {
+                if (rendering.get(key) != token) {
+                    return; // Invalidated while rendering; the next request renders it again
+                }
+                rendering.remove(key);
+                tiles.put(key, new Tile(image));
+                renderCount++;
+            }
+            handoff.execute(onReady);
+        });
+        return current;
+    }
+
+    /**
+     * Marks the tiles showing the given seats as stale at every level. Tiles being rendered for them are thrown
+     * away when they finish. Tiles elsewhere are left alone.
+     *
+     * @param start The first seat that changed
+     * @param length The number of seats that changed
+     */
+    public synchronized void invalidate(int start, int length) {
+        int first = start - 1;
+        int last = start + length - 2;
+        int firstRow = first / rowSeats;
+        int lastRow = last / rowSeats;
+        int firstColumn = firstRow == lastRow ? first % rowSeats : 0; // A run over a row end covers every column
+        int lastColumn = firstRow == lastRow ? last % rowSeats : rowSeats - 1;
+
+        for (int level = 0; level < LEVELS; level++) {
+            int tileSeats = TILE_SIZE << level;
+            for (int tileY = firstRow / tileSeats; tileY <= lastRow / tileSeats; tileY++) {
+                for (int tileX = firstColumn / tileSeats; tileX <= lastColumn / tileSeats; tileX++) {
+                    long key = key(level, tileX, tileY);
+                    Tile tile = tiles.get(key);
+                    if (tile != null) tile.stale = true;
+                    rendering.remove(key);
+                }
+            }
+        }
+    }
+
+    /**
+     * Counts the tiles rendered and kept so far, a measure of how much work the cache saved.
+     *
+     * @return The number of tiles rendered
+     */
+    public synchronized long getRenderCount() {
+        return renderCount;
+    }
+
+    /**
+     * Counts the tiles currently kept, fresh or stale.
+     *
+     * @return The number of cached tiles
+     */
+    public synchronized int getCachedTileCount() {
+        return tiles.size();
+    }
+
+    /**
+     * Draws one tile from the bitmap. Each pixel counts the taken seats of its square a row at a time.
+     */
+    BufferedImage render(int level, int tileX, int tileY) {
+        BufferedImage image = new BufferedImage(TILE_SIZE, TILE_SIZE, BufferedImage.TYPE_INT_RGB);
+        int[] line = new int[TILE_SIZE];
+        int scale = 1 << level;
+        for (int y = 0; y < TILE_SIZE; y++) {
+            int firstRow = (tileY * TILE_SIZE + y) * scale;
+            for (int x = 0; x < TILE_SIZE; x++) {
+                int firstColumn = (tileX * TILE_SIZE + x) * scale;
+                int shown = 0;
+                int taken = 0;
+                for (int row = firstRow; row < Math.min(rows, firstRow + scale) && firstColumn < rowSeats; row++) {
+                    int seat = row * rowSeats + firstColumn + 1;
+                    int length = Math.min(Math.min(scale, rowSeats - firstColumn), seats.getCapacity() - seat + 1);
+                    if (length <= 0) break;
+                    shown += length;
+                    taken += seats.countTaken(seat, length);
+                }
+                line[x] = shown == 0 ? OUTSIDE_RGB : blend(taken, shown);
+            }
+            image.setRGB(0, y, TILE_SIZE, 1, line, 0, TILE_SIZE);
+        }
+        return image;
+    }
+
+    /**
+     * Mixes the free and taken colors by the share of seats taken.
+     */
+    private static int blend(int taken, int shown) {
+        int rgb = 0;
+        for (int shift = 0; shift <= 16; shift += 8) {
+            int free = (FREE_RGB >> shift) & 0xFF;
+            int full = (TAKEN_RGB >> shift) & 0xFF;
+            rgb |= (free + (full - free) * taken / shown) << shift;
+        }
+        return rgb;
+    }
+
+    private static long key(int level, int tileX, int tileY) {
+        return ((long) level << 56) | ((long) tileY << 28) | tileX;
+    }
+
+    /**
+     * A rendered tile, stale once the seats it shows have changed.
+     */
+    private static final class Tile {
+        final BufferedImage image;
+        boolean stale = false;
+
+        Tile(BufferedImage image) {
+            this.image = image;
+        }
+    }
+}
@@ -2,17 +2,27 @@ package edu.hsutx;
 
 import javax.swing.*;
 import java.awt.*;
+import java.awt.event.MouseAdapter;
+import java.awt.event.MouseEvent;
+import java.awt.event.MouseWheelEvent;
+import java.awt.image.BufferedImage;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
 
 /**
  * SwingView is the graphical user interface (GUI) for the Stadium Seat Reservations system.
  * It extends JFrame and provides a window with components to visualize and interact with the system.
  */
 public class SwingView extends JFrame {
+    private final JPanel treePanel;
+    private volatile StadiumPanel stadiumPanel; // Shows the seat map given to setSeatMap
+    private ExecutorService tileRenderer;
 
     // Constructor to set up the JFrame
     /**
      * Initializes the JFrame with a title, size, layout, and basic UI components.
      * The constructor also sets up a panel for visualizing the Red-Black tree and a control panel for user interactions.
+     * The stadium map fills the centre of the window once setSeatMap is called.
      */
     public SwingView() {
         setTitle("Stadium Seat Reservations");
@@ -21,26 +31,49 @@ public class SwingView extends JFrame {
         setLayout(new BorderLayout());
 
         // Add components for visualization (e.g., tree and stadium layout)
-        JPanel treePanel = new JPanel();
-        treePanel.setBackground(Color.WHITE); 
-        add(treePanel, BorderLayout.CENTER);
+        treePanel = new JPanel();
+        treePanel.setBackground(Color.WHITE);
+        add(treePanel, BorderLayout.NORTH);
 
         // Add buttons or controls for user interactions (if needed)
         JPanel controlPanel = new JPanel();
         controlPanel.setLayout(new FlowLayout());
         JButton refreshButton = new JButton("Refresh Tree");
         controlPanel.add(refreshButton);
-        
+
         add(controlPanel, BorderLayout.SOUTH);
     }
 
     // Method to show the GUI
     /**
-     * Creates and shows the Swing-based GUI. Initializes the window and makes it visible.
+     * Shows the window. Initializes the window and makes it visible.
      */
     public void createAndShowGUI() {
-        SwingView view = new SwingView();
-        view.setVisible(true);
+        setVisible(true);
+    }
+
+    /**
+     * Shows the given seats as a tiled stadium map that can be panned by dragging and zoomed with the mouse
+     * wheel. Tiles are rendered on a background thread and cached; updateStadiumVisualization invalidates only
+     * the tiles covering the seats that changed.
+     *
+     * @param seats The occupancy bitmap to show, kept up to date by the caller
+     */
+    public void setSeatMap(SeatBitmap seats) {
+        if (tileRenderer != null) tileRenderer.shutdownNow();
+        tileRenderer = Executors.newSingleThreadExecutor(runnable -> {
+            Thread thread = new Thread(runnable, "stadium-tiles");
+            thread.setDaemon(true);
+            return thread;
+        });
+        StadiumTileCache cache = new StadiumTileCache(seats, StadiumTileCache.DEFAULT_ROW_SEATS,
+                StadiumTileCache.DEFAULT_CAPACITY, tileRenderer, SwingUtilities::invokeLater);
+        SwingUtilities.invokeLater(() -> {
+            if (stadiumPanel != null) remove(stadiumPanel);
+            stadiumPanel = new StadiumPanel(cache);
+            add(stadiumPanel, BorderLayout.CENTER);
+            revalidate();
+        });
     }
 
     // Methods to update the GUI based on the state of the model (e.g., refresh the tree display)
@@ -48,12 +81,10 @@ public class SwingView extends JFrame {
     /**
      * Updates the visualization of the Red-Black Tree in the GUI.
      * This method repaints the tree panel to reflect any changes in the tree structure.
-     * 
+     *
      * @param tree The Red-Black Tree model object that needs to be visualized
      */
     public void updateTreeVisualization(CowboySeatTree tree) {
-
-        JPanel treePanel = (JPanel) getContentPane().getComponent(0); // Assuming the first panel is for the tree visualization
         treePanel.removeAll(); // Remove existing components
 
         // Re-render the tree (for simplicity, we just use a label here, but you can enhance with more complex rendering)
@@ -66,32 +97,95 @@ public class SwingView extends JFrame {
 
     /**
      * Updates the visualization of the stadium seating arrangement.
-     * This method can change the colors or layout of seats in the stadium view.
-     * 
+     * The seat map passed to setSeatMap already holds the new state, so this only marks the map tiles showing
+     * the block as stale and asks for a repaint; the tiles are redrawn in the background. Safe to call from any
+     * thread.
+     *
      * @param start The starting position of the seats to be updated
      * @param length The length of the seat block to be updated
      * @param colored A boolean indicating whether the seats should be colored or not
      */
-    public void updateStadiumVisualization(int start, int length, boolean colored) {        
-        // Assuming you have a panel for stadium seating (similar to the tree visualization panel)
-        JPanel stadiumPanel = new JPanel();
-        stadiumPanel.setLayout(new GridLayout(10, 10)); 
-        
-        // Example: Update a range of seats starting at 'start' for 'length' seats
-        for (int i = start; i < start + length; i++) {
-            JButton seatButton = new JButton("Seat " + i);
-            if (colored) {
-                seatButton.setBackground(Color.RED); 
-            } else {
-                seatButton.setBackground(Color.GREEN);
-            }
-            stadiumPanel.add(seatButton);
+    public void updateStadiumVisualization(int start, int length, boolean colored) {
+        StadiumPanel panel = stadiumPanel;
+        if (panel == null) {
+            return; // No seat map shown yet
         }
+        panel.tiles.invalidate(start, length);
+        panel.repaint();
+    }
 
-        // Update the main window with the new stadium layout
-        getContentPane().removeAll(); // Clear the existing content
-        add(stadiumPanel, BorderLayout.CENTER);
-        revalidate(); // Refresh the layout
-        repaint(); // Repaint the updated window
+    /**
+     * Draws the visible tiles of the stadium map at the current zoom. Zooming in past one pixel per seat
+     * magnifies the level 0 tiles; zooming out switches to coarser levels.
+     */
+    private static class StadiumPanel extends JPanel {
+        private static final int MAX_ZOOM = 3; // Up to 8 pixels per seat
+        private final StadiumTileCache tiles;
+        private int zoom = -1; // Pixels per seat as a power of two; negative zooms show coarser tile levels
+        private double offsetX = 0; // Screen position of the top left of the chart
+        private double offsetY = 0;
+
+        StadiumPanel(StadiumTileCache tiles) {
+            this.tiles = tiles;
+            setBackground(Color.WHITE);
+            MouseAdapter mouse = new MouseAdapter() {
+                private Point last;
+
+                @Override
+                public void mousePressed(MouseEvent e) {
+                    last = e.getPoint();
+                }
+
+                @Override
+                public void mouseDragged(MouseEvent e) {
+                    offsetX += e.getX() - last.x;
+                    offsetY += e.getY() - last.y;
+                    last = e.getPoint();
+                    repaint();
+                }
+
+                @Override
+                public void mouseWheelMoved(MouseWheelEvent e) {
+                    int newZoom = Math.max(1 - StadiumTileCache.LEVELS, Math.min(MAX_ZOOM, zoom - e.getWheelRotation()));
+                    double factor = Math.pow(2, newZoom - zoom);
+                    offsetX = e.getX() - (e.getX() - offsetX) * factor; // Keep the seat under the cursor in place
+                    offsetY = e.getY() - (e.getY() - offsetY) * factor;
+                    zoom = newZoom;
+                    repaint();
+                }
+            };
+            addMouseListener(mouse);
+            addMouseMotionListener(mouse);
+            addMouseWheelListener(mouse);
+        }
+
+        @Override
+        protected void paintComponent(Graphics g) {
+            super.paintComponent(g);
+            int level = Math.max(0, -zoom);
+            int tilePixels = StadiumTileCache.TILE_SIZE << Math.max(0, zoom);
+            int left = (int) Math.floor(offsetX);
+            int top = (int) Math.floor(offsetY);
+            int columns = (tiles.getWidth(level) + StadiumTileCache.TILE_SIZE - 1) / StadiumTileCache.TILE_SIZE;
+            int rows = (tiles.getHeight(level) + StadiumTileCache.TILE_SIZE - 1) / StadiumTileCache.TILE_SIZE;
+
+            int firstX = Math.max(0, Math.floorDiv(-left, tilePixels));
+            int lastX = Math.min(columns - 1, Math.floorDiv(getWidth() - 1 - left, tilePixels));
+            int firstY = Math.max(0, Math.floorDiv(-top, tilePixels));
+            int lastY = Math.min(rows - 1, Math.floorDiv(getHeight() - 1 - top, tilePixels));
+            for (int tileY = firstY; tileY <= lastY; tileY++) {
+                for (int tileX = firstX; tileX <= lastX; tileX++) {
+                    int x = left + tileX * tilePixels;
+                    int y = top + tileY * tilePixels;
+                    BufferedImage tile = tiles.getTile(level, tileX, tileY, this::repaint);
+                    if (tile != null) {
+                        g.drawImage(tile, x, y, tilePixels, tilePixels, null);
+                    } else {
+                        g.setColor(Color.LIGHT_GRAY); // Still rendering
+                        g.fillRect(x, y, tilePixels, tilePixels);
+                    }
+                }
+            }
+        }
     }
-}
\ No newline at end of file
+}
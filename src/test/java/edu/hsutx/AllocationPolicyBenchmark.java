@@ -0,0 +1,91 @@
+package edu.hsutx;
+
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Paths;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Random;
+
+/**
+ * Replays a reservation trace under every AllocationPolicy and reports throughput, rejection rate and
+ * how fragmented the free seats end up. Fragmentation is reported as the number of unassigned blocks and the
+ * share of free seats stranded in blocks too small for a typical party (fewer than STRANDED_BELOW seats).
+ * Run with: gradle benchmark -Pbench=AllocationPolicyBenchmark [-Pargs=path/to/reservations.csv]
+ * Without a file, a synthetic trace of small parties with 30% cancellations is generated.
+ */
+public class AllocationPolicyBenchmark {
+    private static final int STRANDED_BELOW = 4;
+
+    public static void main(String[] args) throws IOException {
+        List<ReservationRequest> trace = new ArrayList<>();
+        if (args.length > 0) {
+            for (String line : Files.readAllLines(Paths.get(args[0]))) {
+                if (!line.isBlank()) trace.add(ReservationRequest.parse(line));
+            }
+        } else {
+            trace = syntheticTrace(400_000, new Random(11));
+        }
+
+        System.out.printf("%d requests%n", trace.size());
+        System.out.printf("%-10s %12s %10s %12s %14s %15s%n",
+                "policy", "requests/s", "rejected", "free blocks", "largest free", "stranded seats");
+
+        for (AllocationPolicy policy : AllocationPolicy.values()) {
+            CowboySeatTree tree = new CowboySeatTree();
+            tree.addUnassignedSeats(1, SeatBitmap.STADIUM_SEATS);
+            int adds = 0;
+            int rejected = 0;
+            long freeSeats = SeatBitmap.STADIUM_SEATS;
+
+            long start = System.nanoTime();
+            for (ReservationRequest request : trace) {
+                if (request.getCommand() == 'a') {
+                    adds++;
+                    SeatAssignment reservation = tree.allocate(request.getName(), request.getSeats(),
+                            request.getDesiredSeat(SeatBitmap.STADIUM_SEATS), policy);
+                    if (reservation == null) rejected++;
+                    else freeSeats -= reservation.getSeatQuantity();
+                } else if (request.getCommand() == 'd') {
+                    SeatAssignment released = tree.release(request.getName());
+                    if (released != null) freeSeats += released.getSeatQuantity();
+                }
+            }
+            long nanos = System.nanoTime() - start;
+
+            SeatAssignment largest = tree.getLargestUnassignedBlock();
+            int largestSeats = largest == null ? 0 : largest.getSeatQuantity();
+            long strandedSeats = 0;
+            for (SeatAssignment block : tree.getUnassignedBlocksBetween(1, STRANDED_BELOW - 1)) {
+                strandedSeats += block.getSeatQuantity();
+            }
+            System.out.printf("%-10s %12.0f %9.2f%% %12d %14d %14.2f%%%n", policy,
+                    trace.size() / (nanos / 1e9), 100.0 * rejected / Math.max(1, adds),
+                    tree.getUnassignedBlockCount(), largestSeats, 100.0 * strandedSeats / Math.max(1, freeSeats));
+        }
+    }
+
+    /**
+     * Builds a trace of parties of 1 to 12 seats (mostly small) where about 30% of requests cancel an
+     * earlier party, so free space keeps getting punched into the middle of the stadium.
+     */
+    static List<ReservationRequest> syntheticTrace(int requests, Random random) {
+        List<ReservationRequest> trace = new ArrayList<>(requests);
+        List<String> live = new ArrayList<>();
+        for (int i = 0; i < requests; i++) {
+            if (!live.isEmpty() && random.nextInt(10) < 3) {
+                int victim = random.nextInt(live.size());
+                String name = live.get(victim);
+                live.set(victim, live.get(live.size() - 1));
+                live.remove(live.size() - 1);
+                trace.add(new ReservationRequest('d', name, 0, 0));
+            } else {
+                String name = "fan" + i;
+                int seats = 1 + (int) Math.min(11, Math.abs(random.nextGaussian() * 3));
+                trace.add(new ReservationRequest('a', name, seats, random.nextInt(101)));
+                live.add(name);
+            }
+        }
+        return trace;
+    }
+}
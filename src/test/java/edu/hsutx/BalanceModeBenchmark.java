@@ -0,0 +1,78 @@
+package edu.hsutx;
+
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Paths;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Random;
+
+/**
+ * Replays a reservation trace on a CowboySeatTree in each BalanceMode and reports throughput together with the
+ * rebalancing work recorded by EngineMetrics, per request: rotations and recolorings, the delete fix-ups run,
+ * the deletes left unbalanced and the nodes relinked by rebuilds. The seat tree and its free block index both
+ * count. The average lookup depth and the tree's height bound show what the skipped fix-ups cost in shape.
+ * Run with: gradle benchmark -Pbench=BalanceModeBenchmark [-Pargs=path/to/reservations.csv]
+ * Without a file, the synthetic trace of AllocationPolicyBenchmark is used.
+ */
+public class BalanceModeBenchmark {
+
+    public static void main(String[] args) throws IOException {
+        List<ReservationRequest> trace = new ArrayList<>();
+        if (args.length > 0) {
+            for (String line : Files.readAllLines(Paths.get(args[0]))) {
+                if (!line.isBlank()) trace.add(ReservationRequest.parse(line));
+            }
+        } else {
+            trace = AllocationPolicyBenchmark.syntheticTrace(400_000, new Random(11));
+        }
+
+        EngineMetrics metrics = EngineMetrics.shared();
+        System.out.printf("%d requests%n", trace.size());
+        System.out.printf("%-16s %12s %10s %10s %10s %10s %10s %10s %10s%n", "mode", "requests/s",
+                "rotations", "recolors", "fixups", "relaxed", "rebuilt", "avg depth", "max height");
+        for (BalanceMode mode : BalanceMode.values()) {
+            double rate = 0;
+            for (int round = 0; round < 3; round++) { // The first rounds warm up the JIT
+                metrics.setEnabled(false);
+                rate = replay(trace, mode).rate;
+            }
+            metrics.reset();
+            metrics.setEnabled(true);
+            Replay counted = replay(trace, mode);
+            metrics.setEnabled(false);
+            double requests = trace.size();
+            System.out.printf("%-16s %12.0f %10.3f %10.3f %10.3f %10.3f %10.3f %10.2f %10d%n", mode, rate,
+                    metrics.getRotations() / requests, metrics.getRecolorings() / requests,
+                    metrics.getDeleteFixups() / requests, metrics.getRelaxedDeletes() / requests,
+                    metrics.getRebuiltNodes() / requests, metrics.getAverageLookupDepth(), counted.tree.getMaxHeight());
+        }
+    }
+
+    private static Replay replay(List<ReservationRequest> trace, BalanceMode mode) {
+        CowboySeatTree tree = new CowboySeatTree();
+        tree.setBalanceMode(mode);
+        tree.setFreeBlockMetrics(tree.getMetrics()); // Count the free block index's work with the seat tree's
+        tree.addUnassignedSeats(1, SeatBitmap.STADIUM_SEATS);
+        long start = System.nanoTime();
+        for (ReservationRequest request : trace) {
+            if (request.getCommand() == 'a') {
+                tree.allocate(request.getName(), request.getSeats(), request.getDesiredSeat(SeatBitmap.STADIUM_SEATS),
+                        AllocationPolicy.NEAREST);
+            } else if (request.getCommand() == 'd') {
+                tree.release(request.getName());
+            }
+        }
+        return new Replay(tree, trace.size() * 1e9 / (System.nanoTime() - start));
+    }
+
+    private static class Replay {
+        final CowboySeatTree tree;
+        final double rate;
+
+        Replay(CowboySeatTree tree, double rate) {
+            this.tree = tree;
+            this.rate = rate;
+        }
+    }
+}
@@ -0,0 +1,368 @@
+package edu.hsutx;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Random;
+
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+
+/**
+ * Unit tests for the CowboySeatTree class.
+ */
+public class CowboySeatTreeTest {
+
+    private CowboySeatTree tree;
+
+    @BeforeEach
+    public void setUp() {
+        tree = new CowboySeatTree();
+        // Free: 1-10, 31-34, 51-100, 201-205; reserved in between
+        tree.insert(new SeatAssignment(10, 1));
+        tree.insert(new SeatAssignment("alice", 20, 11));
+        tree.insert(new SeatAssignment(4, 31));
+        tree.insert(new SeatAssignment("bob", 16, 35));
+        tree.insert(new SeatAssignment(50, 51));
+        tree.insert(new SeatAssignment("carol", 100, 101));
+        tree.insert(new SeatAssignment(5, 201));
+    }
+
+    @Test
+    public void testAddUnassignedSeats() {
+        CowboySeatTree stadium = new CowboySeatTree();
+        stadium.addUnassignedSeats(1, SeatBitmap.STADIUM_SEATS);
+
+        assertEquals(11, stadium.getSize(), "A million seats should be cut into blocks that fit the key format.");
+        assertTrue(stadium.validateRedBlackTree());
+        assertEquals(1, stadium.getUnassignedBlockNear(1, 99999).getSeatStartIndex());
+        assertEquals(10, stadium.getUnassignedBlockNear(SeatBitmap.STADIUM_SEATS, 1).getSeatQuantity());
+    }
+
+    @Test
+    public void testBlockNearContainingSeat() {
+        assertEquals(51, tree.getUnassignedBlockNear(75, 10).getSeatStartIndex(), "A block containing the seat should win.");
+        assertEquals(31, tree.getUnassignedBlockNear(32, 3).getSeatStartIndex());
+    }
+
+    @Test
+    public void testBlockNearSkipsBlocksTooSmall() {
+        assertEquals(51, tree.getUnassignedBlockNear(32, 5).getSeatStartIndex(), "Blocks smaller than the party should be skipped.");
+        assertEquals(1, tree.getUnassignedBlockNear(25, 6).getSeatStartIndex());
+        assertEquals(51, tree.getUnassignedBlockNear(210, 11).getSeatStartIndex(), "Search should look left of the seat too.");
+        assertNull(tree.getUnassignedBlockNear(50, 51), "No block holds 51 seats.");
+    }
+
+    @Test
+    public void testBlockNearPicksCloserSide() {
+        assertEquals(31, tree.getUnassignedBlockNear(25, 4).getSeatStartIndex(), "Seat 25 is 6 from 31 and 15 from 10.");
+        assertEquals(1, tree.getUnassignedBlockNear(15, 4).getSeatStartIndex(), "Seat 15 is 5 from 10 and 16 from 31.");
+    }
+
+    @Test
+    public void testBlockNearFollowsInsertAndDelete() {
+        tree.delete(new SeatAssignment(50, 51));
+        tree.insert(new SeatAssignment("dave", 50, 51));
+
+        assertEquals(201, tree.getUnassignedBlockNear(150, 5).getSeatStartIndex(), "Reserved blocks should leave the index.");
+
+        tree.delete(new SeatAssignment("bob", 16, 35));
+        tree.insert(new SeatAssignment(16, 35));
+        assertEquals(35, tree.getUnassignedBlockNear(40, 16).getSeatStartIndex(), "Released blocks should join the index.");
+    }
+
+    @Test
+    public void testBlockNearAfterSplitAndJoin() {
+        CowboySeatTree large = tree.split(new SeatAssignment(10, 1).getKey());
+
+        assertEquals(201, tree.getUnassignedBlockNear(150, 1).getSeatStartIndex(), "Lower half should only see small blocks.");
+        assertEquals(51, large.getUnassignedBlockNear(150, 1).getSeatStartIndex(), "Upper half should see the larger blocks.");
+
+        tree.join(large);
+        assertEquals(51, tree.getUnassignedBlockNear(150, 1).getSeatStartIndex(), "Joined tree should see every block again.");
+        assertTrue(tree.validateRedBlackTree());
+    }
+
+    @Test
+    public void testFindReservation() {
+        assertEquals(101, tree.findReservation("carol").getSeatStartIndex());
+        assertNull(tree.findReservation("nobody"));
+    }
+
+    @Test
+    public void testAllocationPolicies() {
+        // Free blocks: 10@1, 4@31, 50@51, 5@201
+        assertEquals(31, AllocationPolicy.BEST_FIT.chooseBlock(tree, 4, 1).getSeatStartIndex());
+        assertEquals(201, AllocationPolicy.BEST_FIT.chooseBlock(tree, 5, 1).getSeatStartIndex());
+        assertEquals(51, AllocationPolicy.WORST_FIT.chooseBlock(tree, 1, 1).getSeatStartIndex());
+        assertNull(AllocationPolicy.WORST_FIT.chooseBlock(tree, 51, 1));
+        assertEquals(1, AllocationPolicy.FIRST_FIT.chooseBlock(tree, 4, 200).getSeatStartIndex());
+        assertEquals(51, AllocationPolicy.FIRST_FIT.chooseBlock(tree, 11, 200).getSeatStartIndex());
+        assertEquals(201, AllocationPolicy.NEAREST.chooseBlock(tree, 4, 200).getSeatStartIndex());
+        assertEquals(1, AllocationPolicy.BUDDY.chooseBlock(tree, 5, 1).getSeatStartIndex(), "Five seats round up to eight.");
+    }
+
+    @Test
+    public void testAllocateSplitsBlock() {
+        SeatAssignment reservation = tree.allocate("erin", 10, 75, AllocationPolicy.NEAREST);
+
+        assertEquals(70, reservation.getSeatStartIndex(), "The party should be centered on the desired seat.");
+        assertSame(reservation, tree.findReservation("erin"));
+        assertEquals(19, tree.getValue(new SeatAssignment(19, 51).getKey()).getSeatQuantity(), "Seats left of the party stay free.");
+        assertEquals(21, tree.getValue(new SeatAssignment(21, 80).getKey()).getSeatQuantity(), "Seats right of the party stay free.");
+        assertTrue(tree.validateRedBlackTree());
+    }
+
+    @Test
+    public void testAllocateClampsToBlock() {
+        SeatAssignment reservation = tree.allocate("erin", 10, 99, AllocationPolicy.NEAREST);
+
+        assertEquals(91, reservation.getSeatStartIndex(), "The party should be moved back inside the block.");
+        assertNull(tree.allocate("frank", 60, 1, AllocationPolicy.BEST_FIT), "A party larger than every block is rejected.");
+    }
+
+    @Test
+    public void testAllocateRejectsEmptyParty() {
+        List<String> before = keys(tree.getUnassignedBlocksByPosition());
+        assertThrows(IllegalArgumentException.class, () -> tree.allocate("none", 0, 60, AllocationPolicy.NEAREST));
+        assertThrows(IllegalArgumentException.class, () -> tree.allocate("neg", -3, 60, AllocationPolicy.NEAREST));
+        assertThrows(IllegalArgumentException.class, () -> tree.hold("neg", -3, 60, AllocationPolicy.NEAREST, 0, 1_000));
+        assertEquals(before, keys(tree.getUnassignedBlocksByPosition()), "A rejected party should leave the free blocks alone.");
+        assertNull(tree.findReservation("neg"));
+        assertEquals(7, tree.getSize());
+    }
+
+    @Test
+    public void testBuddyAlignsParty() {
+        assertEquals(53, AllocationPolicy.BUDDY.chooseStart(new SeatAssignment(50, 51), 3, 1),
+                "Three seats round up to four and start on a multiple of four plus one.");
+
+        SeatAssignment reservation = tree.allocate("erin", 3, 1, AllocationPolicy.BUDDY);
+        assertEquals(31, reservation.getSeatStartIndex(), "When the aligned start does not fit, the block start is used.");
+    }
+
+    @Test
+    public void testRelease() {
+        SeatAssignment released = tree.release("bob");
+
+        assertEquals(35, released.getSeatStartIndex());
+        assertNull(tree.findReservation("bob"), "Released reservations should no longer be found.");
+        assertEquals(35, tree.getUnassignedBlockNear(40, 16).getSeatStartIndex(), "Released seats should be free again.");
+        assertNull(tree.release("bob"), "Releasing twice should find nothing.");
+    }
+
+    @Test
+    public void testRepeatedOwnerKeepsEveryReservation() {
+        SeatAssignment first = tree.allocate("bob", 4, 60, AllocationPolicy.NEAREST);
+        SeatAssignment second = tree.allocate("bob", 2, 90, AllocationPolicy.NEAREST);
+        assertEquals(3, tree.findReservations("bob").size(), "Every booking under one name should be indexed.");
+
+        assertEquals(35, tree.release("bob").getSeatStartIndex(), "The booking starting lowest goes first.");
+        assertSame(first, tree.findReservation("bob"), "Bob's other bookings should still be found.");
+        assertSame(first, tree.release("bob", true));
+        assertSame(second, tree.release("bob"));
+        assertNull(tree.release("bob"));
+        assertTrue(tree.findReservations("bob").isEmpty());
+        assertTrue(tree.validateRedBlackTree());
+
+        tree.hold("dave", 2, 60, AllocationPolicy.NEAREST, 0, 1_000);
+        tree.allocate("dave", 2, 80, AllocationPolicy.NEAREST);
+        assertEquals(1, tree.expireHolds(1_000), "Only the hold should lapse.");
+        assertFalse(tree.findReservation("dave").isHeld(), "The owner's confirmed booking should stay.");
+    }
+
+    @Test
+    public void testReservationCacheHitsAndInvalidation() {
+        ReservationCache cache = tree.getReservationCache();
+        SeatAssignment carol = tree.findReservation("carol");
+        assertSame(carol, tree.findReservation("carol"));
+        assertEquals(1, cache.getHits(), "The second lookup should come from the cache.");
+
+        tree.release("carol");
+        assertNull(tree.findReservation("carol"), "Releasing should invalidate the cached reservation.");
+
+        SeatAssignment rebooked = tree.allocate("carol", 5, 201, AllocationPolicy.NEAREST);
+        assertSame(rebooked, tree.findReservation("carol"), "A new booking should replace the cached one.");
+
+        tree.deleteRange(null, true, null, true);
+        assertNull(tree.findReservation("carol"), "Bulk deletes should clear the cache.");
+    }
+
+    @Test
+    public void testReservationCacheEvictsLeastRecentlyUsed() {
+        ReservationCache cache = new ReservationCache(32); // Two entries per segment
+        SeatAssignment first = new SeatAssignment("a", 1, 1);
+        cache.put(0, first);
+        cache.put(16, new SeatAssignment("b", 1, 2)); // Same segment as code 0
+        assertSame(first, cache.get(0), "Code 0 is now the most recently used.");
+        cache.put(32, new SeatAssignment("c", 1, 3));
+        assertNull(cache.get(16), "Code 16 was the least recently used of its segment.");
+        assertSame(first, cache.get(0));
+        for (int i = 1; i < 1000; i++) {
+            cache.put(i, new SeatAssignment("owner" + i, 1, i + 3));
+        }
+        cache.invalidate(999);
+
+        assertTrue(cache.size() <= 32, "The cache should stay within its capacity.");
+        assertNull(cache.get(0), "The oldest entry should have been evicted.");
+        assertNull(cache.get(999), "An invalidated entry should be gone.");
+        assertEquals(0, new CowboySeatTree(0).getReservationCache().size(), "A zero capacity cache holds nothing.");
+    }
+
+    @Test
+    public void testAllocateAndReleasePublishEvents() {
+        SeatEventStream.Subscription changes = tree.getEvents().subscribe();
+        tree.allocate("erin", 10, 75, AllocationPolicy.NEAREST);
+        tree.release("bob", true);
+
+        SeatEvent split = changes.poll();
+        assertEquals(SeatEvent.Type.SPLIT, split.getType());
+        assertEquals(51, split.getSeatStart(), "The split event names the block that was cut.");
+        SeatEvent allocated = changes.poll();
+        assertEquals(SeatEvent.Type.ALLOCATED, allocated.getType());
+        assertEquals(70, allocated.getSeatStart());
+
+        assertEquals(SeatEvent.Type.RELEASED, changes.poll().getType());
+        SeatEvent merged = changes.poll();
+        assertEquals(SeatEvent.Type.MERGED, merged.getType());
+        assertEquals(31, merged.getSeatStart(), "Bob's seats should merge with the free seats before them.");
+        assertEquals(39, merged.getSeatQuantity(), "Bob's seats should merge with the free seats after them.");
+        assertNull(changes.poll());
+
+        assertEquals(31, tree.getUnassignedBlockNear(35, 39).getSeatStartIndex());
+        assertEquals(4, tree.getUnassignedBlockCount(), "Three free blocks became one.");
+        assertTrue(tree.validateRedBlackTree());
+    }
+
+    @Test
+    public void testHoldsExpireUnlessConfirmed() {
+        SeatAssignment erin = tree.hold("erin", 10, 75, AllocationPolicy.NEAREST, 0, 600_000);
+        assertTrue(erin.isHeld());
+        assertEquals(600_000, erin.getHoldExpiry());
+        tree.hold("frank", 10, 55, AllocationPolicy.NEAREST, 1_000, 600_000);
+        assertNull(tree.getUnassignedBlockNear(60, 50), "Held seats should not be free.");
+
+        assertFalse(tree.confirm("frank", 1_000).isHeld(), "A confirmed hold becomes a reservation.");
+        assertEquals(0, tree.expireHolds(599_999), "Nothing should lapse early.");
+        assertEquals(1, tree.expireHolds(601_000), "Only the unconfirmed hold should lapse.");
+        assertNull(tree.findReservation("erin"));
+        assertNotNull(tree.findReservation("frank"));
+        assertEquals(0, tree.getScheduledHoldCount());
+
+        SeatAssignment merged = tree.getUnassignedBlockNear(70, 36);
+        assertEquals(61, merged.getSeatStartIndex(), "Lapsed seats should merge with the free seats around them.");
+        assertEquals(40, merged.getSeatQuantity());
+        assertTrue(tree.validateRedBlackTree());
+    }
+
+    @Test
+    public void testLapsedHoldCannotBeConfirmed() {
+        tree.hold("erin", 4, 60, AllocationPolicy.NEAREST, 0, 1_000);
+        assertNull(tree.confirm("erin", 1_000), "A hold cannot be confirmed once its time is up.");
+        tree.release("erin");
+        tree.hold("erin", 4, 60, AllocationPolicy.NEAREST, 2_000, 1_000);
+        assertEquals(1, tree.expireHolds(3_000), "A stale expiry from an earlier hold should be skipped.");
+        assertNull(tree.findReservation("erin"));
+        assertThrows(IllegalArgumentException.class, () -> tree.hold("gina", 1, 1, AllocationPolicy.NEAREST, 0, 0));
+    }
+
+    @Test
+    public void testOwnerIndexSurvivesChurn() {
+        CowboySeatTree stadium = new CowboySeatTree(0); // No cache, so every lookup goes to the owner index
+        stadium.addUnassignedSeats(1, 100_000);
+        for (int i = 0; i < 5_000; i++) {
+            stadium.allocate("churn" + i, 1 + i % 5, 1, AllocationPolicy.FIRST_FIT);
+        }
+        for (int i = 0; i < 5_000; i += 2) {
+            stadium.release("churn" + i, true);
+        }
+        for (int i = 0; i < 5_000; i++) {
+            SeatAssignment reservation = stadium.findReservation("churn" + i);
+            if (i % 2 == 0) assertNull(reservation, "Released owners should be gone from the index.");
+            else assertEquals("churn" + i, reservation.getOwner(), "Kept owners should still be found.");
+        }
+    }
+
+    @Test
+    public void testAllocateGroupUsesFewestNearbyBlocks() {
+        List<String> before = keys(tree.getUnassignedBlocksByPosition());
+        assertNull(tree.allocate("group", 60, 60, AllocationPolicy.NEAREST), "No single block holds 60 seats.");
+
+        List<SeatAssignment> parts = tree.allocateGroup("group", 60, 60);
+        assertEquals(3, parts.size(), "Seats 1-10, 31-34 and 51-100 are the shortest run holding 60 seats.");
+        for (SeatAssignment part : parts) {
+            assertEquals("group", part.getOwner(), "Every part should belong to the group's owner.");
+            assertEquals(parts.get(0).getGroup(), part.getGroup());
+        }
+        assertTrue(parts.get(0).getGroup() != SeatAssignment.NO_GROUP, "Group parts should carry a group number.");
+        assertEquals(SeatAssignment.key(6, 5), parts.get(0).getKey(), "The end farthest from seat 60 gives up the spare seats.");
+        assertEquals(SeatAssignment.key(4, 31), parts.get(1).getKey());
+        assertEquals(SeatAssignment.key(50, 51), parts.get(2).getKey());
+        assertEquals(2, tree.getUnassignedBlockCount());
+        assertTrue(tree.validateRedBlackTree());
+
+        SeatAssignment lookalike = tree.allocate("group#2", 2, 201, AllocationPolicy.NEAREST);
+        SeatAssignment later = tree.allocate("group", 1, 203, AllocationPolicy.NEAREST);
+        assertEquals(3, tree.releaseGroup("group", true).size());
+        assertSame(later, tree.findReservation("group"), "A separate booking of the owner should stay.");
+        assertSame(lookalike, tree.findReservation("group#2"), "An owner whose name looks like a part should stay.");
+        tree.release("group#2", true);
+        assertEquals(1, tree.releaseGroup("group", true).size(), "An ordinary booking is a group of one.");
+        assertNull(tree.findReservation("group"));
+        assertEquals(before, keys(tree.getUnassignedBlocksByPosition()), "Releasing with merge should restore the free blocks.");
+    }
+
+    @Test
+    public void testAllocateGroupIsAllOrNothing() {
+        int size = tree.getSize();
+        assertNull(tree.allocateGroup("group", 60, 60, 2, 240), "Two blocks cannot hold 60 seats.");
+        assertNull(tree.allocateGroup("group", 60, 60, 4, 20), "Only seats 51-100 start within 20 seats of seat 60.");
+        assertNull(tree.allocateGroup("group", 100, 100), "All the free seats together are only 69.");
+        assertEquals(size, tree.getSize(), "A group that does not fit should leave the tree unchanged.");
+        assertNull(tree.findReservation("group"));
+        assertTrue(tree.releaseGroup("group", false).isEmpty());
+
+        List<SeatAssignment> single = tree.allocateGroup("pair", 2, 203);
+        assertEquals(1, single.size(), "A party that fits one block should get one part.");
+        assertEquals(SeatAssignment.key(2, 203), single.get(0).getKey());
+    }
+
+    @Test
+    public void testRelaxedHeightBoundsHoldThroughChurn() {
+        CowboySeatTree stadium = new CowboySeatTree();
+        stadium.setBalanceMode(BalanceMode.RELAXED_DELETES);
+        stadium.addUnassignedSeats(1, SeatBitmap.STADIUM_SEATS);
+        List<ReservationRequest> trace = AllocationPolicyBenchmark.syntheticTrace(120_000, new Random(11));
+        for (int i = 0; i < trace.size(); i++) {
+            ReservationRequest request = trace.get(i);
+            if (request.getCommand() == 'a') {
+                stadium.allocate(request.getName(), request.getSeats(), request.getDesiredSeat(SeatBitmap.STADIUM_SEATS),
+                        AllocationPolicy.NEAREST);
+            } else {
+                stadium.release(request.getName(), true);
+            }
+            if (i % 5_000 == 0) {
+                // Inserts keep raising the black height while relaxed deletes never lower it
+                int height = height(stadium.root);
+                assertTrue(stadium.getMinHeight() <= height && height <= stadium.getMaxHeight(), "After request " + i
+                        + ", height " + height + " should lie within [" + stadium.getMinHeight() + ", " + stadium.getMaxHeight() + "]");
+                int strictMax = 2 * (32 - Integer.numberOfLeadingZeros(stadium.getSize()));
+                assertTrue(stadium.getMaxHeight() <= 2 * strictMax, "The upper bound should stay within twice a strict tree's.");
+            }
+        }
+        assertTrue(stadium.validateRedBlackTree());
+    }
+
+    private static int height(RedBlackTree<SeatAssignment>.Node node) {
+        return node == null ? 0 : 1 + Math.max(height(node.left), height(node.right));
+    }
+
+    private static List<String> keys(List<SeatAssignment> blocks) {
+        List<String> keys = new ArrayList<>();
+        for (SeatAssignment block : blocks) {
+            keys.add(block.getKey());
+        }
+        return keys;
+    }
+}
@@ -0,0 +1,69 @@
+package edu.hsutx;
+
+import java.io.IOException;
+import java.io.OutputStream;
+import java.io.PrintStream;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Random;
+
+/**
+ * Compares end-to-end rows per second of ReservationController.processCSV against processCSVPipelined on a
+ * generated CSV file, without a view. Error messages are discarded so console speed does not dominate.
+ * Run with: gradle benchmark -Pbench=CsvPipelineBenchmark [-Pargs=rows]
+ */
+public class CsvPipelineBenchmark {
+
+    public static void main(String[] args) throws IOException {
+        int rows = args.length > 0 ? Integer.parseInt(args[0]) : 300_000;
+        Path csv = Files.createTempFile("reservations", ".csv");
+        Files.write(csv, syntheticRows(rows, new Random(13)));
+        System.out.printf("%d rows%n", rows);
+        System.out.printf("%-10s %12s%n", "mode", "rows/s");
+
+        PrintStream console = System.out;
+        for (int round = 0; round < 3; round++) { // The first rounds warm up the JIT
+            for (boolean pipelined : new boolean[] { false, true }) {
+                CowboySeatTree tree = new CowboySeatTree();
+                tree.addUnassignedSeats(1, SeatBitmap.STADIUM_SEATS);
+                ReservationController controller = new ReservationController(tree, null);
+
+                System.setOut(new PrintStream(OutputStream.nullOutputStream()));
+                long start = System.nanoTime();
+                if (pipelined) controller.processCSVPipelined(csv.toString());
+                else controller.processCSV(csv.toString());
+                long nanos = System.nanoTime() - start;
+                System.setOut(console);
+
+                if (round == 2) {
+                    System.out.printf("%-10s %12.0f%n", pipelined ? "pipelined" : "sequential", rows / (nanos / 1e9));
+                }
+            }
+        }
+        Files.delete(csv);
+    }
+
+    /**
+     * Builds CSV rows of parties of 1 to 8 seats where about a quarter of the rows cancel an earlier party.
+     */
+    private static List<String> syntheticRows(int rows, Random random) {
+        List<String> lines = new ArrayList<>(rows);
+        List<String> live = new ArrayList<>();
+        for (int i = 0; i < rows; i++) {
+            if (!live.isEmpty() && random.nextInt(4) == 0) {
+                int victim = random.nextInt(live.size());
+                String name = live.get(victim);
+                live.set(victim, live.get(live.size() - 1));
+                live.remove(live.size() - 1);
+                lines.add("d," + name + ",,");
+            } else {
+                String name = "fan" + i;
+                lines.add("a," + name + "," + (1 + random.nextInt(8)) + "," + random.nextInt(101));
+                live.add(name);
+            }
+        }
+        return lines;
+    }
+}
@@ -0,0 +1,95 @@
+package edu.hsutx;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.List;
+import java.util.Random;
+import java.util.stream.Stream;
+
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+
+/**
+ * Unit tests for the CsvReplay class and ReservationController.processDirectory.
+ */
+public class CsvReplayTest {
+
+    private Path directory;
+
+    @BeforeEach
+    public void setUp() throws IOException {
+        directory = Files.createTempDirectory("outlets");
+    }
+
+    @AfterEach
+    public void tearDown() throws IOException {
+        try (Stream<Path> files = Files.walk(directory)) {
+            files.sorted(Comparator.reverseOrder()).forEach(path -> path.toFile().delete());
+        }
+    }
+
+    @Test
+    public void testMergeOrdersByTimestampThenFile() throws IOException {
+        Files.write(directory.resolve("b.csv"), List.of("a,b1,1,0,10", "a,b2,1,0,30"));
+        Files.write(directory.resolve("a.csv"), List.of("a,a1,1,0,20", "a,a2,1,0,30"));
+        Files.write(directory.resolve("c.csv"), List.of("a,c1,1,0", "a,c2,1,0")); // No timestamps: rows 1 and 2
+        Files.write(directory.resolve("notes.txt"), List.of("not a csv file"));
+
+        List<String> order = new ArrayList<>();
+        for (ReservationRequest request : CsvReplay.readMerged(directory, 2)) {
+            order.add(request.getName());
+        }
+        assertEquals(List.of("c1", "c2", "b1", "a1", "a2", "b2"), order,
+                "Rows should merge by time, with ties going to the file that sorts first.");
+    }
+
+    @Test
+    public void testMalformedRowNamesFile() throws IOException {
+        Files.write(directory.resolve("outlet.csv"), List.of("a,ok,1,0", "broken"));
+
+        IllegalArgumentException e = assertThrows(IllegalArgumentException.class, () -> CsvReplay.readMerged(directory, 1));
+        assertTrue(e.getMessage().startsWith("outlet.csv row 2"), e.getMessage());
+    }
+
+    @Test
+    public void testReplayIsDeterministicAcrossThreadCounts() throws IOException {
+        Random random = new Random(21);
+        for (int outlet = 0; outlet < 8; outlet++) {
+            List<String> lines = new ArrayList<>();
+            long time = 0;
+            List<String> live = new ArrayList<>();
+            for (int i = 0; i < 3000; i++) {
+                time += random.nextInt(5); // Plenty of equal timestamps within and across outlets
+                if (!live.isEmpty() && random.nextInt(4) == 0) {
+                    lines.add("d," + live.remove(random.nextInt(live.size())) + ",,," + time);
+                } else {
+                    String name = "o" + outlet + "-" + i;
+                    lines.add("a," + name + "," + (1 + random.nextInt(12)) + "," + random.nextInt(101) + "," + time);
+                    live.add(name);
+                }
+            }
+            Files.write(directory.resolve("outlet" + outlet + ".csv"), lines);
+        }
+
+        List<String> expected = null;
+        for (int threads : new int[] { 1, 2, 3, 8 }) {
+            CowboySeatTree tree = new CowboySeatTree();
+            tree.addUnassignedSeats(1, SeatBitmap.STADIUM_SEATS);
+            new ReservationController(tree, null).processDirectory(directory.toString(), threads);
+
+            assertTrue(tree.validateRedBlackTree());
+            List<String> contents = new ArrayList<>();
+            for (SeatAssignment block : tree.range(null, true, null, true)) {
+                contents.add(block.getKey() + ":" + block.getOwner());
+            }
+            if (expected == null) expected = contents;
+            else assertEquals(expected, contents, "Replaying on " + threads + " threads should give the same tree.");
+        }
+    }
+}
@@ -0,0 +1,90 @@
+package edu.hsutx;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+
+/**
+ * Unit tests for the EngineMetrics and LatencyHistogram classes.
+ */
+public class EngineMetricsTest {
+
+    private EngineMetrics metrics;
+    private RedBlackTree<String> tree;
+
+    @BeforeEach
+    public void setUp() {
+        metrics = new EngineMetrics();
+        tree = new RedBlackTree<>();
+        tree.setMetrics(metrics);
+    }
+
+    @Test
+    public void testDisabledMetricsRecordNothing() {
+        for (int i = 0; i < 100; i++) {
+            tree.insert(String.format("k%03d", i), "v");
+        }
+        tree.getValue("k050");
+        assertEquals(0, metrics.getRotations(), "Disabled metrics should not count rotations.");
+        assertEquals(0, metrics.getLookups(), "Disabled metrics should not count lookups.");
+        assertEquals(0, metrics.startTimer(), "Disabled metrics should not read the clock.");
+    }
+
+    @Test
+    public void testTreeWorkIsCounted() {
+        metrics.setEnabled(true);
+        // Ascending inserts rotate on every other insert once the tree has three nodes
+        for (int i = 0; i < 100; i++) {
+            tree.insert(String.format("k%03d", i), "v");
+        }
+        assertEquals(99, metrics.getInsertFixups(), "Every insert but the root should run a fixup.");
+        assertTrue(metrics.getRotations() > 0, "Ascending inserts should rotate.");
+        assertTrue(metrics.getRecolorings() > 0, "Ascending inserts should recolor.");
+
+        tree.getValue("k000");
+        tree.getValue("missing");
+        assertEquals(2, metrics.getLookups());
+        assertTrue(metrics.getMaxLookupDepth() <= 2 * 7, "Lookup depth should stay within the red-black bound.");
+
+        tree.delete("k050");
+        assertEquals(1, metrics.getDeleteFixups());
+
+        metrics.reset();
+        assertEquals(0, metrics.getRotations());
+        assertEquals(0, metrics.getLookups());
+    }
+
+    @Test
+    public void testFreeBlockIndexCountsSeparately() {
+        CowboySeatTree seats = new CowboySeatTree();
+        seats.setMetrics(metrics);
+        metrics.setEnabled(true);
+        seats.getFreeBlockMetrics().setEnabled(true);
+        // Three blocks: each tree runs a fixup for every insert but its root
+        seats.addUnassignedSeats(1, 3 * CowboySeatTree.MAX_BLOCK_SEATS);
+        assertEquals(2, metrics.getInsertFixups(), "The free block index should not count into the seat tree's metrics.");
+        assertEquals(2, seats.getFreeBlockMetrics().getInsertFixups());
+
+        seats.setFreeBlockMetrics(metrics);
+        seats.addUnassignedSeats(3 * CowboySeatTree.MAX_BLOCK_SEATS + 1, 4 * CowboySeatTree.MAX_BLOCK_SEATS);
+        assertEquals(4, metrics.getInsertFixups(), "Once set, both trees should count together.");
+    }
+
+    @Test
+    public void testHistogramPercentiles() {
+        LatencyHistogram histogram = new LatencyHistogram();
+        assertEquals(0, histogram.getPercentile(50), "Empty histogram should report zero.");
+        for (int i = 1; i <= 1000; i++) {
+            histogram.record(i * 1000L);
+        }
+        assertEquals(1000, histogram.getCount());
+        long p50 = histogram.getPercentile(50);
+        long p99 = histogram.getPercentile(99);
+        // Buckets are 1/8 of a power of two wide, so values may be over-reported by up to 12.5%
+        assertTrue(p50 >= 500_000 && p50 <= 500_000 * 9 / 8, "p50 was " + p50);
+        assertTrue(p99 >= 990_000 && p99 <= 990_000 * 9 / 8, "p99 was " + p99);
+        histogram.reset();
+        assertEquals(0, histogram.getCount());
+    }
+}
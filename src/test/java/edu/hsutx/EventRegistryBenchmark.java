@@ -0,0 +1,69 @@
+package edu.hsutx;
+
+import java.util.Random;
+
+/**
+ * Opens many events on one stadium layout with season-ticket holders already seated, books each of them, and
+ * reports the time to open an event, the booking rate, and the heap the events take, next to the heap of one
+ * CowboySeatTree holding the same layout.
+ * Run with: gradle benchmark -Pbench=EventRegistryBenchmark [-Pargs="events partiesPerEvent seasonTickets"]
+ */
+public class EventRegistryBenchmark {
+
+    public static void main(String[] args) throws InterruptedException {
+        int eventCount = args.length > 0 ? Integer.parseInt(args[0]) : 300;
+        int parties = args.length > 1 ? Integer.parseInt(args[1]) : 5_000;
+        int seasonTickets = args.length > 2 ? Integer.parseInt(args[2]) : 50_000;
+
+        Random random = new Random(17);
+        long before = MemoryFootprintReport.usedHeap();
+        CowboySeatTree base = new CowboySeatTree();
+        base.addUnassignedSeats(1, SeatBitmap.STADIUM_SEATS);
+        for (int i = 0; i < seasonTickets; i++) {
+            base.allocate("season" + i, 1 + random.nextInt(4), 1 + random.nextInt(SeatBitmap.STADIUM_SEATS), AllocationPolicy.NEAREST);
+        }
+        long treeBytes = MemoryFootprintReport.usedHeap() - before;
+
+        long start = System.nanoTime();
+        SeatLayout layout = SeatLayout.of(base);
+        long layoutNanos = System.nanoTime() - start;
+        System.out.printf("Layout: %d blocks in %d sections, built in %.1f ms; one CowboySeatTree of it takes %.1f MB%n",
+                layout.getBlockCount(), layout.getSectionCount(), layoutNanos / 1e6, treeBytes / 1e6);
+
+        before = MemoryFootprintReport.usedHeap();
+        EventRegistry registry = new EventRegistry(layout);
+        start = System.nanoTime();
+        for (int e = 0; e < eventCount; e++) {
+            registry.createEvent("event" + e);
+        }
+        long createNanos = System.nanoTime() - start;
+        long emptyBytes = MemoryFootprintReport.usedHeap() - before;
+        System.out.printf("Opened %d events in %.2f ms (%.1f us each), %.1f KB each%n",
+                eventCount, createNanos / 1e6, createNanos / 1e3 / eventCount, emptyBytes / 1e3 / eventCount);
+
+        // Every event sells to different parties near different seats; one in four cancels again
+        start = System.nanoTime();
+        long operations = 0;
+        for (int e = 0; e < eventCount; e++) {
+            EventSeatMap event = registry.getEvent("event" + e);
+            for (int i = 0; i < parties; i++) {
+                event.allocate("e" + e + "p" + i, 1 + random.nextInt(8), 1 + random.nextInt(SeatBitmap.STADIUM_SEATS), AllocationPolicy.NEAREST);
+                operations++;
+                if (i % 4 == 0) {
+                    event.release("e" + e + "p" + random.nextInt(i + 1), true);
+                    operations++;
+                }
+            }
+        }
+        long bookNanos = System.nanoTime() - start;
+        long bookedBytes = MemoryFootprintReport.usedHeap() - before;
+        long copied = 0;
+        for (String id : registry.getEventIds()) {
+            copied += registry.getEvent(id).getCopiedSectionCount();
+        }
+        System.out.printf("Booked %d parties per event: %.0f ops/s, %.1f of %d sections copied per event%n",
+                parties, operations * 1e9 / bookNanos, (double) copied / eventCount, layout.getSectionCount());
+        System.out.printf("%d booked events take %.1f MB (%.2f MB each), against %.1f MB for %d separate trees of the layout%n",
+                eventCount, bookedBytes / 1e6, bookedBytes / 1e6 / eventCount, treeBytes * eventCount / 1e6, eventCount);
+    }
+}
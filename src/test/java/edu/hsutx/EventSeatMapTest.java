@@ -0,0 +1,137 @@
+package edu.hsutx;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Random;
+
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+
+/**
+ * Unit tests for SeatLayout, EventSeatMap and EventRegistry.
+ */
+public class EventSeatMapTest {
+
+    private CowboySeatTree base;
+    private EventRegistry registry;
+
+    @BeforeEach
+    public void setUp() {
+        // A stadium with a season-ticket holder every 50,000 seats
+        base = new CowboySeatTree();
+        base.addUnassignedSeats(1, SeatBitmap.STADIUM_SEATS);
+        for (int i = 0; i < 20; i++) {
+            base.allocate("season" + i, 4, 1 + i * 50_000, AllocationPolicy.NEAREST);
+        }
+        registry = new EventRegistry(SeatLayout.of(base));
+    }
+
+    @Test
+    public void testNewEventSharesEverything() {
+        EventSeatMap game = registry.createEvent("game");
+        assertEquals(0, game.getCopiedSectionCount());
+        assertEquals(keys(base.getUnassignedBlocksByPosition()), keys(game.getUnassignedBlocksByPosition()));
+        assertEquals(base.findReservation("season3"), game.findReservation("season3"));
+        assertNull(game.findReservation("nobody"));
+        assertSame(game, registry.getEvent("game"));
+        assertThrows(IllegalArgumentException.class, () -> registry.createEvent("game"));
+    }
+
+    @Test
+    public void testEventsDivergeIndependently() {
+        EventSeatMap game = registry.createEvent("game");
+        EventSeatMap concert = registry.createEvent("concert");
+        List<String> layoutBlocks = keys(concert.getUnassignedBlocksByPosition());
+
+        SeatAssignment fan = game.allocate("fan", 6, 500_000, AllocationPolicy.NEAREST);
+        assertNotNull(fan);
+        assertEquals(fan, game.findReservation("fan"));
+        assertNull(concert.findReservation("fan"), "A booking for one event should not show in another.");
+        assertEquals(layoutBlocks, keys(concert.getUnassignedBlocksByPosition()));
+        assertEquals(0, concert.getCopiedSectionCount());
+        assertTrue(game.getCopiedSectionCount() <= 2, "Only the sections holding the changed blocks should be copied.");
+
+        assertNotNull(concert.release("season3", true));
+        assertNull(concert.findReservation("season3"));
+        assertNotNull(game.findReservation("season3"), "Releasing a layout reservation should stay within the event.");
+        assertNotNull(registry.createEvent("later").findReservation("season3"));
+
+        assertEquals(fan, game.release("fan", true));
+        assertEquals(layoutBlocks, keys(game.getUnassignedBlocksByPosition()), "Releasing with merge should restore the layout's blocks.");
+        assertNull(game.release("fan"));
+    }
+
+    @Test
+    public void testRepeatedOwnerInEvent() {
+        EventSeatMap game = registry.createEvent("game");
+        SeatAssignment layoutSeats = game.findReservation("season3"); // Seats 150,001 to 150,004
+        SeatAssignment extra = game.allocate("season3", 2, 600_000, AllocationPolicy.NEAREST);
+        assertSame(layoutSeats, game.findReservation("season3"), "The layout booking starts lower and comes first.");
+
+        assertSame(layoutSeats, game.release("season3", true));
+        assertSame(extra, game.findReservation("season3"), "The booking made in the event should still be found.");
+        assertSame(extra, game.release("season3", true));
+        assertNull(game.findReservation("season3"));
+        assertNull(game.release("season3"));
+        for (SeatAssignment released : new SeatAssignment[] { layoutSeats, extra }) {
+            SeatAssignment free = game.getUnassignedBlockNear(released.getSeatStartIndex(), released.getSeatQuantity());
+            assertTrue(free.getSeatStartIndex() <= released.getSeatStartIndex()
+                    && free.getSeatStartIndex() + free.getSeatQuantity() >= released.getSeatStartIndex() + released.getSeatQuantity(),
+                    "Both bookings' seats should be free again.");
+        }
+    }
+
+    @Test
+    public void testRejectsBlockFromElsewhere() {
+        EventSeatMap game = registry.createEvent("game");
+        SeatAssignment stale = new SeatAssignment(10, 1); // Equal to no block of the event
+        AllocationStrategy fixed = (tree, seatsNeeded, desiredSeat) -> stale;
+        assertNull(game.allocate("fan", 2, 1, fixed));
+        assertEquals(0, game.getCopiedSectionCount());
+    }
+
+    @Test
+    public void testPlacesPartiesLikeASeatTree() {
+        for (AllocationPolicy policy : AllocationPolicy.values()) {
+            CowboySeatTree tree = new CowboySeatTree();
+            tree.addUnassignedSeats(1, SeatBitmap.STADIUM_SEATS);
+            for (int i = 0; i < 20; i++) {
+                tree.allocate("season" + i, 4, 1 + i * 50_000, AllocationPolicy.NEAREST);
+            }
+            EventSeatMap event = registry.createEvent("event-" + policy);
+
+            Random random = new Random(5);
+            List<String> expected = new ArrayList<>();
+            List<String> actual = new ArrayList<>();
+            for (int i = 0; i < 20_000; i++) {
+                String name = policy + "-" + i;
+                int seats = 1 + random.nextInt(8);
+                int desired = 1 + random.nextInt(SeatBitmap.STADIUM_SEATS);
+                expected.add(describe(tree.allocate(name, seats, desired, policy)));
+                actual.add(describe(event.allocate(name, seats, desired, policy)));
+                if (i % 3 == 0) {
+                    String gone = random.nextInt(10) == 0 ? "season" + random.nextInt(20) : policy + "-" + random.nextInt(i + 1);
+                    boolean merge = random.nextBoolean();
+                    expected.add(describe(tree.release(gone, merge)));
+                    actual.add(describe(event.release(gone, merge)));
+                }
+            }
+            assertEquals(expected, actual, policy + " should place every party where the tree does.");
+            assertEquals(keys(tree.getUnassignedBlocksByPosition()), keys(event.getUnassignedBlocksByPosition()), policy.toString());
+        }
+    }
+
+    private static String describe(SeatAssignment block) {
+        return block == null ? "-" : block.getOwner() + "@" + block.getKey();
+    }
+
+    private static List<String> keys(List<SeatAssignment> blocks) {
+        List<String> keys = new ArrayList<>();
+        for (SeatAssignment block : blocks) {
+            keys.add(block.getKey());
+        }
+        return keys;
+    }
+}
@@ -0,0 +1,63 @@
+package edu.hsutx;
+
+import java.util.Random;
+
+/**
+ * Compares CowboySeatTree allocation with and without finger searches, on a stadium already fragmented by
+ * 100,000 random parties. The sequential workload books runs of 20 parties, each asking for the seat after the
+ * previous party, as a group booking in a CSV does; the random workload asks for random seats. Both cancel a
+ * quarter of the parties between runs. Reports the rate and the average path length of the exact-key searches
+ * recorded by EngineMetrics (weighted searches are not recorded).
+ * Run with: gradle benchmark -Pbench=FingerSearchBenchmark [-Pargs="parties"]
+ */
+public class FingerSearchBenchmark {
+    private static final int RUN_LENGTH = 20;
+
+    public static void main(String[] args) {
+        int parties = args.length > 0 ? Integer.parseInt(args[0]) : 200_000;
+        EngineMetrics metrics = EngineMetrics.shared();
+        metrics.setEnabled(true);
+
+        System.out.printf("%-12s %-8s %12s %14s%n", "workload", "fingers", "ops/s", "avg path");
+        for (int round = 0; round < 3; round++) { // The first rounds warm up the JIT
+            for (boolean sequential : new boolean[] { true, false }) {
+                for (boolean fingers : new boolean[] { false, true }) {
+                    CowboySeatTree tree = fragmentedStadium();
+                    tree.setLocalitySeats(fingers ? CowboySeatTree.LOCALITY_SEATS : -1);
+                    metrics.reset();
+                    double rate = book(tree, parties, sequential);
+                    if (round == 2) {
+                        System.out.printf("%-12s %-8s %12.0f %14.2f%n", sequential ? "sequential" : "random",
+                                fingers ? "on" : "off", rate, metrics.getAverageLookupDepth());
+                    }
+                }
+            }
+        }
+    }
+
+    private static CowboySeatTree fragmentedStadium() {
+        CowboySeatTree tree = new CowboySeatTree();
+        tree.setFreeBlockMetrics(tree.getMetrics()); // The free block index's searches use a finger too
+        tree.addUnassignedSeats(1, SeatBitmap.STADIUM_SEATS);
+        Random random = new Random(31);
+        for (int i = 0; i < 100_000; i++) {
+            tree.allocate("base" + i, 1 + random.nextInt(6), 1 + random.nextInt(SeatBitmap.STADIUM_SEATS), AllocationPolicy.NEAREST);
+        }
+        return tree;
+    }
+
+    private static double book(CowboySeatTree tree, int parties, boolean sequential) {
+        Random random = new Random(8);
+        int desired = 1;
+        long start = System.nanoTime();
+        for (int i = 0; i < parties; i++) {
+            if (!sequential || i % RUN_LENGTH == 0) desired = 1 + random.nextInt(SeatBitmap.STADIUM_SEATS);
+            SeatAssignment party = tree.allocate("p" + i, 2 + random.nextInt(5), desired, AllocationPolicy.NEAREST);
+            if (party != null) desired = party.getSeatStartIndex() + party.getSeatQuantity();
+            if (i % RUN_LENGTH == RUN_LENGTH - 1) { // A quarter of the parties cancel, between runs
+                for (int j = 0; j < RUN_LENGTH / 4; j++) tree.release("p" + random.nextInt(i + 1), true);
+            }
+        }
+        return parties * 1e9 / (System.nanoTime() - start);
+    }
+}
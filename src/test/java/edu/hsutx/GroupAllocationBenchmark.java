@@ -0,0 +1,65 @@
+package edu.hsutx;
+
+import java.util.List;
+import java.util.Random;
+
+/**
+ * Measures CowboySeatTree.allocateGroup placing 1,000-seat groups in a fragmented stadium, where small parties
+ * sit every 1 to 900 seats so no single free block holds a group. Each round places groups at random desired
+ * seats until half the free seats are gone, then releases them all with releaseGroup, for each engine behind the free block index.
+ * Reports groups placed per second, groups released per second and the average number of parts per group.
+ * Run with: gradle benchmark -Pbench=GroupAllocationBenchmark [-Pargs="groupSeats"]
+ */
+public class GroupAllocationBenchmark {
+    private static final int MAX_GAP = 900;
+
+    public static void main(String[] args) {
+        int groupSeats = args.length > 0 ? Integer.parseInt(args[0]) : 1000;
+        System.out.printf("Groups of %d seats, parties every 1-%d seats%n", groupSeats, MAX_GAP);
+        System.out.printf("%-12s %12s %12s %12s %10s%n", "engine", "groups", "placed/s", "released/s", "avg parts");
+        for (IndexEngine engine : IndexEngine.values()) {
+            for (int round = 0; round < 3; round++) { // The first rounds warm up the JIT
+                CowboySeatTree tree = fragmentedStadium(engine);
+                int freeSeats = 0;
+                for (SeatAssignment block : tree.getUnassignedBlocksByPosition()) freeSeats += block.getSeatQuantity();
+                int groups = freeSeats / 2 / groupSeats;
+
+                Random random = new Random(5);
+                long parts = 0;
+                int placed = 0;
+                long start = System.nanoTime();
+                for (int i = 0; i < groups; i++) {
+                    List<SeatAssignment> group = tree.allocateGroup("g" + i, groupSeats, 1 + random.nextInt(SeatBitmap.STADIUM_SEATS));
+                    if (group != null) {
+                        parts += group.size();
+                        placed++;
+                    }
+                }
+                long placeNanos = System.nanoTime() - start;
+                start = System.nanoTime();
+                for (int i = 0; i < groups; i++) {
+                    tree.releaseGroup("g" + i, true);
+                }
+                long releaseNanos = System.nanoTime() - start;
+                if (round == 2) {
+                    System.out.printf("%-12s %5d of %-5d %12.0f %12.0f %10.2f%n", engine, placed, groups,
+                            groups * 1e9 / placeNanos, groups * 1e9 / releaseNanos, (double) parts / Math.max(1, placed));
+                }
+            }
+        }
+    }
+
+    private static CowboySeatTree fragmentedStadium(IndexEngine engine) {
+        CowboySeatTree tree = new CowboySeatTree(CowboySeatTree.DEFAULT_CACHE_CAPACITY, engine);
+        tree.addUnassignedSeats(1, SeatBitmap.STADIUM_SEATS);
+        Random random = new Random(31);
+        int seat = 1;
+        for (int i = 0; ; i++) {
+            seat += 1 + random.nextInt(MAX_GAP);
+            int seats = 1 + random.nextInt(6);
+            if (seat + seats > SeatBitmap.STADIUM_SEATS) return tree;
+            tree.allocate("base" + i, seats, seat, AllocationPolicy.NEAREST);
+            seat += seats;
+        }
+    }
+}
@@ -0,0 +1,147 @@
+package edu.hsutx;
+
+import java.util.ArrayDeque;
+import java.util.PriorityQueue;
+import java.util.Random;
+
+/**
+ * Measures seat holds expiring under continued booking load. A simulated clock moves in 100 ms steps; each step
+ * places new 10-minute holds, confirms the holds that are due to pay, books and cancels ordinary reservations,
+ * and calls expireHolds. One hold in five is confirmed a minute after it was placed; the rest lapse.
+ *
+ * Before that, the scheduler alone is compared with a PriorityQueue of expiry times on the same schedule.
+ * Run with: gradle benchmark -Pbench=HoldExpiryBenchmark [-Pargs="holds holdsPerStep"]
+ */
+public class HoldExpiryBenchmark {
+    private static final long STEP_MILLIS = 100;
+    private static final long HOLD_MILLIS = 600_000;
+    private static final long PAY_MILLIS = 60_000;
+    private static final int BOOKINGS_KEPT = 50_000;
+
+    public static void main(String[] args) {
+        int holds = args.length > 0 ? Integer.parseInt(args[0]) : 2_000_000;
+        int holdsPerStep = args.length > 1 ? Integer.parseInt(args[1]) : 16;
+        System.out.printf("%d holds, %d per %d ms step, held for %d s%n", holds, holdsPerStep, STEP_MILLIS, HOLD_MILLIS / 1000);
+
+        for (int round = 0; round < 2; round++) { // The first round warms up the JIT
+            compareSchedulers(holds, holdsPerStep, round == 1);
+        }
+        for (int round = 0; round < 2; round++) {
+            runTree(holds, holdsPerStep, round == 1);
+        }
+    }
+
+    /**
+     * Schedules and expires the same stream of expiry times with the timing wheel and with a binary heap.
+     */
+    private static void compareSchedulers(int holds, int holdsPerStep, boolean report) {
+        long[] expiries = new long[holds];
+        Random random = new Random(17);
+        for (int i = 0; i < holds; i++) {
+            expiries[i] = (i / holdsPerStep) * STEP_MILLIS + 1 + random.nextInt((int) HOLD_MILLIS);
+        }
+
+        long[] fired = new long[1];
+        HoldTimingWheel wheel = new HoldTimingWheel(CowboySeatTree.HOLD_TICK_MILLIS, 0);
+        long start = System.nanoTime();
+        for (int i = 0; i < holds; i++) {
+            wheel.schedule("h", expiries[i]);
+            if (i % holdsPerStep == holdsPerStep - 1) wheel.advance((i / holdsPerStep) * STEP_MILLIS, (owner, at) -> fired[0]++);
+        }
+        wheel.advance(Long.MAX_VALUE / 2, (owner, at) -> fired[0]++);
+        long wheelNanos = System.nanoTime() - start;
+
+        PriorityQueue<Long> heap = new PriorityQueue<>();
+        start = System.nanoTime();
+        for (int i = 0; i < holds; i++) {
+            heap.add(expiries[i]);
+            if (i % holdsPerStep == holdsPerStep - 1) {
+                long now = (i / holdsPerStep) * STEP_MILLIS;
+                while (!heap.isEmpty() && heap.peek() <= now) {
+                    heap.poll();
+                    fired[0]++;
+                }
+            }
+        }
+        while (!heap.isEmpty()) {
+            heap.poll();
+            fired[0]++;
+        }
+        long heapNanos = System.nanoTime() - start;
+
+        if (report) {
+            System.out.printf("%-14s %14s%n", "scheduler", "holds/s");
+            System.out.printf("%-14s %14.0f%n", "timing wheel", holds * 1e9 / wheelNanos);
+            System.out.printf("%-14s %14.0f%n", "binary heap", holds * 1e9 / heapNanos);
+            System.out.println("(fired " + fired[0] + ")");
+        }
+    }
+
+    /**
+     * Runs the full workload against a stadium tree.
+     */
+    private static void runTree(int holds, int holdsPerStep, boolean report) {
+        CowboySeatTree tree = new CowboySeatTree();
+        tree.addUnassignedSeats(1, SeatBitmap.STADIUM_SEATS);
+        Random random = new Random(23);
+        ArrayDeque<String> paying = new ArrayDeque<>();
+        ArrayDeque<Long> payAt = new ArrayDeque<>();
+        ArrayDeque<String> bookings = new ArrayDeque<>();
+
+        long placed = 0;
+        long failed = 0;
+        long confirmed = 0;
+        long expired = 0;
+        long expiryNanos = 0;
+        int maxLiveHolds = 0;
+        long now = 0;
+        int booking = 0;
+        long start = System.nanoTime();
+        for (int hold = 0; hold < holds; now += STEP_MILLIS) {
+            for (int i = 0; i < holdsPerStep && hold < holds; i++, hold++) {
+                String owner = "hold" + hold;
+                int desired = 1 + random.nextInt(SeatBitmap.STADIUM_SEATS);
+                if (tree.hold(owner, 1 + random.nextInt(8), desired, AllocationPolicy.NEAREST, now, HOLD_MILLIS) == null) {
+                    failed++;
+                    continue;
+                }
+                placed++;
+                if (random.nextInt(5) == 0) {
+                    paying.add(owner);
+                    payAt.add(now + PAY_MILLIS);
+                }
+            }
+            while (!payAt.isEmpty() && payAt.peek() <= now) {
+                payAt.poll();
+                String owner = paying.poll();
+                if (tree.confirm(owner, now) != null) {
+                    confirmed++;
+                    bookings.add(owner);
+                }
+            }
+
+            // Ordinary bookings come and go alongside the holds
+            String owner = "fan" + booking++;
+            if (tree.allocate(owner, 1 + random.nextInt(8), 1 + random.nextInt(SeatBitmap.STADIUM_SEATS), AllocationPolicy.NEAREST) != null) {
+                bookings.add(owner);
+            }
+            while (bookings.size() > BOOKINGS_KEPT) {
+                tree.release(bookings.poll(), true);
+            }
+
+            long expireStart = System.nanoTime();
+            expired += tree.expireHolds(now);
+            expiryNanos += System.nanoTime() - expireStart;
+            maxLiveHolds = Math.max(maxLiveHolds, tree.getScheduledHoldCount());
+        }
+        long nanos = System.nanoTime() - start;
+
+        if (report) {
+            System.out.printf("%n%d simulated seconds, %d blocks in the tree at the end%n", now / 1000, tree.getSize());
+            System.out.printf("placed %d, full %d, confirmed %d, expired %d, most scheduled at once %d%n",
+                    placed, failed, confirmed, expired, maxLiveHolds);
+            System.out.printf("%.0f holds/s overall, expireHolds %.2f us per expired hold (%.1f%% of the time)%n",
+                    holds * 1e9 / nanos, expiryNanos / 1e3 / Math.max(1, expired), 100.0 * expiryNanos / nanos);
+        }
+    }
+}
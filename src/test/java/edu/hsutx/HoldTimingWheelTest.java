@@ -0,0 +1,72 @@
+package edu.hsutx;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.PriorityQueue;
+import java.util.Random;
+
+import org.junit.jupiter.api.Test;
+
+/**
+ * Unit tests for the HoldTimingWheel class.
+ */
+public class HoldTimingWheelTest {
+
+    @Test
+    public void testExpiresOnTimeAcrossLevels() {
+        HoldTimingWheel wheel = new HoldTimingWheel(1, 0);
+        long[] expiries = {5, 64, 65, 4096, 4097, 300_000, 20_000_000}; // Levels 0 to 3 and the overflow list
+        for (long expiresAt : expiries) {
+            wheel.schedule("h" + expiresAt, expiresAt);
+        }
+
+        for (long expiresAt : expiries) {
+            List<String> fired = new ArrayList<>();
+            assertEquals(0, wheel.advance(expiresAt - 1, (owner, at) -> fired.add(owner)), "Nothing should fire early.");
+            assertEquals(1, wheel.advance(expiresAt, (owner, at) -> fired.add(owner)));
+            assertEquals(List.of("h" + expiresAt), fired);
+        }
+        assertEquals(0, wheel.size());
+    }
+
+    @Test
+    public void testMatchesPriorityQueue() {
+        Random random = new Random(9);
+        HoldTimingWheel wheel = new HoldTimingWheel(10, 1_000);
+        PriorityQueue<Long> expected = new PriorityQueue<>();
+        long now = 1_000;
+        for (int step = 0; step < 2_000; step++) {
+            for (int i = 0; i < 20; i++) {
+                long expiresAt = now + random.nextInt(random.nextBoolean() ? 700 : 200_000);
+                wheel.schedule("h", expiresAt);
+                expected.add(expiresAt);
+            }
+            now += random.nextInt(500);
+
+            List<Long> fired = new ArrayList<>();
+            wheel.advance(now, (owner, at) -> fired.add(at));
+            int due = 0;
+            while (!expected.isEmpty() && expected.peek() <= now - now % 10) {
+                expected.poll();
+                due++;
+            }
+            assertEquals(due, fired.size(), "Every hold up to the current tick should fire, and no later one.");
+            for (long at : fired) {
+                assertTrue(at <= now);
+            }
+        }
+        assertEquals(expected.size(), wheel.size());
+    }
+
+    @Test
+    public void testScheduleInThePastFiresOnNextAdvance() {
+        HoldTimingWheel wheel = new HoldTimingWheel(100, 10_000);
+        wheel.schedule("late", 5_000);
+        List<String> fired = new ArrayList<>();
+        assertEquals(1, wheel.advance(10_000, (owner, at) -> fired.add(owner)));
+        assertEquals(List.of("late"), fired);
+        assertThrows(IllegalArgumentException.class, () -> new HoldTimingWheel(0, 0));
+    }
+}
@@ -0,0 +1,73 @@
+package edu.hsutx;
+
+import java.lang.management.ManagementFactory;
+import java.lang.management.MemoryMXBean;
+import java.lang.reflect.Field;
+import java.lang.reflect.Modifier;
+import java.util.Random;
+
+/**
+ * Reports how much heap a sold-out stadium takes: every seat booked by parties of 1 to 8. Prints the estimated
+ * shallow size of the objects each reservation is made of, in the style of JOL's class layout, and the measured
+ * heap growth per reservation after a full GC.
+ *
+ * Layouts assume a 64-bit JVM with compressed references: 12-byte headers, 4-byte references and objects padded
+ * to 8 bytes. Run with: gradle benchmark -Pbench=MemoryFootprintReport [-Pargs="seed"]
+ */
+public class MemoryFootprintReport {
+
+    public static void main(String[] args) throws Exception {
+        long seed = args.length > 0 ? Long.parseLong(args[0]) : 5;
+
+        System.out.println("Estimated shallow sizes (bytes):");
+        for (Class<?> type : new Class<?>[] { SeatAssignment.class, RedBlackTree.Node.class, String.class }) {
+            System.out.printf("  %-36s %4d%n", type.getName(), shallowSize(type));
+        }
+
+        long before = usedHeap();
+        CowboySeatTree tree = new CowboySeatTree();
+        tree.addUnassignedSeats(1, SeatBitmap.STADIUM_SEATS);
+        Random random = new Random(seed);
+        int parties = 0;
+        for (int seat = 1; seat <= SeatBitmap.STADIUM_SEATS; parties++) {
+            int size = Math.min(1 + random.nextInt(8), SeatBitmap.STADIUM_SEATS - seat + 1);
+            tree.allocate("fan" + parties, size, seat, AllocationPolicy.FIRST_FIT);
+            seat += size;
+        }
+        tree.findReservation("fan0"); // Builds the indexes if they are stale
+        long after = usedHeap();
+
+        System.out.printf("%nSold out: %d parties, %d blocks in the tree, %d free%n", parties, tree.getSize(), tree.getUnassignedBlockCount());
+        System.out.printf("Heap: %.1f MB, %.0f bytes per reservation%n", (after - before) / 1e6, (after - before) / (double) parties);
+        System.out.printf("Owner dictionary: %d names, %.1f MB%n", tree.getOwners().size(), tree.getOwners().getFootprintBytes() / 1e6);
+        System.out.println("(keeping " + tree.getSize() + ")");
+    }
+
+    /**
+     * Sums the instance fields of a class and its superclasses after the object header, padded to 8 bytes.
+     */
+    static long shallowSize(Class<?> type) {
+        long size = 12;
+        for (Class<?> c = type; c != null; c = c.getSuperclass()) {
+            for (Field field : c.getDeclaredFields()) {
+                if (Modifier.isStatic(field.getModifiers())) continue;
+                Class<?> t = field.getType();
+                if (t == long.class || t == double.class) size += 8;
+                else if (t == int.class || t == float.class) size += 4;
+                else if (t == short.class || t == char.class) size += 2;
+                else if (t == byte.class || t == boolean.class) size += 1;
+                else size += 4;
+            }
+        }
+        return (size + 7) / 8 * 8;
+    }
+
+    static long usedHeap() throws InterruptedException {
+        MemoryMXBean memory = ManagementFactory.getMemoryMXBean();
+        for (int i = 0; i < 3; i++) {
+            System.gc();
+            Thread.sleep(100);
+        }
+        return memory.getHeapMemoryUsage().getUsed();
+    }
+}
@@ -0,0 +1,105 @@
+package edu.hsutx;
+
+import java.util.Random;
+
+/**
+ * Compares the IndexEngines, first as bare OrderedIndexes and then as the free block index of a CowboySeatTree
+ * replaying a reservation trace. The seat tree itself is a RedBlackTree whatever the engine, so the trace
+ * figures differ only in the free block index's share of the work. In the trace, parties of 1 to 8 book near a
+ * random seat with NEAREST, and one in three cancels an earlier party. It runs on an empty stadium and again
+ * once it is 90% sold, when free space is fragmented into small blocks. Each trace stops after TRACE_SECONDS
+ * so the skip list, whose weighted searches turn linear on fragmented space, still finishes.
+ * Run with: gradle benchmark -Pbench=OrderedIndexBenchmark [-Pargs="keys operations"]
+ */
+public class OrderedIndexBenchmark {
+    private static final int TRACE_SECONDS = 5;
+
+    public static void main(String[] args) {
+        int keys = args.length > 0 ? Integer.parseInt(args[0]) : 200_000;
+        int operations = args.length > 1 ? Integer.parseInt(args[1]) : 100_000;
+
+        System.out.printf("Bare index, %d keys%n", keys);
+        System.out.printf("%-12s %12s %12s %14s%n", "engine", "inserts/s", "lookups/s", "nearest/s");
+        long sink = 0;
+        for (int round = 0; round < 3; round++) { // The first rounds warm up the JIT
+            for (IndexEngine engine : IndexEngine.values()) {
+                sink += bareIndex(engine, keys, round == 2);
+            }
+        }
+
+        System.out.printf("%nReservation trace, %d operations, engine behind the free block index only%n", operations);
+        System.out.printf("%-12s %14s %14s%n", "engine", "empty ops/s", "90% sold ops/s");
+        for (int round = 0; round < 2; round++) {
+            for (IndexEngine engine : IndexEngine.values()) {
+                double empty = trace(engine, operations, 0);
+                double sold = trace(engine, operations, SeatBitmap.STADIUM_SEATS * 9 / 10);
+                if (round == 1) System.out.printf("%-12s %14.0f %14.0f%n", engine, empty, sold);
+            }
+        }
+        System.out.println("(checksum " + sink + ")");
+    }
+
+    private static long bareIndex(IndexEngine engine, int keys, boolean report) {
+        Random random = new Random(3);
+        String[] names = new String[keys];
+        for (int i = 0; i < keys; i++) {
+            names[i] = SeatAssignment.paddedSeat(random.nextInt(SeatBitmap.STADIUM_SEATS));
+        }
+        OrderedIndex<Integer> index = engine.create(Integer::intValue);
+
+        long start = System.nanoTime();
+        for (int i = 0; i < keys; i++) {
+            index.insert(names[i], 1 + random.nextInt(8));
+        }
+        long insertNanos = System.nanoTime() - start;
+
+        long sink = 0;
+        start = System.nanoTime();
+        for (int i = 0; i < keys; i++) {
+            Integer value = index.getValue(names[(i * 7919) % keys]);
+            sink += value == null ? 0 : value;
+        }
+        long lookupNanos = System.nanoTime() - start;
+
+        start = System.nanoTime();
+        for (int i = 0; i < keys; i++) {
+            Integer value = index.floorWithWeight(names[i], 8);
+            sink += value == null ? 0 : value;
+        }
+        long nearestNanos = System.nanoTime() - start;
+
+        if (report) {
+            System.out.printf("%-12s %12.0f %12.0f %14.0f%n", engine, keys * 1e9 / insertNanos, keys * 1e9 / lookupNanos, keys * 1e9 / nearestNanos);
+        }
+        return sink;
+    }
+
+    /**
+     * Sells prefilled seats first, then times the trace.
+     *
+     * @return Operations per second over the part of the trace that ran
+     */
+    private static double trace(IndexEngine engine, int operations, int prefilled) {
+        CowboySeatTree tree = new CowboySeatTree(CowboySeatTree.DEFAULT_CACHE_CAPACITY, engine);
+        tree.addUnassignedSeats(1, SeatBitmap.STADIUM_SEATS);
+        Random random = new Random(19);
+        for (int seats = 0, i = 0; seats < prefilled; i++) {
+            SeatAssignment reservation = tree.allocate("pre" + i, 1 + random.nextInt(8), 1 + random.nextInt(SeatBitmap.STADIUM_SEATS), AllocationPolicy.NEAREST);
+            if (reservation == null) break;
+            seats += reservation.getSeatQuantity();
+            if (random.nextInt(10) == 0) {
+                SeatAssignment cancelled = tree.release("pre" + random.nextInt(i + 1));
+                if (cancelled != null) seats -= cancelled.getSeatQuantity();
+            }
+        }
+
+        long start = System.nanoTime();
+        long deadline = start + TRACE_SECONDS * 1_000_000_000L;
+        int i = 0;
+        for (; i < operations && (i % 256 != 0 || System.nanoTime() < deadline); i++) {
+            tree.allocate("p" + i, 1 + random.nextInt(8), 1 + random.nextInt(SeatBitmap.STADIUM_SEATS), AllocationPolicy.NEAREST);
+            if (i % 3 == 0) tree.release("p" + random.nextInt(i + 1), true);
+        }
+        return i * 1e9 / (System.nanoTime() - start);
+    }
+}
@@ -0,0 +1,207 @@
+package edu.hsutx;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+import java.util.Random;
+import java.util.TreeMap;
+import java.util.concurrent.ForkJoinPool;
+
+import org.junit.jupiter.api.Test;
+
+/**
+ * Runs the same checks against every IndexEngine, comparing each OrderedIndex with a TreeMap. Values are
+ * Integers weighing their own value.
+ */
+public class OrderedIndexTest {
+
+    private static OrderedIndex<Integer> create(IndexEngine engine) {
+        return engine.create(Integer::intValue);
+    }
+
+    private static String key(int i) {
+        return String.format("%07d", i);
+    }
+
+    @Test
+    public void testInsertDeleteAndGetValue() {
+        for (IndexEngine engine : IndexEngine.values()) {
+            OrderedIndex<Integer> index = create(engine);
+            assertNull(index.getValue(key(1)), engine + ": an empty index holds nothing.");
+            index.insert(key(5), 5);
+            index.insert(key(5), 6);
+            assertEquals(5, index.getValue(key(5)), engine + ": inserting a present key should change nothing.");
+            assertEquals(1, index.getSize());
+            index.delete(key(4));
+            assertEquals(1, index.getSize(), engine + ": deleting a missing key should change nothing.");
+            index.delete(key(5));
+            assertEquals(0, index.getSize());
+            assertFalse(index.range(null, true, null, true).iterator().hasNext());
+        }
+    }
+
+    @Test
+    public void testMatchesTreeMapUnderRandomChanges() {
+        for (IndexEngine engine : IndexEngine.values()) {
+            Random random = new Random(21);
+            OrderedIndex<Integer> index = create(engine);
+            TreeMap<String, Integer> expected = new TreeMap<>();
+            for (int step = 0; step < 30_000; step++) {
+                int k = random.nextInt(5_000);
+                if (random.nextInt(3) == 0) {
+                    index.delete(key(k));
+                    expected.remove(key(k));
+                } else {
+                    int value = random.nextInt(100);
+                    index.insert(key(k), value);
+                    expected.putIfAbsent(key(k), value);
+                }
+                if (step % 1_000 == 0) {
+                    assertEquals(new ArrayList<>(expected.values()), list(index.range(null, true, null, true)), engine + ": contents differ at step " + step);
+                }
+            }
+            assertEquals(expected.size(), index.getSize(), engine.toString());
+            for (int k = 0; k < 5_000; k++) {
+                assertEquals(expected.get(key(k)), index.getValue(key(k)), engine + ": value of " + k);
+            }
+
+            // Delete everything so the index shrinks back to empty
+            for (String k : new ArrayList<>(expected.keySet())) {
+                index.delete(k);
+            }
+            assertEquals(0, index.getSize(), engine.toString());
+            index.insert(key(1), 1);
+            assertEquals(1, index.getValue(key(1)), engine + ": an emptied index should still take keys.");
+        }
+    }
+
+    @Test
+    public void testRangeBounds() {
+        for (IndexEngine engine : IndexEngine.values()) {
+            OrderedIndex<Integer> index = create(engine);
+            TreeMap<String, Integer> expected = new TreeMap<>();
+            for (int i = 0; i < 1_000; i += 3) {
+                index.insert(key(i), i);
+                expected.put(key(i), i);
+            }
+            Random random = new Random(4);
+            for (int trial = 0; trial < 200; trial++) {
+                int lo = random.nextInt(1_100) - 50;
+                int hi = lo + random.nextInt(200);
+                boolean loInclusive = random.nextBoolean();
+                boolean hiInclusive = random.nextBoolean();
+                assertEquals(new ArrayList<>(expected.subMap(key(Math.max(0, lo)), loInclusive || lo < 0, key(Math.max(0, hi)), hiInclusive).values()),
+                        list(index.range(key(Math.max(0, lo)), loInclusive || lo < 0, key(Math.max(0, hi)), hiInclusive)),
+                        engine + ": range " + lo + ".." + hi);
+            }
+            assertEquals(new ArrayList<>(expected.tailMap(key(500), true).values()), list(index.range(key(500), true, null, true)));
+            assertEquals(new ArrayList<>(expected.headMap(key(500), false).values()), list(index.range(null, true, key(500), false)));
+        }
+    }
+
+    @Test
+    public void testWeightedSearchesMatchBruteForce() {
+        for (IndexEngine engine : IndexEngine.values()) {
+            Random random = new Random(8);
+            OrderedIndex<Integer> index = create(engine);
+            TreeMap<String, Integer> expected = new TreeMap<>();
+            for (int i = 0; i < 3_000; i++) {
+                int k = random.nextInt(20_000);
+                int weight = random.nextInt(1_000);
+                index.insert(key(k), weight);
+                expected.putIfAbsent(key(k), weight);
+                if (i % 4 == 0) {
+                    String gone = expected.ceilingKey(key(random.nextInt(20_000)));
+                    if (gone != null) {
+                        index.delete(gone);
+                        expected.remove(gone);
+                    }
+                }
+            }
+            for (int trial = 0; trial < 500; trial++) {
+                String k = trial == 0 ? null : key(random.nextInt(21_000));
+                int minWeight = random.nextInt(1_001);
+                assertEquals(bruteFloor(expected, k, minWeight), index.floorWithWeight(k, minWeight), engine + ": floor of " + k + " weighing " + minWeight);
+                assertEquals(bruteHigher(expected, k, minWeight), index.higherWithWeight(k, minWeight), engine + ": higher of " + k + " weighing " + minWeight);
+            }
+        }
+    }
+
+    @Test
+    public void testBuildFromSorted() {
+        for (IndexEngine engine : IndexEngine.values()) {
+            for (int n : new int[] { 0, 1, 16, 17, 257, 10_000 }) {
+                String[] keys = new String[n];
+                Integer[] values = new Integer[n];
+                for (int i = 0; i < n; i++) {
+                    keys[i] = key(2 * i);
+                    values[i] = i % 97;
+                }
+                OrderedIndex<Integer> index = create(engine);
+                index.insert(key(1), 1); // Replaced by the build
+                index.buildFromSorted(keys, values, ForkJoinPool.commonPool());
+                assertEquals(n, index.getSize(), engine + ": size after building " + n);
+                assertEquals(List.of(values), list(index.range(null, true, null, true)), engine + ": contents after building " + n);
+                assertNull(index.getValue(key(1)));
+
+                index.insert(key(1), 50);
+                index.delete(key(0));
+                assertEquals(50, index.getValue(key(1)), engine + ": a built index should keep taking changes.");
+                TreeMap<String, Integer> expected = new TreeMap<>();
+                for (int i = 1; i < n; i++) {
+                    expected.put(keys[i], values[i]);
+                }
+                expected.put(key(1), 50);
+                for (int minWeight : new int[] { 0, 50, 60, 96, 97 }) {
+                    assertEquals(bruteHigher(expected, null, minWeight), index.higherWithWeight(null, minWeight), engine + ": weights after building " + n);
+                    assertEquals(bruteFloor(expected, null, minWeight), index.floorWithWeight(null, minWeight), engine + ": weights after building " + n);
+                }
+            }
+            assertThrows(IllegalArgumentException.class, () -> create(engine).buildFromSorted(new String[] { "b", "a" }, new Integer[] { 1, 2 }, ForkJoinPool.commonPool()));
+        }
+    }
+
+    @Test
+    public void testSeatTreeBehavesTheSameOnEveryEngine() {
+        List<List<String>> results = new ArrayList<>();
+        for (IndexEngine engine : IndexEngine.values()) {
+            CowboySeatTree tree = new CowboySeatTree(CowboySeatTree.DEFAULT_CACHE_CAPACITY, engine);
+            tree.addUnassignedSeats(1, 200_000);
+            Random random = new Random(12);
+            List<String> trace = new ArrayList<>();
+            for (int i = 0; i < 20_000; i++) {
+                SeatAssignment reservation = tree.allocate("p" + i, 1 + random.nextInt(8), 1 + random.nextInt(200_000), AllocationPolicy.NEAREST);
+                trace.add(reservation == null ? "-" : reservation.getKey());
+                if (i % 3 == 0) tree.release("p" + random.nextInt(i + 1), random.nextBoolean());
+            }
+            trace.add("free " + tree.getUnassignedBlockCount());
+            assertTrue(tree.validateRedBlackTree(), engine.toString());
+            results.add(trace);
+        }
+        for (int i = 1; i < results.size(); i++) {
+            assertEquals(results.get(0), results.get(i), IndexEngine.values()[i] + " should place every party where " + IndexEngine.RED_BLACK + " does.");
+        }
+    }
+
+    private static Integer bruteFloor(TreeMap<String, Integer> map, String key, int minWeight) {
+        for (Map.Entry<String, Integer> entry : (key == null ? map : map.headMap(key, true)).descendingMap().entrySet()) {
+            if (entry.getValue() >= minWeight) return entry.getValue();
+        }
+        return null;
+    }
+
+    private static Integer bruteHigher(TreeMap<String, Integer> map, String key, int minWeight) {
+        for (Map.Entry<String, Integer> entry : (key == null ? map : map.tailMap(key, false)).entrySet()) {
+            if (entry.getValue() >= minWeight) return entry.getValue();
+        }
+        return null;
+    }
+
+    private static <E> List<E> list(Iterable<E> values) {
+        List<E> list = new ArrayList<>();
+        values.forEach(list::add);
+        return list;
+    }
+}
@@ -0,0 +1,66 @@
+package edu.hsutx;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+import org.junit.jupiter.api.Test;
+
+/**
+ * Unit tests for the OwnerDictionary class and the compact SeatAssignment built on it.
+ */
+public class OwnerDictionaryTest {
+
+    @Test
+    public void testInternFindAndName() {
+        OwnerDictionary owners = new OwnerDictionary();
+        for (int i = 0; i < 100_000; i++) {
+            assertEquals(i, owners.intern("owner" + i), "Codes should be handed out densely.");
+        }
+        assertEquals(42, owners.intern(new String("owner42")), "An equal name should get the same code.");
+        assertEquals(99_999, owners.find("owner99999"));
+        assertEquals(OwnerDictionary.NO_OWNER, owners.find("stranger"), "find should not add names.");
+        assertEquals("owner12345", owners.name(12345));
+        assertNull(owners.name(OwnerDictionary.NO_OWNER));
+        assertEquals(100_000, owners.size());
+        assertEquals("Zo\u0107", owners.name(owners.intern("Zo\u0107")), "Names outside Latin-1 should survive the round trip.");
+    }
+
+    @Test
+    public void testSeatAssignmentDerivesKeyAndOwner() {
+        SeatAssignment free = new SeatAssignment(12, 345);
+        assertEquals("000120000345", free.getKey());
+        assertTrue(free.isUnassigned());
+        assertNull(free.getOwner());
+
+        SeatAssignment booked = new SeatAssignment("alice", 99999, 9999999);
+        assertEquals(String.format("%05d%07d", 99999, 9999999), booked.getKey());
+        assertEquals("alice", booked.getOwner());
+        assertFalse(booked.isUnassigned());
+        assertEquals(SeatAssignment.NOT_HELD, booked.getHoldExpiry());
+        assertEquals(String.format("%07d", 100_000_000), SeatAssignment.paddedSeat(100_000_000), "Out of range seats fall back to String.format.");
+    }
+
+    @Test
+    public void testDictionariesAreScopedToTreeFamilies() {
+        CowboySeatTree first = new CowboySeatTree();
+        first.addUnassignedSeats(1, 100);
+        CowboySeatTree second = new CowboySeatTree();
+        second.addUnassignedSeats(1, 30);
+        SeatAssignment alice = first.allocate("alice", 60, 1, AllocationPolicy.NEAREST);
+        second.allocate("bob", 4, 10, AllocationPolicy.NEAREST);
+        assertNotSame(first.getOwners(), second.getOwners(), "Each tree should have a dictionary of its own.");
+        assertEquals(1, first.getOwners().size(), "A tree should intern only its own owners.");
+        assertEquals(OwnerDictionary.NO_OWNER, second.getOwners().find("alice"));
+        assertSame(first.getOwners(), alice.getOwners());
+
+        CowboySeatTree upper = first.split(SeatAssignment.key(50, 1));
+        assertSame(first.getOwners(), upper.getOwners(), "A split should keep the family's dictionary.");
+
+        SeatAssignment carol = new SeatAssignment("carol", 5, 200); // Built outside any tree
+        assertEquals("carol", carol.getOwner());
+        second.insert(carol);
+        assertSame(carol, second.findReservation("carol"), "A foreign block should be found by name.");
+        second.join(upper); // Holds alice's block, whose key lies above every key of second
+        assertSame(alice, second.findReservation("alice"), "Joined blocks should be found by name.");
+        assertEquals("alice", alice.getOwner(), "A block should keep the name from its own dictionary.");
+    }
+}
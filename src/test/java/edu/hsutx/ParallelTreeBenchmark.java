@@ -0,0 +1,51 @@
+package edu.hsutx;
+
+import java.util.concurrent.ForkJoinPool;
+
+/**
+ * Measures how bulk construction and validation of a large CowboySeatTree scale with the number of threads.
+ * Run with: gradle benchmark -Pbench=ParallelTreeBenchmark [-Pargs=nodes]
+ */
+public class ParallelTreeBenchmark {
+    private static final int ROUNDS = 5;
+
+    public static void main(String[] args) {
+        int nodes = args.length > 0 ? Integer.parseInt(args[0]) : 1_000_000;
+
+        // One-seat blocks covering the stadium, already in key order
+        SeatAssignment[] blocks = new SeatAssignment[nodes];
+        for (int i = 0; i < nodes; i++) {
+            blocks[i] = new SeatAssignment("fan" + i, 1, i + 1);
+        }
+
+        System.out.printf("%d nodes, %d available processors%n", nodes, Runtime.getRuntime().availableProcessors());
+        System.out.printf("%8s %12s %15s %15s%n", "threads", "build ms", "validate ms", "sequential ms");
+
+        for (int threads = 1; threads <= Runtime.getRuntime().availableProcessors(); threads *= 2) {
+            ForkJoinPool pool = new ForkJoinPool(threads);
+            long buildNanos = Long.MAX_VALUE;
+            long validateNanos = Long.MAX_VALUE;
+            long sequentialNanos = Long.MAX_VALUE;
+            CowboySeatTree tree = null;
+
+            for (int round = 0; round < ROUNDS; round++) {
+                long start = System.nanoTime();
+                tree = CowboySeatTree.fromSorted(blocks, pool);
+                buildNanos = Math.min(buildNanos, System.nanoTime() - start);
+
+                start = System.nanoTime();
+                boolean valid = tree.validateRedBlackTree(pool);
+                validateNanos = Math.min(validateNanos, System.nanoTime() - start);
+                if (!valid) throw new IllegalStateException("Bulk built tree failed validation");
+
+                start = System.nanoTime();
+                tree.validateRedBlackTree();
+                sequentialNanos = Math.min(sequentialNanos, System.nanoTime() - start);
+            }
+
+            System.out.printf("%8d %12.1f %15.1f %15.1f%n", threads,
+                    buildNanos / 1e6, validateNanos / 1e6, sequentialNanos / 1e6);
+            pool.shutdown();
+        }
+    }
+}
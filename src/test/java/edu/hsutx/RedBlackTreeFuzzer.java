@@ -0,0 +1,205 @@
+package edu.hsutx;
+
+import java.util.ArrayList;
+import java.util.Iterator;
+import java.util.List;
+import java.util.Map;
+import java.util.Random;
+import java.util.TreeMap;
+
+/**
+ * Differential fuzzing and benchmarking of RedBlackTree against java.util.TreeMap.
+ *
+ * The fuzz phase applies a random mix of inserts, deletes and lookups to both and fails on the first answer that
+ * differs. Half the operations search from a Finger left by earlier ones, the rest from the root. Every checkEvery
+ * operations it also validates the red-black properties and compares the full contents and a random range.
+ * It runs once in each BalanceMode.
+ * Failures name the seed and operation, so rerunning with the same seed reproduces them.
+ * The benchmark phase then replays one pregenerated trace on each structure, without checks, and reports ops/s
+ * side by side.
+ * Run with: gradle benchmark -Pbench=RedBlackTreeFuzzer [-Pargs="seed operations keySpace"]
+ */
+public class RedBlackTreeFuzzer {
+    private static final int INSERT = 0;
+    private static final int DELETE = 1;
+    private static final int LOOKUP = 2;
+
+    public static void main(String[] args) {
+        long seed = args.length > 0 ? Long.parseLong(args[0]) : 1;
+        int operations = args.length > 1 ? Integer.parseInt(args[1]) : 5_000_000;
+        int keySpace = args.length > 2 ? Integer.parseInt(args[2]) : 200_000;
+
+        for (BalanceMode mode : BalanceMode.values()) {
+            long start = System.nanoTime();
+            fuzz(seed, operations, keySpace, 100_000, mode);
+            System.out.printf("Fuzz %s: %d operations over %d keys matched TreeMap (seed %d, %.1f s)%n",
+                    mode, operations, keySpace, seed, (System.nanoTime() - start) / 1e9);
+        }
+
+        Trace trace = new Trace(seed, operations, keySpace);
+        System.out.printf("%nBenchmark, %d operations (45%% insert, 30%% delete, 25%% lookup)%n", operations);
+        System.out.printf("%-14s %14s%n", "structure", "ops/s");
+        long sink = 0;
+        for (int round = 0; round < 4; round++) { // The first rounds warm up the JIT
+            long treeNanos = System.nanoTime();
+            sink += trace.replay(new RedBlackTree<>());
+            treeNanos = System.nanoTime() - treeNanos;
+            long mapNanos = System.nanoTime();
+            sink += trace.replay(new TreeMap<>());
+            mapNanos = System.nanoTime() - mapNanos;
+            if (round == 3) {
+                System.out.printf("%-14s %14.0f%n", "RedBlackTree", operations * 1e9 / treeNanos);
+                System.out.printf("%-14s %14.0f%n", "TreeMap", operations * 1e9 / mapNanos);
+            }
+        }
+        System.out.println("(checksum " + sink + ")");
+    }
+
+    /**
+     * Applies random operations to a RedBlackTree and a TreeMap and checks that they agree.
+     *
+     * @param seed The seed of the operation sequence
+     * @param operations The number of operations
+     * @param keySpace The number of distinct keys drawn from; smaller means more duplicate inserts and hits
+     * @param checkEvery How many operations apart the full checks run
+     * @throws AssertionError At the first difference, naming the seed and operation
+     */
+    public static void fuzz(long seed, int operations, int keySpace, int checkEvery) {
+        fuzz(seed, operations, keySpace, checkEvery, BalanceMode.STRICT);
+    }
+
+    /**
+     * Applies random operations to a RedBlackTree in the given balance mode and a TreeMap and checks that they
+     * agree.
+     *
+     * @param seed The seed of the operation sequence
+     * @param operations The number of operations
+     * @param keySpace The number of distinct keys drawn from
+     * @param checkEvery How many operations apart the full checks run
+     * @param mode The balance mode of the tree
+     * @throws AssertionError At the first difference, naming the seed and operation
+     */
+    public static void fuzz(long seed, int operations, int keySpace, int checkEvery, BalanceMode mode) {
+        Random random = new Random(seed);
+        RedBlackTree<Integer> tree = new RedBlackTree<>();
+        tree.setBalanceMode(mode);
+        RedBlackTree<Integer>.Finger finger = tree.newFinger();
+        TreeMap<String, Integer> expected = new TreeMap<>();
+
+        for (int op = 0; op < operations; op++) {
+            int kind = kind(random);
+            String key = key(random.nextInt(keySpace));
+            RedBlackTree<Integer>.Finger from = random.nextBoolean() ? finger : null;
+            switch (kind) {
+                case INSERT:
+                    int value = random.nextInt();
+                    tree.insert(key, value, from);
+                    expected.putIfAbsent(key, value);
+                    break;
+                case DELETE:
+                    tree.delete(key, from);
+                    expected.remove(key);
+                    break;
+                default:
+                    check(seed, op, "getValue(" + key + ")", expected.get(key), tree.getValue(key, from));
+            }
+            check(seed, op, "getSize()", expected.size(), tree.getSize());
+
+            if ((op + 1) % checkEvery == 0 || op == operations - 1) {
+                check(seed, op, "validateRedBlackTree()", true, tree.validateRedBlackTree());
+                checkSame(seed, op, "full contents", expected.values(), tree.range(null, true, null, true));
+                String lo = key(random.nextInt(keySpace));
+                String hi = key(random.nextInt(keySpace));
+                if (lo.compareTo(hi) > 0) {
+                    String swap = lo;
+                    lo = hi;
+                    hi = swap;
+                }
+                boolean loInclusive = random.nextBoolean();
+                boolean hiInclusive = random.nextBoolean();
+                if (!lo.equals(hi) || (loInclusive && hiInclusive)) { // TreeMap rejects an empty exclusive range
+                    checkSame(seed, op, "range " + lo + ".." + hi, expected.subMap(lo, loInclusive, hi, hiInclusive).values(),
+                            tree.range(lo, loInclusive, hi, hiInclusive));
+                }
+            }
+        }
+    }
+
+    private static int kind(Random random) {
+        int roll = random.nextInt(100);
+        return roll < 45 ? INSERT : roll < 75 ? DELETE : LOOKUP;
+    }
+
+    private static String key(int i) {
+        return SeatAssignment.paddedSeat(i);
+    }
+
+    private static void check(long seed, int op, String what, Object expected, Object actual) {
+        if (expected == null ? actual != null : !expected.equals(actual)) {
+            throw new AssertionError("Seed " + seed + ", operation " + op + ": " + what + " was " + actual + ", TreeMap gave " + expected);
+        }
+    }
+
+    private static void checkSame(long seed, int op, String what, Iterable<Integer> expected, Iterable<Integer> actual) {
+        Iterator<Integer> expectedValues = expected.iterator();
+        int position = 0;
+        for (Integer value : actual) {
+            if (!expectedValues.hasNext()) {
+                throw new AssertionError("Seed " + seed + ", operation " + op + ": " + what + " has extra value " + value + " at " + position);
+            }
+            check(seed, op, what + " at " + position, expectedValues.next(), value);
+            position++;
+        }
+        if (expectedValues.hasNext()) {
+            throw new AssertionError("Seed " + seed + ", operation " + op + ": " + what + " ends after " + position + " values");
+        }
+    }
+
+    /**
+     * A pregenerated operation sequence, so the benchmark times the structures rather than the random numbers.
+     */
+    private static class Trace {
+        private final byte[] kinds;
+        private final String[] keys;
+
+        Trace(long seed, int operations, int keySpace) {
+            Random random = new Random(seed);
+            List<String> keyPool = new ArrayList<>(keySpace);
+            for (int i = 0; i < keySpace; i++) {
+                keyPool.add(key(i));
+            }
+            kinds = new byte[operations];
+            keys = new String[operations];
+            for (int op = 0; op < operations; op++) {
+                kinds[op] = (byte) kind(random);
+                keys[op] = keyPool.get(random.nextInt(keySpace));
+            }
+        }
+
+        long replay(RedBlackTree<Integer> tree) {
+            long sink = 0;
+            for (int op = 0; op < kinds.length; op++) {
+                if (kinds[op] == INSERT) tree.insert(keys[op], op);
+                else if (kinds[op] == DELETE) tree.delete(keys[op]);
+                else {
+                    Integer value = tree.getValue(keys[op]);
+                    if (value != null) sink += value;
+                }
+            }
+            return sink + tree.getSize();
+        }
+
+        long replay(Map<String, Integer> map) {
+            long sink = 0;
+            for (int op = 0; op < kinds.length; op++) {
+                if (kinds[op] == INSERT) map.putIfAbsent(keys[op], op);
+                else if (kinds[op] == DELETE) map.remove(keys[op]);
+                else {
+                    Integer value = map.get(keys[op]);
+                    if (value != null) sink += value;
+                }
+            }
+            return sink + map.size();
+        }
+    }
+}
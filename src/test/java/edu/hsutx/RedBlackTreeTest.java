@@ -2,6 +2,10 @@ package edu.hsutx;
 
 import static org.junit.jupiter.api.Assertions.*;
 
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.ForkJoinPool;
+
 import org.junit.jupiter.api.BeforeEach;
 import org.junit.jupiter.api.Test;
 
@@ -326,4 +330,435 @@ public class RedBlackTreeTest {
 
         assertTrue(tree.validateRedBlackTree(), "Tree should be valid after deletions.");
     }
+
+    /* ------------------ Range Tests ------------------ */
+
+    private void insertNumbered(int count) {
+        for (int i = 0; i < count; i++) {
+            tree.insert(String.format("k%03d", i), i);
+        }
+    }
+
+    private List<Integer> collect(Iterable<Integer> values) {
+        List<Integer> list = new ArrayList<>();
+        for (Integer value : values) list.add(value);
+        return list;
+    }
+
+    @Test
+    public void testRangeInclusiveBounds() {
+        insertNumbered(20);
+
+        assertEquals(List.of(4, 5, 6, 7, 8, 9, 10), collect(tree.range("k004", true, "k010", true)),
+                "Inclusive range should contain both endpoints.");
+    }
+
+    @Test
+    public void testRangeExclusiveBounds() {
+        insertNumbered(20);
+
+        assertEquals(List.of(5, 6, 7, 8, 9), collect(tree.range("k004", false, "k010", false)),
+                "Exclusive range should leave out both endpoints.");
+        assertEquals(List.of(), collect(tree.range("k004", false, "k005", false)),
+                "Range with no keys strictly between the bounds should be empty.");
+    }
+
+    @Test
+    public void testRangeUnbounded() {
+        insertNumbered(5);
+
+        assertEquals(List.of(0, 1, 2, 3, 4), collect(tree.range(null, true, null, true)),
+                "Unbounded range should visit every value in order.");
+        assertEquals(List.of(3, 4), collect(tree.range("k002x", true, null, true)),
+                "A lower bound between keys should start at the next key.");
+    }
+
+    @Test
+    public void testDescendingRange() {
+        insertNumbered(20);
+
+        assertEquals(List.of(10, 9, 8, 7, 6, 5, 4), collect(tree.descendingRange("k004", true, "k010", true)),
+                "Descending range should visit values from largest to smallest key.");
+        assertEquals(List.of(9, 8, 7, 6, 5), collect(tree.descendingRange("k004", false, "k010", false)),
+                "Descending exclusive range should leave out both endpoints.");
+    }
+
+    @Test
+    public void testRangeOnEmptyTree() {
+        assertFalse(tree.range(null, true, null, true).iterator().hasNext(), "Empty tree should have an empty range.");
+        assertEquals(0, tree.deleteRange(null, true, null, true), "Deleting from an empty tree should remove nothing.");
+    }
+
+    @Test
+    public void testDeleteRange() {
+        insertNumbered(200);
+
+        int removed = tree.deleteRange("k050", true, "k149", false);
+
+        assertEquals(99, removed, "Range delete should report the number of removed keys.");
+        assertEquals(101, tree.getSize(), "Size should drop by the number of removed keys.");
+        assertTrue(tree.validateRedBlackTree(), "Tree should be valid after a range delete.");
+        assertNull(tree.getValue("k050"), "Lower bound should be deleted when inclusive.");
+        assertNull(tree.getValue("k148"), "Keys inside the range should be deleted.");
+        assertEquals(149, tree.getValue("k149"), "Upper bound should survive when exclusive.");
+        assertEquals(49, tree.getValue("k049"), "Keys below the range should survive.");
+
+        List<Integer> remaining = collect(tree.range(null, true, null, true));
+        assertEquals(101, remaining.size(), "In-order walk should match the new size.");
+        for (int i = 1; i < remaining.size(); i++) {
+            assertTrue(remaining.get(i - 1) < remaining.get(i), "Remaining keys should stay in order.");
+        }
+    }
+
+    @Test
+    public void testDeleteRangePrefixAndSuffix() {
+        insertNumbered(64);
+
+        assertEquals(10, tree.deleteRange(null, true, "k010", false), "Unbounded lower range should delete the prefix.");
+        assertTrue(tree.validateRedBlackTree(), "Tree should be valid after deleting a prefix.");
+        assertEquals(14, tree.deleteRange("k050", true, null, true), "Unbounded upper range should delete the suffix.");
+        assertTrue(tree.validateRedBlackTree(), "Tree should be valid after deleting a suffix.");
+        assertEquals(40, tree.getSize());
+        assertEquals(10, tree.getValue("k010"));
+        assertEquals(49, tree.getValue("k049"));
+    }
+
+    @Test
+    public void testDeleteRangeEverything() {
+        insertNumbered(30);
+
+        assertEquals(30, tree.deleteRange(null, true, null, true));
+        assertTrue(tree.isEmpty(), "Tree should be empty after deleting the whole range.");
+        assertTrue(tree.validateRedBlackTree());
+    }
+
+    @Test
+    public void testDeleteRangeManyShapes() {
+        // Cross-check range deletes of every width against the validator
+        for (int lo = 0; lo < 40; lo += 3) {
+            for (int hi = lo; hi < 40; hi += 5) {
+                tree = new RedBlackTree<>();
+                insertNumbered(40);
+                int removed = tree.deleteRange(String.format("k%03d", lo), true, String.format("k%03d", hi), true);
+
+                assertEquals(hi - lo + 1, removed);
+                assertEquals(40 - removed, tree.getSize());
+                assertTrue(tree.validateRedBlackTree(), "Tree should be valid after deleting " + lo + ".." + hi);
+                tree.insert("k999", 999);
+                assertTrue(tree.validateRedBlackTree(), "Tree should stay usable after a range delete.");
+            }
+        }
+    }
+
+    /* ------------------ Split / Join Tests ------------------ */
+
+    @Test
+    public void testSplit() {
+        insertNumbered(100);
+
+        RedBlackTree<Integer> upper = tree.split("k040");
+
+        assertEquals(40, tree.getSize(), "Lower tree should keep the keys below the split key.");
+        assertEquals(60, upper.getSize(), "Upper tree should receive the split key and everything above it.");
+        assertTrue(tree.validateRedBlackTree(), "Lower tree should be valid after split.");
+        assertTrue(upper.validateRedBlackTree(), "Upper tree should be valid after split.");
+        assertNull(tree.getValue("k040"));
+        assertEquals(40, upper.getValue("k040"));
+        assertEquals(39, tree.getValue("k039"));
+    }
+
+    @Test
+    public void testSplitAtEnds() {
+        insertNumbered(10);
+
+        RedBlackTree<Integer> all = tree.split("a");
+        assertTrue(tree.isEmpty(), "Splitting below the smallest key should move everything.");
+        assertEquals(10, all.getSize());
+
+        RedBlackTree<Integer> none = all.split("z");
+        assertTrue(none.isEmpty(), "Splitting above the largest key should move nothing.");
+        assertEquals(10, all.getSize());
+        assertTrue(all.validateRedBlackTree());
+    }
+
+    @Test
+    public void testJoin() {
+        insertNumbered(30);
+        RedBlackTree<Integer> other = new RedBlackTree<>();
+        for (int i = 100; i < 105; i++) {
+            other.insert(String.format("k%03d", i), i);
+        }
+
+        tree.join(other);
+
+        assertEquals(35, tree.getSize(), "Joined tree should hold the nodes of both trees.");
+        assertTrue(other.isEmpty(), "Joined tree should be emptied.");
+        assertTrue(tree.validateRedBlackTree(), "Tree should be valid after join.");
+        assertEquals(List.of(27, 28, 29, 100, 101, 102, 103, 104), collect(tree.range("k027", true, null, true)));
+    }
+
+    @Test
+    public void testJoinSmallerKeys() {
+        tree.insert("x", 1);
+        tree.insert("y", 2);
+        RedBlackTree<Integer> other = new RedBlackTree<>();
+        other.insert("a", 3);
+        other.insert("b", 4);
+        other.insert("c", 5);
+
+        tree.join(other);
+
+        assertEquals(List.of(3, 4, 5, 1, 2), collect(tree.range(null, true, null, true)),
+                "A tree with smaller keys should be joined in front.");
+        assertTrue(tree.validateRedBlackTree());
+    }
+
+    @Test
+    public void testJoinOverlappingThrows() {
+        tree.insert("a", 1);
+        tree.insert("m", 2);
+        RedBlackTree<Integer> other = new RedBlackTree<>();
+        other.insert("c", 3);
+
+        assertThrows(IllegalArgumentException.class, () -> tree.join(other));
+        assertEquals(2, tree.getSize(), "A rejected join should leave the tree unchanged.");
+        assertEquals(1, other.getSize(), "A rejected join should leave the other tree unchanged.");
+    }
+
+    @Test
+    public void testSplitThenJoinRestoresTree() {
+        insertNumbered(257);
+
+        for (int cut = 0; cut <= 257; cut += 16) {
+            RedBlackTree<Integer> upper = tree.split(String.format("k%03d", cut));
+            tree.join(upper);
+
+            assertEquals(257, tree.getSize());
+            assertTrue(tree.validateRedBlackTree(), "Tree should be valid after split and join at " + cut);
+        }
+        assertEquals(256, tree.getValue("k256"));
+    }
+
+    /* ------------------ Validation / Bulk Build Tests ------------------ */
+
+    @Test
+    public void testValidateDetectsRedRoot() {
+        insertNumbered(3);
+        tree.root.color = true;
+
+        assertFalse(tree.validateRedBlackTree(), "A red root should be rejected.");
+    }
+
+    @Test
+    public void testValidateDetectsBlackHeightMismatch() {
+        insertNumbered(20);
+        RedBlackTree<Integer>.Node leaf = tree.root;
+        while (leaf.left != null) leaf = leaf.left;
+        leaf.color = !leaf.color;
+
+        assertFalse(tree.validateRedBlackTree(), "Flipping the color of a leaf should break the black height.");
+    }
+
+    @Test
+    public void testValidateDetectsOrderViolation() {
+        insertNumbered(20);
+        String rootKey = tree.root.key;
+        tree.root.key = tree.root.left.key;
+        tree.root.left.key = rootKey;
+
+        assertFalse(tree.validateRedBlackTree(), "Swapping keys out of search order should be rejected.");
+        assertFalse(tree.validateRedBlackTree(ForkJoinPool.commonPool()), "Parallel validation should agree.");
+    }
+
+    @Test
+    public void testParallelValidateLargeTree() {
+        ForkJoinPool pool = new ForkJoinPool(4);
+        insertNumbered(1000);
+        for (int i = 1000; i < 20000; i++) {
+            tree.insert(String.format("k%05d", i), i);
+        }
+
+        assertTrue(tree.validateRedBlackTree(pool), "Parallel validation should accept a valid tree.");
+        assertTrue(tree.validateRedBlackTree(), "Sequential validation should agree.");
+        pool.shutdown();
+    }
+
+    @Test
+    public void testBuildFromSorted() {
+        ForkJoinPool pool = new ForkJoinPool(4);
+        for (int n : new int[] { 0, 1, 2, 3, 7, 8, 100, 4096, 4097, 50000 }) {
+            String[] keys = new String[n];
+            Integer[] values = new Integer[n];
+            for (int i = 0; i < n; i++) {
+                keys[i] = String.format("k%06d", i);
+                values[i] = i;
+            }
+
+            tree.buildFromSorted(keys, values, pool);
+
+            assertEquals(n, tree.getSize());
+            assertTrue(tree.validateRedBlackTree(), "Bulk built tree of size " + n + " should be valid.");
+            if (n > 0) {
+                assertEquals(n - 1, tree.getValue(keys[n - 1]));
+                tree.insert("a", -1);
+                tree.delete(keys[n / 2]);
+                assertTrue(tree.validateRedBlackTree(), "Bulk built tree of size " + n + " should accept updates.");
+            }
+        }
+        pool.shutdown();
+    }
+
+    @Test
+    public void testBuildFromUnsortedThrows() {
+        assertThrows(IllegalArgumentException.class,
+                () -> tree.buildFromSorted(new String[] { "b", "a" }, new Integer[] { 1, 2 }, ForkJoinPool.commonPool()));
+    }
+
+    /* ------------------ Shape Telemetry Tests ------------------ */
+
+    @Test
+    public void testBlackHeightTracksInsertsAndDeletes() {
+        assertEquals(0, tree.getBlackHeight(), "An empty tree has no black height.");
+        insertNumbered(1);
+        assertEquals(1, tree.getBlackHeight());
+
+        insertNumbered(1000);
+        int expected = tree.getBlackHeight();
+        assertTrue(tree.validateRedBlackTree(), "Validation should confirm the maintained black height.");
+        assertTrue(expected >= 5 && expected <= 10, "Black height of 1000 nodes was " + expected);
+
+        for (int i = 0; i < 1000; i++) {
+            tree.delete(String.format("k%03d", i));
+            assertTrue(tree.validateRedBlackTree(), "Black height should stay exact after deleting k" + i);
+        }
+        assertEquals(0, tree.getBlackHeight(), "Deleting every node should reset the black height.");
+    }
+
+    @Test
+    public void testHeightBoundsContainActualHeight() {
+        insertNumbered(1000);
+        tree.deleteRange("k100", true, "k600", false);
+        RedBlackTree<Integer> upper = tree.split("k800");
+        assertTrue(upper.validateRedBlackTree() && tree.validateRedBlackTree(), "Split pieces should carry their black heights.");
+
+        int height = height(tree.root);
+        assertTrue(tree.getMinHeight() <= height && height <= tree.getMaxHeight(),
+                "Height " + height + " should lie within [" + tree.getMinHeight() + ", " + tree.getMaxHeight() + "]");
+        RedBlackTree<Integer>.Node leftmost = tree.root;
+        while (leftmost.left != null) leftmost = leftmost.left;
+        assertEquals(leftmost.getDepth(), tree.getDepth(leftmost.key), "Depth from the search path should match the parent walk.");
+    }
+
+    /* ------------------ Differential Fuzz Tests ------------------ */
+
+    @Test
+    public void testMatchesTreeMapUnderRandomOperations() {
+        // A short run of the RedBlackTreeFuzzer harness; run its main method for millions of operations
+        RedBlackTreeFuzzer.fuzz(1, 200_000, 20_000, 5_000);
+        RedBlackTreeFuzzer.fuzz(2, 50_000, 64, 500); // Few keys, so the tree empties and refills often
+        RedBlackTreeFuzzer.fuzz(3, 200_000, 20_000, 5_000, BalanceMode.RELAXED_DELETES);
+        RedBlackTreeFuzzer.fuzz(4, 50_000, 64, 500, BalanceMode.RELAXED_DELETES);
+    }
+
+    @Test
+    public void testRelaxedDeletesSkipRotationsUntilRebuild() {
+        EngineMetrics metrics = new EngineMetrics();
+        metrics.setEnabled(true);
+        RedBlackTree<Integer> relaxed = new RedBlackTree<>();
+        relaxed.setMetrics(metrics);
+        relaxed.setBalanceMode(BalanceMode.RELAXED_DELETES);
+        for (int i = 0; i < 4096; i++) {
+            relaxed.insert(SeatAssignment.paddedSeat(i), i);
+        }
+        metrics.reset();
+
+        for (int i = 0; i < 4096; i += 8) {
+            relaxed.delete(SeatAssignment.paddedSeat(i));
+        }
+        assertEquals(0, metrics.getRotations(), "Relaxed deletes should not rotate.");
+        assertEquals(0, metrics.getDeleteFixups());
+        assertTrue(metrics.getRelaxedDeletes() > 0, "Some deletes should have left a path short of black nodes.");
+        assertEquals(0, metrics.getRebuiltNodes(), "Fewer relaxed deletes than a quarter of the nodes should not rebuild.");
+        assertTrue(relaxed.validateRedBlackTree(), "Paths may be short of black nodes, but nothing else may break.");
+        assertEquals(3584, relaxed.getSize());
+        assertNull(relaxed.getValue(SeatAssignment.paddedSeat(8)));
+        assertEquals(9, relaxed.getValue(SeatAssignment.paddedSeat(9)));
+        RedBlackTree<Integer> upper = relaxed.split(SeatAssignment.paddedSeat(2000)); // Rebuilds first
+        assertTrue(relaxed.validateRedBlackTree() && upper.validateRedBlackTree());
+        relaxed.join(upper);
+        assertEquals(3584, relaxed.getSize());
+        metrics.reset();
+
+        for (int i = 1; i < 4096; i++) {
+            if (i % 16 != 1) relaxed.delete(SeatAssignment.paddedSeat(i));
+        }
+        assertTrue(metrics.getRebuiltNodes() > 0, "Once relaxed deletes outnumber a quarter of the nodes, the tree should be rebuilt.");
+        assertEquals(256, relaxed.getSize());
+        assertTrue(relaxed.validateRedBlackTree());
+
+        relaxed.setBalanceMode(BalanceMode.STRICT);
+        assertTrue(relaxed.validateRedBlackTree());
+        assertTrue(relaxed.getMaxHeight() <= 2 * 9, "A strict tree of 256 nodes has black height at most 9.");
+    }
+
+    /* ------------------ Finger Search Tests ------------------ */
+
+    @Test
+    public void testFingerSearchesMatchRootSearches() {
+        RedBlackTree<Integer> weighted = new RedBlackTree<>() {
+            @Override
+            protected int weight(Integer value) {
+                return value;
+            }
+        };
+        RedBlackTree<Integer>.Finger finger = weighted.newFinger();
+        java.util.Random random = new java.util.Random(3);
+        for (int step = 0; step < 20_000; step++) {
+            String key = String.format("k%05d", random.nextInt(5_000));
+            if (random.nextInt(3) == 0) weighted.delete(key, finger);
+            else weighted.insert(key, random.nextInt(1_000), finger);
+
+            String probe = String.format("k%05d", random.nextInt(5_100));
+            int minWeight = random.nextInt(1_001);
+            assertEquals(weighted.getValue(probe), weighted.getValue(probe, finger), "getValue of " + probe);
+            assertEquals(weighted.floorWithWeight(probe, minWeight), weighted.floorWithWeight(probe, minWeight, finger), "floor of " + probe);
+            assertEquals(weighted.higherWithWeight(probe, minWeight), weighted.higherWithWeight(probe, minWeight, finger), "higher of " + probe);
+        }
+        assertTrue(weighted.validateRedBlackTree());
+    }
+
+    @Test
+    public void testFingerShortensNearbySearches() {
+        insertNumbered(1000);
+        RedBlackTree<Integer>.Finger finger = tree.newFinger();
+        int total = 0;
+        int fromRoot = 0;
+        for (int i = 0; i < 1000; i++) {
+            assertEquals(i, tree.getValue(String.format("k%03d", i), finger));
+            total += finger.getPathLength();
+            fromRoot += tree.getDepth(String.format("k%03d", i));
+        }
+        assertTrue(total < 5 * 1000, "Visiting keys in order should cost O(1) amortized, took " + total + " steps.");
+        assertTrue(2 * total < fromRoot, total + " steps from the finger against " + fromRoot + " from the root.");
+
+        tree.delete("k500", finger);
+        assertEquals(501, tree.getValue("k501", finger), "The finger should survive deleting its node.");
+        tree.insert("k500", 500, finger);
+        assertEquals(500, tree.getValue("k500", finger));
+    }
+
+    @Test
+    public void testFingerAfterSplitAndFromAnotherTree() {
+        insertNumbered(100);
+        RedBlackTree<Integer>.Finger finger = tree.newFinger();
+        assertEquals(90, tree.getValue("k090", finger));
+        RedBlackTree<Integer> upper = tree.split("k050");
+        assertNull(tree.getValue("k090", finger), "After a split the finger should not lead into the other tree.");
+        assertEquals(10, tree.getValue("k010", finger));
+        assertThrows(IllegalArgumentException.class, () -> upper.getValue("k090", finger));
+    }
+
+    private int height(RedBlackTree<Integer>.Node node) {
+        return node == null ? 0 : 1 + Math.max(height(node.left), height(node.right));
+    }
 }
@@ -0,0 +1,121 @@
+package edu.hsutx;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Random;
+
+import org.junit.jupiter.api.Test;
+
+/**
+ * Runs a ReplicationPrimary and SeatReplicas on this machine and checks that the replicas end up identical
+ * to the primary, including after the primary fails and a replica is promoted.
+ */
+public class ReplicationTest {
+
+    @Test
+    public void testReplicaMatchesPrimaryAfterFailover() throws Exception {
+        Random random = new Random(3);
+        CowboySeatTree primaryTree = new CowboySeatTree();
+        primaryTree.addUnassignedSeats(1, 200_000);
+        List<String> booked = new ArrayList<>();
+        book(primaryTree, booked, random, 500); // Reaches the replica through the snapshot
+
+        SeatReplica early;
+        SeatReplica late = null;
+        try (ReplicationPrimary primary = new ReplicationPrimary(primaryTree, 0)) {
+            early = SeatReplica.connect("localhost", primary.getPort());
+            awaitReplicas(primary, 1);
+
+            for (int i = 0; i < 20; i++) {
+                book(primaryTree, booked, random, 100);
+                cancel(primaryTree, booked, random, 60);
+                if (i == 10) {
+                    late = SeatReplica.connect("localhost", primary.getPort());
+                    awaitReplicas(primary, 2);
+                }
+                primary.poll();
+            }
+
+            long published = primaryTree.getEvents().getPublishedCount();
+            assertTrue(early.awaitSequence(published, 10_000), "The replica should catch up with the primary.");
+            assertTrue(late.awaitSequence(published, 10_000), "A replica that joined midway should catch up too.");
+            assertEquals(contents(primaryTree), early.read(ReplicationTest::contents), "The replica should match while connected.");
+            assertEquals(contents(primaryTree), late.read(ReplicationTest::contents), "The late replica should match as well.");
+        } // Closing the primary stands in for a crash
+
+        CowboySeatTree promoted = early.promote();
+        assertFalse(early.isConnected());
+        late.close();
+        assertEquals(contents(primaryTree), contents(promoted), "The promoted replica should hold the same blocks in the same order.");
+        assertTrue(promoted.validateRedBlackTree(), "The promoted replica should be a valid red-black tree.");
+        assertEquals(primaryTree.getUnassignedBlockCount(), promoted.getUnassignedBlockCount(), "Its indexes should be rebuilt too.");
+
+        // The new primary keeps taking bookings and cancellations
+        String owner = booked.get(0);
+        assertEquals(primaryTree.findReservation(owner).getKey(), promoted.findReservation(owner).getKey());
+        assertNotNull(promoted.release(owner, true));
+        assertNotNull(promoted.allocate("after-failover", 10, 1, AllocationPolicy.NEAREST));
+        assertTrue(promoted.validateRedBlackTree());
+    }
+
+    @Test
+    public void testLateReplicaStartsFromSnapshot() throws Exception {
+        CowboySeatTree primaryTree = new CowboySeatTree();
+        primaryTree.addUnassignedSeats(1, 10_000);
+        List<String> booked = new ArrayList<>();
+        Random random = new Random(5);
+
+        try (ReplicationPrimary primary = new ReplicationPrimary(primaryTree, 0)) {
+            book(primaryTree, booked, random, 200);
+            cancel(primaryTree, booked, random, 50);
+
+            SeatReplica replica = SeatReplica.connect("localhost", primary.getPort());
+            awaitReplicas(primary, 1);
+            book(primaryTree, booked, random, 20);
+
+            assertTrue(replica.awaitSequence(primaryTree.getEvents().getPublishedCount(), 10_000));
+            assertEquals(contents(primaryTree), replica.read(ReplicationTest::contents));
+            replica.close();
+        }
+    }
+
+    /**
+     * Services the primary until the given number of replicas have been handed their snapshots.
+     */
+    private static void awaitReplicas(ReplicationPrimary primary, int replicas) throws InterruptedException {
+        long deadline = System.currentTimeMillis() + 10_000;
+        while (primary.getReplicaCount() < replicas) {
+            assertTrue(System.currentTimeMillis() < deadline, "Replica did not connect in time.");
+            primary.poll();
+            Thread.sleep(5);
+        }
+    }
+
+    private static int nextParty = 0;
+
+    private static void book(CowboySeatTree tree, List<String> booked, Random random, int parties) {
+        for (int i = 0; i < parties; i++) {
+            String owner = "party" + nextParty++; // Owners must be unique: the owner index holds one reservation each
+            if (tree.allocate(owner, 1 + random.nextInt(12), 1 + random.nextInt(200_000), AllocationPolicy.NEAREST) != null) {
+                booked.add(owner);
+            }
+        }
+    }
+
+    private static void cancel(CowboySeatTree tree, List<String> booked, Random random, int parties) {
+        for (int i = 0; i < parties && booked.size() > 1; i++) {
+            String owner = booked.remove(1 + random.nextInt(booked.size() - 1)); // Party 0 stays for the failover check
+            tree.release(owner, random.nextBoolean());
+        }
+    }
+
+    private static List<String> contents(CowboySeatTree tree) {
+        List<String> blocks = new ArrayList<>();
+        for (SeatAssignment block : tree.range(null, true, null, true)) {
+            blocks.add(block.getKey() + ":" + block.getOwner());
+        }
+        return blocks;
+    }
+}
@@ -0,0 +1,82 @@
+package edu.hsutx;
+
+import java.util.Random;
+
+/**
+ * Measures findReservation with and without the owner cache on a skewed workload: owners are looked up with
+ * Zipf-distributed popularity, the most recently booked being the most popular, and one lookup in a hundred is
+ * a cancel-and-rebook that invalidates the owner's entry.
+ * Run with: gradle benchmark -Pbench=ReservationCacheBenchmark [-Pargs="owners lookups zipfExponent"]
+ */
+public class ReservationCacheBenchmark {
+
+    public static void main(String[] args) {
+        int owners = args.length > 0 ? Integer.parseInt(args[0]) : 200_000;
+        int lookups = args.length > 1 ? Integer.parseInt(args[1]) : 2_000_000;
+        double exponent = args.length > 2 ? Double.parseDouble(args[2]) : 1.0;
+
+        int[] ranks = zipfSample(owners, lookups, exponent, new Random(11));
+        String[] names = new String[owners];
+        for (int i = 0; i < owners; i++) {
+            names[i] = "owner" + i;
+        }
+        System.out.printf("%d owners, %d lookups, zipf s=%.2f%n", owners, lookups, exponent);
+        System.out.printf("%10s %14s %10s%n", "capacity", "lookups/s", "hit rate");
+
+        long sink = 0;
+        for (int capacity : new int[] { 0, 1024, 4096, 16384 }) {
+            CowboySeatTree tree = new CowboySeatTree(capacity);
+            tree.addUnassignedSeats(1, SeatBitmap.STADIUM_SEATS);
+            for (int i = 0; i < owners; i++) {
+                tree.allocate(names[i], 1 + i % 4, 1, AllocationPolicy.FIRST_FIT);
+            }
+
+            for (int round = 0; round < 3; round++) { // The first rounds warm up the JIT
+                tree.getReservationCache().resetStats();
+                long start = System.nanoTime();
+                for (int i = 0; i < lookups; i++) {
+                    String owner = names[owners - 1 - ranks[i]]; // Rank 0 is the latest booking
+                    if (i % 100 == 99) {
+                        SeatAssignment released = tree.release(owner);
+                        if (released != null) tree.allocate(owner, released.getSeatQuantity(), 1, AllocationPolicy.FIRST_FIT);
+                    } else {
+                        SeatAssignment reservation = tree.findReservation(owner);
+                        sink += reservation == null ? -1 : reservation.getSeatStartIndex();
+                    }
+                }
+                long nanos = System.nanoTime() - start;
+                if (round == 2) {
+                    System.out.printf("%10d %14.0f %10.3f%n", capacity, lookups * 1e9 / nanos,
+                            tree.getReservationCache().getHitRate());
+                }
+            }
+        }
+        System.out.println("(checksum " + sink + ")");
+    }
+
+    /**
+     * Draws ranks in [0, n) with probability proportional to 1 / (rank + 1)^exponent.
+     */
+    private static int[] zipfSample(int n, int samples, double exponent, Random random) {
+        double[] cumulative = new double[n];
+        double total = 0;
+        for (int i = 0; i < n; i++) {
+            total += 1 / Math.pow(i + 1, exponent);
+            cumulative[i] = total;
+        }
+
+        int[] ranks = new int[samples];
+        for (int s = 0; s < samples; s++) {
+            double target = random.nextDouble() * total;
+            int lo = 0;
+            int hi = n - 1;
+            while (lo < hi) {
+                int mid = (lo + hi) >>> 1;
+                if (cumulative[mid] < target) lo = mid + 1;
+                else hi = mid;
+            }
+            ranks[s] = lo;
+        }
+        return ranks;
+    }
+}
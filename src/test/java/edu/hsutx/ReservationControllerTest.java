@@ -0,0 +1,136 @@
+package edu.hsutx;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Random;
+
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.Timeout;
+
+/**
+ * Unit tests for the ReservationController class, run without a view.
+ */
+public class ReservationControllerTest {
+
+    @Test
+    public void testPipelineMatchesSequentialProcessing() throws IOException {
+        Random random = new Random(9);
+        List<String> lines = new ArrayList<>();
+        for (int i = 0; i < 5000; i++) {
+            if (i > 0 && random.nextInt(4) == 0) {
+                lines.add("d,fan" + random.nextInt(i) + ",,"); // Some of these were already deleted
+            } else {
+                lines.add("a,fan" + i + "," + (1 + random.nextInt(12)) + "," + random.nextInt(101));
+            }
+        }
+        Path csv = Files.createTempFile("reservations", ".csv");
+        Files.write(csv, lines);
+
+        CowboySeatTree sequentialTree = newStadium();
+        ReservationController sequential = new ReservationController(sequentialTree, null);
+        sequential.processCSV(csv.toString());
+
+        CowboySeatTree pipelinedTree = newStadium();
+        ReservationController pipelined = new ReservationController(pipelinedTree, null);
+        pipelined.processCSVPipelined(csv.toString());
+        Files.delete(csv);
+
+        assertEquals(contents(sequentialTree), contents(pipelinedTree), "Both modes should leave the same seat tree.");
+        assertEquals(sequential.getSeatMap().getTakenCount(), pipelined.getSeatMap().getTakenCount(),
+                "The output stage should have applied every seat change.");
+        assertTrue(pipelined.getSeatMap().getTakenCount() > 0);
+        assertTrue(pipelinedTree.validateRedBlackTree());
+    }
+
+    @Test
+    public void testPipelineStopsAtMalformedRow() throws IOException {
+        Path csv = Files.createTempFile("reservations", ".csv");
+        Files.write(csv, List.of("a,alice,4,50", "a,bob,2,10", "not a row", "a,carol,3,90"));
+        CowboySeatTree tree = newStadium();
+        ReservationController controller = new ReservationController(tree, null);
+
+        assertThrows(IllegalArgumentException.class, () -> controller.processCSVPipelined(csv.toString()));
+        Files.delete(csv);
+        assertNotNull(tree.findReservation("bob"), "Rows before the malformed one should be processed.");
+        assertNull(tree.findReservation("carol"), "Rows after the malformed one should not.");
+        assertEquals(6, controller.getSeatMap().getTakenCount());
+    }
+
+    @Test
+    @Timeout(30)
+    public void testPipelineFailsWhenOutputStageDies() throws IOException {
+        Path csv = Files.createTempFile("reservations", ".csv");
+        List<String> rows = new ArrayList<>();
+        for (int i = 0; i < 40 * 256; i++) { // Far more batches than the queues hold
+            rows.add("a,fan" + i + ",1,50");
+        }
+        Files.write(csv, rows);
+        CowboySeatTree tree = new CowboySeatTree();
+        tree.addUnassignedSeats(SeatBitmap.STADIUM_SEATS + 1, SeatBitmap.STADIUM_SEATS + 100); // Seats the bitmap cannot mark
+        ReservationController controller = new ReservationController(tree, null);
+
+        assertThrows(IndexOutOfBoundsException.class, () -> controller.processCSVPipelined(csv.toString()),
+                "The output stage's failure should reach the caller instead of leaving it waiting.");
+        Files.delete(csv);
+        assertNull(tree.findReservation("fan" + (rows.size() - 1)), "Rows should stop once a stage has failed.");
+    }
+
+    @Test
+    public void testRejectsRowsWithoutSeats() throws IOException {
+        Path csv = Files.createTempFile("reservations", ".csv");
+        Files.write(csv, List.of("a,zero,0,50", "a,negative,-3,50", "a,blank,,50", "a,alice,2,50"));
+        CowboySeatTree tree = newStadium();
+        ReservationController controller = new ReservationController(tree, null);
+
+        controller.processCSV(csv.toString());
+        Files.delete(csv);
+        assertNull(tree.findReservation("zero"));
+        assertNull(tree.findReservation("negative"));
+        assertNull(tree.findReservation("blank"));
+        assertNotNull(tree.findReservation("alice"), "Rows after a rejected one should still be processed.");
+        assertEquals(2, controller.getSeatMap().getTakenCount());
+        assertEquals(SeatBitmap.STADIUM_SEATS, seats(tree), "No seats should be invented.");
+    }
+
+    @Test
+    public void testEmptyReservationPublishesNothing() throws IOException {
+        Path csv = Files.createTempFile("reservations", ".csv");
+        Files.write(csv, List.of("d,ghost,0,0", "a,alice,2,50"));
+        CowboySeatTree tree = newStadium();
+        SeatAssignment ghost = new SeatAssignment("ghost", 0, 500); // Only a direct insert can make one
+        tree.insert(ghost.getKey(), ghost);
+        ReservationController controller = new ReservationController(tree, null);
+        SeatEventStream.Subscription changes = tree.getEvents().subscribe();
+
+        controller.processCSV(csv.toString());
+        Files.delete(csv);
+        assertNull(tree.findReservation("ghost"));
+        assertEquals(SeatEvent.Type.SPLIT, changes.poll().getType(), "Releasing the empty block should not be published.");
+        assertEquals(2, controller.getSeatMap().getTakenCount());
+    }
+
+    private static int seats(CowboySeatTree tree) {
+        int seats = 0;
+        for (SeatAssignment block : tree.range(null, true, null, true)) seats += block.getSeatQuantity();
+        return seats;
+    }
+
+    private static CowboySeatTree newStadium() {
+        CowboySeatTree tree = new CowboySeatTree();
+        tree.addUnassignedSeats(1, SeatBitmap.STADIUM_SEATS);
+        return tree;
+    }
+
+    private static List<String> contents(CowboySeatTree tree) {
+        List<String> blocks = new ArrayList<>();
+        for (SeatAssignment block : tree.range(null, true, null, true)) {
+            blocks.add(block.getKey() + ":" + block.getOwner());
+        }
+        return blocks;
+    }
+}
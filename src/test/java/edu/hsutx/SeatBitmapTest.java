@@ -0,0 +1,104 @@
+package edu.hsutx;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+import java.util.Random;
+
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+
+/**
+ * Unit tests for the SeatBitmap class.
+ */
+public class SeatBitmapTest {
+
+    private SeatBitmap seats;
+
+    @BeforeEach
+    public void setUp() {
+        seats = new SeatBitmap(1000);
+    }
+
+    @Test
+    public void testNewBitmapIsFree() {
+        assertEquals(0, seats.getTakenCount(), "New bitmap should have no taken seats.");
+        assertFalse(seats.isTaken(1));
+        assertFalse(seats.isTaken(1000));
+        assertEquals(1, seats.findFreeRun(1000), "The whole stadium should be one free run.");
+        assertEquals(-1, seats.findFreeRun(1001), "No run can be longer than the stadium.");
+    }
+
+    @Test
+    public void testMarkTakenAndFree() {
+        seats.markTaken(60, 10); // Crosses the first word boundary
+
+        assertTrue(seats.isTaken(60));
+        assertTrue(seats.isTaken(69));
+        assertFalse(seats.isTaken(59));
+        assertFalse(seats.isTaken(70));
+        assertEquals(10, seats.getTakenCount());
+
+        seats.markFree(62, 3);
+        assertFalse(seats.isTaken(63));
+        assertEquals(7, seats.getTakenCount(), "Freeing seats should lower the taken count.");
+
+        seats.markTaken(60, 10);
+        assertEquals(10, seats.getTakenCount(), "Marking taken seats again should not double count.");
+    }
+
+    @Test
+    public void testCountTaken() {
+        seats.markTaken(60, 10);
+        seats.markTaken(200, 130); // Spans three words
+
+        assertEquals(140, seats.countTaken(1, 1000));
+        assertEquals(130, seats.countTaken(200, 130));
+        assertEquals(5, seats.countTaken(65, 100), "Only the seats inside the block should count.");
+        assertEquals(0, seats.countTaken(70, 130));
+        assertEquals(1, seats.countTaken(329, 1));
+    }
+
+    @Test
+    public void testFindFreeRun() {
+        seats.markTaken(1, 100);
+        seats.markTaken(105, 200);
+        seats.markTaken(320, 681);
+
+        assertEquals(101, seats.findFreeRun(4), "A run of four fits in the first gap.");
+        assertEquals(305, seats.findFreeRun(5), "A run of five only fits in the second gap.");
+        assertEquals(305, seats.findFreeRun(15));
+        assertEquals(-1, seats.findFreeRun(16), "No gap holds sixteen seats.");
+        assertEquals(305, seats.findFreeRun(4, 102), "Search should not count free seats before the starting seat.");
+        assertEquals(102, seats.findFreeRun(3, 102), "A run may begin exactly at the starting seat.");
+    }
+
+    @Test
+    public void testOutOfRangeThrows() {
+        assertThrows(IndexOutOfBoundsException.class, () -> seats.isTaken(0));
+        assertThrows(IndexOutOfBoundsException.class, () -> seats.markTaken(990, 20));
+    }
+
+    @Test
+    public void testFindFreeRunMatchesSeatBySeatScan() {
+        Random random = new Random(42);
+        boolean[] expected = new boolean[1001];
+        for (int i = 0; i < 300; i++) {
+            int start = 1 + random.nextInt(1000);
+            int length = 1 + random.nextInt(Math.min(40, 1001 - start));
+            boolean take = random.nextBoolean();
+            if (take) seats.markTaken(start, length);
+            else seats.markFree(start, length);
+            for (int s = start; s < start + length; s++) expected[s] = take;
+        }
+
+        for (int length = 1; length <= 64; length++) {
+            int want = -1;
+            int run = 0;
+            for (int s = 1; s <= 1000 && want == -1; s++) {
+                run = expected[s] ? 0 : run + 1;
+                if (run == length) want = s - length + 1;
+            }
+            assertEquals(want, seats.findFreeRun(length), "Run of " + length + " should match a plain scan.");
+        }
+    }
+}
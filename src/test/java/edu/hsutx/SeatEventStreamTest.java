@@ -0,0 +1,80 @@
+package edu.hsutx;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+
+/**
+ * Unit tests for the SeatEventStream class.
+ */
+public class SeatEventStreamTest {
+
+    private SeatEventStream stream;
+
+    @BeforeEach
+    public void setUp() {
+        stream = new SeatEventStream(8);
+    }
+
+    @Test
+    public void testSubscribersReadIndependently() {
+        SeatEventStream.Subscription early = stream.subscribe();
+        stream.publish(SeatEvent.Type.ALLOCATED, "alice", 1, 4);
+        SeatEventStream.Subscription late = stream.subscribe();
+        stream.publish(SeatEvent.Type.RELEASED, "alice", 1, 4);
+
+        assertEquals("alice", early.poll().getOwner());
+        assertEquals(SeatEvent.Type.RELEASED, early.poll().getType());
+        assertNull(early.poll(), "A caught-up reader should get nothing.");
+
+        assertEquals(1, late.poll().getSequence(), "A subscription should only see events published after it.");
+        assertNull(late.poll());
+    }
+
+    @Test
+    public void testSlowReaderSkipsOverwrittenEvents() {
+        SeatEventStream.Subscription reader = stream.subscribe();
+        for (int i = 0; i < 20; i++) {
+            stream.publish(SeatEvent.Type.ALLOCATED, "p" + i, i + 1, 1);
+        }
+
+        assertEquals(20, reader.getLag());
+        assertEquals(12, reader.poll().getSequence(), "The reader should resume at the oldest event still held.");
+        assertEquals(12, reader.getMissed());
+        assertEquals(7, reader.drain(event -> { }));
+        assertEquals(0, reader.getLag());
+    }
+
+    @Test
+    public void testConcurrentReaderSeesOrderedEvents() throws InterruptedException {
+        SeatEventStream ring = new SeatEventStream(1024);
+        SeatEventStream.Subscription reader = ring.subscribe();
+        int total = 500_000;
+        Thread writer = new Thread(() -> {
+            for (int i = 0; i < total; i++) {
+                ring.publish(SeatEvent.Type.ALLOCATED, null, i, 1);
+            }
+        });
+        writer.start();
+
+        long received = 0;
+        long last = -1;
+        while (writer.isAlive() || reader.getLag() > 0) {
+            SeatEvent event = reader.poll();
+            if (event == null) continue;
+            assertTrue(event.getSequence() > last, "Events must arrive in order.");
+            assertEquals(event.getSequence(), event.getSeatStart(), "An event must not be torn.");
+            last = event.getSequence();
+            received++;
+        }
+        writer.join();
+
+        assertEquals(total, received + reader.getMissed(), "Every event is either read or counted as missed.");
+    }
+
+    @Test
+    public void testCapacityMustBePowerOfTwo() {
+        assertThrows(IllegalArgumentException.class, () -> new SeatEventStream(100));
+    }
+}
@@ -0,0 +1,121 @@
+package edu.hsutx;
+
+import java.io.BufferedOutputStream;
+import java.io.BufferedWriter;
+import java.io.DataOutputStream;
+import java.io.IOException;
+import java.lang.management.ManagementFactory;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.Random;
+
+/**
+ * Measures SeatExporter writing a sold-out stadium, where parties of 1 to 8 have booked every seat and every
+ * tenth party is still a hold. It is compared with the stream-based way of writing the same bytes: a
+ * BufferedWriter fed with getOwner() and string concatenation for CSV, and a DataOutputStream over a
+ * BufferedOutputStream for binary, as ReplicationPrimary writes its snapshots.
+ * Reports blocks and megabytes per second and the heap allocated per export by the exporting thread.
+ * The file goes to the temporary directory and mostly stays in the page cache, so the figures show the cost
+ * of encoding and handing bytes to the kernel rather than disk speed.
+ * Run with: gradle benchmark -Pbench=SeatExportBenchmark [-Pargs="seed"]
+ */
+public class SeatExportBenchmark {
+
+    public static void main(String[] args) throws IOException {
+        long seed = args.length > 0 ? Long.parseLong(args[0]) : 5;
+        CowboySeatTree tree = soldOutStadium(seed);
+        Path file = Files.createTempFile("seats", ".export");
+        System.out.printf("Sold out: %d blocks, %d seats%n", tree.getSize(), SeatBitmap.STADIUM_SEATS);
+        System.out.printf("%-18s %8s %10s %12s %10s %14s%n", "method", "MB", "ms", "blocks/s", "MB/s", "allocated KB");
+
+        SeatExporter exporter = new SeatExporter();
+        for (int round = 0; round < 5; round++) { // The first rounds warm up the JIT
+            for (int method = 0; method < 4; method++) {
+                long allocatedBefore = allocatedBytes();
+                long start = System.nanoTime();
+                long bytes;
+                switch (method) {
+                    case 0: bytes = exporter.export(tree, file, SeatExporter.Format.CSV); break;
+                    case 1: bytes = streamCsv(tree, file); break;
+                    case 2: bytes = exporter.export(tree, file, SeatExporter.Format.BINARY); break;
+                    default: bytes = streamBinary(tree, file); break;
+                }
+                long nanos = System.nanoTime() - start;
+                long allocated = allocatedBytes() - allocatedBefore;
+                if (round == 4) {
+                    String name = new String[] { "csv channel", "csv writer", "binary channel", "binary stream" }[method];
+                    System.out.printf("%-18s %8.1f %10.1f %12.0f %10.1f %14s%n", name, bytes / 1e6, nanos / 1e6,
+                            tree.getSize() * 1e9 / nanos, bytes * 1e3 / nanos, allocated < 0 ? "n/a" : String.valueOf(allocated / 1024));
+                }
+            }
+        }
+        Files.delete(file);
+    }
+
+    /**
+     * Books every seat in order with parties of 1 to 8, holding every tenth party.
+     */
+    private static CowboySeatTree soldOutStadium(long seed) {
+        CowboySeatTree tree = new CowboySeatTree();
+        tree.addUnassignedSeats(1, SeatBitmap.STADIUM_SEATS);
+        Random random = new Random(seed);
+        int parties = 0;
+        for (int seat = 1; seat <= SeatBitmap.STADIUM_SEATS; parties++) {
+            int size = Math.min(1 + random.nextInt(8), SeatBitmap.STADIUM_SEATS - seat + 1);
+            if (parties % 10 == 0) {
+                tree.hold("fan" + parties, size, seat, AllocationPolicy.FIRST_FIT, 0, 600_000);
+            } else {
+                tree.allocate("fan" + parties, size, seat, AllocationPolicy.FIRST_FIT);
+            }
+            seat += size;
+        }
+        return tree;
+    }
+
+    /**
+     * Writes the CSV format through a BufferedWriter, one String per line.
+     */
+    private static long streamCsv(CowboySeatTree tree, Path file) throws IOException {
+        try (BufferedWriter out = Files.newBufferedWriter(file, StandardCharsets.UTF_8)) {
+            out.write(SeatExporter.CSV_HEADER);
+            for (SeatAssignment block : tree.range(null, true, null, true)) {
+                String owner = block.getOwner() == null ? "" : block.getOwner();
+                if (owner.contains(",") || owner.contains("\"")) owner = "\"" + owner.replace("\"", "\"\"") + "\"";
+                out.write(block.getSeatStartIndex() + "," + block.getSeatQuantity() + "," + owner + ","
+                        + (block.isHeld() ? String.valueOf(block.getHoldExpiry()) : "") + "\n");
+            }
+        }
+        return Files.size(file);
+    }
+
+    /**
+     * Writes the binary format through a DataOutputStream.
+     */
+    private static long streamBinary(CowboySeatTree tree, Path file) throws IOException {
+        try (DataOutputStream out = new DataOutputStream(new BufferedOutputStream(Files.newOutputStream(file), 1 << 16))) {
+            out.writeInt(SeatExporter.BINARY_MAGIC);
+            out.writeShort(SeatExporter.BINARY_VERSION);
+            out.writeInt(tree.getSize());
+            for (SeatAssignment block : tree.range(null, true, null, true)) {
+                out.writeByte((block.isUnassigned() ? 0 : SeatExporter.OWNED) | (block.isHeld() ? SeatExporter.HELD : 0));
+                out.writeInt(block.getSeatQuantity());
+                out.writeInt(block.getSeatStartIndex());
+                if (block.isHeld()) out.writeLong(block.getHoldExpiry());
+                if (!block.isUnassigned()) out.writeUTF(block.getOwner());
+            }
+        }
+        return Files.size(file);
+    }
+
+    /**
+     * Gets the bytes allocated by this thread so far, or -1 if the JVM does not count them.
+     */
+    private static long allocatedBytes() {
+        java.lang.management.ThreadMXBean threads = ManagementFactory.getThreadMXBean();
+        if (threads instanceof com.sun.management.ThreadMXBean) {
+            return ((com.sun.management.ThreadMXBean) threads).getThreadAllocatedBytes(Thread.currentThread().getId());
+        }
+        return -1;
+    }
+}
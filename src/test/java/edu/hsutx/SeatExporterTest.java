@@ -0,0 +1,98 @@
+package edu.hsutx;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+import java.io.BufferedInputStream;
+import java.io.DataInputStream;
+import java.io.EOFException;
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.List;
+
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+
+/**
+ * Unit tests for the SeatExporter class.
+ */
+public class SeatExporterTest {
+
+    private Path file;
+    private CowboySeatTree tree;
+
+    @BeforeEach
+    public void setUp() throws IOException {
+        file = Files.createTempFile("seats", ".export");
+        tree = new CowboySeatTree();
+        tree.addUnassignedSeats(1, 100);
+        tree.allocate("alice", 4, 1, AllocationPolicy.FIRST_FIT);
+        tree.allocate("Zo\u00eb \"Z\", Jr", 2, 10, AllocationPolicy.NEAREST); // Needs quoting and two-byte UTF-8
+        tree.hold("fan \uD83C\uDF9F", 3, 50, AllocationPolicy.NEAREST, 1_000, 5_000); // A surrogate pair
+        for (int i = 0; i < 40; i++) {
+            tree.allocate("bulk" + i, 1, 60 + i, AllocationPolicy.NEAREST);
+        }
+    }
+
+    @AfterEach
+    public void tearDown() throws IOException {
+        Files.deleteIfExists(file);
+    }
+
+    @Test
+    public void testCsvMatchesTreeInKeyOrder() throws IOException {
+        // The smallest buffer, so most lines are split across writes
+        long bytes = new SeatExporter(SeatExporter.MIN_BUFFER_BYTES).export(tree, file, SeatExporter.Format.CSV);
+
+        List<String> expected = new ArrayList<>();
+        expected.add(SeatExporter.CSV_HEADER.trim());
+        for (SeatAssignment block : tree.range(null, true, null, true)) {
+            String owner = block.getOwner() == null ? "" : block.getOwner();
+            if (owner.contains(",") || owner.contains("\"")) owner = "\"" + owner.replace("\"", "\"\"") + "\"";
+            expected.add(block.getSeatStartIndex() + "," + block.getSeatQuantity() + "," + owner + ","
+                    + (block.isHeld() ? String.valueOf(block.getHoldExpiry()) : ""));
+        }
+        assertEquals(expected, Files.readAllLines(file, StandardCharsets.UTF_8));
+        assertTrue(expected.contains("9,2,\"Zo\u00eb \"\"Z\"\", Jr\","), "Owners with commas or quotes should be quoted.");
+        assertTrue(expected.contains("49,3,fan \uD83C\uDF9F,6000"), "Holds should carry their expiry.");
+        assertEquals(Files.size(file), bytes);
+    }
+
+    @Test
+    public void testBinaryReadsBackWithDataInputStream() throws IOException {
+        SeatExporter exporter = new SeatExporter(SeatExporter.MIN_BUFFER_BYTES);
+        long bytes = exporter.export(tree, file, SeatExporter.Format.BINARY);
+        assertEquals(Files.size(file), bytes);
+
+        try (DataInputStream in = new DataInputStream(new BufferedInputStream(Files.newInputStream(file)))) {
+            assertEquals(SeatExporter.BINARY_MAGIC, in.readInt());
+            assertEquals(SeatExporter.BINARY_VERSION, in.readShort());
+            assertEquals(tree.getSize(), in.readInt());
+            for (SeatAssignment block : tree.range(null, true, null, true)) {
+                int flags = in.readByte();
+                assertEquals(!block.isUnassigned(), (flags & SeatExporter.OWNED) != 0);
+                assertEquals(block.isHeld(), (flags & SeatExporter.HELD) != 0);
+                assertEquals(block.getSeatQuantity(), in.readInt());
+                assertEquals(block.getSeatStartIndex(), in.readInt());
+                if (block.isHeld()) assertEquals(block.getHoldExpiry(), in.readLong());
+                if (!block.isUnassigned()) assertEquals(block.getOwner(), in.readUTF());
+            }
+            assertThrows(EOFException.class, in::readByte);
+        }
+    }
+
+    @Test
+    public void testExporterIsReusable() throws IOException {
+        SeatExporter exporter = new SeatExporter();
+        exporter.export(tree, file, SeatExporter.Format.CSV);
+        byte[] first = Files.readAllBytes(file);
+        exporter.export(tree, file, SeatExporter.Format.BINARY); // Replaces the longer CSV file
+        exporter.export(tree, file, SeatExporter.Format.CSV);
+        assertArrayEquals(first, Files.readAllBytes(file));
+
+        assertThrows(IllegalArgumentException.class, () -> new SeatExporter(SeatExporter.MIN_BUFFER_BYTES - 1));
+    }
+}
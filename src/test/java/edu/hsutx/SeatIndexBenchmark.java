@@ -0,0 +1,59 @@
+package edu.hsutx;
+
+import java.util.Random;
+
+/**
+ * Compares finding room for a party in the SeatBitmap against getUnassignedBlockOverThreshold on the tree,
+ * on a fragmented stadium of alternating reserved and free blocks.
+ * Run with: gradle benchmark -Pbench=SeatIndexBenchmark
+ */
+public class SeatIndexBenchmark {
+    private static final int LOOKUPS = 20_000;
+
+    public static void main(String[] args) {
+        Random random = new Random(7);
+        CowboySeatTree tree = new CowboySeatTree();
+        SeatBitmap seatMap = new SeatBitmap();
+
+        // Alternate reserved parties of 1-8 seats with free gaps of 1-12 seats
+        int seat = 1;
+        int party = 0;
+        while (seat <= SeatBitmap.STADIUM_SEATS) {
+            int reserved = Math.min(1 + random.nextInt(8), SeatBitmap.STADIUM_SEATS - seat + 1);
+            tree.insert(new SeatAssignment("party" + party++, reserved, seat));
+            seatMap.markTaken(seat, reserved);
+            seat += reserved;
+            if (seat > SeatBitmap.STADIUM_SEATS) break;
+
+            int free = Math.min(1 + random.nextInt(12), SeatBitmap.STADIUM_SEATS - seat + 1);
+            tree.insert(new SeatAssignment(free, seat));
+            seat += free;
+        }
+        System.out.printf("%d blocks, %d seats taken%n", tree.getSize(), seatMap.getTakenCount());
+        System.out.printf("%6s %16s %16s%n", "party", "bitmap ns/op", "tree ns/op");
+
+        int[] partySizes = { 1, 4, 8, 12 };
+        long sink = 0;
+        for (int round = 0; round < 3; round++) {
+            for (int size : partySizes) {
+                long start = System.nanoTime();
+                for (int i = 0; i < LOOKUPS; i++) {
+                    sink += seatMap.findFreeRun(size);
+                }
+                long bitmapNanos = System.nanoTime() - start;
+
+                start = System.nanoTime();
+                for (int i = 0; i < LOOKUPS; i++) {
+                    SeatAssignment block = tree.getUnassignedBlockOverThreshold(size);
+                    sink += block == null ? -1 : block.getSeatStartIndex();
+                }
+                long treeNanos = System.nanoTime() - start;
+
+                if (round == 2) {
+                    System.out.printf("%6d %16.1f %16.1f%n", size, (double) bitmapNanos / LOOKUPS, (double) treeNanos / LOOKUPS);
+                }
+            }
+        }
+        System.out.println("(checksum " + sink + ")");
+    }
+}
@@ -0,0 +1,62 @@
+package edu.hsutx;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Random;
+
+/**
+ * Compares placing a batch of parties one at a time with CowboySeatTree.allocate against SpeculativeAllocator
+ * with different worker counts and snapshot intervals, reporting throughput and how often proposals committed,
+ * conflicted or fell back to the writer.
+ * Run with: gradle benchmark -Pbench=SpeculativeAllocationBenchmark [-Pargs=parties]
+ */
+public class SpeculativeAllocationBenchmark {
+
+    public static void main(String[] args) throws InterruptedException {
+        int parties = args.length > 0 ? Integer.parseInt(args[0]) : 150_000;
+        Random random = new Random(23);
+        List<ReservationRequest> requests = new ArrayList<>(parties);
+        for (int i = 0; i < parties; i++) {
+            requests.add(new ReservationRequest('a', "fan" + i, 1 + random.nextInt(8), random.nextInt(101)));
+        }
+
+        System.out.printf("%d parties, %d processors%n", parties, Runtime.getRuntime().availableProcessors());
+        System.out.printf("%-8s %8s %10s %12s %10s %10s %10s%n",
+                "workers", "interval", "snapshots", "parties/s", "commit%", "retries", "fallback%");
+
+        for (int round = 0; round < 2; round++) { // The first round warms up the JIT
+            CowboySeatTree tree = newStadium();
+            long start = System.nanoTime();
+            for (ReservationRequest request : requests) {
+                tree.allocate(request.getName(), request.getSeats(), request.getDesiredSeat(SeatBitmap.STADIUM_SEATS),
+                        AllocationPolicy.NEAREST);
+            }
+            long nanos = System.nanoTime() - start;
+            if (round == 1) {
+                System.out.printf("%-8s %8s %10s %12.0f%n", "serial", "-", "-", parties / (nanos / 1e9));
+            }
+
+            for (int workers : new int[] { 1, 2, 4 }) {
+                for (int interval : new int[] { 64, 1024 }) {
+                    tree = newStadium();
+                    SpeculativeAllocator allocator = new SpeculativeAllocator(tree, workers, interval);
+                    start = System.nanoTime();
+                    allocator.allocateAll(requests, SeatBitmap.STADIUM_SEATS);
+                    nanos = System.nanoTime() - start;
+                    if (round == 1) {
+                        System.out.printf("%-8d %8d %10d %12.0f %9.2f%% %10d %9.2f%%%n", workers, interval,
+                                allocator.getSnapshots(), parties / (nanos / 1e9),
+                                100.0 * allocator.getCommits() / parties, allocator.getConflicts(),
+                                100.0 * allocator.getFallbacks() / parties);
+                    }
+                }
+            }
+        }
+    }
+
+    private static CowboySeatTree newStadium() {
+        CowboySeatTree tree = new CowboySeatTree();
+        tree.addUnassignedSeats(1, SeatBitmap.STADIUM_SEATS);
+        return tree;
+    }
+}
@@ -0,0 +1,91 @@
+package edu.hsutx;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Random;
+
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.Timeout;
+
+/**
+ * Unit tests for the SpeculativeAllocator class.
+ */
+public class SpeculativeAllocatorTest {
+
+    @Test
+    public void testSnapshotFindsNearestBlock() {
+        List<SeatAssignment> free = List.of(new SeatAssignment(10, 1), new SeatAssignment(4, 31),
+                new SeatAssignment(50, 51), new SeatAssignment(5, 201));
+        SpeculativeAllocator.FreeSpaceSnapshot snapshot = new SpeculativeAllocator.FreeSpaceSnapshot(free);
+
+        assertEquals(31, snapshot.nearest(33, 4).getSeatStartIndex(), "A block containing the seat is nearest.");
+        assertEquals(51, snapshot.nearest(33, 5).getSeatStartIndex(), "Blocks that are too small are skipped.");
+        assertEquals(1, snapshot.nearest(25, 6).getSeatStartIndex(), "Ties between sides go to the earlier block.");
+        assertEquals(51, snapshot.nearest(500, 11).getSeatStartIndex());
+        assertNull(snapshot.nearest(100, 51));
+        assertNull(new SpeculativeAllocator.FreeSpaceSnapshot(List.of()).nearest(1, 1));
+    }
+
+    @Test
+    public void testParallelAllocationPlacesEveryPartyOnce() throws InterruptedException {
+        Random random = new Random(17);
+        CowboySeatTree tree = new CowboySeatTree();
+        tree.addUnassignedSeats(1, 100_000);
+        List<ReservationRequest> requests = new ArrayList<>();
+        for (int i = 0; i < 20_000; i++) {
+            requests.add(new ReservationRequest('a', "fan" + i, 1 + random.nextInt(8), random.nextInt(5))); // Crowded
+        }
+
+        SpeculativeAllocator allocator = new SpeculativeAllocator(tree, 4, 32);
+        SeatAssignment[] results = allocator.allocateAll(requests, 100_000);
+
+        SeatBitmap seats = new SeatBitmap(100_000);
+        int placed = 0;
+        for (int i = 0; i < results.length; i++) {
+            if (results[i] == null) continue;
+            placed++;
+            assertEquals(requests.get(i).getSeats(), results[i].getSeatQuantity());
+            for (int seat = results[i].getSeatStartIndex(); seat < results[i].getSeatStartIndex() + results[i].getSeatQuantity(); seat++) {
+                assertFalse(seats.isTaken(seat), "Seat " + seat + " was given to two parties.");
+            }
+            seats.markTaken(results[i].getSeatStartIndex(), results[i].getSeatQuantity());
+            assertSame(results[i], tree.findReservation(requests.get(i).getName()));
+        }
+        assertTrue(placed > 0);
+        assertEquals(requests.size(), allocator.getCommits() + allocator.getFallbacks(), "Each request completes exactly once.");
+        assertTrue(allocator.getConflicts() > 0, "Crowding every party into the same few seats should conflict.");
+        assertTrue(tree.validateRedBlackTree());
+    }
+
+    @Test
+    @Timeout(30)
+    public void testWorkerFailureReachesCaller() {
+        CowboySeatTree tree = new CowboySeatTree();
+        tree.addUnassignedSeats(1, 1000);
+        List<ReservationRequest> requests = new ArrayList<>();
+        for (int i = 0; i < 100; i++) {
+            requests.add(new ReservationRequest('a', "fan" + i, 2, 50));
+        }
+        requests.set(60, new ReservationRequest('a', "broken", 2, 50) {
+            @Override
+            public int getDesiredSeat(int capacity) {
+                throw new IllegalStateException("No seat for " + getName());
+            }
+        });
+
+        SpeculativeAllocator allocator = new SpeculativeAllocator(tree, 2, 8);
+        IllegalStateException e = assertThrows(IllegalStateException.class, () -> allocator.allocateAll(requests, 1000),
+                "A worker's failure should reach the caller instead of leaving the writer waiting.");
+        assertEquals("No seat for broken", e.getMessage());
+        assertTrue(tree.validateRedBlackTree());
+    }
+
+    @Test
+    public void testRejectsDeletes() {
+        SpeculativeAllocator allocator = new SpeculativeAllocator(new CowboySeatTree(), 1, 1);
+        assertThrows(IllegalArgumentException.class,
+                () -> allocator.allocateAll(List.of(new ReservationRequest('d', "x", 0, 0)), 100));
+    }
+}
@@ -0,0 +1,99 @@
+package edu.hsutx;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+import java.awt.image.BufferedImage;
+import java.util.ArrayDeque;
+import java.util.Queue;
+
+import org.junit.jupiter.api.Test;
+
+/**
+ * Unit tests for the StadiumTileCache class.
+ */
+public class StadiumTileCacheTest {
+
+    @Test
+    public void testRendersShareOfSeatsTaken() {
+        SeatBitmap seats = new SeatBitmap(1000);
+        seats.markTaken(1, 100); // The whole first row of 100 seats
+        StadiumTileCache cache = new StadiumTileCache(seats, 100, 8, Runnable::run, Runnable::run);
+
+        BufferedImage seatLevel = cache.render(0, 0, 0);
+        assertEquals(StadiumTileCache.TAKEN_RGB, seatLevel.getRGB(0, 0) & 0xFFFFFF);
+        assertEquals(StadiumTileCache.FREE_RGB, seatLevel.getRGB(0, 1) & 0xFFFFFF);
+        assertEquals(StadiumTileCache.OUTSIDE_RGB, seatLevel.getRGB(100, 0) & 0xFFFFFF, "Past the end of a row");
+        assertEquals(StadiumTileCache.OUTSIDE_RGB, seatLevel.getRGB(0, 10) & 0xFFFFFF, "Past the last row");
+
+        int half = cache.render(1, 0, 0).getRGB(0, 0) & 0xFFFFFF; // Two seats of the first row, two of the second
+        assertEquals(((StadiumTileCache.FREE_RGB >> 16) + (StadiumTileCache.TAKEN_RGB >> 16)) / 2, half >> 16);
+        assertEquals(50, cache.getWidth(1));
+        assertEquals(5, cache.getHeight(1));
+    }
+
+    @Test
+    public void testInvalidateRedrawsOnlyTouchedTiles() {
+        SeatBitmap seats = new SeatBitmap();
+        Queue<Runnable> renders = new ArrayDeque<>();
+        int[] ready = {0};
+        StadiumTileCache cache = new StadiumTileCache(seats, StadiumTileCache.DEFAULT_ROW_SEATS, 64, renders::add, Runnable::run);
+
+        for (int tileY = 0; tileY < 4; tileY++) {
+            for (int tileX = 0; tileX < 4; tileX++) {
+                assertNull(cache.getTile(0, tileX, tileY, () -> ready[0]++), "Nothing is rendered before the render thread runs.");
+            }
+        }
+        assertNull(cache.getTile(0, 0, 0, () -> ready[0]++));
+        assertEquals(16, renders.size(), "A tile already queued should not be queued again.");
+        runAll(renders);
+        assertEquals(16, ready[0]);
+        BufferedImage before = cache.getTile(0, 0, 0, () -> ready[0]++);
+        assertNotNull(before);
+        assertTrue(renders.isEmpty(), "Fresh tiles should come from the cache.");
+
+        seats.markTaken(300, 10); // Row 0, columns 299 to 308, inside tile (1, 0)
+        cache.invalidate(300, 10);
+        assertSame(before, cache.getTile(0, 0, 0, () -> ready[0]++), "Tiles beside the change should stay fresh.");
+        assertTrue(renders.isEmpty());
+        BufferedImage stale = cache.getTile(0, 1, 0, () -> ready[0]++);
+        assertNotNull(stale, "A stale tile should still be shown while it is redrawn.");
+        assertEquals(1, renders.size());
+        runAll(renders);
+        BufferedImage fresh = cache.getTile(0, 1, 0, () -> ready[0]++);
+        assertNotSame(stale, fresh, "The redrawn tile should replace the stale one.");
+        assertEquals(StadiumTileCache.TAKEN_RGB, fresh.getRGB(299 - 256, 0) & 0xFFFFFF);
+        assertEquals(17, cache.getRenderCount());
+    }
+
+    @Test
+    public void testRenderFinishingAfterInvalidateIsDropped() {
+        SeatBitmap seats = new SeatBitmap();
+        Queue<Runnable> renders = new ArrayDeque<>();
+        StadiumTileCache cache = new StadiumTileCache(seats, StadiumTileCache.DEFAULT_ROW_SEATS, 64, renders::add, Runnable::run);
+
+        cache.getTile(2, 0, 0, () -> { });
+        cache.invalidate(500_000, 1); // Every level 2 seat lies in its one tile
+        runAll(renders);
+        assertEquals(0, cache.getCachedTileCount(), "A tile invalidated while rendering should not be kept.");
+        cache.getTile(2, 0, 0, () -> { });
+        runAll(renders);
+        assertEquals(1, cache.getCachedTileCount());
+    }
+
+    @Test
+    public void testKeepsOnlyCapacityTiles() {
+        StadiumTileCache cache = new StadiumTileCache(new SeatBitmap(), StadiumTileCache.DEFAULT_ROW_SEATS, 2, Runnable::run, Runnable::run);
+        cache.getTile(0, 0, 0, () -> { });
+        cache.getTile(0, 1, 0, () -> { });
+        cache.getTile(0, 0, 0, () -> { }); // Drawn again, so tile (1, 0) is the least recently used
+        cache.getTile(0, 2, 0, () -> { });
+        assertEquals(2, cache.getCachedTileCount());
+        assertNotNull(cache.getTile(0, 0, 0, () -> { }));
+        assertEquals(3, cache.getRenderCount());
+        assertNull(cache.getTile(0, 1, 0, () -> { }), "Tile (1, 0) should have been dropped.");
+    }
+
+    private static void runAll(Queue<Runnable> tasks) {
+        while (!tasks.isEmpty()) tasks.poll().run();
+    }
+}